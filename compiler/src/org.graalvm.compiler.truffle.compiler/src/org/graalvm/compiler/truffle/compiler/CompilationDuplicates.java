@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.compiler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.graph.NodeMap;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
+import org.graalvm.compiler.truffle.common.CompilableTruffleAST;
+import org.graalvm.compiler.truffle.common.TruffleCompilerRuntime;
+
+import jdk.vm.ci.meta.Assumptions;
+import jdk.vm.ci.meta.Assumptions.Assumption;
+import jdk.vm.ci.meta.Constant;
+import jdk.vm.ci.meta.JavaConstant;
+
+/**
+ * Process wide table of structural fingerprints of partially evaluated graphs. Used to detect
+ * compilations that produce the same graph as a compilation done before, typically because
+ * multiple engines in the same process load the same guest code.
+ *
+ * The fingerprint covers the node classes, their data, stamps and edges and the kinds of the
+ * assumptions a graph depends on. Object constants only contribute their stamp, as they differ
+ * between engines even for the same guest code. Graphs with equal fingerprints can therefore not
+ * share their installed code directly, but they identify compilation units that could be shared
+ * if constants were loaded relative to the compiled call target.
+ */
+final class CompilationDuplicates {
+
+    /**
+     * Bound on the number of distinct fingerprints remembered to avoid retaining an unbounded
+     * number of compilation names in long running processes.
+     */
+    private static final int MAX_FINGERPRINTS = 1 << 14;
+
+    private static final Map<Long, Entry> FINGERPRINTS = new ConcurrentHashMap<>();
+
+    private CompilationDuplicates() {
+    }
+
+    /**
+     * Records the fingerprint of a partially evaluated graph and logs a message if a structurally
+     * identical graph was compiled before.
+     */
+    static void record(CompilableTruffleAST compilable, StructuredGraph graph, boolean firstTier) {
+        long fingerprint = fingerprint(graph) * 31 + (firstTier ? 1 : 2);
+        Entry entry = FINGERPRINTS.get(fingerprint);
+        if (entry == null) {
+            if (FINGERPRINTS.size() >= MAX_FINGERPRINTS) {
+                return;
+            }
+            Entry newEntry = new Entry(compilable.toString());
+            entry = FINGERPRINTS.putIfAbsent(fingerprint, newEntry);
+            if (entry == null) {
+                return;
+            }
+        }
+        int duplicates = entry.duplicates.incrementAndGet();
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("Fingerprint", String.format("0x%016x", fingerprint));
+        properties.put("Nodes", graph.getNodeCount());
+        properties.put("Duplicates", duplicates);
+        properties.put("First", entry.firstCompilation);
+        TruffleCompilerRuntime.getRuntime().logEvent(0, "opt duplicate", compilable.toString(), properties);
+    }
+
+    static long fingerprint(StructuredGraph graph) {
+        NodeMap<Integer> order = new NodeMap<>(graph);
+        int index = 0;
+        for (Node node : graph.getNodes()) {
+            order.set(node, index++);
+        }
+        long hash = index;
+        for (Node node : graph.getNodes()) {
+            NodeClass<? extends Node> nodeClass = node.getNodeClass();
+            hash = mix(hash, nodeClass.getClazz().getName().hashCode());
+            if (node instanceof ConstantNode) {
+                hash = mix(hash, constantHash(((ConstantNode) node).getValue()));
+            } else if (node instanceof MethodCallTargetNode) {
+                hash = mix(hash, ((MethodCallTargetNode) node).targetMethod().format("%H.%n(%p)").hashCode());
+            } else if (nodeClass.valueNumberable()) {
+                hash = mix(hash, nodeClass.valueNumber(node));
+            }
+            if (node instanceof ValueNode) {
+                hash = mix(hash, ((ValueNode) node).stamp(NodeView.DEFAULT).toString().hashCode());
+            }
+            for (Node input : node.inputs()) {
+                hash = mix(hash, order.get(input));
+            }
+            for (Node successor : node.successors()) {
+                hash = mix(hash, order.get(successor));
+            }
+        }
+        Assumptions assumptions = graph.getAssumptions();
+        if (assumptions != null) {
+            for (Assumption assumption : assumptions) {
+                hash = mix(hash, assumption.getClass().getName().hashCode());
+            }
+        }
+        return hash;
+    }
+
+    private static int constantHash(Constant constant) {
+        if (constant instanceof JavaConstant) {
+            JavaConstant javaConstant = (JavaConstant) constant;
+            if (javaConstant.getJavaKind().isPrimitive()) {
+                return javaConstant.hashCode();
+            }
+            return javaConstant.isNull() ? 0 : 1;
+        }
+        return constant.getClass().getName().hashCode();
+    }
+
+    private static long mix(long hash, long value) {
+        return hash * 0x9E3779B97F4A7C15L + value;
+    }
+
+    private static final class Entry {
+
+        final String firstCompilation;
+        final AtomicInteger duplicates = new AtomicInteger();
+
+        Entry(String firstCompilation) {
+            this.firstCompilation = firstCompilation;
+        }
+    }
+}
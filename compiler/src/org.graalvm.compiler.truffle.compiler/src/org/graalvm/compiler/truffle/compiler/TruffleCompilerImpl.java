@@ -34,6 +34,7 @@ import static org.graalvm.compiler.phases.OptimisticOptimizations.Optimization.U
 import static org.graalvm.compiler.phases.OptimisticOptimizations.Optimization.UseTypeCheckedInlining;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationFailureAction;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.ExcludeAssertions;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceCompilationDuplicates;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
@@ -465,6 +466,9 @@ public abstract class TruffleCompilerImpl implements TruffleCompilerBase {
             if (listener != null) {
                 listener.onTruffleTierFinished(compilable, inliningPlan, new GraphInfoImpl(graph));
             }
+            if (TruffleCompilerOptions.getPolyglotOptionValue(options, TraceCompilationDuplicates)) {
+                CompilationDuplicates.record(compilable, graph, task != null && task.isFirstTier());
+            }
             // The Truffle compiler owns the last 2 characters of the compilation name, and uses
             // them to encode the compilation tier, so escaping the target name is not necessary.
             String compilationName = compilable.toString() + (task != null && task.isFirstTier() ? TruffleCompiler.FIRST_TIER_COMPILATION_SUFFIX : TruffleCompiler.SECOND_TIER_COMPILATION_SUFFIX);
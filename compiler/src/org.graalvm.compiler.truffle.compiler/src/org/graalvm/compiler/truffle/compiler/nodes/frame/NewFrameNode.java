@@ -86,6 +86,7 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
     private final boolean intrinsifyAccessors;
     private final JavaKind[] frameSlotKinds;
     private final int frameSize;
+    private final int numberOfIndexedSlots;
 
     private final SpeculationReason intrinsifyAccessorsSpeculation;
 
@@ -158,6 +159,7 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         JavaConstant slotArray = constantReflection.readFieldValue(types.fieldArrayListElementData, slotArrayList);
         final int slotsArrayLength = constantReflection.readArrayLength(slotArray);
         final int frameLength = constantReflection.readFieldValue(types.fieldFrameDescriptorSize, frameDescriptor).asInt();
+        this.numberOfIndexedSlots = constantReflection.readFieldValue(types.fieldFrameDescriptorNumberOfIndexedSlots, frameDescriptor).asInt();
 
         JavaKind[] frameSlotKindsCandidate = new JavaKind[frameLength];
         int limit = -1;
@@ -186,7 +188,8 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
             }
         }
         this.frameSlotKinds = frameSlotKindsCandidate;
-        this.frameSize = limit + 1;
+        // indexed slots precede the frame slots and have no kind
+        this.frameSize = Math.max(limit + 1, numberOfIndexedSlots);
 
         ResolvedJavaType frameType = types.classFrameClass;
         ResolvedJavaField[] frameFields = frameType.getInstanceFields(true);
@@ -228,6 +231,10 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         return index >= 0 && index < frameSize && frameSlotKinds[index] != null;
     }
 
+    public boolean isValidIndexedSlotIndex(int index) {
+        return index >= 0 && index < numberOfIndexedSlots;
+    }
+
     private static ResolvedJavaField findField(ResolvedJavaField[] fields, String fieldName) {
         for (ResolvedJavaField field : fields) {
             if (field.getName().equals(fieldName)) {
@@ -46,6 +46,7 @@ public class KnownTruffleTypes extends AbstractKnownTruffleTypes {
     public final ResolvedJavaField fieldFrameDescriptorMaterializeCalled = findField(classFrameDescriptor, "materializeCalled");
     public final ResolvedJavaField fieldFrameDescriptorSlots = findField(classFrameDescriptor, "slots");
     public final ResolvedJavaField fieldFrameDescriptorSize = findField(classFrameDescriptor, "size");
+    public final ResolvedJavaField fieldFrameDescriptorNumberOfIndexedSlots = findField(classFrameDescriptor, "numberOfIndexedSlots");
 
     public final ResolvedJavaField fieldArrayListElementData = findField(lookupType(ArrayList.class), "elementData");
 
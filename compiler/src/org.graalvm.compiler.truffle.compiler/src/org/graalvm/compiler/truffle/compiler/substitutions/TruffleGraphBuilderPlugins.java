@@ -457,12 +457,12 @@ public class TruffleGraphBuilderPlugins {
      * the setXxx methods have a high compile time cost.
      *
      * Intrinsification requires the following conditions: (1) the accessed frame is directly the
-     * {@link NewFrameNode}, (2) the accessed FrameSlot is a constant, and (3) the FrameDescriptor
-     * was never materialized before. All three conditions together guarantee that the escape
-     * analysis can virtualize the access. The condition (3) is necessary because a possible
-     * materialization of the frame can prevent escape analysis - so in that case a FrameState for
-     * setXxx methods is actually necessary since they stores can be state-changing memory
-     * operations.
+     * {@link NewFrameNode}, (2) the accessed FrameSlot or indexed slot is a constant, and (3) the
+     * FrameDescriptor was never materialized before. All three conditions together guarantee that
+     * the escape analysis can virtualize the access. The condition (3) is necessary because a
+     * possible materialization of the frame can prevent escape analysis - so in that case a
+     * FrameState for setXxx methods is actually necessary since they stores can be state-changing
+     * memory operations.
      *
      * Note that we do not register an intrinsification for {@code FrameWithoutBoxing.getValue()}.
      * It is a complicated method to intrinsify, and it is not used frequently enough to justify the
@@ -508,6 +508,58 @@ public class TruffleGraphBuilderPlugins {
                 return false;
             }
         });
+
+        r.register2("get" + nameSuffix, Receiver.class, int.class, new InvocationPlugin() {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver frameNode, ValueNode indexNode) {
+                int frameSlotIndex = maybeGetConstantIndexedSlot(frameNode, indexNode);
+                if (frameSlotIndex >= 0) {
+                    b.addPush(accessKind, new VirtualFrameGetNode(frameNode, frameSlotIndex, accessKind, accessTag));
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        r.register3("set" + nameSuffix, Receiver.class, int.class, accessKind == JavaKind.Object ? Object.class : accessKind.toJavaClass(), new InvocationPlugin() {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver frameNode, ValueNode indexNode, ValueNode value) {
+                int frameSlotIndex = maybeGetConstantIndexedSlot(frameNode, indexNode);
+                if (frameSlotIndex >= 0) {
+                    b.add(new VirtualFrameSetNode(frameNode, frameSlotIndex, accessTag, value));
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        r.register2("is" + nameSuffix, Receiver.class, int.class, new InvocationPlugin() {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver frameNode, ValueNode indexNode) {
+                int frameSlotIndex = maybeGetConstantIndexedSlot(frameNode, indexNode);
+                if (frameSlotIndex >= 0) {
+                    b.addPush(JavaKind.Boolean, new VirtualFrameIsNode(frameNode, frameSlotIndex, accessTag));
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    static int maybeGetConstantIndexedSlot(Receiver frameNode, ValueNode indexNode) {
+        if (indexNode.isConstant()) {
+            ValueNode frameNodeValue = frameNode.get(false);
+            if (frameNodeValue instanceof NewFrameNode) {
+                NewFrameNode newFrameNode = (NewFrameNode) frameNodeValue;
+                if (newFrameNode.getIntrinsifyAccessors()) {
+                    int index = indexNode.asJavaConstant().asInt();
+                    if (newFrameNode.isValidIndexedSlotIndex(index)) {
+                        return index;
+                    }
+                }
+            }
+        }
+        return -1;
     }
 
     static int maybeGetConstantFrameSlotIndex(Receiver frameNode, ValueNode frameSlotNode, ConstantReflectionProvider constantReflection, KnownTruffleTypes types) {
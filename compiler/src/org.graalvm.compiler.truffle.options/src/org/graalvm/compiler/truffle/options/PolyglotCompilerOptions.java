@@ -217,6 +217,18 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Manually set the number of compiler threads", category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilerThreads = new OptionKey<>(0);
 
+    @Option(help = "Use a compilation queue that, when polled, selects the request with the highest recent call and loop count rate. OSR requests are preferred over other requests.",
+                    category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> TraversingCompilationQueue = new OptionKey<>(false);
+
+    @Option(help = "Time in milliseconds after which a queued compilation request whose call target was not executed is dropped from the traversing compilation queue (0 to disable).",
+                    category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> TraversingQueueStaleTimeout = new OptionKey<>(10000);
+
+    @Option(help = "Path of a file in which the engine records the call targets it compiled when it is closed. Call targets recorded by a previous engine are compiled at an eighth of the compilation thresholds.",
+                    category = OptionCategory.EXPERT)
+    public static final OptionKey<String> CompilationProfileCache = new OptionKey<>("");
+
     @Option(help = "Minimum number of invocations or loop iterations needed to compile a guest language root.",
                     category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilationThreshold = new OptionKey<>(1000);
@@ -294,6 +306,9 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Print information for splitting decisions.", category = OptionCategory.EXPERT)
     public static final OptionKey<Boolean> TraceSplitting = new OptionKey<>(false);
 
+    @Option(help = "Print a message for each compilation whose partially evaluated graph is structurally identical to one compiled before in this process, e.g. by another engine.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> TraceCompilationDuplicates = new OptionKey<>(false);
+
     @Option(help = "Print stack trace on assumption invalidation", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> TraceAssumptions = new OptionKey<>(false);
 
@@ -371,6 +386,12 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Should forced splits be allowed.", category = OptionCategory.EXPERT)
     public static final OptionKey<Boolean> SplittingAllowForcedSplits = new OptionKey<>(true);
 
+    @Option(help = "Split call targets that need splitting separately for each context that calls them, such that code shared between contexts is profiled per context.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> SplittingByContext = new OptionKey<>(false);
+
+    @Option(help = "Maximum number of live contexts a call site is split for when splitting by context.", category = OptionCategory.INTERNAL)
+    public static final OptionKey<Integer> SplittingByContextLimit = new OptionKey<>(4);
+
     // OSR
 
     @Option(help = "Enable automatic on-stack-replacement of loops.", category = OptionCategory.EXPERT)
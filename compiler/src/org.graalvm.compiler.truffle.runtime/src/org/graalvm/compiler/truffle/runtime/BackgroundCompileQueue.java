@@ -25,6 +25,7 @@
 package org.graalvm.compiler.truffle.runtime;
 
 import java.lang.ref.WeakReference;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
@@ -48,6 +49,13 @@ import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
  * (first-in-first-out).
  *
  * Note that all the compilation requests are second tier when the multi-tier option is turned off.
+ *
+ * If the {@link PolyglotCompilerOptions#TraversingCompilationQueue traversing compilation queue} is
+ * enabled, the queue is instead traversed every time a compiler thread polls it, and the request
+ * whose call target currently has the highest call and loop count rate is selected. OSR requests
+ * are selected before all other compilation requests, and requests whose call target was not
+ * executed for {@link PolyglotCompilerOptions#TraversingQueueStaleTimeout some time} are dropped.
+ * See {@link TraversingBlockingQueue}.
  */
 public class BackgroundCompileQueue {
 
@@ -84,12 +92,27 @@ public class BackgroundCompileQueue {
 
             ThreadFactory factory = newThreadFactory("TruffleCompilerThread", callTarget);
 
-            return compilationExecutorService = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
-                            new PriorityBlockingQueue<>(), factory) {
+            BlockingQueue<Runnable> queue;
+            if (callTarget.getOptionValue(PolyglotCompilerOptions.TraversingCompilationQueue)) {
+                long staleTimeout = TimeUnit.MILLISECONDS.toNanos(callTarget.getOptionValue(PolyglotCompilerOptions.TraversingQueueStaleTimeout));
+                queue = new TraversingBlockingQueue(staleTimeout);
+            } else {
+                queue = new PriorityBlockingQueue<>();
+            }
+
+            return compilationExecutorService = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, factory) {
                 @Override
                 protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
                     return new RequestFutureTask<>((RequestImpl<T>) callable);
                 }
+
+                @Override
+                protected void beforeExecute(Thread t, Runnable r) {
+                    super.beforeExecute(t, r);
+                    if (r instanceof RequestFutureTask<?>) {
+                        ((RequestFutureTask<?>) r).getRequest().notifyPolled(getQueue().size());
+                    }
+                }
             };
         }
     }
@@ -157,20 +180,127 @@ public class BackgroundCompileQueue {
 
     }
 
-    private static final class RequestImpl<V> implements Callable<V>, Comparable<RequestImpl<?>> {
+    static final class RequestImpl<V> implements Callable<V>, Comparable<RequestImpl<?>> {
+
+        /**
+         * Minimum time between two samples of the call and loop count used to compute the
+         * {@link #getRate() rate} of a request.
+         */
+        private static final long MIN_SAMPLE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
 
         private final long id;
         private final Priority priority;
-        private final TruffleCompilationTask task;
+        private final CancellableCompileTask task;
         private final WeakReference<OptimizedCallTarget> targetRef;
         private final Request request;
-
-        RequestImpl(long id, Priority priority, OptimizedCallTarget callTarget, TruffleCompilationTask task, Request request) {
+        private final boolean osr;
+        private final long queuedTime;
+
+        /*
+         * Hotness profile, only accessed by the compilation queue while holding its lock.
+         */
+        private int lastCount;
+        private long lastSampleTime;
+        private long lastActiveTime;
+        private double rate;
+
+        RequestImpl(long id, Priority priority, OptimizedCallTarget callTarget, CancellableCompileTask task, Request request) {
             this.id = id;
             this.priority = priority;
             this.targetRef = new WeakReference<>(callTarget);
             this.task = task;
             this.request = request;
+            this.osr = callTarget.getRootNode() instanceof OptimizedOSRLoopNode.OSRRootNode;
+            this.queuedTime = System.nanoTime();
+            this.lastCount = callTarget.getCallAndLoopCount();
+            this.lastSampleTime = queuedTime;
+            this.lastActiveTime = queuedTime;
+            long initializedTime = callTarget.getInitializedTimestamp();
+            if (initializedTime != 0 && queuedTime - initializedTime >= MIN_SAMPLE_INTERVAL) {
+                this.rate = lastCount / ((double) (queuedTime - initializedTime) / MIN_SAMPLE_INTERVAL);
+            } else {
+                this.rate = lastCount;
+            }
+        }
+
+        Priority getPriority() {
+            return priority;
+        }
+
+        boolean isOSR() {
+            return osr;
+        }
+
+        boolean isCancelled() {
+            return task.isCancelled();
+        }
+
+        OptimizedCallTarget getTarget() {
+            return targetRef.get();
+        }
+
+        /**
+         * Returns the call and loop count rate of the call target per millisecond, as of the last
+         * call to {@link #updateRate(long)}.
+         */
+        double getRate() {
+            return rate;
+        }
+
+        long getLastActiveTime() {
+            return lastActiveTime;
+        }
+
+        /**
+         * Samples the call and loop count of the call target and updates the rate with an
+         * exponentially decaying average, so that call targets that were hot once but are no
+         * longer executed are demoted.
+         *
+         * @return {@code false} if the call target was already collected
+         */
+        boolean updateRate(long now) {
+            OptimizedCallTarget target = targetRef.get();
+            if (target == null) {
+                return false;
+            }
+            long elapsed = now - lastSampleTime;
+            if (elapsed < MIN_SAMPLE_INTERVAL) {
+                return true;
+            }
+            int count = target.getCallAndLoopCount();
+            // The counts are reset on invalidation.
+            int delta = Math.max(0, count - lastCount);
+            if (delta > 0) {
+                lastActiveTime = now;
+            }
+            rate = (rate + delta / ((double) elapsed / MIN_SAMPLE_INTERVAL)) / 2;
+            lastCount = count;
+            lastSampleTime = now;
+            return true;
+        }
+
+        /**
+         * Cancels this request without compiling it. The request stays in the queue until it is
+         * polled, so that the call target resets its compilation task on a compiler thread.
+         */
+        boolean drop(Object source, CharSequence reason) {
+            if (task.cancel()) {
+                OptimizedCallTarget target = targetRef.get();
+                if (target != null) {
+                    GraalTruffleRuntimeListener listener = GraalTruffleRuntime.getRuntime().getListener();
+                    listener.onCompilationDequeued(target, source, reason);
+                    listener.onCompilationDropped(target, reason);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        void notifyPolled(int queueSize) {
+            OptimizedCallTarget target = targetRef.get();
+            if (target != null && !task.isCancelled()) {
+                GraalTruffleRuntime.getRuntime().getListener().onCompilationPolled(target, queueSize, System.nanoTime() - queuedTime);
+            }
         }
 
         @Override
@@ -195,7 +325,7 @@ public class BackgroundCompileQueue {
         }
     }
 
-    private static class RequestFutureTask<V> extends FutureTask<V> implements Comparable<RequestFutureTask<?>> {
+    static class RequestFutureTask<V> extends FutureTask<V> implements Comparable<RequestFutureTask<?>> {
         private final RequestImpl<V> request;
 
         RequestFutureTask(RequestImpl<V> callable) {
@@ -203,6 +333,10 @@ public class BackgroundCompileQueue {
             this.request = callable;
         }
 
+        RequestImpl<V> getRequest() {
+            return request;
+        }
+
         @Override
         public int compareTo(RequestFutureTask<?> that) {
             return this.request.compareTo(that.request);
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.CompilationResultInfo;
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.GraphInfo;
+import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
+
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Persists which call targets an engine compiled, so that engines created later with the same
+ * {@link PolyglotCompilerOptions#CompilationProfileCache} file compile them at a fraction of the
+ * compilation thresholds. Recorded call targets still run and profile in the interpreter before
+ * they are compiled, which keeps their first compilation from being based on empty profiles.
+ * <p>
+ * Only the identity of the call targets is stored, the compiled code itself is not. Call targets
+ * are identified by their root node class, their name, the location of their root node's source
+ * section and the hash code of its source, which covers the source content. Call targets without
+ * an available source section cannot be told apart reliably and are neither recorded nor matched. A
+ * recorded call target that no longer matches its previous behavior is deoptimized and re-profiled
+ * like any other compiled call target.
+ * <p>
+ * When an engine closes, the call targets it compiled are added to the file. Engines that share
+ * the file merge their call targets under a file lock, so that no engine drops the entries of
+ * another.
+ */
+public final class CompilationProfileCache {
+
+    /**
+     * The compilation thresholds of recorded call targets are the regular thresholds divided by
+     * this factor.
+     */
+    private static final int THRESHOLD_DIVISOR = 8;
+
+    private final Path path;
+    private final Set<String> previouslyCompiled;
+    private final Set<String> compiled = ConcurrentHashMap.newKeySet();
+    final int callThreshold;
+    final int callAndLoopThreshold;
+
+    private CompilationProfileCache(Path path, Set<String> previouslyCompiled, int callThreshold, int callAndLoopThreshold) {
+        this.path = path;
+        this.previouslyCompiled = previouslyCompiled;
+        this.callThreshold = lowerThreshold(callThreshold);
+        this.callAndLoopThreshold = lowerThreshold(callAndLoopThreshold);
+    }
+
+    /**
+     * Lowers a threshold, but keeps it at one or above so that a recorded call target runs at
+     * least once before it is compiled.
+     */
+    private static int lowerThreshold(int threshold) {
+        return Math.min(threshold, Math.max(1, threshold / THRESHOLD_DIVISOR));
+    }
+
+    public static void install(GraalTruffleRuntime runtime) {
+        runtime.addListener(new CompilationProfileCacheDispatcher(runtime));
+    }
+
+    static CompilationProfileCache create(String fileName, int callThreshold, int callAndLoopThreshold) {
+        Path path = Paths.get(fileName);
+        Set<String> previouslyCompiled;
+        try {
+            previouslyCompiled = new HashSet<>(Files.readAllLines(path, StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            previouslyCompiled = Collections.emptySet();
+        } catch (IOException e) {
+            GraalTruffleRuntime.getRuntime().log(String.format("WARNING: Could not read the compilation profile cache '%s': %s", path, e.getMessage()));
+            previouslyCompiled = Collections.emptySet();
+        }
+        return new CompilationProfileCache(path, previouslyCompiled, callThreshold, callAndLoopThreshold);
+    }
+
+    /**
+     * Returns {@code true} if a call target with the same identity as {@code target} was compiled
+     * by the engine that last wrote the cache file.
+     */
+    boolean wasCompiled(OptimizedCallTarget target) {
+        if (previouslyCompiled.isEmpty()) {
+            return false;
+        }
+        String key = key(target);
+        return key != null && previouslyCompiled.contains(key);
+    }
+
+    private void onCompilationSuccess(OptimizedCallTarget target) {
+        String key = key(target);
+        if (key != null) {
+            compiled.add(key);
+        }
+    }
+
+    private void onEngineClosed() {
+        Path parent = path.toAbsolutePath().getParent();
+        Path lockPath = parent.resolve(path.getFileName().toString() + ".lock");
+        try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                        FileLock lock = lockChannel.lock()) {
+            // Another engine may have written the file since this engine read it.
+            Set<String> merged = new HashSet<>(previouslyCompiled);
+            try {
+                merged.addAll(Files.readAllLines(path, StandardCharsets.UTF_8));
+            } catch (NoSuchFileException e) {
+                // Nothing to merge.
+            }
+            merged.addAll(compiled);
+            List<String> lines = new ArrayList<>(merged);
+            Collections.sort(lines);
+            Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            // Engines reading the file must never observe a partially written profile.
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            GraalTruffleRuntime.getRuntime().log(String.format("WARNING: Could not write the compilation profile cache '%s': %s", path, e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the identity of {@code target}, or {@code null} if it has no available source
+     * section.
+     */
+    static String key(OptimizedCallTarget target) {
+        RootNode rootNode = target.getRootNode();
+        SourceSection section = rootNode.getSourceSection();
+        if (section == null || !section.isAvailable()) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(rootNode.getClass().getName());
+        key.append(' ').append(target.getName());
+        Source source = section.getSource();
+        key.append(" <").append(source.getName()).append(':').append(section.getCharIndex()).append('+').append(section.getCharLength());
+        // The source caches its hash code, which includes the content, its name and its path.
+        key.append('#').append(Integer.toHexString(source.hashCode())).append('>');
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '\n' || c == '\r') {
+                key.setCharAt(i, ' ');
+            }
+        }
+        return key.toString();
+    }
+
+    private static final class CompilationProfileCacheDispatcher extends AbstractGraalTruffleRuntimeListener {
+
+        private CompilationProfileCacheDispatcher(GraalTruffleRuntime runtime) {
+            super(runtime);
+        }
+
+        @Override
+        public void onCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, GraphInfo graph, CompilationResultInfo result) {
+            CompilationProfileCache cache = target.engine.compilationProfileCache;
+            if (cache != null) {
+                cache.onCompilationSuccess(target);
+            }
+        }
+
+        @Override
+        public void onEngineClosed(EngineData runtimeData) {
+            CompilationProfileCache cache = runtimeData.compilationProfileCache;
+            if (cache != null) {
+                cache.onEngineClosed();
+            }
+        }
+    }
+}
@@ -47,6 +47,8 @@ import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Profi
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.ReturnTypeSpeculation;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Splitting;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.SplittingAllowForcedSplits;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.SplittingByContext;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.SplittingByContextLimit;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.SplittingDumpDecisions;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.SplittingGrowthLimit;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.SplittingMaxCalleeSize;
@@ -60,6 +62,9 @@ import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Trace
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceTransferToInterpreter;
 import static org.graalvm.compiler.truffle.runtime.TruffleRuntimeOptions.getPolyglotOptionValue;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
@@ -93,6 +98,12 @@ public final class EngineData {
     @CompilationFinal OptionValues engineOptions;
     final TruffleSplittingStrategy.SplitStatisticsReporter reporter;
     @CompilationFinal public StatisticsListener statisticsListener;
+    @CompilationFinal public CompilationProfileCache compilationProfileCache;
+    /*
+     * Call sites with splits for individual contexts. Weak, such that unreachable call sites are
+     * not retained.
+     */
+    private final Set<OptimizedDirectCallNode> contextSplitCallNodes = Collections.newSetFromMap(new WeakHashMap<>());
 
     /*
      * Important while visible, options must not be modified except in loadOptions.
@@ -100,6 +111,8 @@ public final class EngineData {
     // splitting options
     @CompilationFinal public boolean splitting;
     @CompilationFinal public boolean splittingAllowForcedSplits;
+    @CompilationFinal public boolean splittingByContext;
+    @CompilationFinal public int splittingByContextLimit;
     @CompilationFinal public boolean splittingDumpDecisions;
     @CompilationFinal public boolean splittingTraceEvents;
     @CompilationFinal public boolean traceSplittingSummary;
@@ -141,6 +154,33 @@ public final class EngineData {
         this.reporter = new TruffleSplittingStrategy.SplitStatisticsReporter(this);
     }
 
+    void registerContextSplit(OptimizedDirectCallNode callNode) {
+        synchronized (contextSplitCallNodes) {
+            contextSplitCallNodes.add(callNode);
+        }
+    }
+
+    /**
+     * Drops the splits of a closed context. The split call targets may reference objects of the
+     * context, so they would otherwise keep the context alive.
+     */
+    void onContextClosed(Object context) {
+        OptimizedDirectCallNode[] callNodes;
+        synchronized (contextSplitCallNodes) {
+            if (contextSplitCallNodes.isEmpty()) {
+                return;
+            }
+            callNodes = contextSplitCallNodes.toArray(new OptimizedDirectCallNode[0]);
+        }
+        for (OptimizedDirectCallNode callNode : callNodes) {
+            if (!callNode.dropContextSplits(context)) {
+                synchronized (contextSplitCallNodes) {
+                    contextSplitCallNodes.remove(callNode);
+                }
+            }
+        }
+    }
+
     void loadOptions(OptionValues options) {
         this.engineOptions = options;
 
@@ -148,6 +188,8 @@ public final class EngineData {
         this.splitting = getPolyglotOptionValue(options, Splitting) &&
                         getPolyglotOptionValue(options, Mode) != EngineModeEnum.LATENCY;
         this.splittingAllowForcedSplits = getPolyglotOptionValue(options, SplittingAllowForcedSplits);
+        this.splittingByContext = getPolyglotOptionValue(options, SplittingByContext);
+        this.splittingByContextLimit = getPolyglotOptionValue(options, SplittingByContextLimit);
         this.splittingDumpDecisions = getPolyglotOptionValue(options, SplittingDumpDecisions);
         this.splittingMaxCalleeSize = getPolyglotOptionValue(options, SplittingMaxCalleeSize);
         this.splittingMaxPropagationDepth = getPolyglotOptionValue(options, SplittingMaxPropagationDepth);
@@ -178,6 +220,8 @@ public final class EngineData {
         this.callTargetStatisticDetails = getPolyglotOptionValue(options, CompilationStatisticDetails);
         this.callTargetStatistics = getPolyglotOptionValue(options, CompilationStatistics) || this.callTargetStatisticDetails;
         this.statisticsListener = this.callTargetStatistics ? StatisticsListener.createEngineListener(GraalTruffleRuntime.getRuntime()) : null;
+        String compilationProfileCacheFile = getPolyglotOptionValue(options, PolyglotCompilerOptions.CompilationProfileCache);
+        this.compilationProfileCache = compilationProfileCacheFile.isEmpty() ? null : CompilationProfileCache.create(compilationProfileCacheFile, firstTierCallThreshold, firstTierCallAndLoopThreshold);
         this.profilingEnabled = getPolyglotOptionValue(options, Profiling);
         this.traceTransferToInterpreter = getPolyglotOptionValue(options, TraceTransferToInterpreter);
         this.compilationFailureAction = computeCompilationFailureAction(options);
@@ -156,6 +156,20 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         unsafePutObject(getLocals(), Unsafe.ARRAY_OBJECT_BASE_OFFSET + slotIndex * (long) Unsafe.ARRAY_OBJECT_INDEX_SCALE, value, slot);
     }
 
+    @Override
+    public Object getObject(int slot) throws FrameSlotTypeException {
+        checkIndexedSlot(slot);
+        boolean condition = verifyGet(slot, OBJECT_TAG);
+        return getObjectUnsafe(slot, null, condition);
+    }
+
+    @Override
+    public void setObject(int slot, Object value) {
+        checkIndexedSlot(slot);
+        verifySet(slot, OBJECT_TAG);
+        setObjectUnsafe(slot, null, value);
+    }
+
     @Override
     public byte getByte(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
@@ -180,6 +194,20 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         unsafePutInt(getPrimitiveLocals(), offset, value, slot);
     }
 
+    @Override
+    public byte getByte(int slot) throws FrameSlotTypeException {
+        checkIndexedSlot(slot);
+        boolean condition = verifyGet(slot, BYTE_TAG);
+        return getByteUnsafe(slot, null, condition);
+    }
+
+    @Override
+    public void setByte(int slot, byte value) {
+        checkIndexedSlot(slot);
+        verifySet(slot, BYTE_TAG);
+        setByteUnsafe(slot, null, value);
+    }
+
     @Override
     public boolean getBoolean(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
@@ -204,6 +232,20 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         unsafePutInt(getPrimitiveLocals(), offset, value ? 1 : 0, slot);
     }
 
+    @Override
+    public boolean getBoolean(int slot) throws FrameSlotTypeException {
+        checkIndexedSlot(slot);
+        boolean condition = verifyGet(slot, BOOLEAN_TAG);
+        return getBooleanUnsafe(slot, null, condition);
+    }
+
+    @Override
+    public void setBoolean(int slot, boolean value) {
+        checkIndexedSlot(slot);
+        verifySet(slot, BOOLEAN_TAG);
+        setBooleanUnsafe(slot, null, value);
+    }
+
     @Override
     public float getFloat(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
@@ -228,6 +270,20 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         unsafePutFloat(getPrimitiveLocals(), offset, value, slot);
     }
 
+    @Override
+    public float getFloat(int slot) throws FrameSlotTypeException {
+        checkIndexedSlot(slot);
+        boolean condition = verifyGet(slot, FLOAT_TAG);
+        return getFloatUnsafe(slot, null, condition);
+    }
+
+    @Override
+    public void setFloat(int slot, float value) {
+        checkIndexedSlot(slot);
+        verifySet(slot, FLOAT_TAG);
+        setFloatUnsafe(slot, null, value);
+    }
+
     @Override
     public long getLong(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
@@ -252,6 +308,20 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         unsafePutLong(getPrimitiveLocals(), offset, value, slot);
     }
 
+    @Override
+    public long getLong(int slot) throws FrameSlotTypeException {
+        checkIndexedSlot(slot);
+        boolean condition = verifyGet(slot, LONG_TAG);
+        return getLongUnsafe(slot, null, condition);
+    }
+
+    @Override
+    public void setLong(int slot, long value) {
+        checkIndexedSlot(slot);
+        verifySet(slot, LONG_TAG);
+        setLongUnsafe(slot, null, value);
+    }
+
     @Override
     public int getInt(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
@@ -276,6 +346,20 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         unsafePutInt(getPrimitiveLocals(), offset, value, slot);
     }
 
+    @Override
+    public int getInt(int slot) throws FrameSlotTypeException {
+        checkIndexedSlot(slot);
+        boolean condition = verifyGet(slot, INT_TAG);
+        return getIntUnsafe(slot, null, condition);
+    }
+
+    @Override
+    public void setInt(int slot, int value) {
+        checkIndexedSlot(slot);
+        verifySet(slot, INT_TAG);
+        setIntUnsafe(slot, null, value);
+    }
+
     @Override
     public double getDouble(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
@@ -300,6 +384,20 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         unsafePutDouble(getPrimitiveLocals(), offset, value, slot);
     }
 
+    @Override
+    public double getDouble(int slot) throws FrameSlotTypeException {
+        checkIndexedSlot(slot);
+        boolean condition = verifyGet(slot, DOUBLE_TAG);
+        return getDoubleUnsafe(slot, null, condition);
+    }
+
+    @Override
+    public void setDouble(int slot, double value) {
+        checkIndexedSlot(slot);
+        verifySet(slot, DOUBLE_TAG);
+        setDoubleUnsafe(slot, null, value);
+    }
+
     @Override
     public FrameDescriptor getFrameDescriptor() {
         return unsafeCast(descriptor, FrameDescriptor.class, true, true, false);
@@ -328,13 +426,29 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         }
     }
 
+    private void checkIndexedSlot(int slot) {
+        if (slot < 0 || slot >= descriptor.getNumberOfIndexedSlots()) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalArgumentException(String.format("The indexed frame slot '%s' is not known by the frame descriptor.", slot));
+        }
+    }
+
     private static long getPrimitiveOffset(int slotIndex) {
         return Unsafe.ARRAY_LONG_BASE_OFFSET + slotIndex * (long) Unsafe.ARRAY_LONG_INDEX_SCALE;
     }
 
     @Override
     public Object getValue(FrameSlot slot) {
-        int slotIndex = getFrameSlotIndex(slot);
+        return getValue(getFrameSlotIndex(slot), slot);
+    }
+
+    @Override
+    public Object getValue(int slot) {
+        checkIndexedSlot(slot);
+        return getValue(slot, null);
+    }
+
+    private Object getValue(int slotIndex, FrameSlot slot) {
         if (CompilerDirectives.inInterpreter() && slotIndex >= getTags().length) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             resize();
@@ -384,7 +498,10 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     }
 
     byte getTag(FrameSlot slot) {
-        int slotIndex = getFrameSlotIndex(slot);
+        return getTag(getFrameSlotIndex(slot));
+    }
+
+    byte getTag(int slotIndex) {
         byte[] cachedTags = getTags();
         if (slotIndex < cachedTags.length) {
             return cachedTags[slotIndex];
@@ -430,6 +547,48 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         return getTag(slot) == DOUBLE_TAG;
     }
 
+    @Override
+    public boolean isObject(int slot) {
+        checkIndexedSlot(slot);
+        return getTag(slot) == OBJECT_TAG;
+    }
+
+    @Override
+    public boolean isByte(int slot) {
+        checkIndexedSlot(slot);
+        return getTag(slot) == BYTE_TAG;
+    }
+
+    @Override
+    public boolean isBoolean(int slot) {
+        checkIndexedSlot(slot);
+        return getTag(slot) == BOOLEAN_TAG;
+    }
+
+    @Override
+    public boolean isInt(int slot) {
+        checkIndexedSlot(slot);
+        return getTag(slot) == INT_TAG;
+    }
+
+    @Override
+    public boolean isLong(int slot) {
+        checkIndexedSlot(slot);
+        return getTag(slot) == LONG_TAG;
+    }
+
+    @Override
+    public boolean isFloat(int slot) {
+        checkIndexedSlot(slot);
+        return getTag(slot) == FLOAT_TAG;
+    }
+
+    @Override
+    public boolean isDouble(int slot) {
+        checkIndexedSlot(slot);
+        return getTag(slot) == DOUBLE_TAG;
+    }
+
     @SuppressWarnings({"unchecked", "unused"})
     private static <T> T unsafeCast(Object value, Class<T> type, boolean condition, boolean nonNull, boolean exact) {
         return (T) value;
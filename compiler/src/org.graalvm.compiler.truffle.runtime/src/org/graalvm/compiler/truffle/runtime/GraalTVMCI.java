@@ -183,6 +183,11 @@ final class GraalTVMCI extends TVMCI {
         GraalTruffleRuntime.getRuntime().onEngineClosed((EngineData) runtimeData);
     }
 
+    @Override
+    protected void onContextClosed(Object runtimeData, Object context) {
+        ((EngineData) runtimeData).onContextClosed(context);
+    }
+
     private static final GraalCastUnsafe CAST_UNSAFE = new GraalCastUnsafe();
 
     private static final class GraalCastUnsafe extends CastUnsafe {
@@ -406,6 +406,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         TraceInliningListener.install(this);
         TraceSplittingListener.install(this);
         StatisticsListener.install(this);
+        CompilationProfileCache.install(this);
         TraceASTCompilationListener.install(this);
         JFRListener.install(this);
         installShutdownHooks();
@@ -38,8 +38,8 @@ import com.oracle.truffle.api.nodes.Node;
  * {@link OptimizedCallTarget}. The states for a {@link OptimizedCallTarget} instance can be
  * described using the following deterministic automata: * <code>
  * <pre>
- * ( (split | (queue . unqueue))*
- *    . queue . started
+ * ( (split | (queue . unqueue . [dropped]))*
+ *    . queue . [polled] . started
  *    . (truffleTierFinished . graalTierFinished . success)
  *      | ([truffleTierFinished] . [graalTierFinished] . failed)
  *    . invalidate )*
@@ -92,6 +92,29 @@ public interface GraalTruffleRuntimeListener {
     default void onCompilationDequeued(OptimizedCallTarget target, Object source, CharSequence reason) {
     }
 
+    /**
+     * Notifies this object after the compilation queue dropped the compilation request of
+     * {@code target} without compiling it, for example because {@code target} was no longer
+     * executed while it was waiting in the queue. This event follows the corresponding
+     * {@link #onCompilationDequeued} event.
+     *
+     * @param target the call target whose compilation request was dropped
+     * @param reason a textual description of the reason why the compilation request was dropped
+     */
+    default void onCompilationDropped(OptimizedCallTarget target, CharSequence reason) {
+    }
+
+    /**
+     * Notifies this object when a compiler thread took the compilation request of {@code target}
+     * from the compilation queue and is about to execute it.
+     *
+     * @param target the call target whose compilation request was taken from the queue
+     * @param queueSize the number of compilation requests remaining in the queue
+     * @param waitTime the time in nanoseconds the compilation request spent in the queue
+     */
+    default void onCompilationPolled(OptimizedCallTarget target, int queueSize, long waitTime) {
+    }
+
     /**
      * Notifies this object when compilation of {@code target} is about to start.
      *
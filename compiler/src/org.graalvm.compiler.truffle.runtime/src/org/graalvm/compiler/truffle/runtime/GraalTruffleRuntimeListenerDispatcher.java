@@ -75,6 +75,20 @@ final class GraalTruffleRuntimeListenerDispatcher extends CopyOnWriteArrayList<G
         }
     }
 
+    @Override
+    public void onCompilationDropped(OptimizedCallTarget target, CharSequence reason) {
+        for (GraalTruffleRuntimeListener l : this) {
+            l.onCompilationDropped(target, reason);
+        }
+    }
+
+    @Override
+    public void onCompilationPolled(OptimizedCallTarget target, int queueSize, long waitTime) {
+        for (GraalTruffleRuntimeListener l : this) {
+            l.onCompilationPolled(target, queueSize, waitTime);
+        }
+    }
+
     @Override
     public void onCompilationFailed(OptimizedCallTarget target, String reason, boolean bailout, boolean permanent) {
         for (GraalTruffleRuntimeListener l : this) {
@@ -111,6 +111,11 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
      * after boot image generation.
      */
     private int callAndLoopCount;
+    /**
+     * Whether this call target was compiled by the engine that last wrote the
+     * {@link CompilationProfileCache}, in which case the lower thresholds of the cache apply.
+     */
+    private boolean compiledByPreviousEngine;
 
     /*
      * Updating profiling information and its Assumption objects is done without synchronization and
@@ -437,9 +442,16 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         int intAndLoopCallCount = callAndLoopCount;
         this.callAndLoopCount = intAndLoopCallCount == Integer.MAX_VALUE ? intAndLoopCallCount : ++intAndLoopCallCount;
 
+        int callThreshold = engine.firstTierCallThreshold;
+        int callAndLoopThreshold = engine.firstTierCallAndLoopThreshold;
+        if (compiledByPreviousEngine) {
+            callThreshold = engine.compilationProfileCache.callThreshold;
+            callAndLoopThreshold = engine.compilationProfileCache.callAndLoopThreshold;
+        }
+
         // Check if call target is hot enough to compile
-        if (intCallCount >= engine.firstTierCallThreshold //
-                        && intAndLoopCallCount >= engine.firstTierCallAndLoopThreshold //
+        if (intCallCount >= callThreshold //
+                        && intAndLoopCallCount >= callAndLoopThreshold //
                         && !compilationFailed //
                         && !isCompiling()) {
             return compile(!engine.multiTier);
@@ -523,6 +535,8 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
                 this.uninitializedRootNode = NodeUtil.cloneNode(rootNode);
             }
             tvmci.onFirstExecution(this);
+            CompilationProfileCache profileCache = engine.compilationProfileCache;
+            this.compiledByPreviousEngine = profileCache != null && profileCache.wasCompiled(this);
             if (engine.callTargetStatistics) {
                 this.initializedTimestamp = System.nanoTime();
             } else {
@@ -24,6 +24,10 @@
  */
 package org.graalvm.compiler.truffle.runtime;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.graalvm.compiler.truffle.common.TruffleCallNode;
 
 import com.oracle.truffle.api.CallTarget;
@@ -33,6 +37,7 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerOptions;
 import com.oracle.truffle.api.impl.DefaultCompilerOptions;
 import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.RootNode;
 
@@ -49,6 +54,9 @@ public final class OptimizedDirectCallNode extends DirectCallNode implements Tru
     @CompilationFinal private Class<? extends Throwable> exceptionProfile;
     @CompilationFinal private OptimizedCallTarget splitCallTarget;
     private volatile boolean splitDecided;
+    @CompilationFinal(dimensions = 1) private ContextSplit[] contextSplits;
+    private volatile boolean contextSplitsExhausted;
+    private int nextContextSplitAttempt;
 
     /*
      * Should be instantiated with the runtime.
@@ -61,6 +69,10 @@ public final class OptimizedDirectCallNode extends DirectCallNode implements Tru
     @Override
     public Object call(Object... arguments) {
         OptimizedCallTarget target = getCurrentCallTarget();
+        ContextSplit[] splits = contextSplits;
+        if (splits != null) {
+            target = findContextSplit(splits, target);
+        }
         if (CompilerDirectives.inInterpreter()) {
             target = onInterpreterCall(target);
         }
@@ -153,6 +165,19 @@ public final class OptimizedDirectCallNode extends DirectCallNode implements Tru
      */
     private OptimizedCallTarget onInterpreterCall(OptimizedCallTarget target) {
         callCount++;
+        if (target.engine.splittingByContext && target.isNeedsSplit() && target == getCallTarget() && canSplitForContext()) {
+            if (callCount < nextContextSplitAttempt) {
+                return target;
+            }
+            OptimizedCallTarget contextTarget = TruffleSplittingStrategy.beforeContextCall(this, target);
+            if (contextTarget != null) {
+                return contextTarget;
+            }
+            /*
+             * No split for the current context is possible, fall back to splitting the call site.
+             * Contexts with a split of their own keep using it.
+             */
+        }
         if (target.isNeedsSplit() && !splitDecided) {
             // We intentionally avoid locking here because worst case is a double decision printed
             // and preventing that is not worth the performance impact of locking
@@ -191,9 +216,165 @@ public final class OptimizedDirectCallNode extends DirectCallNode implements Tru
         });
     }
 
+    /**
+     * Returns the split of the call target for the current context, or the shared call target if
+     * this call site was not split for the current context.
+     */
+    @ExplodeLoop
+    private static OptimizedCallTarget findContextSplit(ContextSplit[] splits, OptimizedCallTarget sharedTarget) {
+        Object context = CompilerRuntimeAccessor.engineAccessor().getCurrentOuterContext();
+        for (ContextSplit split : splits) {
+            if (split.context.get() == context) {
+                return split.target;
+            }
+        }
+        return sharedTarget;
+    }
+
+    boolean isContextSplit() {
+        return contextSplits != null;
+    }
+
+    /**
+     * Called on interpreter calls of the shared call target, that is from contexts this call site
+     * is not split for.
+     */
+    private boolean canSplitForContext() {
+        if (contextSplitsExhausted) {
+            if (!hasCollectedContextSplit()) {
+                return false;
+            }
+            // a context was collected, so its split can be replaced by one for this context
+            contextSplitsExhausted = false;
+        }
+        return true;
+    }
+
+    private boolean hasCollectedContextSplit() {
+        ContextSplit[] splits = contextSplits;
+        if (splits != null) {
+            for (ContextSplit split : splits) {
+                if (split.context.get() == null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called if the splitting strategy decided not to split this call site for now. Since the
+     * reasons, such as the remaining split budget, can change, the decision is retried after the
+     * call count has doubled.
+     */
+    void deferContextSplit() {
+        nextContextSplitAttempt = callCount >= Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : callCount * 2;
+    }
+
+    /**
+     * Used by the splitting strategy to install a split of the call target that is only used when
+     * this call site is called in the given context. Splits of contexts that were collected are
+     * dropped and returned to the split budget, splits of closed contexts are dropped by
+     * {@link #dropContextSplits(Object)}. Returns {@code null} if the call site is already split
+     * for the maximum number of live contexts.
+     */
+    OptimizedCallTarget splitForContext(Object context, int limit) {
+        CompilerAsserts.neverPartOfCompilation();
+        OptimizedCallTarget[] result = new OptimizedCallTarget[1];
+        atomic(() -> {
+            List<ContextSplit> liveSplits = new ArrayList<>();
+            boolean pruned = false;
+            if (contextSplits != null) {
+                for (ContextSplit split : contextSplits) {
+                    Object splitContext = split.context.get();
+                    if (splitContext == context) {
+                        result[0] = split.target;
+                        return;
+                    } else if (splitContext != null) {
+                        liveSplits.add(split);
+                    } else {
+                        split.target.engine.splitCount -= split.target.getUninitializedNodeCount();
+                        pruned = true;
+                    }
+                }
+            }
+            if (liveSplits.size() >= limit) {
+                if (pruned) {
+                    if (getParent() != null) {
+                        // dummy replace to invalidate code that dispatches to the dropped splits
+                        replace(this, "Drop splits of collected contexts");
+                    }
+                    contextSplits = liveSplits.toArray(new ContextSplit[liveSplits.size()]);
+                }
+                contextSplitsExhausted = true;
+                return;
+            }
+
+            assert isCallTargetCloningAllowed();
+            OptimizedCallTarget splitTarget = getCallTarget().cloneUninitialized();
+            splitTarget.addDirectCallNode(this);
+            liveSplits.add(new ContextSplit(context, splitTarget));
+
+            if (getParent() != null) {
+                // dummy replace to invalidate code that did not see the new split
+                replace(this, "Split call node for context");
+            }
+            contextSplits = liveSplits.toArray(new ContextSplit[liveSplits.size()]);
+            splitTarget.engine.registerContextSplit(this);
+            result[0] = splitTarget;
+            OptimizedCallTarget.runtime().getListener().onCompilationSplit(this);
+        });
+        return result[0];
+    }
+
+    /**
+     * Drops the split for a closed context, as well as the splits of collected contexts, and
+     * returns them to the split budget. Returns {@code true} if splits for other contexts remain.
+     */
+    boolean dropContextSplits(Object context) {
+        CompilerAsserts.neverPartOfCompilation();
+        boolean[] remaining = new boolean[1];
+        atomic(() -> {
+            ContextSplit[] splits = contextSplits;
+            if (splits == null) {
+                return;
+            }
+            List<ContextSplit> liveSplits = new ArrayList<>();
+            for (ContextSplit split : splits) {
+                Object splitContext = split.context.get();
+                if (splitContext != null && splitContext != context) {
+                    liveSplits.add(split);
+                } else {
+                    split.target.engine.splitCount -= split.target.getUninitializedNodeCount();
+                }
+            }
+            if (liveSplits.size() != splits.length) {
+                if (getParent() != null) {
+                    // dummy replace to invalidate code that dispatches to the dropped splits
+                    replace(this, "Drop splits of closed contexts");
+                }
+                contextSplits = liveSplits.isEmpty() ? null : liveSplits.toArray(new ContextSplit[liveSplits.size()]);
+                contextSplitsExhausted = false;
+            }
+            remaining[0] = !liveSplits.isEmpty();
+        });
+        return remaining[0];
+    }
+
     @Override
     public boolean cloneCallTarget() {
         TruffleSplittingStrategy.forceSplitting(this);
         return true;
     }
+
+    private static final class ContextSplit {
+
+        final WeakReference<Object> context;
+        final OptimizedCallTarget target;
+
+        ContextSplit(Object context, OptimizedCallTarget target) {
+            this.context = new WeakReference<>(context);
+            this.target = target;
+        }
+    }
 }
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.Priority;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.RequestFutureTask;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.RequestImpl;
+
+/**
+ * A compilation queue that re-prioritizes its entries every time it is polled.
+ *
+ * Entries are kept in insertion order. When a compiler thread takes an entry, the queue is
+ * traversed and the best request is selected in the following order:
+ * <ol>
+ * <li>cancelled requests, as they only need to reset the compilation task of their call target,
+ * <li>compiler initialization requests,
+ * <li>OSR requests,
+ * <li>first tier requests before last tier requests,
+ * <li>the request whose call target has the highest decaying call and loop count rate.
+ * </ol>
+ * Non-OSR requests whose call target did not execute during the last {@code staleTimeout}
+ * nanoseconds are dropped while traversing the queue.
+ */
+final class TraversingBlockingQueue implements BlockingQueue<Runnable> {
+
+    private final LinkedBlockingDeque<Runnable> entries = new LinkedBlockingDeque<>();
+    private final long staleTimeout;
+
+    TraversingBlockingQueue(long staleTimeout) {
+        this.staleTimeout = staleTimeout;
+    }
+
+    /**
+     * Selects the best entry, {@code head} included, which was already taken from the queue. The
+     * other entries can be taken concurrently by compiler threads that do not hold the lock yet, so
+     * the selection is retried if the best entry was taken in the meantime.
+     */
+    private synchronized Runnable selectBest(Runnable head) {
+        if (head == null) {
+            return null;
+        }
+        while (true) {
+            long now = System.nanoTime();
+            Runnable best = head;
+            RequestImpl<?> bestRequest = update(head, now);
+            if (bestRequest == null || bestRequest.isCancelled()) {
+                return head;
+            }
+            Iterator<Runnable> it = entries.iterator();
+            while (it.hasNext()) {
+                Runnable candidate = it.next();
+                RequestImpl<?> request = update(candidate, now);
+                if (request == null || request.isCancelled()) {
+                    best = candidate;
+                    break;
+                }
+                if (isBetter(request, bestRequest)) {
+                    best = candidate;
+                    bestRequest = request;
+                }
+            }
+            if (best == head) {
+                return head;
+            }
+            if (entries.remove(best)) {
+                entries.addFirst(head);
+                return best;
+            }
+        }
+    }
+
+    /**
+     * Updates the rate of the request of {@code entry} and drops it if it is stale.
+     *
+     * @return the request, or {@code null} if the entry is not a compilation request or its call
+     *         target was already collected
+     */
+    private RequestImpl<?> update(Runnable entry, long now) {
+        if (!(entry instanceof RequestFutureTask<?>)) {
+            return null;
+        }
+        RequestImpl<?> request = ((RequestFutureTask<?>) entry).getRequest();
+        if (request.isCancelled()) {
+            return request;
+        }
+        if (!request.updateRate(now)) {
+            return null;
+        }
+        if (staleTimeout > 0 && !request.isOSR() && request.getPriority() != Priority.INITIALIZATION && now - request.getLastActiveTime() > staleTimeout) {
+            OptimizedCallTarget target = request.getTarget();
+            if (target != null && target.engine.backgroundCompilation) {
+                request.drop(this, "Stale in traversing compilation queue");
+            }
+        }
+        return request;
+    }
+
+    private static boolean isBetter(RequestImpl<?> request, RequestImpl<?> best) {
+        if (request.getPriority() == Priority.INITIALIZATION || best.getPriority() == Priority.INITIALIZATION) {
+            return best.getPriority() != Priority.INITIALIZATION;
+        }
+        if (request.isOSR() != best.isOSR()) {
+            return request.isOSR();
+        }
+        if (request.getPriority() != best.getPriority()) {
+            return request.getPriority().compareTo(best.getPriority()) < 0;
+        }
+        return request.getRate() > best.getRate();
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        return selectBest(entries.take());
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return selectBest(entries.poll(timeout, unit));
+    }
+
+    @Override
+    public Runnable poll() {
+        return selectBest(entries.poll());
+    }
+
+    @Override
+    public boolean add(Runnable e) {
+        return entries.add(e);
+    }
+
+    @Override
+    public boolean offer(Runnable e) {
+        return entries.offer(e);
+    }
+
+    @Override
+    public void put(Runnable e) throws InterruptedException {
+        entries.put(e);
+    }
+
+    @Override
+    public boolean offer(Runnable e, long timeout, TimeUnit unit) throws InterruptedException {
+        return entries.offer(e, timeout, unit);
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return entries.remainingCapacity();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return entries.remove(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return entries.contains(o);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return entries.drainTo(c);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        return entries.drainTo(c, maxElements);
+    }
+
+    @Override
+    public Runnable remove() {
+        return entries.remove();
+    }
+
+    @Override
+    public Runnable element() {
+        return entries.element();
+    }
+
+    @Override
+    public Runnable peek() {
+        return entries.peek();
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public Iterator<Runnable> iterator() {
+        return entries.iterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return entries.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return entries.toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        return entries.containsAll(c);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Runnable> c) {
+        return entries.addAll(c);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return entries.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return entries.retainAll(c);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -112,7 +112,8 @@ public class TruffleInlining implements Iterable<TruffleInliningDecision>, Truff
         target.getRootNode().accept(new NodeVisitor() {
             @Override
             public boolean visit(Node node) {
-                if (node instanceof OptimizedDirectCallNode) {
+                if (node instanceof OptimizedDirectCallNode && !((OptimizedDirectCallNode) node).isContextSplit()) {
+                    // call sites split by context dispatch on the current context
                     callNodes.add((OptimizedDirectCallNode) node);
                 }
                 return true;
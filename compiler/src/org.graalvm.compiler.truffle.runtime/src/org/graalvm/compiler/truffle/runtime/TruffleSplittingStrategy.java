@@ -60,6 +60,44 @@ final class TruffleSplittingStrategy {
         }
     }
 
+    /**
+     * Splits the call target of a call site for the current context, such that its profiles are not
+     * polluted by other contexts executing the same shared code.
+     *
+     * @return the split call target for the current context, the shared target if the split was
+     *         deferred, or {@code null} if the call site cannot be split for the current context
+     */
+    static OptimizedCallTarget beforeContextCall(OptimizedDirectCallNode call, OptimizedCallTarget sharedTarget) {
+        final EngineData engineData = sharedTarget.engine;
+        Object context = CompilerRuntimeAccessor.engineAccessor().getCurrentOuterContext();
+        if (context == null) {
+            return null;
+        }
+        if (!shouldSplit(engineData, call)) {
+            call.deferContextSplit();
+            return sharedTarget;
+        }
+        OptimizedCallTarget splitTarget = call.splitForContext(context, engineData.splittingByContextLimit);
+        if (splitTarget == null) {
+            maybeTraceFail(engineData, call, TruffleSplittingStrategy::contextLimitMessageFactory);
+            return null;
+        }
+        engineData.splitCount += sharedTarget.getUninitializedNodeCount();
+        if (engineData.traceSplittingSummary) {
+            synchronized (engineData.reporter) {
+                engineData.reporter.splitNodeCount += splitTarget.getUninitializedNodeCount();
+                engineData.reporter.splitCount++;
+                engineData.reporter.contextSplitCount++;
+                engineData.reporter.splitTargets.put(sharedTarget, engineData.reporter.splitTargets.getOrDefault(sharedTarget, 0) + 1);
+            }
+        }
+        return splitTarget;
+    }
+
+    private static String contextLimitMessageFactory(OptimizedDirectCallNode call, EngineData engine) {
+        return "Split for too many contexts: " + engine.splittingByContextLimit;
+    }
+
     private static void doSplit(EngineData engineData, OptimizedDirectCallNode call) {
         if (engineData.traceSplittingSummary) {
             synchronized (engineData.reporter) {
@@ -237,6 +275,7 @@ final class TruffleSplittingStrategy {
         private final EngineData engineData;
         int splitCount;
         int forcedSplitCount;
+        int contextSplitCount;
         int splitNodeCount;
         int totalExecutedNodeCount;
         int totalCreatedNodeCount;
@@ -269,6 +308,7 @@ final class TruffleSplittingStrategy {
             rt.log(String.format(D_FORMAT, "Split limit", engineData.splitLimit));
             rt.log(String.format(D_FORMAT, "Splits", splitCount));
             rt.log(String.format(D_FORMAT, "Forced splits", forcedSplitCount));
+            rt.log(String.format(D_FORMAT, "Context splits", contextSplitCount));
             rt.log(String.format(D_FORMAT, "Nodes created through splitting", splitNodeCount));
             rt.log(String.format(D_FORMAT, "Nodes created without splitting", totalCreatedNodeCount));
             rt.log(String.format(P_FORMAT, "Increase in nodes", (splitNodeCount * 100.0) / (totalCreatedNodeCount)));
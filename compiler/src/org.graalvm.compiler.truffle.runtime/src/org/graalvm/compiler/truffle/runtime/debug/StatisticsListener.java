@@ -64,10 +64,13 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
     private int success;
     private int queues;
     private int dequeues;
+    private int drops;
     private int splits;
 
     private final LongSummaryStatistics timeToQueue = new LongSummaryStatistics();
     private final LongSummaryStatistics timeToCompilation = new LongSummaryStatistics();
+    private final LongSummaryStatistics timeInQueue = new LongSummaryStatistics();
+    private final IntSummaryStatistics queueSize = new IntSummaryStatistics();
 
     private final IntSummaryStatistics nodeCount = new IntSummaryStatistics();
     private final IntSummaryStatistics nodeCountTrivial = new IntSummaryStatistics();
@@ -143,6 +146,17 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         dequeues++;
     }
 
+    @Override
+    public synchronized void onCompilationDropped(OptimizedCallTarget target, CharSequence reason) {
+        drops++;
+    }
+
+    @Override
+    public synchronized void onCompilationPolled(OptimizedCallTarget target, int size, long waitTime) {
+        queueSize.accept(size);
+        timeInQueue.accept(waitTime);
+    }
+
     @Override
     public synchronized void onCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
         invalidations++;
@@ -252,6 +266,7 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         printStatistic(rt, "Invalidated", invalidations);
         printStatistic(rt, "Queues", queues);
         printStatistic(rt, "Dequeues", dequeues);
+        printStatistic(rt, "  Dropped", drops);
         printStatistic(rt, "Splits", splits);
         printStatistic(rt, "Compilation Accuracy", 1.0 - invalidations / (double) compilations);
         printStatistic(rt, "Queue Accuracy", 1.0 - dequeues / (double) queues);
@@ -260,6 +275,8 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
 
         printStatisticTime(rt, "Time to queue", timeToQueue);
         printStatisticTime(rt, "Time to compilation", timeToCompilation);
+        printStatisticTime(rt, "Time in compilation queue", timeInQueue);
+        printStatistic(rt, "Compilation queue size", queueSize);
 
         printStatisticTime(rt, "Compilation time", compilationTime);
         printStatisticTime(rt, "  Truffle Tier", compilationTimeTruffleTier);
@@ -526,6 +543,22 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
             }
         }
 
+        @Override
+        public void onCompilationDropped(OptimizedCallTarget target, CharSequence reason) {
+            StatisticsListener listener = target.engine.statisticsListener;
+            if (listener != null) {
+                listener.onCompilationDropped(target, reason);
+            }
+        }
+
+        @Override
+        public void onCompilationPolled(OptimizedCallTarget target, int size, long waitTime) {
+            StatisticsListener listener = target.engine.statisticsListener;
+            if (listener != null) {
+                listener.onCompilationPolled(target, size, waitTime);
+            }
+        }
+
         @Override
         public void onCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
             StatisticsListener listener = target.engine.statisticsListener;
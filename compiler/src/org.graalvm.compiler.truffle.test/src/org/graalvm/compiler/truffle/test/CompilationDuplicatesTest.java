@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.io.ByteArrayOutputStream;
+
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugHandlersFactory;
+import org.graalvm.compiler.debug.LogStream;
+import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.truffle.common.TruffleInliningPlan;
+import org.graalvm.compiler.truffle.compiler.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.runtime.DefaultInliningPolicy;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.runtime.TruffleInlining;
+import org.graalvm.polyglot.Context;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class CompilationDuplicatesTest extends TruffleCompilerImplTest {
+
+    // Unusual constant so that no other test in the process compiles the same graph.
+    private static final int CONSTANT = 0x5eed_d0b1;
+
+    @Test
+    public void testDuplicateAcrossEngines() {
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        try (TTY.Filter filter = new TTY.Filter(new LogStream(outContent))) {
+            setupEngine();
+            compile(new AddConstantRootNode(CONSTANT));
+            Assert.assertEquals(outContent.toString(), 0, countDuplicates(outContent.toString()));
+
+            // the same code compiled by another engine is reported once
+            setupEngine();
+            compile(new AddConstantRootNode(CONSTANT));
+            String output = outContent.toString();
+            Assert.assertEquals(output, 1, countDuplicates(output));
+            Assert.assertTrue(output, output.contains("add-constant"));
+
+            // graphs that only differ in a primitive constant are not duplicates
+            compile(new AddConstantRootNode(CONSTANT + 1));
+            output = outContent.toString();
+            Assert.assertEquals(output, 1, countDuplicates(output));
+        }
+    }
+
+    private void setupEngine() {
+        setupContext(Context.newBuilder().option("engine.TraceCompilationDuplicates", "true"));
+    }
+
+    @SuppressWarnings("try")
+    private void compile(RootNode rootNode) {
+        OptimizedCallTarget target = (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(rootNode);
+        DebugContext debug = DebugContext.create(TruffleCompilerOptions.getOptions(), DebugHandlersFactory.LOADER);
+        try (DebugCloseable d = debug.disableIntercept(); DebugContext.Scope s = debug.scope("CompilationDuplicatesTest")) {
+            CompilationIdentifier compilationId = getTruffleCompiler(target).createCompilationIdentifier(target);
+            TruffleInliningPlan inliningPlan = new TruffleInlining(target, new DefaultInliningPolicy());
+            getTruffleCompiler(target).compileAST(target.getOptionValues(), debug, target, inliningPlan, compilationId, null, null);
+            assertTrue(target.isValid());
+        }
+    }
+
+    private static int countDuplicates(String output) {
+        int count = 0;
+        for (String line : output.split("\n")) {
+            if (line.contains("opt duplicate")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static final class AddConstantRootNode extends RootNode {
+
+        private final int constant;
+
+        AddConstantRootNode(int constant) {
+            super(null);
+            this.constant = constant;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return (int) frame.getArguments()[0] + constant;
+        }
+
+        @Override
+        public String getName() {
+            return "add-constant";
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.test.polyglot.ProxyLanguage;
+
+public class CompilationProfileCacheTest extends TestWithSynchronousCompiling {
+
+    private Path cacheFile;
+
+    @Before
+    public void createCacheFile() throws IOException {
+        cacheFile = Files.createTempFile("compilation-profile", ".txt");
+        Files.delete(cacheFile);
+    }
+
+    @After
+    public void deleteCacheFile() throws IOException {
+        Files.deleteIfExists(cacheFile);
+        Files.deleteIfExists(cacheFile.resolveSibling(cacheFile.getFileName() + ".lock"));
+    }
+
+    private static final class NamedRootNode extends RootNode {
+
+        private final String name;
+        private final SourceSection sourceSection;
+
+        NamedRootNode(String name, SourceSection sourceSection) {
+            super(null);
+            this.name = name;
+            this.sourceSection = sourceSection;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public SourceSection getSourceSection() {
+            return sourceSection;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static OptimizedCallTarget createTarget(String name) {
+        SourceSection section = Source.newBuilder(ProxyLanguage.ID, name, name + ".txt").build().createSection(0, name.length());
+        return (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new NamedRootNode(name, section));
+    }
+
+    @Test
+    public void testCompiledTargetsAreRecorded() throws IOException {
+        setupContext("engine.CompilationProfileCache", cacheFile.toString());
+        OptimizedCallTarget hot = createTarget("hot");
+        OptimizedCallTarget cold = createTarget("cold");
+        for (int i = 0; i < 20; i++) {
+            hot.call();
+        }
+        cold.call();
+        assertCompiled(hot);
+        assertNotCompiled(cold);
+        // closing the context closes the engine, which writes the cache file
+        setupContext();
+        List<String> lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0), lines.get(0).startsWith(NamedRootNode.class.getName() + " hot <hot.txt:0+3#"));
+    }
+
+    @Test
+    public void testEnginesMergeRecordedTargets() throws IOException {
+        setupContext("engine.CompilationProfileCache", cacheFile.toString());
+        OptimizedCallTarget first = createTarget("first");
+        for (int i = 0; i < 20; i++) {
+            first.call();
+        }
+        assertCompiled(first);
+        // the second engine does not compile the target of the first one
+        setupContext("engine.CompilationProfileCache", cacheFile.toString());
+        OptimizedCallTarget second = createTarget("second");
+        for (int i = 0; i < 20; i++) {
+            second.call();
+        }
+        assertCompiled(second);
+        setupContext();
+        List<String> lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0), lines.get(0).startsWith(NamedRootNode.class.getName() + " first <first.txt:0+5#"));
+        assertTrue(lines.get(1), lines.get(1).startsWith(NamedRootNode.class.getName() + " second <second.txt:0+6#"));
+    }
+
+    @Test
+    public void testTargetsWithoutSourceAreNotRecorded() throws IOException {
+        setupContext("engine.CompilationProfileCache", cacheFile.toString());
+        OptimizedCallTarget hot = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new NamedRootNode("hot", null));
+        for (int i = 0; i < 20; i++) {
+            hot.call();
+        }
+        assertCompiled(hot);
+        setupContext();
+        assertEquals(0, Files.readAllLines(cacheFile, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testRecordedTargetsCompileAtLowerThresholds() {
+        setupContext("engine.CompilationProfileCache", cacheFile.toString());
+        OptimizedCallTarget hot = createTarget("hot");
+        for (int i = 0; i < 20; i++) {
+            hot.call();
+        }
+        assertCompiled(hot);
+        // the new engine reads the cache file written by the closed one
+        setupContext("engine.CompilationProfileCache", cacheFile.toString());
+        hot = createTarget("hot");
+        OptimizedCallTarget cold = createTarget("cold");
+        // recorded targets still run in the interpreter before they are compiled
+        hot.call();
+        cold.call();
+        assertNotCompiled(hot);
+        // the thresholds of 3 calls and 10 calls and loops are lowered to 1
+        hot.call();
+        cold.call();
+        assertCompiled(hot);
+        assertNotCompiled(cold);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.TruffleLanguage.ContextPolicy;
+import com.oracle.truffle.api.TruffleLanguage.Registration;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.test.GCUtils;
+
+public class ContextSplittingTest {
+
+    private static final AtomicInteger parseCount = new AtomicInteger();
+    private static volatile OptimizedCallTarget sharedCallee;
+    private static volatile OptimizedCallTarget lastCallee;
+    private static volatile DirectCallNode lastCallNode;
+
+    @Test
+    public void testSplitsPerContextOfSharedSource() throws Exception {
+        parseCount.set(0);
+        try (Engine engine = Engine.newBuilder().allowExperimentalOptions(true).option("engine.Compilation", "false").option("engine.SplittingByContext", "true").option(
+                        "engine.SplittingByContextLimit", "2").option("engine.SplittingGrowthLimit", "100.0").build()) {
+            Source source = Source.create(SharedLanguage.ID, "shared");
+            Context first = Context.newBuilder().engine(engine).build();
+            Context second = Context.newBuilder().engine(engine).build();
+            Context third = Context.newBuilder().engine(engine).build();
+
+            OptimizedCallTarget firstSplit = evalCallee(first, source);
+            OptimizedCallTarget secondSplit = evalCallee(second, source);
+            assertEquals("Shared source parsed more than once", 1, parseCount.get());
+            assertNotSame(sharedCallee, firstSplit);
+            assertNotSame(sharedCallee, secondSplit);
+            assertNotSame(firstSplit, secondSplit);
+            assertSame(firstSplit, evalCallee(first, source));
+            assertSame(secondSplit, evalCallee(second, source));
+
+            // the call site is split for the maximum number of contexts, other contexts share a
+            // regular split
+            OptimizedCallTarget fallbackSplit = evalCallee(third, source);
+            assertNotSame(sharedCallee, fallbackSplit);
+            assertNotSame(firstSplit, fallbackSplit);
+            assertNotSame(secondSplit, fallbackSplit);
+            assertSame(fallbackSplit, evalCallee(third, source));
+            assertSame(firstSplit, evalCallee(first, source));
+
+            // closing a context drops its split, so that the split does not keep it alive
+            Object[] splits = (Object[]) AbstractSplittingStrategyTest.reflectivelyGetField(lastCallNode, "contextSplits");
+            assertEquals(2, splits.length);
+            Reference<?> firstContextRef = null;
+            for (Object split : splits) {
+                if (AbstractSplittingStrategyTest.reflectivelyGetField(split, "target") == firstSplit) {
+                    firstContextRef = (Reference<?>) AbstractSplittingStrategyTest.reflectivelyGetField(split, "context");
+                }
+            }
+            assertNotNull(firstContextRef);
+            splits = null;
+            first.close();
+            first = null;
+            assertEquals(1, ((Object[]) AbstractSplittingStrategyTest.reflectivelyGetField(lastCallNode, "contextSplits")).length);
+            GCUtils.assertGc("Closed context should be collected", firstContextRef);
+
+            assertSame(secondSplit, evalCallee(second, source));
+            assertSame(fallbackSplit, evalCallee(third, source));
+
+            second.close();
+            third.close();
+        }
+    }
+
+    private static OptimizedCallTarget evalCallee(Context context, Source source) {
+        lastCallee = null;
+        context.eval(source);
+        OptimizedCallTarget callee = lastCallee;
+        assertNotNull(callee);
+        return callee;
+    }
+
+    @Registration(id = SharedLanguage.ID, name = SharedLanguage.ID, contextPolicy = ContextPolicy.SHARED)
+    public static class SharedLanguage extends TruffleLanguage<Object> {
+
+        static final String ID = "ContextSplittingTestShared";
+
+        @Override
+        protected Object createContext(Env env) {
+            return new Object();
+        }
+
+        @Override
+        protected CallTarget parse(ParsingRequest request) throws Exception {
+            parseCount.incrementAndGet();
+            OptimizedCallTarget callee = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new CalleeRootNode(this));
+            AbstractSplittingStrategyTest.reflectivelySetField(callee, "needsSplit", true);
+            sharedCallee = callee;
+            return Truffle.getRuntime().createCallTarget(new CallerRootNode(this, callee));
+        }
+    }
+
+    static final class CalleeRootNode extends RootNode {
+
+        CalleeRootNode(TruffleLanguage<?> language) {
+            super(language);
+        }
+
+        @Override
+        public boolean isCloningAllowed() {
+            return true;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            lastCallee = (OptimizedCallTarget) getCallTarget();
+            return 0;
+        }
+    }
+
+    static final class CallerRootNode extends RootNode {
+
+        @Child private DirectCallNode callNode;
+
+        CallerRootNode(TruffleLanguage<?> language, CallTarget callee) {
+            super(language);
+            this.callNode = Truffle.getRuntime().createDirectCallNode(callee);
+            lastCallNode = callNode;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return callNode.call();
+        }
+    }
+}
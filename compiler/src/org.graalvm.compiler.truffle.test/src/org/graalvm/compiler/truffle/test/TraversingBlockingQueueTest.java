@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilationTask;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.Priority;
+import org.graalvm.compiler.truffle.runtime.CancellableCompileTask;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.After;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class TraversingBlockingQueueTest extends TestWithPolyglotOptions {
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private BackgroundCompileQueue queue;
+
+    @After
+    public void shutdownQueue() {
+        if (queue != null) {
+            queue.shutdownAndAwaitTermination(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            queue = null;
+        }
+    }
+
+    private static final class NamedRootNode extends RootNode {
+
+        private final String name;
+
+        NamedRootNode(String name) {
+            super(null);
+            this.name = name;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Occupies the only compiler thread until {@link #release} is counted down, so that all
+     * following requests are in the queue when it is first polled.
+     */
+    private static final class BlockingRequest extends BackgroundCompileQueue.Request {
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void execute(TruffleCompilationTask task, WeakReference<OptimizedCallTarget> targetRef) {
+            try {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /** Records the name of its call target when it is executed and was not cancelled. */
+    private static final class RecordingRequest extends BackgroundCompileQueue.Request {
+
+        private final List<String> executed;
+
+        RecordingRequest(List<String> executed) {
+            this.executed = executed;
+        }
+
+        @Override
+        protected void execute(TruffleCompilationTask task, WeakReference<OptimizedCallTarget> targetRef) {
+            OptimizedCallTarget target = targetRef.get();
+            if (!task.isCancelled() && target != null) {
+                executed.add(target.getRootNode().getName());
+            }
+        }
+    }
+
+    private void setupQueue(int staleTimeout) {
+        setupQueue(staleTimeout, 1);
+    }
+
+    private void setupQueue(int staleTimeout, int compilerThreads) {
+        setupContext("engine.TraversingCompilationQueue", "true",
+                        "engine.TraversingQueueStaleTimeout", String.valueOf(staleTimeout),
+                        "engine.CompilerThreads", String.valueOf(compilerThreads),
+                        "engine.BackgroundCompilation", "true",
+                        "engine.Compilation", "false");
+        queue = new BackgroundCompileQueue();
+    }
+
+    private static OptimizedCallTarget createTarget(String name) {
+        return (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new NamedRootNode(name));
+    }
+
+    private BlockingRequest block() {
+        BlockingRequest blocker = new BlockingRequest();
+        queue.submitTask(Priority.LAST_TIER, createTarget("blocker"), blocker);
+        return blocker;
+    }
+
+    private static void call(OptimizedCallTarget target, int count) {
+        for (int i = 0; i < count; i++) {
+            target.call();
+        }
+    }
+
+    private static void awaitAll(CancellableCompileTask... tasks) throws Exception {
+        for (CancellableCompileTask task : tasks) {
+            task.awaitCompletion(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testPollOrder() throws Exception {
+        setupQueue(0);
+        OptimizedCallTarget cold = createTarget("cold");
+        OptimizedCallTarget warm = createTarget("warm");
+        OptimizedCallTarget hot = createTarget("hot");
+        OptimizedCallTarget firstTier = createTarget("firstTier");
+        // Initialize all call targets at about the same time, so that their rates only differ by
+        // their call counts.
+        for (OptimizedCallTarget target : Arrays.asList(cold, warm, hot, firstTier)) {
+            target.call();
+        }
+        call(warm, 100);
+        call(hot, 10000);
+
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        BlockingRequest blocker = block();
+        CancellableCompileTask[] tasks = {
+                        queue.submitTask(Priority.LAST_TIER, cold, new RecordingRequest(executed)),
+                        queue.submitTask(Priority.LAST_TIER, warm, new RecordingRequest(executed)),
+                        queue.submitTask(Priority.LAST_TIER, hot, new RecordingRequest(executed)),
+                        queue.submitTask(Priority.FIRST_TIER, firstTier, new RecordingRequest(executed))
+        };
+        blocker.release.countDown();
+        awaitAll(tasks);
+
+        assertEquals(Arrays.asList("firstTier", "hot", "warm", "cold"), executed);
+    }
+
+    @Test
+    public void testStaleRequestsAreDropped() throws Exception {
+        setupQueue(1);
+        OptimizedCallTarget stale = createTarget("stale");
+        OptimizedCallTarget active = createTarget("active");
+
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        BlockingRequest blocker = block();
+        CancellableCompileTask staleTask = queue.submitTask(Priority.LAST_TIER, stale, new RecordingRequest(executed));
+        CancellableCompileTask activeTask = queue.submitTask(Priority.LAST_TIER, active, new RecordingRequest(executed));
+        // Exceed the stale timeout, but keep one of the call targets executing.
+        Thread.sleep(50);
+        active.call();
+        blocker.release.countDown();
+        awaitAll(staleTask, activeTask);
+
+        assertTrue(staleTask.isCancelled());
+        assertFalse(activeTask.isCancelled());
+        assertEquals(Arrays.asList("active"), executed);
+    }
+
+    @Test
+    public void testEachRequestRunsOnce() throws Exception {
+        setupQueue(0, 4);
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        List<String> expected = new ArrayList<>();
+        List<CancellableCompileTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            OptimizedCallTarget target = createTarget("target" + i);
+            // Different rates make the compiler threads select entries behind the queue head.
+            call(target, i % 17);
+            expected.add(target.getRootNode().getName());
+            tasks.add(queue.submitTask(Priority.LAST_TIER, target, new RecordingRequest(executed)));
+        }
+        awaitAll(tasks.toArray(new CancellableCompileTask[0]));
+
+        List<String> sorted = new ArrayList<>(executed);
+        Collections.sort(sorted);
+        Collections.sort(expected);
+        assertEquals(expected, sorted);
+    }
+}
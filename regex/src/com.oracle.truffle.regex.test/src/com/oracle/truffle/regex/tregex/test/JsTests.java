@@ -40,8 +40,12 @@
  */
 package com.oracle.truffle.regex.tregex.test;
 
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Test;
 
+import com.oracle.truffle.regex.RegexCompilationCache;
+
 public class JsTests extends RegexTestBase {
 
     @Override
@@ -83,4 +87,46 @@ public class JsTests extends RegexTestBase {
         test("(a||b){100,200}?", "", "ab", 0, true, 0, 1, 1, 1);
         test("(a||b){100,200}?$", "", "ab", 0, true, 0, 2, 1, 2);
     }
+
+    @Test
+    public void skipWhileInSetLoop() {
+        test("[a-z0-9_]+", "", "  foo_bar42 baz", 0, true, 2, 11);
+        test("[a-z0-9_]+!", "", "foo_bar42", 0, false);
+        test("x[a-z0-9_]*y", "", "_x_a1\u0100y_xab_y", 0, true, 8, 13);
+        test("\"[^<>&\"']*\"", "", "a\"b\u2028c\u00e9\"d", 0, true, 1, 7);
+        test("\"[^<>&\"']*\"", "", "a\"b<c\"d", 0, false);
+        test("([^<>&\"']*)<", "", "abc\u00ff\u1234<", 0, true, 0, 6, 0, 5);
+    }
+
+    @Test
+    public void lazyDFA() {
+        RegexCompilationCache statistics = TRegexTestDummyLanguage.getRegexLanguage().compilationCache;
+        long lazyDFAs = statistics.getLazyDFAs();
+        // the DFA of this expression exceeds TRegexOptions.TRegexMaxDFASize
+        test("[ab]*a[ab]{12}", "", "bbbbbabbbbbbbbbbbb", 0, true, 0, 18);
+        assertTrue(statistics.getLazyDFAs() > lazyDFAs);
+        test("[ab]*a[ab]{12}", "", "cbbbbbabbbbbbbbbbbbc", 0, true, 1, 19);
+        test("[ab]*a[ab]{12}", "", "abbbbbbbbbbb", 0, false);
+        test("[ab]*a[ab]{12}", "", "bbbbbbbbbbbbbbbbbbbb", 0, false);
+        test("[ab]*(a)[ab]{12}$", "", "\u1234babbbbbbbbbbbb", 0, true, 1, 15, 2, 3);
+    }
+
+    @Test
+    public void lazyDFACacheFlush() {
+        RegexCompilationCache statistics = TRegexTestDummyLanguage.getRegexLanguage().compilationCache;
+        long flushes = statistics.getLazyDFACacheFlushes();
+        // a pseudo-random sequence of a and b visits more states of the lazy DFA than its cache holds
+        StringBuilder input = new StringBuilder();
+        int seed = 42;
+        for (int i = 0; i < 5000; i++) {
+            seed = seed * 1103515245 + 12345;
+            input.append((seed & 0x10000) == 0 ? 'a' : 'b');
+        }
+        test("[ab]*a[ab]{12}c", "", input.toString(), 0, false);
+        assertTrue(statistics.getLazyDFACacheFlushes() > flushes);
+        // no partial match is left after the first c, so the NFA search starts behind it
+        String prefix = input + "bbbbbbbbbbbbbc";
+        String match = "babbbbbbbbbbbbc";
+        test("[ab]*a[ab]{12}c", "", prefix + match, 0, true, prefix.length(), prefix.length() + match.length());
+    }
 }
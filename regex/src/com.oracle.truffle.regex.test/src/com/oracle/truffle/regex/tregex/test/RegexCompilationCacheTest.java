@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.regex.RegexCompilationCache;
+import com.oracle.truffle.regex.RegexObject;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.RegexSyntaxException;
+import com.oracle.truffle.regex.util.CompilationResult;
+
+public class RegexCompilationCacheTest {
+
+    private static CompilationResult<RegexObject> syntaxError(String message) {
+        return CompilationResult.pack(() -> {
+            throw new RegexSyntaxException(message);
+        });
+    }
+
+    @Test
+    public void keyedBySourceAndOptions() {
+        RegexCompilationCache cache = new RegexCompilationCache();
+        RegexOptions python = RegexOptions.parse("Flavor=PythonStr");
+        CompilationResult<RegexObject> result = syntaxError("a");
+        cache.put(new RegexSource("a+", "i"), RegexOptions.DEFAULT, result);
+
+        assertSame(result, cache.get(new RegexSource("a+", "i"), RegexOptions.DEFAULT));
+        assertNull(cache.get(new RegexSource("a+", ""), RegexOptions.DEFAULT));
+        assertNull(cache.get(new RegexSource("a+", "i"), python));
+
+        cache.put(new RegexSource("a+", "i"), python, syntaxError("b"));
+        assertNotNull(cache.get(new RegexSource("a+", "i"), python));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void sharedAcrossContexts() {
+        try (Engine engine = Engine.create()) {
+            RegexSource source = new RegexSource("a+b", "");
+            RegexObject compiled;
+            long hits;
+            long misses;
+            try (Context context = Context.newBuilder().engine(engine).build()) {
+                context.enter();
+                compileAndMatch(context, source);
+                RegexCompilationCache cache = TRegexTestDummyLanguage.getRegexLanguage().compilationCache;
+                hits = cache.getHits();
+                misses = cache.getMisses();
+                compiled = cache.get(source, RegexOptions.DEFAULT).unpack();
+                context.leave();
+            }
+            try (Context context = Context.newBuilder().engine(engine).build()) {
+                context.enter();
+                compileAndMatch(context, source);
+                RegexCompilationCache cache = TRegexTestDummyLanguage.getRegexLanguage().compilationCache;
+                // The lookup of the first context counted as one more hit.
+                assertEquals(hits + 2, cache.getHits());
+                assertEquals(misses, cache.getMisses());
+                assertSame(compiled, cache.get(source, RegexOptions.DEFAULT).unpack());
+                context.leave();
+            }
+        }
+    }
+
+    private static void compileAndMatch(Context context, RegexSource source) {
+        Value regex = context.eval(TRegexTestDummyLanguage.ID, "").execute().execute(source.getPattern(), source.getFlags());
+        assertEquals(true, regex.invokeMember("exec", "xaab", 0).getMember("isMatch").asBoolean());
+    }
+
+    @Test
+    public void dfaGenerationStatistics() {
+        RegexCompilationCache cache = new RegexCompilationCache();
+        cache.recordDFAGeneration(10);
+        cache.recordDFAGeneration(32);
+        assertEquals(2, cache.getDFAGenerations());
+        assertEquals(42, cache.getDFAGenerationTime());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.junit.Test;
+
+public class RegexSetTest extends RegexTestBase {
+
+    private static final Object[] PATTERNS = {"abc", "[0-9]+", "^x", "z$", "(?<=a)b", "q", "[^\\s\\S]"};
+
+    @Override
+    String getEngineOptions() {
+        return "";
+    }
+
+    private Value compileSet(String flags, Object... patterns) {
+        return getEngine().invokeMember("compileSet", ProxyArray.fromArray(patterns), flags);
+    }
+
+    private static void testSet(Value regexSet, String input, int fromIndex, int... expected) {
+        Value result = regexSet.invokeMember("exec", input, fromIndex);
+        int[] actual = new int[(int) result.getArraySize()];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = result.getArrayElement(i).asInt();
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void matchAll() {
+        Value regexSet = compileSet("", PATTERNS);
+        assertEquals(PATTERNS.length, regexSet.getMember("patternCount").asInt());
+        testSet(regexSet, "xabc 42 z", 0, 0, 1, 2, 3, 4);
+        testSet(regexSet, "yab", 0, 4);
+        testSet(regexSet, "", 0);
+        testSet(regexSet, "\u1234q\u1234", 0, 5);
+    }
+
+    @Test
+    public void fromIndex() {
+        Value regexSet = compileSet("", PATTERNS);
+        testSet(regexSet, "xabc", 1, 0, 4);
+        testSet(regexSet, "xabc", 2, 4);
+        testSet(regexSet, "xabc", 4);
+    }
+
+    @Test
+    public void flags() {
+        Value regexSet = compileSet("i", "ABC", "^X");
+        testSet(regexSet, "xabc", 0, 0, 1);
+    }
+}
@@ -58,6 +58,13 @@ public class TRegexTestDummyLanguage extends TruffleLanguage<TRegexTestDummyLang
         return getCurrentContext(TRegexTestDummyLanguage.class).getEnv().parseInternal(Source.newBuilder(RegexLanguage.ID, "", "TRegex Engine Builder Request").internal(true).build());
     }
 
+    /**
+     * Returns the {@link RegexLanguage} of the entered context.
+     */
+    static RegexLanguage getRegexLanguage() {
+        return getCurrentLanguage(RegexLanguage.class);
+    }
+
     @Override
     protected DummyLanguageContext createContext(Env env) {
         return new DummyLanguageContext(env);
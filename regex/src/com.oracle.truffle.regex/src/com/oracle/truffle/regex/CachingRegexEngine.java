@@ -40,28 +40,25 @@
  */
 package com.oracle.truffle.regex;
 
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.regex.tregex.TRegexOptions;
 import com.oracle.truffle.regex.util.CompilationResult;
-import com.oracle.truffle.regex.util.LRUCache;
-
-import java.util.Collections;
-import java.util.Map;
 
 public class CachingRegexEngine extends RegexEngine {
 
-    private final Map<RegexSource, CompilationResult<RegexObject>> cache = Collections.synchronizedMap(new LRUCache<>(TRegexOptions.RegexMaxCacheSize));
+    private final RegexCompilationCache cache;
+    private final RegexOptions options;
 
-    public CachingRegexEngine(RegexCompiler compiler, RegexOptions options) {
+    public CachingRegexEngine(RegexCompiler compiler, RegexOptions options, RegexCompilationCache cache) {
         super(compiler, options);
+        this.cache = cache;
+        this.options = options;
     }
 
     @Override
     public RegexObject compile(RegexSource regexSource) throws RegexSyntaxException, UnsupportedRegexException {
-        CompilationResult<RegexObject> result = cacheGet(regexSource);
+        CompilationResult<RegexObject> result = cache.get(regexSource, options);
         if (result == null) {
             result = doCompile(regexSource);
-            cachePut(regexSource, result);
+            cache.put(regexSource, options, result);
         }
         return result.unpack();
     }
@@ -69,14 +66,4 @@ public class CachingRegexEngine extends RegexEngine {
     private CompilationResult<RegexObject> doCompile(RegexSource regexSource) {
         return CompilationResult.pack(() -> super.compile(regexSource));
     }
-
-    @TruffleBoundary
-    private CompilationResult<RegexObject> cacheGet(RegexSource source) {
-        return cache.get(source);
-    }
-
-    @TruffleBoundary
-    private CompilationResult<RegexObject> cachePut(RegexSource source, CompilationResult<RegexObject> result) {
-        return cache.put(source, result);
-    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import static com.oracle.truffle.regex.tregex.util.DebugUtil.LOG_COMPILATION_CACHE;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.util.DebugUtil;
+import com.oracle.truffle.regex.util.CompilationResult;
+import com.oracle.truffle.regex.util.LRUCache;
+
+/**
+ * A cache of compiled {@link RegexObject}s, keyed by the {@link RegexSource} and the
+ * {@link RegexOptions} of the {@link RegexEngine} that compiled them. The {@link RegexLanguage}
+ * keeps one instance that is shared by all contexts of a polyglot engine, so that a regular
+ * expression and its lazily generated automata are only compiled once per engine.
+ */
+public final class RegexCompilationCache {
+
+    private final Map<Key, CompilationResult<RegexObject>> cache = Collections.synchronizedMap(new LRUCache<>(TRegexOptions.RegexMaxCacheSize));
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong dfaGenerations = new AtomicLong();
+    private final AtomicLong dfaGenerationTime = new AtomicLong();
+    private final AtomicLong lazyDFAs = new AtomicLong();
+    private final AtomicLong lazyDFACacheFlushes = new AtomicLong();
+
+    @TruffleBoundary
+    public CompilationResult<RegexObject> get(RegexSource source, RegexOptions options) {
+        CompilationResult<RegexObject> result = cache.get(new Key(source, options));
+        if (result == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    public void put(RegexSource source, RegexOptions options, CompilationResult<RegexObject> result) {
+        cache.put(new Key(source, options), result);
+    }
+
+    /**
+     * Records the time, in nanoseconds, spent generating a single DFA.
+     */
+    public void recordDFAGeneration(long elapsed) {
+        dfaGenerations.incrementAndGet();
+        dfaGenerationTime.addAndGet(elapsed);
+    }
+
+    /**
+     * Records that a lazily built DFA with a bounded state cache was used instead of a DFA that
+     * would have been too large.
+     */
+    public void recordLazyDFA() {
+        lazyDFAs.incrementAndGet();
+    }
+
+    /**
+     * Records that the state cache of a lazily built DFA overflowed and was flushed.
+     */
+    public void recordLazyDFACacheFlush() {
+        lazyDFACacheFlushes.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getDFAGenerations() {
+        return dfaGenerations.get();
+    }
+
+    public long getDFAGenerationTime() {
+        return dfaGenerationTime.get();
+    }
+
+    public long getLazyDFAs() {
+        return lazyDFAs.get();
+    }
+
+    public long getLazyDFACacheFlushes() {
+        return lazyDFACacheFlushes.get();
+    }
+
+    @TruffleBoundary
+    public int size() {
+        return cache.size();
+    }
+
+    @TruffleBoundary
+    public void logStatistics() {
+        if (LOG_COMPILATION_CACHE.isLoggable(Level.FINE)) {
+            LOG_COMPILATION_CACHE.log(Level.FINE, "entries: {0}, hits: {1}, misses: {2}, generated DFAs: {3}, DFA generation time: {4}, lazy DFAs: {5}, lazy DFA cache flushes: {6}", new Object[]{
+                            size(),
+                            getHits(),
+                            getMisses(),
+                            getDFAGenerations(),
+                            DebugUtil.Timer.elapsedToString(getDFAGenerationTime()),
+                            getLazyDFAs(),
+                            getLazyDFACacheFlushes()});
+        }
+    }
+
+    private static final class Key {
+
+        private final RegexSource source;
+        private final RegexOptions options;
+
+        Key(RegexSource source, RegexOptions options) {
+            this.source = source;
+            this.options = options;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + options.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj || obj instanceof Key && source.equals(((Key) obj).source) && options.equals(((Key) obj).options);
+        }
+    }
+}
@@ -64,4 +64,19 @@ public interface RegexCompiler {
      * @throws UnsupportedRegexException if the regular expression is not supported by the engine
      */
     Object compile(RegexSource source) throws RegexSyntaxException, UnsupportedRegexException;
+
+    /**
+     * Uses the compiler to try and compile a set of regular expressions into a single automaton,
+     * which reports all expressions of the set that match a given input in a single pass. See
+     * {@link RegexSetObject}.
+     *
+     * @return a {@link CompiledRegexObject} whose call target returns a
+     *         {@link com.oracle.truffle.regex.result.RegexSetResult}
+     * @throws RegexSyntaxException if the engine discovers a syntax error in one of the regular
+     *             expressions
+     * @throws UnsupportedRegexException if the set cannot be compiled by this engine
+     */
+    default CompiledRegexObject compileSet(RegexSource[] sources) throws RegexSyntaxException, UnsupportedRegexException {
+        throw new UnsupportedRegexException("regex sets are not supported by this compiler");
+    }
 }
@@ -104,6 +104,11 @@ public class RegexCompilerWithFallback implements RegexCompiler {
         return regex;
     }
 
+    @Override
+    public CompiledRegexObject compileSet(RegexSource[] sources) throws RegexSyntaxException, UnsupportedRegexException {
+        return mainCompiler.compileSet(sources);
+    }
+
     private static boolean shouldLogCompilationTime() {
         return LOG_TOTAL_COMPILATION_TIME.isLoggable(Level.FINE);
     }
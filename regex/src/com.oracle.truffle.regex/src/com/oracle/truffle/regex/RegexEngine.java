@@ -41,17 +41,21 @@
 package com.oracle.truffle.regex;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.regex.runtime.nodes.StringEqualsNode;
 import com.oracle.truffle.regex.runtime.nodes.ToStringNode;
+import com.oracle.truffle.regex.runtime.nodes.ToStringNodeGen;
 import com.oracle.truffle.regex.tregex.parser.RegexValidator;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavor;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavorProcessor;
@@ -72,13 +76,18 @@ import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
  * engine</li>
  * </ul>
  * <p>
+ * In addition, the {@code compileSet} method compiles an array of patterns and optional flags
+ * (applied to all patterns) into a {@link RegexSetObject}, which matches all patterns in a single
+ * pass over the input.
+ * <p>
  * A {@link RegexEngine} can be obtained by executing the {@link RegexEngineBuilder}.
  */
 @ExportLibrary(InteropLibrary.class)
 public class RegexEngine extends AbstractConstantKeysObject {
 
     private static final String PROP_VALIDATE = "validate";
-    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_VALIDATE);
+    private static final String PROP_COMPILE_SET = "compileSet";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_VALIDATE, PROP_COMPILE_SET);
 
     private final RegexCompiler compiler;
     private final RegexOptions options;
@@ -110,6 +119,24 @@ public class RegexEngine extends AbstractConstantKeysObject {
         return regexObject;
     }
 
+    public RegexSetObject compileSet(RegexSource[] regexSources) throws RegexSyntaxException, UnsupportedRegexException {
+        RegexFlavor flavor = options.getFlavor();
+        for (RegexSource regexSource : regexSources) {
+            if (flavor != null) {
+                flavor.forRegex(regexSource).validate();
+            } else {
+                RegexValidator validator = new RegexValidator(regexSource, RegexFlags.parseFlags(regexSource.getFlags()), options);
+                validator.validate();
+                options.getFeatureSet().checkSupport(regexSource, validator.getFeatures());
+            }
+        }
+        RegexSetObject regexSetObject = new RegexSetObject(compiler, regexSources);
+        if (options.isRegressionTestMode()) {
+            regexSetObject.getCompiledRegexObject();
+        }
+        return regexSetObject;
+    }
+
     @Override
     public TruffleReadOnlyKeysArray getKeys() {
         return KEYS;
@@ -120,6 +147,8 @@ public class RegexEngine extends AbstractConstantKeysObject {
         switch (symbol) {
             case PROP_VALIDATE:
                 return ValidateMethod.getInstance();
+            case PROP_COMPILE_SET:
+                return new CompileSetMethod(this);
             default:
                 CompilerDirectives.transferToInterpreter();
                 throw UnknownIdentifierException.create(symbol);
@@ -141,15 +170,20 @@ public class RegexEngine extends AbstractConstantKeysObject {
     @SuppressWarnings("static-method")
     @ExportMessage
     boolean isMemberInvocable(String member,
-                    @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode) {
-        return isValidatePropNode.execute(member, PROP_VALIDATE);
+                    @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode,
+                    @Shared("isCompileSetPropNode") @Cached StringEqualsNode isCompileSetPropNode) {
+        return isValidatePropNode.execute(member, PROP_VALIDATE) || isCompileSetPropNode.execute(member, PROP_COMPILE_SET);
     }
 
     @ExportMessage
     Object invokeMember(String member, Object[] args,
                     @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode,
+                    @Shared("isCompileSetPropNode") @Cached StringEqualsNode isCompileSetPropNode,
                     @Shared("patternToStringNode") @Cached ToStringNode patternToStringNode,
                     @Shared("flagsToStringNode") @Cached ToStringNode flagsToStringNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException {
+        if (isCompileSetPropNode.execute(member, PROP_COMPILE_SET)) {
+            return compileSet(argsToRegexSetSources(args));
+        }
         if (!isValidatePropNode.execute(member, PROP_VALIDATE)) {
             CompilerDirectives.transferToInterpreter();
             throw UnknownIdentifierException.create(member);
@@ -186,6 +220,53 @@ public class RegexEngine extends AbstractConstantKeysObject {
         }
     }
 
+    @ExportLibrary(InteropLibrary.class)
+    public static final class CompileSetMethod extends AbstractRegexObject {
+
+        private final RegexEngine engine;
+
+        public CompileSetMethod(RegexEngine engine) {
+            this.engine = engine;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args) throws ArityException, UnsupportedTypeException {
+            return engine.compileSet(argsToRegexSetSources(args));
+        }
+    }
+
+    /**
+     * Converts the arguments of {@code compileSet}, an array of patterns and an optional flags
+     * string, to one {@link RegexSource} per pattern.
+     */
+    @TruffleBoundary
+    private static RegexSource[] argsToRegexSetSources(Object[] args) throws ArityException, UnsupportedTypeException {
+        if (!(args.length == 1 || args.length == 2)) {
+            throw ArityException.create(2, args.length);
+        }
+        InteropLibrary interop = InteropLibrary.getFactory().getUncached();
+        ToStringNode toStringNode = ToStringNodeGen.getUncached();
+        if (!interop.hasArrayElements(args[0])) {
+            throw UnsupportedTypeException.create(args);
+        }
+        String flags = args.length == 2 ? toStringNode.execute(args[1]) : "";
+        try {
+            RegexSource[] sources = new RegexSource[(int) interop.getArraySize(args[0])];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = new RegexSource(toStringNode.execute(interop.readArrayElement(args[0], i)), flags);
+            }
+            return sources;
+        } catch (UnsupportedMessageException | InvalidArrayIndexException e) {
+            throw UnsupportedTypeException.create(args);
+        }
+    }
+
     private static RegexSource argsToRegexSource(Object[] args, ToStringNode patternToStringNode, ToStringNode flagsToStringNode) throws ArityException, UnsupportedTypeException {
         if (!(args.length == 1 || args.length == 2)) {
             CompilerDirectives.transferToInterpreter();
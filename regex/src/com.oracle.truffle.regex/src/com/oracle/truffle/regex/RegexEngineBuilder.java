@@ -132,7 +132,13 @@ public final class RegexEngineBuilder extends AbstractRegexObject {
     @TruffleBoundary
     private static RegexEngine createRegexEngine(RegexLanguage regexLanguage, RegexOptions options, TruffleObject fallbackCompiler) {
         RegexCompiler compiler = createRegexCompiler(regexLanguage, options, fallbackCompiler);
-        return options.isRegressionTestMode() ? new RegexEngine(compiler, options) : new CachingRegexEngine(compiler, options);
+        if (options.isRegressionTestMode()) {
+            return new RegexEngine(compiler, options);
+        }
+        // Regular expressions compiled by a fallback compiler may belong to the current context, so
+        // only engines without a fallback compiler share the compilation cache of the language.
+        RegexCompilationCache cache = fallbackCompiler == null ? regexLanguage.compilationCache : new RegexCompilationCache();
+        return new CachingRegexEngine(compiler, options, cache);
     }
 
     private static RegexCompiler createRegexCompiler(RegexLanguage regexLanguage, RegexOptions options, TruffleObject fallbackCompiler) {
@@ -41,6 +41,7 @@
 package com.oracle.truffle.regex;
 
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -97,6 +98,17 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
 
     public final RegexEngineBuilder engineBuilder = new RegexEngineBuilder(this);
 
+    /**
+     * Compiled regular expressions shared by all contexts of the polyglot engine.
+     */
+    public final RegexCompilationCache compilationCache = new RegexCompilationCache();
+
+    /**
+     * The number of contexts that were created and not yet disposed. The statistics of the
+     * {@link #compilationCache} are logged when the last context of the engine is disposed.
+     */
+    private final AtomicInteger liveContexts = new AtomicInteger();
+
     private final CallTarget getEngineBuilderCT = Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(engineBuilder));
 
     public static void validateRegex(String pattern, String flags) throws RegexSyntaxException {
@@ -114,6 +126,7 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
 
     @Override
     protected RegexContext createContext(Env env) {
+        liveContexts.incrementAndGet();
         return new RegexContext(env);
     }
 
@@ -123,6 +136,13 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
         return true;
     }
 
+    @Override
+    protected void disposeContext(RegexContext context) {
+        if (liveContexts.decrementAndGet() == 0) {
+            compilationCache.logStatistics();
+        }
+    }
+
     @Override
     protected Iterable<Scope> findTopScopes(RegexContext context) {
         return Collections.emptySet();
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.interop.ArityException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.regex.RegexObject.ExecCompiledRegexNode;
+import com.oracle.truffle.regex.result.RegexSetResult;
+import com.oracle.truffle.regex.runtime.nodes.ExpectStringOrTruffleObjectNode;
+import com.oracle.truffle.regex.runtime.nodes.StringEqualsNode;
+import com.oracle.truffle.regex.runtime.nodes.ToLongNode;
+import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
+
+/**
+ * {@link RegexSetObject} represents a set of regular expressions that are compiled into a single
+ * automaton and matched against input strings in a single pass. It is the result of invoking the
+ * {@code compileSet} method of a {@link RegexEngine}. It exposes the following properties:
+ * <ol>
+ * <li>{@code int patternCount}: number of regular expressions in the set.</li>
+ * <li>{@link RegexSetObjectExecMethod} {@code exec}: an executable method that matches all regular
+ * expressions of the set against a string. The method accepts the same parameters as the
+ * {@code exec} method of {@link RegexObject}. The return value is a {@link RegexSetResult}, an
+ * array of the indices of all regular expressions that have a match in the input. The set is
+ * compiled lazily on the first invocation.</li>
+ * </ol>
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class RegexSetObject extends AbstractConstantKeysObject {
+
+    private static final String PROP_EXEC = "exec";
+    private static final String PROP_PATTERN_COUNT = "patternCount";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_EXEC, PROP_PATTERN_COUNT);
+    private static final RegexSetResult NO_MATCH = new RegexSetResult(new int[0]);
+
+    private final RegexCompiler compiler;
+    private final RegexSource[] sources;
+    private CompiledRegexObject compiledRegexObject;
+
+    public RegexSetObject(RegexCompiler compiler, RegexSource[] sources) {
+        this.compiler = compiler;
+        this.sources = sources;
+    }
+
+    public RegexSource[] getSources() {
+        return sources;
+    }
+
+    public int getPatternCount() {
+        return sources.length;
+    }
+
+    public CompiledRegexObject getCompiledRegexObject() {
+        if (compiledRegexObject == null) {
+            compiledRegexObject = compileRegexSet();
+        }
+        return compiledRegexObject;
+    }
+
+    @TruffleBoundary
+    private CompiledRegexObject compileRegexSet() {
+        return compiler.compileSet(sources);
+    }
+
+    @Override
+    public TruffleReadOnlyKeysArray getKeys() {
+        return KEYS;
+    }
+
+    @Override
+    public Object readMemberImpl(String symbol) throws UnknownIdentifierException {
+        switch (symbol) {
+            case PROP_EXEC:
+                return new RegexSetObjectExecMethod(this);
+            case PROP_PATTERN_COUNT:
+                return getPatternCount();
+            default:
+                CompilerDirectives.transferToInterpreter();
+                throw UnknownIdentifierException.create(symbol);
+        }
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    boolean isMemberInvocable(String member,
+                    @Shared("isExecPropNode") @Cached StringEqualsNode isExecPropNode) {
+        return isExecPropNode.execute(member, PROP_EXEC);
+    }
+
+    @ExportMessage
+    Object invokeMember(String member, Object[] args,
+                    @Shared("isExecPropNode") @Cached StringEqualsNode isExecPropNode,
+                    @Cached ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode,
+                    @Cached ToLongNode toLongNode,
+                    @Cached ExecCompiledRegexNode execNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException, UnsupportedMessageException {
+        if (!isExecPropNode.execute(member, PROP_EXEC)) {
+            CompilerDirectives.transferToInterpreter();
+            throw UnknownIdentifierException.create(member);
+        }
+        return exec(this, args, expectStringOrTruffleObjectNode, toLongNode, execNode);
+    }
+
+    private static Object exec(RegexSetObject regexSet, Object[] args, ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode, ToLongNode toLongNode, ExecCompiledRegexNode execNode)
+                    throws ArityException, UnsupportedTypeException, UnsupportedMessageException, UnknownIdentifierException {
+        if (args.length != 2) {
+            CompilerDirectives.transferToInterpreter();
+            throw ArityException.create(2, args.length);
+        }
+        Object input = expectStringOrTruffleObjectNode.execute(args[0]);
+        long fromIndex = toLongNode.execute(args[1]);
+        if (fromIndex > Integer.MAX_VALUE) {
+            return NO_MATCH;
+        }
+        return execNode.execute(regexSet.getCompiledRegexObject(), input, (int) fromIndex);
+    }
+
+    @TruffleBoundary
+    @Override
+    public String toString() {
+        return "RegexSet{patternCount=" + sources.length + "}";
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexSetObjectExecMethod extends AbstractRegexObject {
+
+        private final RegexSetObject regexSet;
+
+        public RegexSetObjectExecMethod(RegexSetObject regexSet) {
+            this.regexSet = regexSet;
+        }
+
+        public RegexSetObject getRegexSetObject() {
+            return regexSet;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @Cached ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode,
+                        @Cached ToLongNode toLongNode,
+                        @Cached ExecCompiledRegexNode execNode) throws ArityException, UnsupportedTypeException, UnsupportedMessageException {
+            try {
+                return exec(regexSet, args, expectStringOrTruffleObjectNode, toLongNode, execNode);
+            } catch (UnknownIdentifierException e) {
+                CompilerDirectives.transferToInterpreter();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
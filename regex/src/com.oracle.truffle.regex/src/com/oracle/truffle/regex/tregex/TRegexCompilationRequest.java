@@ -187,6 +187,25 @@ public final class TRegexCompilationRequest {
         return new TRegexBacktrackingNFAExecutorNode(pureNFA, pureNFA.getRoot(), lookAroundExecutors, compilationBuffer);
     }
 
+    /**
+     * Creates the {@link NFA} of a single pattern of a regex set, see
+     * {@link TRegexCompiler#compileSet(RegexSource[])}.
+     *
+     * @return the {@link NFA}, or {@code null} if the pattern can never match.
+     */
+    @TruffleBoundary
+    NFA compileNFAForSet() {
+        createAST();
+        if (ast.getRoot().isDead()) {
+            return null;
+        }
+        if (!canTransformToDFA(ast)) {
+            throw new UnsupportedRegexException("regex sets support only expressions that can be converted to a DFA", source);
+        }
+        createNFA();
+        return nfa.isDead() ? null : nfa;
+    }
+
     @TruffleBoundary
     TRegexExecRootNode.LazyCaptureGroupRegexSearchNode compileLazyDFAExecutor(TRegexExecRootNode rootNode, boolean allowSimpleCG) {
         assert ast != null;
@@ -289,6 +308,7 @@ public final class TRegexCompilationRequest {
     public TRegexDFAExecutorNode createDFAExecutor(NFA nfaArg, TRegexDFAExecutorProperties props, String debugDumpName) {
         DFAGenerator dfa = new DFAGenerator(this, nfaArg, props, compilationBuffer, tRegexCompiler.getOptions());
         phaseStart(dfa.getDebugDumpName(debugDumpName) + " DFA");
+        final long startTime = System.nanoTime();
         TRegexDFAExecutorNode executorNode;
         try {
             dfa.calcDFA();
@@ -296,6 +316,8 @@ public final class TRegexCompilationRequest {
         } finally {
             phaseEnd(dfa.getDebugDumpName(debugDumpName) + " DFA");
         }
+        // Bailouts are not counted, the statistics only cover the DFAs that are used.
+        tRegexCompiler.getLanguage().compilationCache.recordDFAGeneration(System.nanoTime() - startTime);
         debugDFA(dfa, debugDumpName);
         return executorNode;
     }
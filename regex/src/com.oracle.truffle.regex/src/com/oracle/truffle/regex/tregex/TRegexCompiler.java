@@ -47,9 +47,11 @@ import com.oracle.truffle.regex.RegexLanguage;
 import com.oracle.truffle.regex.RegexOptions;
 import com.oracle.truffle.regex.RegexSource;
 import com.oracle.truffle.regex.RegexSyntaxException;
+import com.oracle.truffle.regex.tregex.nfa.MultiPatternNFA;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode.LazyCaptureGroupRegexSearchNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexSetExecRootNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexBacktrackingNFAExecutorNode;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavor;
@@ -89,6 +91,26 @@ public final class TRegexCompiler implements RegexCompiler {
         return new TRegexCompilationRequest(this, ecmascriptSource).compile();
     }
 
+    @TruffleBoundary
+    @Override
+    public CompiledRegexObject compileSet(RegexSource[] sources) throws RegexSyntaxException {
+        NFA[] nfas = new NFA[sources.length];
+        StringBuilder combinedPattern = new StringBuilder();
+        for (int i = 0; i < sources.length; i++) {
+            RegexSource ecmascriptSource = sources[i];
+            if (options.getFlavor() != null) {
+                ecmascriptSource = options.getFlavor().forRegex(sources[i]).toECMAScriptRegex();
+            }
+            nfas[i] = new TRegexCompilationRequest(this, ecmascriptSource).compileNFAForSet();
+            if (i > 0) {
+                combinedPattern.append('|');
+            }
+            combinedPattern.append(sources[i].getPattern());
+        }
+        RegexSource combinedSource = new RegexSource(combinedPattern.toString(), sources.length == 0 ? "" : sources[0].getFlags());
+        return new CompiledRegexObject(language, new TRegexSetExecRootNode(language, combinedSource, new MultiPatternNFA(nfas)));
+    }
+
     @TruffleBoundary
     public TRegexDFAExecutorNode compileEagerDFAExecutor(RegexSource source) {
         return new TRegexCompilationRequest(this, source).compileEagerDFAExecutor();
@@ -156,6 +156,16 @@ public class TRegexOptions {
      */
     public static final int TRegexMaxDFASize = 2_400;
 
+    /**
+     * Maximum number of states cached by
+     * {@link com.oracle.truffle.regex.tregex.nodes.nfa.TRegexLazyDFAExecutorNode}, which is used
+     * for expressions whose DFA exceeds {@link #TRegexMaxDFASize}, and by
+     * {@link com.oracle.truffle.regex.tregex.nodes.TRegexSetExecRootNode}. When the cache is full, it is
+     * flushed and refilled on demand, so memory consumption stays bounded while matching remains
+     * linear in the input length.
+     */
+    public static final int TRegexLazyDFAMaxNumberOfStates = 2_000;
+
     /**
      * Maximum number of entries in the global compilation cache in
      * {@link com.oracle.truffle.regex.RegexLanguage}.
@@ -73,6 +73,7 @@ import com.oracle.truffle.regex.tregex.buffer.ObjectArrayBuffer;
 import com.oracle.truffle.regex.tregex.buffer.ShortArrayBuffer;
 import com.oracle.truffle.regex.tregex.matchers.AnyMatcher;
 import com.oracle.truffle.regex.tregex.matchers.CharMatcher;
+import com.oracle.truffle.regex.tregex.matchers.SkipWhileInSetMatcher;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nfa.NFAState;
 import com.oracle.truffle.regex.tregex.nfa.NFAStateTransition;
@@ -840,14 +841,21 @@ public final class DFAGenerator implements JsonConvertible {
                 }
             }
             char[] indexOfChars = null;
+            SkipWhileInSetMatcher skipWhileInSetMatcher = null;
             short loopToSelf = -1;
             for (int i = 0; i < successors.length - (s.hasBackwardPrefixState() ? 1 : 0); i++) {
                 successors[i] = (short) s.getSuccessors()[i].getTarget().getId();
                 if (successors[i] == id) {
                     loopToSelf = (short) i;
                     CodePointSet loopMB = s.getSuccessors()[i].getMatcherBuilder();
-                    if (coversCharSpace && !loopMB.matchesEverything() && loopMB.inverseValueCount() <= 4) {
-                        indexOfChars = loopMB.inverseToCharArray();
+                    if (coversCharSpace && !loopMB.matchesEverything()) {
+                        if (loopMB.inverseValueCount() <= 4) {
+                            indexOfChars = loopMB.inverseToCharArray();
+                        } else {
+                            // too many characters leave the loop for the indexOf intrinsics, try
+                            // a table-driven scan instead
+                            skipWhileInSetMatcher = SkipWhileInSetMatcher.create(loopMB);
+                        }
                     }
                 }
                 assert successors[i] >= 0 && successors[i] < ret.length;
@@ -863,7 +871,7 @@ public final class DFAGenerator implements JsonConvertible {
             byte flags = DFAStateNode.buildFlags(s.isUnAnchoredFinalState(), s.isAnchoredFinalState(), s.hasBackwardPrefixState());
             DFAStateNode.LoopOptimizationNode loopOptimizationNode = null;
             if (loopToSelf != -1) {
-                loopOptimizationNode = DFAStateNode.buildLoopOptimizationNode(loopToSelf, indexOfChars);
+                loopOptimizationNode = DFAStateNode.buildLoopOptimizationNode(loopToSelf, indexOfChars, skipWhileInSetMatcher);
             }
             DFASimpleCG simpleCG = null;
             if (doSimpleCG) {
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.matchers;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.regex.charset.CodePointSet;
+import com.oracle.truffle.regex.util.CompilationFinalBitSet;
+
+/**
+ * Character set used by DFA states whose loop-back transition can be skipped with a single scan
+ * over the input, i.e. states that consume characters of a set until they see a character that is
+ * not in the set (e.g. {@code [a-z0-9_]*}), or, equivalently, states that search for any of a
+ * number of characters (e.g. {@code [^<>&"']*}). If the set of characters leaving the loop is
+ * small enough (at most four characters), the intrinsified {@link com.oracle.truffle.api.ArrayUtils}
+ * {@code indexOf} methods are used instead.
+ * <p>
+ * The set is represented as a 256-bit table for Latin-1 characters, plus a single flag for all
+ * characters above {@code 0xff}. Consequently, only sets that either contain all or none of the
+ * non-Latin-1 characters can be represented, see {@link #create(CodePointSet)}.
+ */
+public final class SkipWhileInSetMatcher {
+
+    private static final CodePointSet NON_LATIN1 = CodePointSet.create(0x100, 0xffff);
+
+    private final CompilationFinalBitSet latin1;
+    private final boolean nonLatin1;
+
+    private SkipWhileInSetMatcher(CompilationFinalBitSet latin1, boolean nonLatin1) {
+        this.latin1 = latin1;
+        this.nonLatin1 = nonLatin1;
+    }
+
+    /**
+     * Creates a new {@link SkipWhileInSetMatcher} for a loop's character set.
+     *
+     * @return a new {@link SkipWhileInSetMatcher}, or {@code null} if {@code loopSet} contains
+     *         some, but not all characters above {@code 0xff}.
+     */
+    public static SkipWhileInSetMatcher create(CodePointSet loopSet) {
+        boolean nonLatin1;
+        if (loopSet.contains(NON_LATIN1)) {
+            nonLatin1 = true;
+        } else if (!loopSet.intersects(NON_LATIN1)) {
+            nonLatin1 = false;
+        } else {
+            return null;
+        }
+        CompilationFinalBitSet latin1 = new CompilationFinalBitSet(256);
+        for (int i = 0; i < loopSet.size(); i++) {
+            int lo = loopSet.getLo(i);
+            if (lo > 0xff) {
+                break;
+            }
+            latin1.setRange(lo, Math.min(loopSet.getHi(i), 0xff));
+        }
+        return new SkipWhileInSetMatcher(latin1, nonLatin1);
+    }
+
+    /**
+     * Returns {@code true} if {@code c} is in the loop's set, i.e. the scan must continue.
+     */
+    public boolean match(char c) {
+        return c < 256 ? latin1.get(c) : nonLatin1;
+    }
+
+    /**
+     * Returns {@code true} if all characters above {@code 0xff} are in the loop's set.
+     */
+    public boolean matchesNonLatin1() {
+        return nonLatin1;
+    }
+
+    @Override
+    @CompilerDirectives.TruffleBoundary
+    public String toString() {
+        return "skip-while-in{latin1 " + latin1 + (nonLatin1 ? " + [\\u0100-\\uffff]" : "") + "}";
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nfa;
+
+import com.oracle.truffle.regex.util.BitSets;
+
+/**
+ * Combined automaton of a set of regular expressions, used to find all expressions of the set that
+ * match a given input in a single pass. The states of the individual {@link NFA}s, as created by
+ * {@link NFAGenerator}, are numbered consecutively, so that a single set of state IDs describes the
+ * current states of all patterns. Every pattern keeps its own final states, which tells us which
+ * pattern matched.
+ * <p>
+ * Like {@code TRegexNFAExecutorNode}, this automaton follows the initial loop back transition of a
+ * pattern explicitly, and it does so only until the pattern has matched. Patterns that have
+ * matched are excluded from all further steps.
+ */
+public final class MultiPatternNFA {
+
+    private final NFA[] nfas;
+    private final NFAState[] states;
+    private final int[] statePatterns;
+    private final int[] stateOffsets;
+    private final boolean[] searching;
+
+    public MultiPatternNFA(NFA[] nfas) {
+        this.nfas = nfas;
+        this.stateOffsets = new int[nfas.length];
+        this.searching = new boolean[nfas.length];
+        int nStates = 0;
+        for (int i = 0; i < nfas.length; i++) {
+            stateOffsets[i] = nStates;
+            if (nfas[i] != null) {
+                nfas[i].setInitialLoopBack(false);
+                nStates += nfas[i].getNumberOfStates();
+                searching[i] = !nfas[i].getAst().getFlags().isSticky() && !nfas[i].getAst().getRoot().startsWithCaret();
+            }
+        }
+        this.states = new NFAState[nStates];
+        this.statePatterns = new int[nStates];
+        for (int i = 0; i < nfas.length; i++) {
+            if (nfas[i] != null) {
+                for (int j = 0; j < nfas[i].getNumberOfStates(); j++) {
+                    states[stateOffsets[i] + j] = nfas[i].getState(j);
+                    statePatterns[stateOffsets[i] + j] = i;
+                }
+            }
+        }
+    }
+
+    public int getNumberOfPatterns() {
+        return nfas.length;
+    }
+
+    public int getNumberOfStates() {
+        return states.length;
+    }
+
+    /**
+     * Returns {@code true} if pattern {@code i} can never match.
+     */
+    public boolean isDead(int i) {
+        return nfas[i] == null;
+    }
+
+    /**
+     * Returns the number of characters before {@code fromIndex} the given pattern has to look at,
+     * i.e. the length of its look-behind prefix.
+     */
+    public int getMaxPrefixLength(int pattern) {
+        return nfas[pattern] == null ? 0 : nfas[pattern].getAnchoredEntry().length - 1;
+    }
+
+    public long[] createPatternSet() {
+        return BitSets.createBitSetArray(nfas.length);
+    }
+
+    public long[] createStateSet() {
+        return BitSets.createBitSetArray(states.length);
+    }
+
+    /**
+     * Adds the initial states of {@code pattern} to {@code stateSet}, analogous to
+     * {@code TRegexNFAExecutorNode}.
+     *
+     * @param prefixLength number of characters before {@code fromIndex} the search starts at.
+     * @param atStartOfInput {@code true} if the search starts at index 0.
+     */
+    public void addInitialStates(long[] stateSet, int pattern, int prefixLength, boolean atStartOfInput) {
+        NFA nfa = nfas[pattern];
+        int anchoredInitialState = nfa.getAnchoredEntry()[prefixLength].getTarget().getId();
+        int unAnchoredInitialState = nfa.getUnAnchoredEntry()[prefixLength].getTarget().getId();
+        if (unAnchoredInitialState != anchoredInitialState && atStartOfInput) {
+            BitSets.set(stateSet, stateOffsets[pattern] + anchoredInitialState);
+        }
+        if (nfa.getState(unAnchoredInitialState) != null) {
+            BitSets.set(stateSet, stateOffsets[pattern] + unAnchoredInitialState);
+        }
+    }
+
+    /**
+     * Adds all patterns that match in one of the given states to {@code result}.
+     *
+     * @param curStates sorted IDs of the current states.
+     * @param loopBack whether the initial loop back transitions of searching patterns are active.
+     * @param matched patterns that have matched already and are ignored.
+     * @param atEnd {@code true} if the current index is the end of the input.
+     */
+    public void collectMatches(int[] curStates, boolean loopBack, long[] matched, boolean atEnd, long[] result) {
+        for (int stateId : curStates) {
+            int pattern = statePatterns[stateId];
+            if (!BitSets.get(matched, pattern) && matches(states[stateId], atEnd)) {
+                BitSets.set(result, pattern);
+            }
+        }
+        if (loopBack) {
+            for (int pattern = 0; pattern < nfas.length; pattern++) {
+                if (searching[pattern] && !BitSets.get(matched, pattern) && matches(nfas[pattern].getInitialLoopBackTransition().getTarget(), atEnd)) {
+                    BitSets.set(result, pattern);
+                }
+            }
+        }
+    }
+
+    private static boolean matches(NFAState state, boolean atEnd) {
+        return atEnd ? state.hasTransitionToFinalState(true) : state.hasTransitionToUnAnchoredFinalState(true);
+    }
+
+    /**
+     * Calculates the successors of {@code curStates} on character {@code c}.
+     *
+     * @param excluded patterns whose states are dropped, i.e. patterns that have matched already.
+     * @return the sorted IDs of the successor states.
+     */
+    public int[] step(int[] curStates, boolean loopBack, long[] excluded, char c) {
+        long[] marks = createStateSet();
+        for (int stateId : curStates) {
+            int pattern = statePatterns[stateId];
+            if (!BitSets.get(excluded, pattern)) {
+                markSuccessors(marks, states[stateId], stateOffsets[pattern], c);
+            }
+        }
+        if (loopBack) {
+            for (int pattern = 0; pattern < nfas.length; pattern++) {
+                if (searching[pattern] && !BitSets.get(excluded, pattern)) {
+                    markSuccessors(marks, nfas[pattern].getInitialLoopBackTransition().getTarget(), stateOffsets[pattern], c);
+                }
+            }
+        }
+        return toIndexArray(marks);
+    }
+
+    private static void markSuccessors(long[] marks, NFAState state, int stateOffset, char c) {
+        for (NFAStateTransition t : state.getSuccessors()) {
+            NFAState target = t.getTarget();
+            if (!target.isAnchoredFinalState(true) && !target.isUnAnchoredFinalState(true) && target.getCharSet().contains(c)) {
+                BitSets.set(marks, stateOffset + target.getId());
+            }
+        }
+    }
+
+    /**
+     * Returns {@code false} if none of the patterns that are not contained in {@code matched} can
+     * match anymore, i.e. none of them has a current state or is searching.
+     */
+    public boolean canMatchMore(int[] curStates, long[] matched) {
+        for (int stateId : curStates) {
+            if (!BitSets.get(matched, statePatterns[stateId])) {
+                return true;
+            }
+        }
+        for (int pattern = 0; pattern < nfas.length; pattern++) {
+            if (searching[pattern] && !BitSets.get(matched, pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the indices of all bits set in {@code bitSet}, in ascending order.
+     */
+    public static int[] toIndexArray(long[] bitSet) {
+        int[] ret = new int[BitSets.size(bitSet)];
+        int i = 0;
+        for (int wordIndex = 0; wordIndex < bitSet.length; wordIndex++) {
+            long word = bitSet[wordIndex];
+            while (word != 0) {
+                ret[i++] = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return ret;
+    }
+}
@@ -70,6 +70,7 @@ import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexLazyCaptureGroupsRootNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexLazyFindStartRootNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexBacktrackingNFAExecutorNode;
+import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexLazyDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexNFAExecutorNode;
 import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
 
@@ -252,6 +253,10 @@ public class TRegexExecRootNode extends RegexExecRootNode implements RegexProfil
                     switchToEagerDFA(null);
                 }
             }
+        } else if (nfaNode.getExecutor() instanceof TRegexNFAExecutorNode) {
+            // the DFA is too large, use a lazily built DFA with a bounded state cache instead
+            nfaNode = new NFARegexSearchNode(createEntryNode(new TRegexLazyDFAExecutorNode((TRegexNFAExecutorNode) nfaNode.getExecutor(), tRegexCompiler.getLanguage().compilationCache)));
+            runnerNode = insert(nfaNode);
         }
     }
 
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.regex.RegexBodyNode;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexSetResult;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.nfa.MultiPatternNFA;
+import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+import com.oracle.truffle.regex.util.BitSets;
+
+/**
+ * Matches a set of regular expressions against an input string in a single pass and returns the
+ * indices of all patterns that have a match, see {@link com.oracle.truffle.regex.RegexSetObject}.
+ * <p>
+ * The {@link MultiPatternNFA} of the set is converted to a DFA lazily during matching. A DFA state
+ * consists of the current states of the combined NFA and the set of patterns that have matched so
+ * far. States are kept in a cache of at most {@link TRegexOptions#TRegexLazyDFAMaxNumberOfStates}
+ * entries that is flushed when it overflows, analogous to
+ * {@link com.oracle.truffle.regex.tregex.nodes.nfa.TRegexLazyDFAExecutorNode}.
+ */
+public final class TRegexSetExecRootNode extends RegexBodyNode {
+
+    private static final int[] NO_STATES = {};
+    private static final SetDFAState[] NO_SUCCESSORS = new SetDFAState[0];
+
+    private final MultiPatternNFA automaton;
+    private final HashMap<StateKey, SetDFAState> stateCache = new HashMap<>();
+    @Child private InputLengthNode lengthNode = InputLengthNode.create();
+    @Child private InputCharAtNode charAtNode = InputCharAtNode.create();
+
+    public TRegexSetExecRootNode(RegexLanguage language, RegexSource source, MultiPatternNFA automaton) {
+        super(language, source);
+        this.automaton = automaton;
+    }
+
+    @Override
+    public RegexSetResult execute(VirtualFrame frame) {
+        Object[] args = frame.getArguments();
+        assert args.length == 2;
+        Object input = args[0];
+        int fromIndex = (int) args[1];
+        return new RegexSetResult(MultiPatternNFA.toIndexArray(search(input, fromIndex)));
+    }
+
+    private long[] search(Object input, int fromIndex) {
+        final int inputLength = lengthNode.execute(input);
+        if (fromIndex > inputLength) {
+            return automaton.createPatternSet();
+        }
+        int index = fromIndex - getMaxPrefixLength(fromIndex);
+        // characters before fromIndex are only visited for look-behind assertions, the initial
+        // loop back transitions are not followed there, so we don't cache these steps.
+        long[] matched = automaton.createPatternSet();
+        int[] curStates = NO_STATES;
+        while (index < fromIndex) {
+            curStates = addInitialStates(curStates, fromIndex, index);
+            automaton.collectMatches(curStates, false, matched, false, matched);
+            curStates = automaton.step(curStates, false, matched, charAtNode.execute(input, index));
+            index++;
+        }
+        SetDFAState state = getState(addInitialStates(curStates, fromIndex, index), matched);
+        while (true) {
+            if (CompilerDirectives.inInterpreter()) {
+                RegexRootNode.checkThreadInterrupted();
+            }
+            if (state.isFinished()) {
+                return state.matchedAfter;
+            }
+            if (index < inputLength) {
+                char c = charAtNode.execute(input, index);
+                SetDFAState successor = c < state.successors.length ? state.successors[c] : null;
+                if (successor == null) {
+                    successor = computeSuccessor(state, c);
+                }
+                state = successor;
+                index++;
+            } else {
+                return state.matchedAtEnd;
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private int getMaxPrefixLength(int fromIndex) {
+        int maxPrefixLength = 0;
+        for (int i = 0; i < automaton.getNumberOfPatterns(); i++) {
+            maxPrefixLength = Math.max(maxPrefixLength, Math.min(fromIndex, automaton.getMaxPrefixLength(i)));
+        }
+        return maxPrefixLength;
+    }
+
+    /**
+     * Adds the initial states of all patterns whose search starts at {@code index}.
+     */
+    @TruffleBoundary
+    private int[] addInitialStates(int[] curStates, int fromIndex, int index) {
+        long[] stateSet = automaton.createStateSet();
+        for (int stateId : curStates) {
+            BitSets.set(stateSet, stateId);
+        }
+        for (int i = 0; i < automaton.getNumberOfPatterns(); i++) {
+            if (!automaton.isDead(i)) {
+                int prefixLength = Math.min(fromIndex, automaton.getMaxPrefixLength(i));
+                if (fromIndex - prefixLength == index) {
+                    automaton.addInitialStates(stateSet, i, prefixLength, index == 0);
+                }
+            }
+        }
+        return MultiPatternNFA.toIndexArray(stateSet);
+    }
+
+    @TruffleBoundary
+    private synchronized SetDFAState computeSuccessor(SetDFAState state, char c) {
+        SetDFAState successor = getState(automaton.step(state.nfaStates, true, state.matchedAfter, c), state.matchedAfter);
+        if (c < state.successors.length) {
+            state.successors[c] = successor;
+        }
+        return successor;
+    }
+
+    @TruffleBoundary
+    private synchronized SetDFAState getState(int[] nfaStates, long[] matched) {
+        StateKey key = new StateKey(nfaStates, matched);
+        SetDFAState cached = stateCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long[] matchedAfter = matched.clone();
+        automaton.collectMatches(nfaStates, true, matched, false, matchedAfter);
+        SetDFAState state;
+        if (automaton.canMatchMore(nfaStates, matchedAfter)) {
+            long[] matchedAtEnd = matchedAfter.clone();
+            automaton.collectMatches(nfaStates, true, matchedAfter, true, matchedAtEnd);
+            state = new SetDFAState(nfaStates, matchedAfter, matchedAtEnd, new SetDFAState[256]);
+        } else {
+            state = new SetDFAState(nfaStates, matchedAfter, matchedAfter, NO_SUCCESSORS);
+        }
+        if (stateCache.size() >= TRegexOptions.TRegexLazyDFAMaxNumberOfStates) {
+            stateCache.clear();
+        }
+        stateCache.put(key, state);
+        return state;
+    }
+
+    @Override
+    protected String getEngineLabel() {
+        return "TRegex set";
+    }
+
+    private static final class StateKey {
+
+        private final int[] nfaStates;
+        private final long[] matched;
+
+        StateKey(int[] nfaStates, long[] matched) {
+            this.nfaStates = nfaStates;
+            this.matched = matched;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof StateKey)) {
+                return false;
+            }
+            StateKey o = (StateKey) obj;
+            return Arrays.equals(nfaStates, o.nfaStates) && Arrays.equals(matched, o.matched);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nfaStates) * 31 + Arrays.hashCode(matched);
+        }
+    }
+
+    /**
+     * A state of the lazily built DFA. Entries of {@link #successors} are written without
+     * synchronization, which is safe because all fields of the referenced states are final.
+     */
+    private static final class SetDFAState {
+
+        private final int[] nfaStates;
+        /**
+         * Patterns that have matched when this state is reached before the end of the input.
+         */
+        private final long[] matchedAfter;
+        /**
+         * Patterns that have matched when this state is reached at the end of the input.
+         */
+        private final long[] matchedAtEnd;
+        /**
+         * Cached transitions on Latin-1 characters.
+         */
+        private final SetDFAState[] successors;
+
+        SetDFAState(int[] nfaStates, long[] matchedAfter, long[] matchedAtEnd, SetDFAState[] successors) {
+            this.nfaStates = nfaStates;
+            this.matchedAfter = matchedAfter;
+            this.matchedAtEnd = matchedAtEnd;
+            this.successors = successors;
+        }
+
+        /**
+         * Returns {@code true} if no further pattern can match in this state.
+         */
+        boolean isFinished() {
+            return successors == NO_SUCCESSORS;
+        }
+    }
+}
@@ -105,10 +105,7 @@ public class CGTrackingDFAStateNode extends DFAStateNode {
         if (checkMatch(locals, executor, compactString)) {
             final int preLoopIndex = locals.getIndex();
             if (doIndexof(executor)) {
-                int indexOfResult = loopOptimizationNode.getIndexOfNode().execute(locals.getInput(),
-                                preLoopIndex,
-                                locals.getCurMaxIndex(),
-                                loopOptimizationNode.getIndexOfChars());
+                int indexOfResult = loopOptimizationNode.indexOf(locals.getInput(), preLoopIndex, locals.getCurMaxIndex());
                 indexofApplyLoopReorders(locals, executor, preLoopIndex, indexOfResult < 0 ? locals.getCurMaxIndex() : indexOfResult);
                 if (indexOfResult < 0) {
                     locals.setIndex(locals.getCurMaxIndex());
@@ -137,7 +134,7 @@ public class CGTrackingDFAStateNode extends DFAStateNode {
     }
 
     public boolean doIndexof(TRegexDFAExecutorNode executor) {
-        return executor.isForward() && hasLoopToSelf() && loopOptimizationNode.getIndexOfChars() != null;
+        return executor.isForward() && hasLoopToSelf() && loopOptimizationNode.canDoIndexOf();
     }
 
     public void indexofApplyLoopReorders(TRegexDFAExecutorLocals locals, TRegexDFAExecutorNode executor, final int preLoopIndex, int postLoopIndex) {
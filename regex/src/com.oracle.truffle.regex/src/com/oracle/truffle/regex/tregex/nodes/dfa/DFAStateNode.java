@@ -50,9 +50,11 @@ import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.regex.tregex.matchers.CharMatcher;
+import com.oracle.truffle.regex.tregex.matchers.SkipWhileInSetMatcher;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorLocals;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.input.InputIndexOfNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputSkipWhileInSetNode;
 import com.oracle.truffle.regex.tregex.util.DebugUtil;
 import com.oracle.truffle.regex.tregex.util.json.Json;
 import com.oracle.truffle.regex.tregex.util.json.JsonArray;
@@ -64,28 +66,64 @@ public class DFAStateNode extends DFAAbstractStateNode {
 
         private final short loopTransitionIndex;
         @CompilationFinal(dimensions = 1) private final char[] indexOfChars;
+        private final SkipWhileInSetMatcher skipWhileInSetMatcher;
         @Child private InputIndexOfNode indexOfNode;
+        @Child private InputSkipWhileInSetNode skipWhileInSetNode;
 
-        public LoopOptimizationNode(short loopTransitionIndex, char[] indexOfChars) {
+        public LoopOptimizationNode(short loopTransitionIndex, char[] indexOfChars, SkipWhileInSetMatcher skipWhileInSetMatcher) {
+            assert indexOfChars == null || skipWhileInSetMatcher == null;
             this.loopTransitionIndex = loopTransitionIndex;
             this.indexOfChars = indexOfChars;
+            this.skipWhileInSetMatcher = skipWhileInSetMatcher;
         }
 
         private LoopOptimizationNode nodeSplitCopy() {
-            return new LoopOptimizationNode(loopTransitionIndex, indexOfChars);
+            return new LoopOptimizationNode(loopTransitionIndex, indexOfChars, skipWhileInSetMatcher);
         }
 
         public char[] getIndexOfChars() {
             return indexOfChars;
         }
 
-        public InputIndexOfNode getIndexOfNode() {
+        public SkipWhileInSetMatcher getSkipWhileInSetMatcher() {
+            return skipWhileInSetMatcher;
+        }
+
+        /**
+         * Returns {@code true} if the loop can be skipped by a single scan for the first character
+         * that leaves the loop, see {@link #indexOf(Object, int, int)}.
+         */
+        public boolean canDoIndexOf() {
+            return indexOfChars != null || skipWhileInSetMatcher != null;
+        }
+
+        /**
+         * Returns the index of the first character in {@code [fromIndex, maxIndex)} that does not
+         * match the loop transition, or {@code -1} if there is no such character.
+         */
+        public int indexOf(Object input, int fromIndex, int maxIndex) {
+            if (indexOfChars != null) {
+                return getIndexOfNode().execute(input, fromIndex, maxIndex, indexOfChars);
+            } else {
+                return getSkipWhileInSetNode().execute(input, fromIndex, maxIndex, skipWhileInSetMatcher);
+            }
+        }
+
+        private InputIndexOfNode getIndexOfNode() {
             if (indexOfNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 indexOfNode = insert(InputIndexOfNode.create());
             }
             return indexOfNode;
         }
+
+        private InputSkipWhileInSetNode getSkipWhileInSetNode() {
+            if (skipWhileInSetNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                skipWhileInSetNode = insert(InputSkipWhileInSetNode.create());
+            }
+            return skipWhileInSetNode;
+        }
     }
 
     private static final byte FLAG_FINAL_STATE = 1;
@@ -130,8 +168,8 @@ public class DFAStateNode extends DFAAbstractStateNode {
         return flags;
     }
 
-    public static LoopOptimizationNode buildLoopOptimizationNode(short loopTransitionIndex, char[] indexOfChars) {
-        return new LoopOptimizationNode(loopTransitionIndex, indexOfChars);
+    public static LoopOptimizationNode buildLoopOptimizationNode(short loopTransitionIndex, char[] indexOfChars, SkipWhileInSetMatcher skipWhileInSetMatcher) {
+        return new LoopOptimizationNode(loopTransitionIndex, indexOfChars, skipWhileInSetMatcher);
     }
 
     @Override
@@ -213,7 +251,7 @@ public class DFAStateNode extends DFAAbstractStateNode {
         CompilerAsserts.partialEvaluationConstant(this);
         CompilerAsserts.partialEvaluationConstant(compactString);
         if (hasLoopToSelf()) {
-            if (executor.isForward() && loopOptimizationNode.indexOfChars != null) {
+            if (executor.isForward() && loopOptimizationNode.canDoIndexOf()) {
                 runIndexOf(locals, executor, compactString);
             } else {
                 while (executor.hasNext(locals)) {
@@ -244,10 +282,7 @@ public class DFAStateNode extends DFAAbstractStateNode {
 
     private void runIndexOf(TRegexDFAExecutorLocals locals, TRegexDFAExecutorNode executor, boolean compactString) {
         final int preLoopIndex = locals.getIndex();
-        int indexOfResult = loopOptimizationNode.getIndexOfNode().execute(locals.getInput(),
-                        preLoopIndex,
-                        locals.getCurMaxIndex(),
-                        loopOptimizationNode.indexOfChars);
+        int indexOfResult = loopOptimizationNode.indexOf(locals.getInput(), preLoopIndex, locals.getCurMaxIndex());
         if (indexOfResult < 0) {
             if (simpleCG != null && locals.getCurMaxIndex() > preLoopIndex) {
                 applySimpleCGTransition(simpleCG.getTransitions()[getLoopToSelf()], locals, locals.getCurMaxIndex() - 1);
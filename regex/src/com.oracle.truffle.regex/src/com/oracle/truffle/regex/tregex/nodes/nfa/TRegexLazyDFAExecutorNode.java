@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes.nfa;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.regex.RegexCompilationCache;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.nfa.NFA;
+import com.oracle.truffle.regex.tregex.nfa.NFAState;
+import com.oracle.truffle.regex.tregex.nfa.NFAStateTransition;
+import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorLocals;
+import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorNode;
+import com.oracle.truffle.regex.tregex.util.DebugUtil;
+
+/**
+ * This regex executor is used instead of {@link TRegexNFAExecutorNode} for expressions whose DFA
+ * could not be generated because it exceeds {@link TRegexOptions#TRegexMaxDFASize}. Similar to
+ * RE2's lazy DFA, it creates DFA states from the NFA on demand during matching and keeps them in a
+ * cache of at most {@link TRegexOptions#TRegexLazyDFAMaxNumberOfStates} states, which is flushed
+ * when it overflows. Transitions on Latin-1 characters are cached in the DFA states, transitions on
+ * all other characters only reuse the cached target states.
+ * <p>
+ * The lazy DFA ignores match priorities and capture groups, it only determines whether the input
+ * contains a match at all. Only if it does, the search is repeated with the wrapped
+ * {@link TRegexNFAExecutorNode} to calculate the capture group boundaries. Both searches are linear
+ * in the length of the input. The NFA search does not start at the beginning of the input, but at
+ * the last index where the lazy DFA had no partial match left, since the match cannot start
+ * before that index.
+ */
+public final class TRegexLazyDFAExecutorNode extends TRegexExecutorNode {
+
+    private static final LazyDFAState[] NO_SUCCESSORS = new LazyDFAState[0];
+
+    @Child private TRegexNFAExecutorNode nfaExecutor;
+    private final NFA nfa;
+    private final boolean searching;
+    /**
+     * Whether the NFA search can start where the lazy DFA had no partial match left. This requires
+     * that the expression has no look-behind, because the NFA search starts earlier than its start
+     * index to match look-behind assertions.
+     */
+    private final boolean canSkipToSearchStart;
+    private final RegexCompilationCache statistics;
+    private final HashMap<LazyDFAState, LazyDFAState> stateCache = new HashMap<>();
+    /**
+     * The cached initial states, see {@link #initialStateIndex(int, int)}. Entries are read without
+     * synchronization, which is safe because all fields of the referenced states are final.
+     */
+    private final LazyDFAState[] initialStateCache;
+
+    public TRegexLazyDFAExecutorNode(TRegexNFAExecutorNode nfaExecutor, RegexCompilationCache statistics) {
+        this.nfaExecutor = nfaExecutor;
+        this.nfa = nfaExecutor.getNFA();
+        this.searching = !nfa.getAst().getFlags().isSticky() && !nfa.getAst().getRoot().startsWithCaret();
+        this.canSkipToSearchStart = searching && nfa.getAnchoredEntry().length == 1;
+        this.statistics = statistics;
+        this.initialStateCache = new LazyDFAState[2 * nfa.getAnchoredEntry().length];
+        statistics.recordLazyDFA();
+    }
+
+    public NFA getNFA() {
+        return nfa;
+    }
+
+    @Override
+    public void setRoot(TRegexExecRootNode root) {
+        super.setRoot(root);
+        nfaExecutor.setRoot(root);
+    }
+
+    @Override
+    public boolean writesCaptureGroups() {
+        return nfaExecutor.writesCaptureGroups();
+    }
+
+    @Override
+    public TRegexExecutorLocals createLocals(Object input, int fromIndex, int index, int maxIndex) {
+        return nfaExecutor.createLocals(input, fromIndex, index, maxIndex);
+    }
+
+    @Override
+    public Object execute(TRegexExecutorLocals locals, boolean compactString) {
+        final int searchStart = findSearchStart(locals);
+        if (searchStart < 0) {
+            return null;
+        }
+        locals.setIndex(searchStart);
+        return nfaExecutor.execute(locals, compactString);
+    }
+
+    /**
+     * Mirrors {@link TRegexNFAExecutorNode#execute(TRegexExecutorLocals, boolean)}, without
+     * tracking match priorities and capture groups. Returns -1 if the input contains no match, and
+     * otherwise the index at which the NFA search has to start to find the first match.
+     */
+    private int findSearchStart(TRegexExecutorLocals locals) {
+        final int offset = Math.min(locals.getIndex(), nfa.getAnchoredEntry().length - 1);
+        final int inputLength = getInputLength(locals);
+        int index = locals.getIndex() - offset;
+        LazyDFAState state;
+        if (index >= locals.getFromIndex()) {
+            state = getInitialState(offset, index);
+            if (state.nfaStates.length == 0) {
+                return -1;
+            }
+        } else {
+            int[] initialStates = initialStates(offset, index);
+            if (initialStates.length == 0) {
+                return -1;
+            }
+            // the initial loop back transition is only followed from fromIndex onwards, so the
+            // characters before fromIndex (only present when matching look-behind assertions) are
+            // processed without the state cache.
+            while (index < locals.getFromIndex() && index < inputLength) {
+                if (matches(initialStates, false, false)) {
+                    return locals.getIndex();
+                }
+                initialStates = step(initialStates, false, getCharAt(locals, index));
+                if (initialStates.length == 0 && !searching) {
+                    return -1;
+                }
+                index++;
+            }
+            state = getState(initialStates);
+        }
+        // A match that starts before an index at which no partial match is left would still be
+        // in progress there, so the first match cannot start before that index.
+        int searchStart = locals.getIndex();
+        while (true) {
+            if (CompilerDirectives.inInterpreter()) {
+                RegexRootNode.checkThreadInterrupted();
+            }
+            if (canSkipToSearchStart && state.nfaStates.length == 0) {
+                searchStart = index;
+            }
+            if (index < inputLength) {
+                if (state.matches) {
+                    return searchStart;
+                }
+                char c = getCharAt(locals, index);
+                LazyDFAState successor = c < state.successors.length ? state.successors[c] : null;
+                if (successor == null) {
+                    successor = computeSuccessor(state, c);
+                }
+                if (successor.isDead()) {
+                    return -1;
+                }
+                state = successor;
+                index++;
+            } else {
+                return state.matchesAtEnd ? searchStart : -1;
+            }
+        }
+    }
+
+    /**
+     * The initial states only depend on the look-behind offset and on whether the search starts at
+     * the beginning of the input, where the anchored initial state is active.
+     */
+    private static int initialStateIndex(int offset, int index) {
+        return 2 * offset + (index == 0 ? 1 : 0);
+    }
+
+    private LazyDFAState getInitialState(int offset, int index) {
+        LazyDFAState state = initialStateCache[initialStateIndex(offset, index)];
+        if (state == null) {
+            state = computeInitialState(offset, index);
+        }
+        return state;
+    }
+
+    @TruffleBoundary
+    private synchronized LazyDFAState computeInitialState(int offset, int index) {
+        LazyDFAState state = getState(initialStates(offset, index));
+        initialStateCache[initialStateIndex(offset, index)] = state;
+        return state;
+    }
+
+    private int[] initialStates(int offset, int index) {
+        int anchoredInitialState = nfa.getAnchoredEntry()[offset].getTarget().getId();
+        int unAnchoredInitialState = nfa.getUnAnchoredEntry()[offset].getTarget().getId();
+        long[] marks = createMarks();
+        if (unAnchoredInitialState != anchoredInitialState && index == 0) {
+            mark(marks, anchoredInitialState);
+        }
+        if (nfa.getState(unAnchoredInitialState) != null) {
+            mark(marks, unAnchoredInitialState);
+        }
+        return toStateArray(marks);
+    }
+
+    private boolean matches(int[] states, boolean loopBack, boolean atEnd) {
+        for (int stateId : states) {
+            if (matches(nfa.getState(stateId), atEnd)) {
+                return true;
+            }
+        }
+        return loopBack && matches(nfa.getInitialLoopBackTransition().getTarget(), atEnd);
+    }
+
+    private static boolean matches(NFAState state, boolean atEnd) {
+        return atEnd ? state.hasTransitionToFinalState(true) : state.hasTransitionToUnAnchoredFinalState(true);
+    }
+
+    private int[] step(int[] states, boolean loopBack, char c) {
+        long[] marks = createMarks();
+        for (int stateId : states) {
+            markSuccessors(marks, nfa.getState(stateId), c);
+        }
+        if (loopBack) {
+            markSuccessors(marks, nfa.getInitialLoopBackTransition().getTarget(), c);
+        }
+        return toStateArray(marks);
+    }
+
+    private static void markSuccessors(long[] marks, NFAState state, char c) {
+        for (NFAStateTransition t : state.getSuccessors()) {
+            NFAState target = t.getTarget();
+            if (!target.isAnchoredFinalState(true) && !target.isUnAnchoredFinalState(true) && target.getCharSet().contains(c)) {
+                mark(marks, target.getId());
+            }
+        }
+    }
+
+    private long[] createMarks() {
+        return new long[((nfa.getNumberOfStates() - 1) >> 6) + 1];
+    }
+
+    private static void mark(long[] marks, int stateId) {
+        marks[stateId >> 6] |= 1L << stateId;
+    }
+
+    private static int[] toStateArray(long[] marks) {
+        int size = 0;
+        for (long word : marks) {
+            size += Long.bitCount(word);
+        }
+        int[] states = new int[size];
+        int i = 0;
+        for (int wordIndex = 0; wordIndex < marks.length; wordIndex++) {
+            long word = marks[wordIndex];
+            while (word != 0) {
+                states[i++] = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return states;
+    }
+
+    @TruffleBoundary
+    private synchronized LazyDFAState computeSuccessor(LazyDFAState state, char c) {
+        LazyDFAState successor = getState(step(state.nfaStates, searching, c));
+        if (c < state.successors.length) {
+            state.successors[c] = successor;
+        }
+        return successor;
+    }
+
+    @TruffleBoundary
+    private synchronized LazyDFAState getState(int[] nfaStates) {
+        LazyDFAState key = new LazyDFAState(nfaStates,
+                        matches(nfaStates, searching, false),
+                        matches(nfaStates, searching, true),
+                        nfaStates.length == 0 && !searching);
+        LazyDFAState cached = stateCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (stateCache.size() >= TRegexOptions.TRegexLazyDFAMaxNumberOfStates) {
+            // States of the previous generation stay valid for searches that are still using
+            // them, but are no longer reachable from new states.
+            stateCache.clear();
+            Arrays.fill(initialStateCache, null);
+            statistics.recordLazyDFACacheFlush();
+            DebugUtil.LOG_BAILOUT_MESSAGES.finer(() -> "lazy DFA state cache flushed: " + nfa.getAst().getSource());
+        }
+        stateCache.put(key, key);
+        return key;
+    }
+
+    private static final class LazyDFAState {
+
+        private final int[] nfaStates;
+        private final boolean matches;
+        private final boolean matchesAtEnd;
+        /**
+         * Cached transitions on Latin-1 characters. Entries are written without synchronization,
+         * which is safe because all fields of the referenced states are final.
+         */
+        private final LazyDFAState[] successors;
+
+        LazyDFAState(int[] nfaStates, boolean matches, boolean matchesAtEnd, boolean dead) {
+            this.nfaStates = nfaStates;
+            this.matches = matches;
+            this.matchesAtEnd = matchesAtEnd;
+            this.successors = dead ? NO_SUCCESSORS : new LazyDFAState[256];
+        }
+
+        boolean isDead() {
+            return successors == NO_SUCCESSORS;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof LazyDFAState && Arrays.equals(nfaStates, ((LazyDFAState) obj).nfaStates);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nfaStates);
+        }
+    }
+}
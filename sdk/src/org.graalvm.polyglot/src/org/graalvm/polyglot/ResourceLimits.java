@@ -58,6 +58,10 @@ import java.util.function.Predicate;
  * <ul>
  * <li>{@link Builder#statementLimit(long, Predicate) Statement count} limit per context. Allows to
  * limit the amount of statements executed per context.
+ * <li>{@link Builder#allocationLimit(long, Duration) Allocation} limit per context. Allows to limit
+ * the amount of heap memory allocated by the threads executing a context.
+ * <li>{@link Builder#retainedHeapLimit(long, Duration) Retained heap} limit per context. Allows to
+ * limit the estimated amount of heap memory retained by a context.
  * </ul>
  * <p>
  * <h3>Statement Limit Example</h3> <code>
@@ -114,6 +118,10 @@ public final class ResourceLimits {
         Predicate<Source> statementLimitSourceFilter;
         Duration timeLimit;
         Duration timeLimitAccuracy;
+        long allocationLimit;
+        Duration allocationLimitAccuracy;
+        long retainedHeapLimit;
+        Duration retainedHeapLimitAccuracy;
         Consumer<ResourceLimitEvent> onLimit;
 
         Builder() {
@@ -239,6 +247,96 @@ public final class ResourceLimits {
             return this;
         }
 
+        /**
+         * Specifies the maximum number of bytes of heap memory the threads executing a context may
+         * allocate until the onLimit event is notified and the context will be
+         * {@link Context#close() closed}. After the allocation limit was triggered for a context,
+         * it is no longer usable and every use of the context will throw a
+         * {@link PolyglotException} that returns <code>true</code> for
+         * {@link PolyglotException#isCancelled()}. The allocated bytes of all threads are added and
+         * checked against the limit. Only memory allocated while a thread is entered in the
+         * context is accounted for, whether or not it is still reachable. Invoking this method
+         * multiple times overwrites previous allocation limit configurations. If the allocation
+         * limit is exceeded then the {@link #onLimit(Consumer) onLimit} listener is notified.
+         * <p>
+         * By default there is no allocation limit applied. The limit may be set to 0 to disable it,
+         * in which case the accuracy may be <code>null</code>. Otherwise the limit must be positive
+         * and an accuracy must be specified. The minimal accuracy is 10 milliseconds, values below
+         * that will be rounded up.
+         * <p>
+         * The allocated bytes of a thread are sampled whenever it enters or leaves the context and
+         * by a separate high-priority thread that is woken regularly with the specified accuracy.
+         * There is no guarantee that the context will be cancelled before the limit is exceeded,
+         * e.g. a single large allocation is only noticed after it succeeded. If the allocation
+         * limit is never exceeded then the throughput of the guest context is not significantly
+         * affected.
+         * <p>
+         * The allocation limit requires the host VM to support
+         * <code>com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long)</code>. If it is not
+         * supported, an {@link UnsupportedOperationException} is thrown when the context is
+         * {@link Context.Builder#build() built}.
+         *
+         * @see ResourceLimits Example Usage
+         * @since 20.1
+         */
+        public Builder allocationLimit(long limit, Duration accuracy) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("The allocation limit must not be negative.");
+            } else if (limit > 0 && accuracy == null) {
+                throw new IllegalArgumentException("If an allocation limit is specified accuracy must be specified as well.");
+            } else if (accuracy != null && (accuracy.isNegative() || accuracy.isZero())) {
+                throw new IllegalArgumentException("Accuracy must not be negative or zero.");
+            }
+            this.allocationLimit = limit;
+            this.allocationLimitAccuracy = limit > 0 ? accuracy : null;
+            return this;
+        }
+
+        /**
+         * Specifies the maximum number of bytes of heap memory a context may retain until the
+         * onLimit event is notified and the context will be {@link Context#close() closed}. After
+         * the retained heap limit was triggered for a context, it is no longer usable and every use
+         * of the context will throw a {@link PolyglotException} that returns <code>true</code> for
+         * {@link PolyglotException#isCancelled()}. Invoking this method multiple times overwrites
+         * previous retained heap limit configurations. If the retained heap limit is exceeded then
+         * the {@link #onLimit(Consumer) onLimit} listener is notified.
+         * <p>
+         * By default there is no retained heap limit applied. The limit may be set to 0 to disable
+         * it, in which case the accuracy may be <code>null</code>. Otherwise the limit must be
+         * positive and an accuracy must be specified. The minimal accuracy is 10 milliseconds,
+         * values below that will be rounded up.
+         * <p>
+         * The retained heap is estimated by a separate high-priority thread that walks the objects
+         * reachable from the language contexts and the {@link Context#getPolyglotBindings()
+         * polyglot bindings} of the context. The walk is incremental, every time the thread is
+         * woken with the specified accuracy it visits a bounded number of objects. Objects that are
+         * shared between the contexts of an engine, like the code of a guest program, are not
+         * accounted for. Object sizes are estimated from their fields, so the result differs from
+         * the size reported by heap analysis tools. There is no guarantee that the context will be
+         * cancelled before the limit is exceeded, the larger the retained heap the longer it takes
+         * to notice. The walk does not stop the threads executing the context, objects modified
+         * while they are walked may be missed.
+         * <p>
+         * The retained heap limit is not supported in native images. If it is not supported, an
+         * {@link UnsupportedOperationException} is thrown when the context is
+         * {@link Context.Builder#build() built}.
+         *
+         * @see ResourceLimits Example Usage
+         * @since 20.1
+         */
+        public Builder retainedHeapLimit(long limit, Duration accuracy) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("The retained heap limit must not be negative.");
+            } else if (limit > 0 && accuracy == null) {
+                throw new IllegalArgumentException("If a retained heap limit is specified accuracy must be specified as well.");
+            } else if (accuracy != null && (accuracy.isNegative() || accuracy.isZero())) {
+                throw new IllegalArgumentException("Accuracy must not be negative or zero.");
+            }
+            this.retainedHeapLimit = limit;
+            this.retainedHeapLimitAccuracy = limit > 0 ? accuracy : null;
+            return this;
+        }
+
         /**
          * Notified when a resource limit is reached. Default is <code>null</code>. May be set to
          * <code>null</code> to disable events.
@@ -257,7 +355,8 @@ public final class ResourceLimits {
          * @since 19.3
          */
         public ResourceLimits build() {
-            return new ResourceLimits(Engine.getImpl().buildLimits(statementLimit, statementLimitSourceFilter, timeLimit, timeLimitAccuracy, onLimit));
+            return new ResourceLimits(Engine.getImpl().buildLimits(statementLimit, statementLimitSourceFilter, timeLimit, timeLimitAccuracy, allocationLimit, allocationLimitAccuracy,
+                            retainedHeapLimit, retainedHeapLimitAccuracy, onLimit));
         }
     }
 }
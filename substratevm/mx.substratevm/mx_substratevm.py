@@ -481,6 +481,8 @@ def svm_gate_body(args, tasks):
 
                     # We need the -H:+EnableAllSecurityServices for com.oracle.svm.test.SecurityServiceTest
                     native_unittest(['--build-args', _native_unittest_features, '-H:+EnableAllSecurityServices'] + blacklist_args)
+                    # Check the dirty card ranges of the parallel card scan against a serial walk
+                    native_unittest(['com.oracle.svm.test.ParallelCardScanTest', '--build-args', '-H:ParallelCardScanThreads=2', '-H:+VerifyDirtyCardsBeforeCollection'])
 
         with Task('Run Truffle NFI unittests with SVM image', tasks, tags=["svmjunit"]) as t:
             if t:
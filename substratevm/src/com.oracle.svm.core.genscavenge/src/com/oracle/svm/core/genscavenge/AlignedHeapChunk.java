@@ -30,8 +30,10 @@ import org.graalvm.compiler.word.Word;
 import org.graalvm.nativeimage.ImageSingletons;
 import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.c.struct.RawField;
 import org.graalvm.nativeimage.c.struct.RawStructure;
 import org.graalvm.nativeimage.c.struct.SizeOf;
+import org.graalvm.nativeimage.c.struct.UniqueLocationIdentity;
 import org.graalvm.nativeimage.hosted.Feature;
 import org.graalvm.word.Pointer;
 import org.graalvm.word.UnsignedWord;
@@ -42,6 +44,7 @@ import com.oracle.svm.core.SubstrateOptions;
 import com.oracle.svm.core.annotate.AlwaysInline;
 import com.oracle.svm.core.annotate.AutomaticFeature;
 import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.annotate.Uninterruptible;
 import com.oracle.svm.core.config.ConfigurationValues;
 import com.oracle.svm.core.heap.ObjectVisitor;
 import com.oracle.svm.core.hub.LayoutEncoding;
@@ -90,12 +93,37 @@ public class AlignedHeapChunk extends HeapChunk {
      */
     @RawStructure
     public interface AlignedHeader extends HeapChunk.Header<AlignedHeader> {
+
+        /**
+         * The index of the first dirty card, as found by the {@link ParallelCardScan}. Only valid
+         * for the chunks of the current scan.
+         */
+        @RawField
+        @UniqueLocationIdentity
+        UnsignedWord getDirtyCardsStart();
+
+        @RawField
+        @UniqueLocationIdentity
+        void setDirtyCardsStart(UnsignedWord newDirtyCardsStart);
+
+        /**
+         * The index after the last dirty card, as found by the {@link ParallelCardScan}. Equal to
+         * {@link #getDirtyCardsStart()} if no card was dirty.
+         */
+        @RawField
+        @UniqueLocationIdentity
+        UnsignedWord getDirtyCardsLimit();
+
+        @RawField
+        @UniqueLocationIdentity
+        void setDirtyCardsLimit(UnsignedWord newDirtyCardsLimit);
     }
 
     /*
      * Access to "fields" defined only by their offset in the chunk (past the named fields).
      */
     /** Where is the start of the card table? */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     static Pointer getCardTableStart(AlignedHeader that) {
         return asPointer(that).add(getCardTableStartOffset());
     }
@@ -116,6 +144,7 @@ public class AlignedHeapChunk extends HeapChunk {
     }
 
     /** Where is the start of the Objects? */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     static Pointer getObjectsStart(AlignedHeader that) {
         /* The objects start at the limit of the first object table. */
         return asPointer(that).add(getObjectsStartOffset());
@@ -133,6 +162,7 @@ public class AlignedHeapChunk extends HeapChunk {
     }
 
     /** A well-named method, similar to the field access methods on HeapChunk. */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     static Pointer getAlignedHeapChunkStart(AlignedHeader that) {
         return getObjectsStart(that);
     }
@@ -428,6 +458,14 @@ public class AlignedHeapChunk extends HeapChunk {
 
     /** Walk the dirty Objects in this chunk, passing each to a Visitor. */
     static boolean walkDirtyObjectsOfAlignedHeapChunk(AlignedHeader that, ObjectVisitor visitor, boolean clean) {
+        return walkDirtyObjectsOfAlignedHeapChunk(that, visitor, clean, WordFactory.zero(), WordFactory.unsigned(-1));
+    }
+
+    /**
+     * Walk the dirty Objects in this chunk, passing each to a Visitor, but only look at the cards
+     * from indexStart up to indexEnd. The cards outside of that range must be clean.
+     */
+    static boolean walkDirtyObjectsOfAlignedHeapChunk(AlignedHeader that, ObjectVisitor visitor, boolean clean, UnsignedWord indexStart, UnsignedWord indexEnd) {
         final Log trace = Log.noopLog().string("[AlignedHeapChunk.walkDirtyObjectsOfAlignedHeapChunk:");
         trace.string("  that: ").hex(that).string("  clean: ").bool(clean);
         /* Iterate through the cards looking for dirty cards. */
@@ -436,9 +474,9 @@ public class AlignedHeapChunk extends HeapChunk {
         final Pointer objectsStart = getAlignedHeapChunkStart(that);
         final Pointer objectsLimit = that.getTop();
         final UnsignedWord memorySize = objectsLimit.subtract(objectsStart);
-        final UnsignedWord indexLimit = CardTable.indexLimitForMemorySize(memorySize);
+        final UnsignedWord indexLimit = UnsignedUtils.min(CardTable.indexLimitForMemorySize(memorySize), indexEnd);
         trace.string("  objectsStart: ").hex(objectsStart).string("  objectsLimit: ").hex(objectsLimit).string("  indexLimit: ").unsigned(indexLimit);
-        for (UnsignedWord index = WordFactory.zero(); index.belowThan(indexLimit); index = index.add(1)) {
+        for (UnsignedWord index = indexStart; index.belowThan(indexLimit); index = index.add(1)) {
             trace.newline().string("  ").string("  index: ").unsigned(index);
             /* If the card is dirty, visit the objects it covers. */
             if (CardTable.isDirtyEntryAtIndex(cardTableStart, index)) {
@@ -494,6 +532,57 @@ public class AlignedHeapChunk extends HeapChunk {
         return true;
     }
 
+    /**
+     * Record the range of dirty cards of this chunk in its header, without cleaning any card. This
+     * only reads the card table, so it can run in parallel for different chunks.
+     */
+    @Uninterruptible(reason = "Called from the parallel card scan, which runs in native state.")
+    static void findDirtyCardsOfAlignedHeapChunk(AlignedHeader that) {
+        final Pointer cardTableStart = getCardTableStart(that);
+        final UnsignedWord memorySize = that.getTop().subtract(getAlignedHeapChunkStart(that));
+        final UnsignedWord indexLimit = CardTable.indexLimitForMemorySize(memorySize);
+        UnsignedWord dirtyStart = WordFactory.zero();
+        UnsignedWord dirtyLimit = WordFactory.zero();
+        for (UnsignedWord index = WordFactory.zero(); index.belowThan(indexLimit); index = index.add(1)) {
+            if (CardTable.isDirtyEntryAtIndexUnchecked(cardTableStart, index)) {
+                if (dirtyLimit.equal(0)) {
+                    dirtyStart = index;
+                }
+                dirtyLimit = index.add(1);
+            }
+        }
+        that.setDirtyCardsStart(dirtyStart);
+        that.setDirtyCardsLimit(dirtyLimit);
+    }
+
+    /**
+     * Verify that the range of dirty cards recorded in the header of the given chunk is the range
+     * that a serial walk of its card table finds.
+     */
+    static boolean verifyDirtyCardsRange(AlignedHeader that) {
+        final Pointer cardTableStart = getCardTableStart(that);
+        final UnsignedWord memorySize = that.getTop().subtract(getAlignedHeapChunkStart(that));
+        final UnsignedWord indexLimit = CardTable.indexLimitForMemorySize(memorySize);
+        UnsignedWord dirtyStart = WordFactory.zero();
+        UnsignedWord dirtyLimit = WordFactory.zero();
+        for (UnsignedWord index = WordFactory.zero(); index.belowThan(indexLimit); index = index.add(1)) {
+            if (CardTable.isDirtyEntryAtIndex(cardTableStart, index)) {
+                if (dirtyLimit.equal(0)) {
+                    dirtyStart = index;
+                }
+                dirtyLimit = index.add(1);
+            }
+        }
+        final boolean result = that.getDirtyCardsStart().equal(dirtyStart) && that.getDirtyCardsLimit().equal(dirtyLimit);
+        if (!result) {
+            final Log witness = Log.log().string("[AlignedHeapChunk.verifyDirtyCardsRange:");
+            witness.string("  that: ").hex(that);
+            witness.string("  recorded: [").unsigned(that.getDirtyCardsStart()).string(", ").unsigned(that.getDirtyCardsLimit()).string(")");
+            witness.string("  expected: [").unsigned(dirtyStart).string(", ").unsigned(dirtyLimit).string(")").string("]").newline();
+        }
+        return result;
+    }
+
     /** Verify that there are only clean cards for the given chunk. */
     static boolean verifyOnlyCleanCards(AlignedHeader that) {
         final Log trace = Log.noopLog().string("[AlignedHeapChunk.verifyOnlyCleanCards:");
@@ -30,6 +30,7 @@ import org.graalvm.word.Pointer;
 import org.graalvm.word.UnsignedWord;
 import org.graalvm.word.WordFactory;
 
+import com.oracle.svm.core.annotate.Uninterruptible;
 import com.oracle.svm.core.heap.ObjectReferenceVisitor;
 import com.oracle.svm.core.heap.ObjectVisitor;
 import com.oracle.svm.core.heap.ReferenceAccess;
@@ -104,6 +105,7 @@ public final class CardTable {
         return isDirtyEntryAtIndexUnchecked(table, index);
     }
 
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     static boolean isDirtyEntryAtIndexUnchecked(Pointer table, UnsignedWord index) {
         return isDirtyEntry(readEntryAtIndexUnchecked(table, index));
     }
@@ -145,6 +147,7 @@ public final class CardTable {
     }
 
     /** Turn an offset into the memory into a table index. */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     static UnsignedWord memoryOffsetToIndex(UnsignedWord offset) {
         /* The unsignedDivide rounds down, which is what I want. */
         return offset.unsignedDivide(MEMORY_BYTES_PER_ENTRY);
@@ -160,6 +163,7 @@ public final class CardTable {
     }
 
     /** Given the size of a memory block, how what's the maximum index into that memory? */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     static UnsignedWord indexLimitForMemorySize(UnsignedWord memorySize) {
         /* How many entries are there? */
         final UnsignedWord roundedMemory = UnsignedUtils.roundUp(memorySize, WordFactory.unsigned(MEMORY_BYTES_PER_ENTRY));
@@ -200,6 +204,7 @@ public final class CardTable {
     }
 
     /** Read the entry in a table. */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     private static int readEntryAtIndexUnchecked(Pointer table, UnsignedWord index) {
         return table.readByte(indexToTableOffset(index));
     }
@@ -210,6 +215,7 @@ public final class CardTable {
         return result;
     }
 
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     private static boolean isDirtyEntry(int entry) {
         return entry == DIRTY_ENTRY;
     }
@@ -228,6 +234,7 @@ public final class CardTable {
     }
 
     /** Convert a table index to a byte offset. */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     private static UnsignedWord indexToTableOffset(UnsignedWord index) {
         return index.multiply(ENTRY_BYTES);
     }
@@ -29,10 +29,12 @@ import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
 import org.graalvm.nativeimage.hosted.Feature.FeatureAccess;
 import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
 
 import com.oracle.svm.core.log.Log;
 import com.oracle.svm.core.option.HostedOptionKey;
 import com.oracle.svm.core.option.RuntimeOptionKey;
+import com.oracle.svm.core.option.XOptions;
 import com.oracle.svm.core.util.TimeUtils;
 
 /** A collection policy to decide when to collect incrementally or completely. */
@@ -52,6 +54,16 @@ public abstract class CollectionPolicy {
          */
         @Option(help = "Percentage of time that should be spent in young generation collections.")//
         public static final RuntimeOptionKey<Integer> PercentTimeInIncrementalCollection = new RuntimeOptionKey<>(50);
+
+        @Option(help = "Pause time goal in milliseconds for incremental collections of the adaptive collection policy.")//
+        public static final RuntimeOptionKey<Integer> MaxGCPauseMillis = new RuntimeOptionKey<>(100);
+
+        /**
+         * Throughput goal of the adaptive collection policy: at most 1 / (1 + GCTimeRatio) of the
+         * elapsed time should be spent in collections.
+         */
+        @Option(help = "Throughput goal of the adaptive collection policy as the ratio of mutator time to collection time.")//
+        public static final RuntimeOptionKey<Integer> GCTimeRatio = new RuntimeOptionKey<>(19);
     }
 
     @Platforms(Platform.HOSTED_ONLY.class)
@@ -296,4 +308,143 @@ public abstract class CollectionPolicy {
             return veto;
         }
     }
+
+    /**
+     * A collection policy in the style of an adaptive size policy: it resizes the young generation
+     * so that incremental collections meet a pause time goal ({@link Options#MaxGCPauseMillis})
+     * while the time spent in collections meets a throughput goal ({@link Options#GCTimeRatio}),
+     * and it triggers complete collections based on the growth of the old generation since the
+     * last complete collection.
+     *
+     * The young generation is not resized if its size was set explicitly with {@code -Xmn}. The
+     * number of survivor spaces is fixed when the image is built, so it is not adapted.
+     */
+    public static class Adaptive extends CollectionPolicy {
+
+        /** Percentage by which the young generation shrinks when a pause exceeds the goal. */
+        private static final int YOUNG_SHRINK_PERCENT = 10;
+        /** Percentage by which the young generation grows when the throughput goal is missed. */
+        private static final int YOUNG_GROW_PERCENT = 20;
+        private static final int MIN_OLD_GROWTH_PERCENT = 25;
+        private static final int MAX_OLD_GROWTH_PERCENT = 400;
+
+        /* Samples at the previous decision, to compute the cost of collections since then. */
+        private long lastSampleNanos;
+        private long lastSampleCollectionNanos;
+        private long lastCompleteCollectionCount;
+        /** Old generation bytes that survived the last complete collection. */
+        private UnsignedWord oldLiveBytes = WordFactory.zero();
+        /** How much the old generation may grow beyond {@link #oldLiveBytes}, in percent. */
+        private int oldGrowthPercent = 100;
+        /** Whether no collection has sampled {@link #lastSampleNanos} and {@link #oldLiveBytes} yet. */
+        private boolean firstCollection = true;
+
+        @Override
+        public boolean collectIncrementally() {
+            final Log trace = Log.noopLog().string("[CollectionPolicy.Adaptive.collectIncrementally:");
+            final GCImpl.Accounting accounting = getAccounting();
+            if (accounting.getCompleteCollectionCount() != lastCompleteCollectionCount) {
+                /* After a complete collection, the old generation holds only live objects. */
+                lastCompleteCollectionCount = accounting.getCompleteCollectionCount();
+                oldLiveBytes = accounting.getOldGenerationAfterChunkBytes();
+            }
+            final long nowNanos = System.nanoTime();
+            final long collectionNanos = accounting.getIncrementalCollectionTotalNanos() + accounting.getCompleteCollectionTotalNanos();
+            if (firstCollection) {
+                /* There is nothing to compare against yet: only take the samples. */
+                lastSampleNanos = nowNanos;
+                lastSampleCollectionNanos = collectionNanos;
+                trace.string("  first collection]").newline();
+                return true;
+            }
+            final boolean throughputGoalMissed = throughputGoalMissed(nowNanos - lastSampleNanos, collectionNanos - lastSampleCollectionNanos);
+            lastSampleNanos = nowNanos;
+            lastSampleCollectionNanos = collectionNanos;
+
+            final long pauseNanos = accounting.getIncrementalCollectionLastNanos();
+            final boolean pauseGoalMissed = TimeUtils.roundNanosToMillis(pauseNanos) > Options.MaxGCPauseMillis.getValue();
+            if (XOptions.getXmn().getEpoch() == 0) {
+                resizeYoungGeneration(pauseGoalMissed, throughputGoalMissed, trace);
+            }
+            /* Complete collections are paid for by a larger old generation, and vice versa. */
+            if (throughputGoalMissed) {
+                oldGrowthPercent = Math.min(oldGrowthPercent * 2, MAX_OLD_GROWTH_PERCENT);
+            } else {
+                oldGrowthPercent = Math.max(oldGrowthPercent / 2, MIN_OLD_GROWTH_PERCENT);
+            }
+            trace.string("  pauseNanos: ").signed(pauseNanos)
+                            .string("  pauseGoalMissed: ").bool(pauseGoalMissed)
+                            .string("  throughputGoalMissed: ").bool(throughputGoalMissed)
+                            .string("  oldGrowthPercent: ").signed(oldGrowthPercent)
+                            .string("]").newline();
+            return true;
+        }
+
+        @Override
+        public boolean collectCompletely() {
+            final Log trace = Log.noopLog().string("[CollectionPolicy.Adaptive.collectCompletely:");
+            final UnsignedWord youngSize = HeapPolicy.getMaximumYoungGenerationSize();
+            final UnsignedWord oldInUse = getAccounting().getOldGenerationAfterChunkBytes();
+            final UnsignedWord averagePromotion = getAccounting().averagePromotedUnpinnedChunkBytes();
+            if (firstCollection) {
+                /* Until the first complete collection, measure growth from the first old generation. */
+                firstCollection = false;
+                oldLiveBytes = oldInUse;
+            }
+            final UnsignedWord oldTrigger = oldLiveBytes.add(oldLiveBytes.unsignedDivide(100).multiply(oldGrowthPercent));
+            final boolean result;
+            if (HeapPolicy.getMaximumHeapSize().belowThan(youngSize.add(oldInUse).add(averagePromotion))) {
+                /* The next incremental collection might not have room to promote. */
+                result = true;
+            } else if (youngSize.add(oldInUse).belowThan(HeapPolicy.getMinimumHeapSize())) {
+                result = false;
+            } else {
+                result = oldTrigger.belowThan(oldInUse.add(averagePromotion));
+            }
+            trace.string("  oldInUse: ").unsigned(oldInUse)
+                            .string("  averagePromotion: ").unsigned(averagePromotion)
+                            .string("  oldTrigger: ").unsigned(oldTrigger)
+                            .string("  returns: ").bool(result)
+                            .string("]").newline();
+            return result;
+        }
+
+        @Override
+        public void nameToLog(Log log) {
+            log.string("adaptive: ").signed(Options.MaxGCPauseMillis.getValue()).string(" msec pause goal, GC time ratio ").signed(Options.GCTimeRatio.getValue());
+        }
+
+        /** Whether more than 1 / (1 + GCTimeRatio) of the elapsed time was spent collecting. */
+        private static boolean throughputGoalMissed(long elapsedNanos, long collectionNanos) {
+            final long mutatorNanos = elapsedNanos - collectionNanos;
+            return mutatorNanos < collectionNanos * Options.GCTimeRatio.getValue();
+        }
+
+        /**
+         * Shrink the young generation if the last pause was too long, otherwise grow it if too much
+         * time is spent collecting: fewer, larger collections amortize the cost of the roots.
+         */
+        private static void resizeYoungGeneration(boolean pauseGoalMissed, boolean throughputGoalMissed, Log trace) {
+            final UnsignedWord youngSize = HeapPolicy.getMaximumYoungGenerationSize();
+            UnsignedWord newSize;
+            if (pauseGoalMissed) {
+                newSize = youngSize.subtract(youngSize.unsignedDivide(100).multiply(YOUNG_SHRINK_PERCENT));
+            } else if (throughputGoalMissed) {
+                newSize = youngSize.add(youngSize.unsignedDivide(100).multiply(YOUNG_GROW_PERCENT));
+            } else {
+                return;
+            }
+            /* Leave room in the heap to promote a full young generation. */
+            final UnsignedWord maxSize = HeapPolicy.getMaximumHeapSize().unsignedDivide(2);
+            final UnsignedWord minSize = HeapPolicy.getAlignedHeapChunkSize();
+            if (newSize.aboveThan(maxSize)) {
+                newSize = maxSize;
+            }
+            if (newSize.belowThan(minSize)) {
+                newSize = minSize;
+            }
+            HeapPolicy.setMaximumYoungGenerationSize(newSize);
+            trace.string("  youngSize: ").unsigned(youngSize).string("  newSize: ").unsigned(newSize);
+        }
+    }
 }
@@ -75,6 +75,7 @@ import com.oracle.svm.core.heap.GCCause;
 import com.oracle.svm.core.heap.NoAllocationVerifier;
 import com.oracle.svm.core.heap.ObjectVisitor;
 import com.oracle.svm.core.heap.ReferenceHandler;
+import com.oracle.svm.core.heapdump.HeapDumpSupportImpl;
 import com.oracle.svm.core.hub.LayoutEncoding;
 import com.oracle.svm.core.jdk.RuntimeSupport;
 import com.oracle.svm.core.log.Log;
@@ -130,6 +131,7 @@ public class GCImpl implements GC {
     private final ThreadLocalMTWalker threadLocalsWalker;
     private final RuntimeCodeCacheWalker runtimeCodeCacheWalker;
     private final RuntimeCodeCacheCleaner runtimeCodeCacheCleaner;
+    private final ParallelCardScan parallelCardScan;
 
     private CollectionPolicy policy;
     private boolean completeCollection;
@@ -159,6 +161,7 @@ public class GCImpl implements GC {
         this.threadLocalsWalker = createThreadLocalsWalker();
         this.runtimeCodeCacheWalker = new RuntimeCodeCacheWalker(greyToBlackObjRefVisitor);
         this.runtimeCodeCacheCleaner = new RuntimeCodeCacheCleaner();
+        this.parallelCardScan = createParallelCardScan();
 
         this.blackenImageHeapRootsTimer = new Timer("blackenImageHeapRootsTimer");
         this.blackenDirtyCardRootsTimer = new Timer("blackenDirtyCardRoots");
@@ -191,6 +194,14 @@ public class GCImpl implements GC {
         }
     }
 
+    private static ParallelCardScan createParallelCardScan() {
+        if (SubstrateOptions.MultiThreaded.getValue() && HeapOptions.ParallelCardScanThreads.getValue() > 0) {
+            return new ParallelCardScan(HeapOptions.ParallelCardScanThreads.getValue());
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public void collect(GCCause cause) {
         final UnsignedWord requestingEpoch = possibleCollectionPrologue();
@@ -211,6 +222,7 @@ public class GCImpl implements GC {
         collectOperation.enqueue(data);
 
         if (data.getOutOfMemory()) {
+            HeapDumpSupportImpl.onOutOfMemoryError();
             throw oldGenerationSizeExceeded;
         }
     }
@@ -285,6 +297,7 @@ public class GCImpl implements GC {
             CommittedMemoryProvider.get().beforeGarbageCollection();
 
             getAccounting().beforeCollection();
+            HeapChunkProvider.get().beforeCollection();
 
             try (Timer ct = collectionTimer.open()) {
                 /*
@@ -303,10 +316,14 @@ public class GCImpl implements GC {
                 }
             }
 
+            HeapChunkProvider.get().afterCollection();
             CommittedMemoryProvider.get().afterGarbageCollection(completeCollection);
         }
 
         getAccounting().afterCollection(completeCollection, collectionTimer);
+        if (HeapOptions.PrintGCSummary.getValue()) {
+            getAccounting().addPhaseNanos(blackenStackRootsTimer, blackenImageHeapRootsTimer, blackenDirtyCardRootsTimer, scanGreyObjectsTimer, referenceObjectsTimer);
+        }
 
         trace.string("  Verify after: ");
         try (Timer vat = verifyAfterTimer.open()) {
@@ -829,12 +846,29 @@ public class GCImpl implements GC {
              * Walk To-Space looking for dirty cards, and within those for old-to-young pointers.
              * Promote any referenced young objects.
              */
-            final HeapImpl heap = HeapImpl.getHeapImpl();
-            heap.getOldGeneration().walkDirtyObjects(greyToBlackObjectVisitor, true);
+            final OldGeneration oldGen = HeapImpl.getHeapImpl().getOldGeneration();
+            AlignedHeapChunk.AlignedHeader lastScannedChunk = WordFactory.nullPointer();
+            if (parallelCardScan != null) {
+                lastScannedChunk = parallelCardScan.scan(oldGen.getToSpace());
+                if (HeapImpl.getVerifyDirtyCardBeforeGC() && lastScannedChunk.isNonNull()) {
+                    verifyParallelCardScan(oldGen.getToSpace(), lastScannedChunk);
+                }
+            }
+            oldGen.walkDirtyObjects(greyToBlackObjectVisitor, true, lastScannedChunk);
         }
         trace.string("]").newline();
     }
 
+    /** Check that the parallel card scan found the same dirty cards as a serial walk would. */
+    private static void verifyParallelCardScan(Space space, AlignedHeapChunk.AlignedHeader lastScannedChunk) {
+        if (!space.verifyDirtyCardsRanges(lastScannedChunk)) {
+            Log.log().string("[GCImpl.verifyParallelCardScan:").string("  space: ").string(space.getName()).string("  dirty card ranges fail to verify").string("]").newline();
+            if (HeapOptions.HeapVerificationFailureIsFatal.getValue()) {
+                HeapVerifier.HeapVerificationError.throwError();
+            }
+        }
+    }
+
     private static void prepareForPromotion(boolean isIncremental) {
         final Log trace = Log.noopLog().string("[GCImpl.prepareForPromotion:").newline();
 
@@ -1192,6 +1226,9 @@ public class GCImpl implements GC {
      */
     public static class Accounting {
 
+        /** Upper bounds of the pause time buckets. The last bucket counts all longer pauses. */
+        static final long[] PAUSE_LIMITS_MILLIS = {1, 10, 100, 1000};
+
         /* State that is available to collection policies, etc. */
         private long incrementalCollectionCount;
         private long incrementalCollectionTotalNanos;
@@ -1220,6 +1257,19 @@ public class GCImpl implements GC {
         private UnsignedWord oldObjectBytesBefore;
         private UnsignedWord oldObjectBytesAfter;
         private UnsignedWord normalObjectBytes;
+        /*
+         * Pause times and the time spent in the phases of the scavenger. The phase times are only
+         * maintained if -R:+PrintGCSummary.
+         */
+        private long incrementalCollectionMaxNanos;
+        private long incrementalCollectionLastNanos;
+        private long completeCollectionMaxNanos;
+        private final long[] pauseCounts;
+        private long stackRootsTotalNanos;
+        private long imageHeapRootsTotalNanos;
+        private long dirtyCardRootsTotalNanos;
+        private long greyObjectsTotalNanos;
+        private long referenceObjectsTotalNanos;
 
         @Platforms(Platform.HOSTED_ONLY.class)
         Accounting() {
@@ -1246,6 +1296,7 @@ public class GCImpl implements GC {
             this.oldObjectBytesBefore = WordFactory.zero();
             this.oldObjectBytesAfter = WordFactory.zero();
             this.normalObjectBytes = WordFactory.zero();
+            this.pauseCounts = new long[PAUSE_LIMITS_MILLIS.length + 1];
         }
 
         @Platforms(Platform.HOSTED_ONLY.class)
@@ -1297,6 +1348,44 @@ public class GCImpl implements GC {
             return normalObjectBytes;
         }
 
+        long getIncrementalCollectionMaxNanos() {
+            return incrementalCollectionMaxNanos;
+        }
+
+        /** The pause time of the most recent incremental collection. */
+        long getIncrementalCollectionLastNanos() {
+            return incrementalCollectionLastNanos;
+        }
+
+        long getCompleteCollectionMaxNanos() {
+            return completeCollectionMaxNanos;
+        }
+
+        /** The number of collections with a pause time in the given bucket. */
+        long getPauseCount(int bucket) {
+            return pauseCounts[bucket];
+        }
+
+        long getStackRootsTotalNanos() {
+            return stackRootsTotalNanos;
+        }
+
+        long getImageHeapRootsTotalNanos() {
+            return imageHeapRootsTotalNanos;
+        }
+
+        long getDirtyCardRootsTotalNanos() {
+            return dirtyCardRootsTotalNanos;
+        }
+
+        long getGreyObjectsTotalNanos() {
+            return greyObjectsTotalNanos;
+        }
+
+        long getReferenceObjectsTotalNanos() {
+            return referenceObjectsTotalNanos;
+        }
+
         /** Bytes held in the old generation. */
         UnsignedWord getOldGenerationAfterChunkBytes() {
             return oldChunkBytesAfter;
@@ -1422,6 +1511,9 @@ public class GCImpl implements GC {
             setHistoryOf(promotedUnpinnedChunkBytes, oldChunkBytesAfter.subtract(oldChunkBytesBefore));
             promotedTotalChunkBytes = promotedTotalChunkBytes.add(getHistoryOf(promotedUnpinnedChunkBytes));
             incrementalCollectionTotalNanos += collectionTimer.getCollectedNanos();
+            incrementalCollectionMaxNanos = Math.max(incrementalCollectionMaxNanos, collectionTimer.getCollectedNanos());
+            incrementalCollectionLastNanos = collectionTimer.getCollectedNanos();
+            countPause(collectionTimer.getCollectedNanos());
             trace.string("  incrementalCollectionCount: ").signed(incrementalCollectionCount)
                             .string("  oldChunkBytesAfter: ").unsigned(oldChunkBytesAfter)
                             .string("  oldChunkBytesBefore: ").unsigned(oldChunkBytesBefore)
@@ -1437,11 +1529,30 @@ public class GCImpl implements GC {
             setHistoryOf(copiedUnpinnedChunkBytes, oldChunkBytesAfter);
             copiedTotalChunkBytes = copiedTotalChunkBytes.add(oldChunkBytesAfter);
             completeCollectionTotalNanos += collectionTimer.getCollectedNanos();
+            completeCollectionMaxNanos = Math.max(completeCollectionMaxNanos, collectionTimer.getCollectedNanos());
+            countPause(collectionTimer.getCollectedNanos());
             trace.string("  completeCollectionCount: ").signed(completeCollectionCount)
                             .string("  oldChunkBytesAfter: ").unsigned(oldChunkBytesAfter);
             trace.string("]").newline();
         }
 
+        private void countPause(long nanos) {
+            int bucket = 0;
+            while (bucket < PAUSE_LIMITS_MILLIS.length && TimeUtils.roundNanosToMillis(nanos) >= PAUSE_LIMITS_MILLIS[bucket]) {
+                bucket += 1;
+            }
+            pauseCounts[bucket] += 1;
+        }
+
+        /** Accumulate the phase times of the most recent collection. */
+        void addPhaseNanos(Timer stackRoots, Timer imageHeapRoots, Timer dirtyCardRoots, Timer greyObjects, Timer referenceObjects) {
+            stackRootsTotalNanos += stackRoots.getCollectedNanos();
+            imageHeapRootsTotalNanos += imageHeapRoots.getCollectedNanos();
+            dirtyCardRootsTotalNanos += dirtyCardRoots.getCollectedNanos();
+            greyObjectsTotalNanos += greyObjects.getCollectedNanos();
+            referenceObjectsTotalNanos += referenceObjects.getCollectedNanos();
+        }
+
         /** Shared after collection processing. */
         void afterCollectionCommon() {
             final HeapImpl heap = HeapImpl.getHeapImpl();
@@ -1699,6 +1810,22 @@ public class GCImpl implements GC {
         final long completeNanos = accounting.getCompleteCollectionTotalNanos();
         log.string(prefix).string("CompleteGCCount: ").signed(accounting.getCompleteCollectionCount()).newline();
         log.string(prefix).string("CompleteGCNanos: ").signed(completeNanos).newline();
+        /* Print the pause times and where the collector spent its time. */
+        log.string(prefix).string("IncrementalGCMaxNanos: ").signed(accounting.getIncrementalCollectionMaxNanos()).newline();
+        log.string(prefix).string("CompleteGCMaxNanos: ").signed(accounting.getCompleteCollectionMaxNanos()).newline();
+        for (int bucket = 0; bucket < Accounting.PAUSE_LIMITS_MILLIS.length; bucket++) {
+            log.string(prefix).string("GCPausesBelowMillis").signed(Accounting.PAUSE_LIMITS_MILLIS[bucket]).string(": ").signed(accounting.getPauseCount(bucket)).newline();
+        }
+        log.string(prefix).string("GCPausesAboveMillis").signed(Accounting.PAUSE_LIMITS_MILLIS[Accounting.PAUSE_LIMITS_MILLIS.length - 1]).string(": ")
+                        .signed(accounting.getPauseCount(Accounting.PAUSE_LIMITS_MILLIS.length)).newline();
+        log.string(prefix).string("StackRootsNanos: ").signed(accounting.getStackRootsTotalNanos()).newline();
+        log.string(prefix).string("ImageHeapRootsNanos: ").signed(accounting.getImageHeapRootsTotalNanos()).newline();
+        log.string(prefix).string("DirtyCardRootsNanos: ").signed(accounting.getDirtyCardRootsTotalNanos()).newline();
+        log.string(prefix).string("GreyObjectsNanos: ").signed(accounting.getGreyObjectsTotalNanos()).newline();
+        log.string(prefix).string("ReferenceObjectsNanos: ").signed(accounting.getReferenceObjectsTotalNanos()).newline();
+        /* Print how much memory was reused from and returned to the OS. */
+        log.string(prefix).string("ReusedAlignedChunks: ").signed(HeapChunkProvider.get().getReusedAlignedChunks()).newline();
+        log.string(prefix).string("ReleasedAlignedChunks: ").signed(HeapChunkProvider.get().getReleasedAlignedChunks()).newline();
         /* Compute a GC load percent. */
         final long gcNanos = incrementalNanos + completeNanos;
         final long mutatorNanos = mutatorTimer.getCollectedNanos();
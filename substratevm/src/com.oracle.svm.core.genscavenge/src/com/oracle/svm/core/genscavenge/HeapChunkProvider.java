@@ -43,6 +43,8 @@ import com.oracle.svm.core.jdk.UninterruptibleUtils.AtomicUnsigned;
 import com.oracle.svm.core.log.Log;
 import com.oracle.svm.core.os.CommittedMemoryProvider;
 import com.oracle.svm.core.thread.VMThreads;
+import com.oracle.svm.core.util.TimeUtils;
+import com.oracle.svm.core.util.UnsignedUtils;
 
 /**
  * Allocates and frees the memory for aligned and unaligned heap chunks. The methods are
@@ -51,6 +53,10 @@ import com.oracle.svm.core.thread.VMThreads;
  * Memory for aligned chunks is not immediately released to the OS. Up to
  * {@link HeapPolicy#getMinimumHeapSize()} chunks are saved in an unused chunk list. Memory for
  * unaligned chunks is released immediately.
+ *
+ * If {@link HeapPolicyOptions#UncommitDelayMillis} is set, unused aligned chunks that were not
+ * reused for that long are released after a collection, so that the memory of the process follows
+ * the live objects after an allocation spike.
  */
 class HeapChunkProvider {
 
@@ -77,9 +83,28 @@ class HeapChunkProvider {
      */
     private long firstAllocationTime;
 
+    /** The number of aligned chunks produced from the unused chunk list. */
+    private final UninterruptibleUtils.AtomicLong reusedAlignedChunks;
+
+    /** The number of aligned chunks whose memory was released to the OS. */
+    private final UninterruptibleUtils.AtomicLong releasedAlignedChunks;
+
+    /**
+     * The smallest size of the unused chunk list seen at the start of a collection since the last
+     * uncommit. The list only shrinks between collections, so that many bytes were idle for the
+     * whole interval.
+     */
+    private UnsignedWord unusedBytesLowWatermark;
+
+    /** The time of the last uncommit of unused chunks, or 0 if there was none yet. */
+    private long lastUncommitTime;
+
     protected HeapChunkProvider() {
         unusedAlignedChunks = new UninterruptibleUtils.AtomicPointer<>();
         bytesInUnusedAlignedChunks = new AtomicUnsigned();
+        reusedAlignedChunks = new UninterruptibleUtils.AtomicLong(0L);
+        releasedAlignedChunks = new UninterruptibleUtils.AtomicLong(0L);
+        unusedBytesLowWatermark = UnsignedUtils.MAX_VALUE;
     }
 
     /**
@@ -147,10 +172,63 @@ class HeapChunkProvider {
         } else {
             log().string("  release memory to the OS").newline();
             freeAlignedChunk(chunk);
+            releasedAlignedChunks.incrementAndGet();
         }
         log().string("  ]").newline();
     }
 
+    /** Sample the size of the unused chunk list before a collection adds to it. */
+    void beforeCollection() {
+        final UnsignedWord unusedBytes = bytesInUnusedAlignedChunks.get();
+        if (unusedBytes.belowThan(unusedBytesLowWatermark)) {
+            unusedBytesLowWatermark = unusedBytes;
+        }
+    }
+
+    /**
+     * Release the unused chunks that were not reused since the last uncommit, if that was at least
+     * {@link HeapPolicyOptions#UncommitDelayMillis} ago. This also releases chunks kept for the
+     * minimum heap size.
+     */
+    void afterCollection() {
+        final long delayMillis = HeapPolicyOptions.UncommitDelayMillis.getValue();
+        if (delayMillis <= 0L) {
+            return;
+        }
+        final long now = System.nanoTime();
+        if (lastUncommitTime == 0L) {
+            lastUncommitTime = now;
+            return;
+        }
+        if (TimeUtils.roundNanosToMillis(now - lastUncommitTime) < delayMillis) {
+            return;
+        }
+        final Log trace = Log.noopLog().string("[HeapChunkProvider.afterCollection:");
+        UnsignedWord releaseBytes = unusedBytesLowWatermark;
+        trace.string("  unusedBytesLowWatermark: ").unsigned(releaseBytes);
+        while (releaseBytes.aboveOrEqual(HeapPolicy.getAlignedHeapChunkSize())) {
+            final AlignedHeader chunk = popUnusedAlignedChunkUninterruptibly();
+            if (chunk.isNull()) {
+                break;
+            }
+            bytesInUnusedAlignedChunks.subtractAndGet(HeapPolicy.getAlignedHeapChunkSize());
+            freeAlignedChunk(chunk);
+            releasedAlignedChunks.incrementAndGet();
+            releaseBytes = releaseBytes.subtract(HeapPolicy.getAlignedHeapChunkSize());
+        }
+        lastUncommitTime = now;
+        unusedBytesLowWatermark = UnsignedUtils.MAX_VALUE;
+        trace.string("  unusedBytes: ").unsigned(bytesInUnusedAlignedChunks.get()).string("]").newline();
+    }
+
+    long getReusedAlignedChunks() {
+        return reusedAlignedChunks.get();
+    }
+
+    long getReleasedAlignedChunks() {
+        return releasedAlignedChunks.get();
+    }
+
     /** Should I keep another aligned chunk on the free list? */
     private boolean keepAlignedChunk() {
         final Log trace = Log.noopLog().string("[HeapChunkProvider.keepAlignedChunk:");
@@ -225,6 +303,7 @@ class HeapChunkProvider {
         } else {
             /* Successfully popped an unused chunk from the list. */
             bytesInUnusedAlignedChunks.subtractAndGet(HeapPolicy.getAlignedHeapChunkSize());
+            reusedAlignedChunks.incrementAndGet();
             log().string("  new list top: ").hex(unusedAlignedChunks.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks.get()).newline();
             return result;
         }
@@ -342,7 +421,9 @@ class HeapChunkProvider {
         log.string("[Unused:").indent(true);
         log.string("aligned: ").signed(bytesInUnusedAlignedChunks.get())
                         .string("/")
-                        .signed(bytesInUnusedAlignedChunks.get().unsignedDivide(HeapPolicy.getAlignedHeapChunkSize()));
+                        .signed(bytesInUnusedAlignedChunks.get().unsignedDivide(HeapPolicy.getAlignedHeapChunkSize()))
+                        .string("  reused: ").signed(reusedAlignedChunks.get())
+                        .string("  released: ").signed(releasedAlignedChunks.get());
         if (traceHeapChunks) {
             if (unusedAlignedChunks.get().isNonNull()) {
                 log.newline().string("aligned chunks:").redent(true);
@@ -72,4 +72,7 @@ public class HeapOptions {
 
     @Option(help = "Verify dirty cards after each collection.") //
     public static final HostedOptionKey<Boolean> VerifyDirtyCardsAfterCollection = new HostedOptionKey<>(false);
+
+    @Option(help = "Number of helper threads that scan the card tables of the old generation in incremental collections. 0 scans them serially.")//
+    public static final HostedOptionKey<Integer> ParallelCardScanThreads = new HostedOptionKey<>(0);
 }
@@ -75,6 +75,9 @@ public class HeapPolicyOptions {
     @Option(help = "Defines the upper bound for the number of remaining bytes in the young generation that cause a collection when `System.gc` is called.") //
     public static final RuntimeOptionKey<Long> UserRequestedGCThreshold = new RuntimeOptionKey<>(16L * 1024L * 1024L);
 
+    @Option(help = "Delay in milliseconds after which unused heap chunks that were not reused are returned to the operating system after a collection. 0 keeps them.") //
+    public static final RuntimeOptionKey<Long> UncommitDelayMillis = new RuntimeOptionKey<>(0L);
+
     @Option(help = "Maximum value for survivor space") //
     public static final HostedOptionKey<Integer> MaxSurvivorSpaces = new HostedOptionKey<>(0);
 }
@@ -133,8 +133,8 @@ public class OldGeneration extends Generation {
         }
     }
 
-    protected void walkDirtyObjects(ObjectVisitor visitor, boolean clean) {
-        getToSpace().walkDirtyObjects(visitor, clean);
+    protected void walkDirtyObjects(ObjectVisitor visitor, boolean clean, AlignedHeapChunk.AlignedHeader lastScannedChunk) {
+        getToSpace().walkDirtyObjects(visitor, clean, lastScannedChunk);
     }
 
     protected void prepareForPromotion() {
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge;
+
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.annotate.NeverInline;
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.locks.VMCondition;
+import com.oracle.svm.core.locks.VMMutex;
+import com.oracle.svm.core.nodes.CFunctionEpilogueNode;
+import com.oracle.svm.core.nodes.CFunctionPrologueNode;
+import com.oracle.svm.core.thread.VMThreads.StatusSupport;
+
+/**
+ * Finds the dirty cards of the aligned chunks of a {@link Space} with helper threads, while the
+ * collector is at a safepoint. The card tables of a large old generation are mostly clean, so
+ * reading them is a large part of blackening the dirty card roots.
+ * <p>
+ * The helper threads only read the card tables, and record the range of dirty cards in each chunk
+ * header. The collector then walks the objects on the dirty cards serially, so promotion and the
+ * forwarding of objects stay single threaded.
+ * <p>
+ * The helper threads wait in native state, so they neither hold up a safepoint nor get stopped by
+ * one. While a scan is in progress, all Java threads are stopped at the safepoint and the chunk
+ * lists do not change. Between scans, the helper threads are parked on a condition until the next
+ * scan or the tear down of the isolate signals them.
+ */
+final class ParallelCardScan {
+    private final VMMutex mutex;
+    private final VMCondition workCondition;
+    private final VMCondition doneCondition;
+    private final Thread[] workers;
+
+    /* The following fields are guarded by the mutex. */
+    private int registeredWorkers;
+    private int busyWorkers;
+    private int round;
+    private AlignedHeapChunk.AlignedHeader nextChunk;
+    private AlignedHeapChunk.AlignedHeader lastChunk;
+    private boolean shutdown;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    ParallelCardScan(int workerCount) {
+        this.mutex = new VMMutex();
+        this.workCondition = new VMCondition(mutex);
+        this.doneCondition = new VMCondition(mutex);
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "Card Scan Worker " + i);
+            worker.setDaemon(true);
+            workers[i] = worker;
+        }
+        RuntimeSupport.getRuntimeSupport().addInitializationHook(this::startWorkers);
+        RuntimeSupport.getRuntimeSupport().addTearDownHook(this::stopWorkers);
+    }
+
+    private void startWorkers() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /** Wakes up the parked helper threads so that they exit. */
+    private void stopWorkers() {
+        mutex.lock();
+        try {
+            shutdown = true;
+            workCondition.broadcast();
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    /**
+     * Scans the card tables of all aligned chunks of the space, together with the helper threads
+     * that are ready. Returns the last chunk that was scanned, or null if there was no helper
+     * thread and the space has to be walked without the recorded ranges.
+     */
+    @Uninterruptible(reason = "Shares the chunks with helper threads that run in native state.")
+    AlignedHeapChunk.AlignedHeader scan(Space space) {
+        /*
+         * The collector blocks without a transition to native. It owns the safepoint, so no other
+         * thread can wait for it to reach one.
+         */
+        mutex.lockNoTransition();
+        try {
+            if (registeredWorkers == 0 || space.getFirstAlignedHeapChunk().isNull()) {
+                return WordFactory.nullPointer();
+            }
+            nextChunk = space.getFirstAlignedHeapChunk();
+            lastChunk = space.getLastAlignedHeapChunk();
+            busyWorkers = registeredWorkers;
+            round++;
+            workCondition.broadcast();
+
+            scanChunks();
+            while (busyWorkers > 0) {
+                doneCondition.blockNoTransition();
+            }
+            return lastChunk;
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    /** Scans chunks until there is none left. Called and returns with the mutex held. */
+    @Uninterruptible(reason = "Called from uninterruptible code.")
+    private void scanChunks() {
+        AlignedHeapChunk.AlignedHeader chunk = nextChunk;
+        while (chunk.isNonNull()) {
+            nextChunk = chunk.equal(lastChunk) ? WordFactory.nullPointer() : chunk.getNext();
+            mutex.unlock();
+            AlignedHeapChunk.findDirtyCardsOfAlignedHeapChunk(chunk);
+            mutex.lockNoTransition();
+            chunk = nextChunk;
+        }
+    }
+
+    private void work() {
+        workTransition();
+    }
+
+    /**
+     * The helper threads stay in native state for as long as they run, see
+     * JavaThreads.joinAllNonDaemonsTransition for the same pattern.
+     */
+    @NeverInline("Must not be inlined in a caller that has an exception handler: We only support InvokeNode and not InvokeWithExceptionNode between a CFunctionPrologueNode and CFunctionEpilogueNode.")
+    private void workTransition() {
+        CFunctionPrologueNode.cFunctionPrologue(StatusSupport.STATUS_IN_NATIVE);
+        workInNative();
+        CFunctionEpilogueNode.cFunctionEpilogue(StatusSupport.STATUS_IN_NATIVE);
+    }
+
+    @Uninterruptible(reason = "Must not stop while in native.")
+    @NeverInline("Provide a return address for the Java frame anchor.")
+    private void workInNative() {
+        // this method may only access data in the image heap
+        mutex.lockNoTransition();
+        try {
+            registeredWorkers++;
+            int seenRound = round;
+            while (true) {
+                while (round == seenRound && !shutdown) {
+                    workCondition.blockNoTransition();
+                }
+                if (round == seenRound) {
+                    registeredWorkers--;
+                    return;
+                }
+                seenRound = round;
+                scanChunks();
+                busyWorkers--;
+                if (busyWorkers == 0) {
+                    doneCondition.broadcast();
+                }
+            }
+        } finally {
+            mutex.unlock();
+        }
+    }
+}
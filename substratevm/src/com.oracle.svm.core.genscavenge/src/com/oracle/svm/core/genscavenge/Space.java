@@ -84,6 +84,25 @@ public class Space {
         return name;
     }
 
+    /**
+     * Verify the ranges of dirty cards that a {@link ParallelCardScan} recorded in the aligned
+     * chunks up to and including lastScannedChunk.
+     */
+    boolean verifyDirtyCardsRanges(AlignedHeapChunk.AlignedHeader lastScannedChunk) {
+        boolean result = true;
+        AlignedHeapChunk.AlignedHeader aChunk = getFirstAlignedHeapChunk();
+        while (aChunk.isNonNull()) {
+            if (!AlignedHeapChunk.verifyDirtyCardsRange(aChunk)) {
+                result = false;
+            }
+            if (aChunk.equal(lastScannedChunk)) {
+                break;
+            }
+            aChunk = aChunk.getNext();
+        }
+        return result;
+    }
+
     /**
      * Keep whatever accounting is required.
      *
@@ -191,19 +210,31 @@ public class Space {
     }
 
     /**
-     * Walk the dirty Objects in this Space, passing each to a Visitor.
+     * Walk the dirty Objects in this Space, passing each to a Visitor. The aligned chunks up to and
+     * including lastScannedChunk already had their range of dirty cards recorded by a
+     * {@link ParallelCardScan}, so only that range is walked for them.
      *
      * @param visitor An ObjectVisitor.
+     * @param lastScannedChunk The last scanned aligned chunk, or null if no chunk was scanned.
      * @return True if all visits returned true, false otherwise.
      */
-    public boolean walkDirtyObjects(ObjectVisitor visitor, boolean clean) {
+    public boolean walkDirtyObjects(ObjectVisitor visitor, boolean clean, AlignedHeapChunk.AlignedHeader lastScannedChunk) {
         final Log trace = Log.noopLog().string("[Space.walkDirtyObjects:");
         trace.string("  space: ").string(getName()).string("  clean: ").bool(clean);
         /* Visit the Objects in the aligned chunks. */
+        boolean scanned = lastScannedChunk.isNonNull();
         AlignedHeapChunk.AlignedHeader aChunk = getFirstAlignedHeapChunk();
         while (aChunk.isNonNull()) {
             trace.newline().string("  aChunk: ").hex(aChunk);
-            if (!AlignedHeapChunk.walkDirtyObjectsOfAlignedHeapChunk(aChunk, visitor, clean)) {
+            final boolean result;
+            if (scanned) {
+                result = AlignedHeapChunk.walkDirtyObjectsOfAlignedHeapChunk(aChunk, visitor, clean, aChunk.getDirtyCardsStart(), aChunk.getDirtyCardsLimit());
+                /* Chunks after the last scanned one were added by promotion. */
+                scanned = aChunk.notEqual(lastScannedChunk);
+            } else {
+                result = AlignedHeapChunk.walkDirtyObjectsOfAlignedHeapChunk(aChunk, visitor, clean);
+            }
+            if (!result) {
                 final Log failureLog = Log.log().string("[Space.walkDirtyObjects:");
                 failureLog.string("  aChunk.walkDirtyObjects fails").string("]").newline();
                 return false;
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.posix;
+
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.c.type.CCharPointer;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.impl.HeapDumpSupport;
+import org.graalvm.word.SignedWord;
+import org.graalvm.word.UnsignedWord;
+
+import com.oracle.svm.core.CErrorNumber;
+import com.oracle.svm.core.VMInspection;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.heapdump.HeapDumpSupportImpl;
+import com.oracle.svm.core.posix.headers.Errno;
+import com.oracle.svm.core.posix.headers.Fcntl;
+import com.oracle.svm.core.posix.headers.Unistd;
+
+@AutomaticFeature
+class PosixHeapDumpSupportFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return VMInspection.isEnabled();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        ImageSingletons.add(HeapDumpSupport.class, new PosixHeapDumpSupport());
+    }
+}
+
+/** Writes heap dumps with plain file descriptors, without transitions to native code. */
+public class PosixHeapDumpSupport extends HeapDumpSupportImpl {
+
+    @Override
+    protected int openFile(CCharPointer path) {
+        return Fcntl.NoTransitions.open(path, Fcntl.O_WRONLY() | Fcntl.O_CREAT() | Fcntl.O_TRUNC(), 0600);
+    }
+
+    @Override
+    protected boolean writeBytes(int fd, CCharPointer bytes, UnsignedWord length) {
+        CCharPointer curBuf = bytes;
+        UnsignedWord curLen = length;
+        while (curLen.notEqual(0)) {
+            SignedWord n = Unistd.NoTransitions.write(fd, curBuf, curLen);
+            if (n.equal(-1)) {
+                if (CErrorNumber.getCErrorNumber() == Errno.EINTR()) {
+                    continue;
+                }
+                return false;
+            }
+            curBuf = curBuf.addressOf(n);
+            curLen = curLen.subtract((UnsignedWord) n);
+        }
+        return true;
+    }
+
+    @Override
+    protected void closeFile(int fd) {
+        Unistd.NoTransitions.close(fd);
+    }
+}
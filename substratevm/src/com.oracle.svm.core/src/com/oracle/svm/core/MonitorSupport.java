@@ -71,6 +71,11 @@ import sun.misc.Unsafe;
  * (and thus need a monitor) and assigns a monitor offset to point to the slot for the monitor. The
  * monitor is implemented with a {@link ReentrantLock}.
  * <p>
+ * As long as a monitor is neither contended, nor entered recursively, nor waited on, the slot
+ * holds just the owning {@link Thread} (a thin lock), so that no {@link ReentrantLock} needs to be
+ * allocated. The monitor is inflated to a {@link ReentrantLock} that is owned by the same thread
+ * when any of these happens. Inflated monitors are never deflated.
+ * <p>
  * There are a few exceptions: {@link String} and {@link DynamicHub} objects never have monitor
  * fields because we want instances in the image heap to be immutable. Arrays never have monitor
  * fields because it would increase the size of every array and it is not possible to distinguish
@@ -78,7 +83,8 @@ import sun.misc.Unsafe;
  * UniverseBuilder.canHaveMonitorFields(AnalysisType) for details.
  * <p>
  * Synchronization on {@link String}, arrays, and other types not detected by the static analysis
- * (like synchronization via JNI) fall back to a monitor stored in {@link #additionalMonitors}.
+ * (like synchronization via JNI) fall back to a monitor stored in {@link #additionalMonitors}, which
+ * is striped by the identity hash code of the object to reduce contention on the map locks.
  * <p>
  * {@link Condition} objects are used to implement {@link #wait()} and {@link #notify()}. When an
  * object monitor needs a condition object, it is atomically swapped into its
@@ -99,13 +105,27 @@ public class MonitorSupport {
     /** Substituted in {@link Target_com_oracle_svm_core_MonitorSupport} */
     static long SYNC_MONITOR_CONDITION_FIELD_OFFSET = -1;
 
+    /** The number of stripes of {@link #additionalMonitors}, a power of two. */
+    private static final int ADDITIONAL_MONITORS_STRIPES = 32;
+
     /**
      * Secondary storage for monitor slots.
      *
-     * Synchronized to prevent concurrent access and modification.
+     * Each stripe is synchronized by the lock at the same index of {@link #additionalMonitorsLocks}
+     * to prevent concurrent access and modification.
      */
-    private final Map<Object, ReentrantLock> additionalMonitors = new WeakIdentityHashMap<>();
-    private final ReentrantLock additionalMonitorsLock = new ReentrantLock();
+    private final Map<Object, ReentrantLock>[] additionalMonitors;
+    private final ReentrantLock[] additionalMonitorsLocks;
+
+    @SuppressWarnings("unchecked")
+    MonitorSupport() {
+        additionalMonitors = new Map[ADDITIONAL_MONITORS_STRIPES];
+        additionalMonitorsLocks = new ReentrantLock[ADDITIONAL_MONITORS_STRIPES];
+        for (int i = 0; i < ADDITIONAL_MONITORS_STRIPES; i++) {
+            additionalMonitors[i] = new WeakIdentityHashMap<>();
+            additionalMonitorsLocks[i] = new ReentrantLock();
+        }
+    }
 
     /**
      * Called from {@code Unsafe.park} when changing the current thread's state before parking the
@@ -164,10 +184,8 @@ public class MonitorSupport {
             return;
         }
 
-        ReentrantLock lockObject;
         try {
-            lockObject = ImageSingletons.lookup(MonitorSupport.class).getOrCreateMonitor(obj, true);
-            lockObject.lock();
+            ImageSingletons.lookup(MonitorSupport.class).lock(obj);
         } catch (Throwable ex) {
             /*
              * The foreign call from snippets to this method does not have an exception edge. So we
@@ -216,10 +234,8 @@ public class MonitorSupport {
             return;
         }
 
-        ReentrantLock lockObject;
         try {
-            lockObject = ImageSingletons.lookup(MonitorSupport.class).getOrCreateMonitor(obj, true);
-            lockObject.unlock();
+            ImageSingletons.lookup(MonitorSupport.class).unlock(obj);
         } catch (Throwable ex) {
             /*
              * The foreign call from snippets to this method does not have an exception edge. So we
@@ -268,6 +284,10 @@ public class MonitorSupport {
              */
             return true;
         }
+        final int monitorOffset = ObjectHeader.readDynamicHubFromObject(obj).getMonitorOffset();
+        if (monitorOffset != 0 && readMonitorSlot(obj, monitorOffset) == Thread.currentThread()) {
+            return true;
+        }
         ReentrantLock lockObject = getOrCreateMonitor(obj, false);
         return lockObject != null && lockObject.isHeldByCurrentThread();
     }
@@ -333,7 +353,7 @@ public class MonitorSupport {
         }
     }
 
-    /** Return the lock of the receiver. */
+    /** Return the lock of the receiver, inflating it if it is thin-locked by the current thread. */
     private ReentrantLock ensureLocked(Object receiver) {
         ReentrantLock lockObject = getOrCreateMonitor(receiver, false);
         /*
@@ -346,23 +366,110 @@ public class MonitorSupport {
         return lockObject;
     }
 
+    /** Enter the monitor of the object, as a thin lock if possible. */
+    private void lock(Object obj) {
+        final int monitorOffset = ObjectHeader.readDynamicHubFromObject(obj).getMonitorOffset();
+        if (monitorOffset == 0) {
+            getOrCreateMonitor(obj, true).lock();
+            return;
+        }
+        final Thread currentThread = Thread.currentThread();
+        while (true) {
+            final Object current = readMonitorSlot(obj, monitorOffset);
+            if (current == null) {
+                /* The fast path: the monitor is free, thin-lock it. */
+                if (UNSAFE.compareAndSwapObject(obj, monitorOffset, null, currentThread)) {
+                    return;
+                }
+            } else if (current instanceof Thread) {
+                /*
+                 * Thin-locked by this thread (recursion) or by another thread (contention). Inflate
+                 * the monitor on behalf of its owner, and lock it again as or for this thread.
+                 */
+                final ReentrantLock inflated = inflate(obj, monitorOffset, (Thread) current);
+                if (inflated != null) {
+                    inflated.lock();
+                    return;
+                }
+            } else {
+                final ReentrantLock existingMonitor = KnownIntrinsics.convertUnknownValue(current, ReentrantLock.class);
+                assert isMonitorLock(existingMonitor);
+                existingMonitor.lock();
+                return;
+            }
+            /* We lost a race with another thread changing the slot, try again. */
+        }
+    }
+
+    /** Exit the monitor of the object. */
+    private void unlock(Object obj) {
+        final int monitorOffset = ObjectHeader.readDynamicHubFromObject(obj).getMonitorOffset();
+        if (monitorOffset != 0) {
+            final Thread currentThread = Thread.currentThread();
+            if (readMonitorSlot(obj, monitorOffset) == currentThread && UNSAFE.compareAndSwapObject(obj, monitorOffset, currentThread, null)) {
+                return;
+            }
+            /* Otherwise the monitor has been inflated, possibly concurrently by another thread. */
+        }
+        getOrCreateMonitor(obj, false).unlock();
+    }
+
+    /**
+     * Replace the thin lock of the owner in the monitor slot with a {@link ReentrantLock} that is
+     * held once by the owner. Returns null if the slot no longer holds the thin lock, for example
+     * because the owner exited the monitor in the meantime.
+     */
+    private static ReentrantLock inflate(Object obj, int monitorOffset, Thread owner) {
+        final ReentrantLock newMonitor = newMonitorLock();
+        Target_java_util_concurrent_locks_ReentrantLock lock = SubstrateUtil.cast(newMonitor, Target_java_util_concurrent_locks_ReentrantLock.class);
+        SubstrateUtil.cast(lock.sync, Target_java_util_concurrent_locks_AbstractQueuedSynchronizer.class).setState(1);
+        SubstrateUtil.cast(lock.sync, Target_java_util_concurrent_locks_AbstractOwnableSynchronizer.class).setExclusiveOwnerThread(owner);
+        if (UNSAFE.compareAndSwapObject(obj, monitorOffset, owner, newMonitor)) {
+            return newMonitor;
+        }
+        return null;
+    }
+
+    private static Object readMonitorSlot(Object obj, int monitorOffset) {
+        return KnownIntrinsics.convertUnknownValue(BarrieredAccess.readObject(obj, monitorOffset), Object.class);
+    }
+
+    /**
+     * Return the inflated monitor of the object. A thin lock is inflated if it is held by the
+     * current thread, and otherwise a new monitor is only installed if createIfNotExisting.
+     */
     private ReentrantLock getOrCreateMonitor(Object obj, boolean createIfNotExisting) {
         final DynamicHub hub = ObjectHeader.readDynamicHubFromObject(obj);
         final int monitorOffset = hub.getMonitorOffset();
         if (monitorOffset != 0) {
             /* The common case: memory for the monitor reserved in the object. */
-            final ReentrantLock existingMonitor = KnownIntrinsics.convertUnknownValue(BarrieredAccess.readObject(obj, monitorOffset), ReentrantLock.class);
-            if (existingMonitor != null || !createIfNotExisting) {
-                assert existingMonitor == null || isMonitorLock(existingMonitor);
-                return existingMonitor;
-            }
-            /* Atomically put a new lock in place of the null at the monitorOffset. */
-            final ReentrantLock newMonitor = newMonitorLock();
-            if (UNSAFE.compareAndSwapObject(obj, monitorOffset, null, newMonitor)) {
-                return newMonitor;
+            while (true) {
+                final Object current = readMonitorSlot(obj, monitorOffset);
+                if (current == Thread.currentThread()) {
+                    final ReentrantLock inflated = inflate(obj, monitorOffset, Thread.currentThread());
+                    if (inflated != null) {
+                        return inflated;
+                    }
+                    /* Another thread inflated the monitor in the meantime. */
+                    continue;
+                }
+                if (current instanceof Thread) {
+                    /* Thin-locked by another thread, so there is no monitor owned by this thread. */
+                    VMError.guarantee(!createIfNotExisting, "MonitorSupport.getOrCreateMonitor: Object is thin-locked by another thread");
+                    return null;
+                }
+                final ReentrantLock existingMonitor = KnownIntrinsics.convertUnknownValue(current, ReentrantLock.class);
+                if (existingMonitor != null || !createIfNotExisting) {
+                    assert existingMonitor == null || isMonitorLock(existingMonitor);
+                    return existingMonitor;
+                }
+                /* Atomically put a new lock in place of the null at the monitorOffset. */
+                final ReentrantLock newMonitor = newMonitorLock();
+                if (UNSAFE.compareAndSwapObject(obj, monitorOffset, null, newMonitor)) {
+                    return newMonitor;
+                }
+                /* We lost the race, look at what some other thread installed. */
             }
-            /* We lost the race, use the lock some other thread installed. */
-            return KnownIntrinsics.convertUnknownValue(BarrieredAccess.readObject(obj, monitorOffset), ReentrantLock.class);
         } else {
             /* No memory reserved for a lock in the object, fall back to our secondary storage. */
             /*
@@ -370,9 +477,12 @@ public class MonitorSupport {
              * might be a scalability problem.
              */
             assert hub != DynamicHub.fromClass(Target_java_lang_ref_ReferenceQueue_Lock.class) : "ReferenceQueue.Lock must have a monitor field or we can deadlock accessing WeakIdentityHashMap below";
-            additionalMonitorsLock.lock();
+            final int stripe = System.identityHashCode(obj) & (ADDITIONAL_MONITORS_STRIPES - 1);
+            final Map<Object, ReentrantLock> stripeMonitors = additionalMonitors[stripe];
+            final ReentrantLock stripeLock = additionalMonitorsLocks[stripe];
+            stripeLock.lock();
             try {
-                final ReentrantLock existingEntry = additionalMonitors.get(obj);
+                final ReentrantLock existingEntry = stripeMonitors.get(obj);
                 if (existingEntry != null) {
                     assert isMonitorLock(existingEntry);
                     return existingEntry;
@@ -381,11 +491,11 @@ public class MonitorSupport {
                     return null;
                 }
                 final ReentrantLock newEntry = newMonitorLock();
-                final ReentrantLock previousEntry = additionalMonitors.put(obj, newEntry);
+                final ReentrantLock previousEntry = stripeMonitors.put(obj, newEntry);
                 VMError.guarantee(previousEntry == null, "MonitorSupport.getOrCreateMonitor: Replaced monitor");
                 return newEntry;
             } finally {
-                additionalMonitorsLock.unlock();
+                stripeLock.unlock();
             }
         }
     }
@@ -495,6 +605,9 @@ final class Target_java_util_concurrent_locks_ReentrantLock {
 
 @TargetClass(AbstractQueuedSynchronizer.class)
 final class Target_java_util_concurrent_locks_AbstractQueuedSynchronizer {
+
+    @Alias
+    protected native void setState(int newState);
 }
 
 @TargetClass(value = ConditionObject.class)
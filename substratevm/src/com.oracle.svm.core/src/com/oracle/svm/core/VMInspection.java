@@ -46,6 +46,7 @@ import org.graalvm.nativeimage.hosted.Feature;
 import com.oracle.svm.core.annotate.AutomaticFeature;
 import com.oracle.svm.core.annotate.NeverInline;
 import com.oracle.svm.core.deopt.DeoptimizationSupport;
+import com.oracle.svm.core.heapdump.HeapDumpSupportImpl;
 import com.oracle.svm.core.jdk.RuntimeSupport;
 import com.oracle.svm.core.log.Log;
 import com.oracle.svm.core.option.HostedOptionKey;
@@ -71,6 +72,9 @@ public class VMInspection implements Feature {
     public void beforeAnalysis(BeforeAnalysisAccess access) {
         RuntimeSupport.getRuntimeSupport().addStartupHook(() -> {
             DumpAllStacks.install();
+            if (HeapDumpSupportImpl.isPresent()) {
+                HeapDumpSupportImpl.singleton().initializeOutOfMemoryDump();
+            }
             if (!Platform.includedIn(WINDOWS.class)) {
                 /* We have enough signals to enable the rest. */
                 DumpHeapReport.install();
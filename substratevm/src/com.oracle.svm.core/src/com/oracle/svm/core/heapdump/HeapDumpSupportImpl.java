@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.heapdump;
+
+import java.io.IOException;
+
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.ProcessProperties;
+import org.graalvm.nativeimage.StackValue;
+import org.graalvm.nativeimage.UnmanagedMemory;
+import org.graalvm.nativeimage.c.struct.RawField;
+import org.graalvm.nativeimage.c.struct.RawStructure;
+import org.graalvm.nativeimage.c.struct.SizeOf;
+import org.graalvm.nativeimage.c.type.CCharPointer;
+import org.graalvm.nativeimage.c.type.CTypeConversion;
+import org.graalvm.nativeimage.c.type.CTypeConversion.CCharPointerHolder;
+import org.graalvm.nativeimage.impl.HeapDumpSupport;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.MemoryUtil;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.annotate.UnknownObjectField;
+import com.oracle.svm.core.heap.GCCause;
+import com.oracle.svm.core.heap.Heap;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.option.RuntimeOptionKey;
+import com.oracle.svm.core.snippets.ImplicitExceptions;
+import com.oracle.svm.core.thread.NativeVMOperation;
+import com.oracle.svm.core.thread.NativeVMOperationData;
+import com.oracle.svm.core.thread.VMOperation;
+import com.oracle.svm.core.util.VMError;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Writes heap dumps in the HPROF format from a running image.
+ * <p>
+ * The dump is written in a VM operation, so the heap does not change while it is walked. Dumping
+ * must not allocate, neither to keep the heap stable nor when the heap is exhausted: the output is
+ * streamed through a native buffer directly to a file descriptor, and the field layouts of all
+ * types are encoded at image build time into the arrays of this class (see
+ * {@link #setData(int[], int[], String[])}).
+ * <p>
+ * Heap dumps are triggered by {@link org.graalvm.nativeimage.VMRuntime#dumpHeap}, by the heap
+ * report signal handler of {@code VMInspection}, and on an {@link OutOfMemoryError} with
+ * {@link Options#HeapDumpOnOutOfMemoryError}. Subclasses provide the file operations of the
+ * platform.
+ */
+public abstract class HeapDumpSupportImpl implements HeapDumpSupport {
+
+    public static class Options {
+        @Option(help = "Dump the heap when the first OutOfMemoryError caused by heap exhaustion is thrown. Requires AllowVMInspection.")//
+        public static final RuntimeOptionKey<Boolean> HeapDumpOnOutOfMemoryError = new RuntimeOptionKey<>(false);
+
+        @Option(help = "The file to which the heap is dumped with HeapDumpOnOutOfMemoryError.")//
+        public static final RuntimeOptionKey<String> HeapDumpPath = new RuntimeOptionKey<>("");
+    }
+
+    /**
+     * For each type ID, the start of the fields of the type in {@link #fieldInfos}. The entry at
+     * the start is the number of fields, followed by a triple of an index into {@link #fieldNames},
+     * the HPROF basic type, and the offset of each field. Index 0 is an empty list of fields.
+     */
+    @UnknownObjectField(types = {int[].class}) private int[] fieldInfoStarts;
+    @UnknownObjectField(types = {int[].class}) private int[] fieldInfos;
+    @UnknownObjectField(types = {String[].class}) private String[] fieldNames;
+
+    private final HeapDumpVMOperation heapDumpOperation;
+    private final HeapDumpWriter writer;
+
+    /** The C string of the path for {@link Options#HeapDumpOnOutOfMemoryError}, if enabled. */
+    private CCharPointer outOfMemoryDumpPath;
+    private boolean outOfMemoryDumped;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    protected HeapDumpSupportImpl() {
+        this.heapDumpOperation = new HeapDumpVMOperation();
+        this.writer = new HeapDumpWriter(this);
+    }
+
+    @Fold
+    public static boolean isPresent() {
+        return ImageSingletons.contains(HeapDumpSupport.class);
+    }
+
+    @Fold
+    public static HeapDumpSupportImpl singleton() {
+        return (HeapDumpSupportImpl) ImageSingletons.lookup(HeapDumpSupport.class);
+    }
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public void setData(int[] newFieldInfoStarts, int[] newFieldInfos, String[] newFieldNames) {
+        this.fieldInfoStarts = newFieldInfoStarts;
+        this.fieldInfos = newFieldInfos;
+        this.fieldNames = newFieldNames;
+    }
+
+    /** The HPROF basic type of a field with the given storage kind. */
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public static int getBasicType(JavaKind kind) {
+        switch (kind) {
+            case Object:
+                return HeapDumpWriter.HPROF_NORMAL_OBJECT;
+            case Boolean:
+                return HeapDumpWriter.HPROF_BOOLEAN;
+            case Char:
+                return HeapDumpWriter.HPROF_CHAR;
+            case Float:
+                return HeapDumpWriter.HPROF_FLOAT;
+            case Double:
+                return HeapDumpWriter.HPROF_DOUBLE;
+            case Byte:
+                return HeapDumpWriter.HPROF_BYTE;
+            case Short:
+                return HeapDumpWriter.HPROF_SHORT;
+            case Int:
+                return HeapDumpWriter.HPROF_INT;
+            case Long:
+                return HeapDumpWriter.HPROF_LONG;
+            default:
+                throw VMError.shouldNotReachHere("Unexpected field kind: " + kind);
+        }
+    }
+
+    int getFieldInfoStart(int typeID) {
+        return typeID < fieldInfoStarts.length ? fieldInfoStarts[typeID] : 0;
+    }
+
+    int getFieldInfo(int index) {
+        return fieldInfos[index];
+    }
+
+    String[] getFieldNames() {
+        return fieldNames;
+    }
+
+    /** Open the file for writing, returning a file descriptor or -1. */
+    protected abstract int openFile(CCharPointer path);
+
+    /** Write all bytes to the file, returning false on error. */
+    protected abstract boolean writeBytes(int fd, CCharPointer bytes, UnsignedWord length);
+
+    protected abstract void closeFile(int fd);
+
+    @Override
+    public void dumpHeap(String outputFile, boolean live) throws IOException {
+        if (live) {
+            Heap.getHeap().getGC().collectCompletely(GCCause.JavaLangSystemGC);
+        }
+        try (CCharPointerHolder path = CTypeConversion.toCString(outputFile)) {
+            if (!dumpHeap(path.get())) {
+                throw new IOException("Could not write heap dump to " + outputFile);
+            }
+        }
+    }
+
+    /** Prepare the path for {@link Options#HeapDumpOnOutOfMemoryError} while allocation works. */
+    public void initializeOutOfMemoryDump() {
+        if (!Options.HeapDumpOnOutOfMemoryError.getValue()) {
+            return;
+        }
+        String path = Options.HeapDumpPath.getValue();
+        if (path.isEmpty()) {
+            path = "svm-heapdump-" + ProcessProperties.getProcessID() + "-OOME.hprof";
+        }
+        UnsignedWord size = WordFactory.unsigned(path.length() * 3 + 1);
+        CCharPointer buffer = UnmanagedMemory.malloc(size);
+        if (buffer.isNonNull()) {
+            UnsignedWord length = CTypeConversion.toCString(path, buffer, size.subtract(1));
+            /* toCString does not terminate the string. */
+            buffer.write((int) length.rawValue(), (byte) 0);
+            outOfMemoryDumpPath = buffer;
+        }
+    }
+
+    /**
+     * Called before an {@link OutOfMemoryError} for an exhausted heap is thrown. Only the first such
+     * error causes a heap dump.
+     */
+    @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "The heap is exhausted.")
+    public static void onOutOfMemoryError() {
+        if (!isPresent()) {
+            return;
+        }
+        HeapDumpSupportImpl support = singleton();
+        if (support.outOfMemoryDumpPath.isNull() || support.outOfMemoryDumped) {
+            return;
+        }
+        support.outOfMemoryDumped = true;
+        Log.log().string("Dumping heap to ").string(support.outOfMemoryDumpPath).string(" ...").newline();
+        boolean success = support.dumpHeap(support.outOfMemoryDumpPath);
+        Log.log().string(success ? "Heap dump file created" : "Heap dump failed").newline();
+    }
+
+    @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "The heap may be exhausted.")
+    private boolean dumpHeap(CCharPointer path) {
+        int size = SizeOf.get(HeapDumpVMOperationData.class);
+        HeapDumpVMOperationData data = StackValue.get(size);
+        MemoryUtil.fillToMemoryAtomic((Pointer) data, WordFactory.unsigned(size), (byte) 0);
+        data.setNativeVMOperation(heapDumpOperation);
+        data.setPath(path);
+        heapDumpOperation.enqueue(data);
+        return data.getSuccess();
+    }
+
+    @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "Must not allocate while dumping the heap.")
+    private boolean writeHeapDump(CCharPointer path) {
+        int fd = openFile(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            return writer.write(fd);
+        } finally {
+            closeFile(fd);
+        }
+    }
+
+    private static class HeapDumpVMOperation extends NativeVMOperation {
+        @Platforms(Platform.HOSTED_ONLY.class)
+        HeapDumpVMOperation() {
+            super("Heap dump", SystemEffect.SAFEPOINT);
+        }
+
+        @Override
+        @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "Must not allocate while dumping the heap.")
+        protected void operate(NativeVMOperationData data) {
+            VMOperation.guaranteeInProgressAtSafepoint("Heap dumps must be written at a safepoint");
+            /* As in the GC, we cannot allocate exceptions, so make implicit exceptions fatal. */
+            ImplicitExceptions.activateImplicitExceptionsAreFatal();
+            try {
+                HeapDumpVMOperationData d = (HeapDumpVMOperationData) data;
+                d.setSuccess(singleton().writeHeapDump(d.getPath()));
+            } catch (Throwable t) {
+                throw VMError.shouldNotReachHere(t);
+            } finally {
+                ImplicitExceptions.deactivateImplicitExceptionsAreFatal();
+            }
+        }
+    }
+
+    @RawStructure
+    private interface HeapDumpVMOperationData extends NativeVMOperationData {
+        @RawField
+        CCharPointer getPath();
+
+        @RawField
+        void setPath(CCharPointer value);
+
+        @RawField
+        boolean getSuccess();
+
+        @RawField
+        void setSuccess(boolean value);
+    }
+}
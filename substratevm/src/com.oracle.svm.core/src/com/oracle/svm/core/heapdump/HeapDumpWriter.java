@@ -0,0 +1,582 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.heapdump;
+
+import static com.oracle.svm.core.snippets.KnownIntrinsics.readCallerStackPointer;
+
+import org.graalvm.compiler.word.BarrieredAccess;
+import org.graalvm.compiler.word.ObjectAccess;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.nativeimage.CurrentIsolate;
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.UnmanagedMemory;
+import org.graalvm.nativeimage.c.function.CodePointer;
+import org.graalvm.nativeimage.c.type.CCharPointer;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.StaticFieldsSupport;
+import com.oracle.svm.core.annotate.NeverInline;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.code.CodeInfo;
+import com.oracle.svm.core.code.CodeInfoTable;
+import com.oracle.svm.core.deopt.DeoptimizedFrame;
+import com.oracle.svm.core.heap.Heap;
+import com.oracle.svm.core.heap.ObjectReferenceVisitor;
+import com.oracle.svm.core.heap.ObjectVisitor;
+import com.oracle.svm.core.heap.ReferenceAccess;
+import com.oracle.svm.core.hub.DynamicHub;
+import com.oracle.svm.core.hub.LayoutEncoding;
+import com.oracle.svm.core.snippets.KnownIntrinsics;
+import com.oracle.svm.core.stack.JavaStackWalker;
+import com.oracle.svm.core.stack.StackFrameVisitor;
+import com.oracle.svm.core.thread.JavaThreads;
+import com.oracle.svm.core.thread.VMThreads;
+
+/**
+ * Writes the HPROF heap dump without allocating on the Java heap. All output goes through a native
+ * buffer. The sub-records of the heap dump are collected in {@code HEAP_DUMP_SEGMENT} records that
+ * fit into the buffer, so that the length of a segment can be patched in before the buffer is
+ * written. A sub-record that is larger than the buffer gets a segment of its own that is streamed.
+ * <p>
+ * Objects and classes are identified by their address, and names by the address of their
+ * {@link String}, so the ids are only valid for the duration of the dump.
+ */
+final class HeapDumpWriter {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int ID_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 9;
+    private static final long MAX_RECORD_LENGTH = 0xFFFFFFFFL;
+
+    private static final int HPROF_UTF8 = 0x01;
+    private static final int HPROF_LOAD_CLASS = 0x02;
+    private static final int HPROF_TRACE = 0x05;
+    private static final int HPROF_HEAP_DUMP_SEGMENT = 0x1C;
+    private static final int HPROF_HEAP_DUMP_END = 0x2C;
+
+    private static final int HPROF_GC_ROOT_UNKNOWN = 0xFF;
+    private static final int HPROF_GC_ROOT_JAVA_FRAME = 0x03;
+    private static final int HPROF_GC_ROOT_STICKY_CLASS = 0x05;
+    private static final int HPROF_GC_ROOT_THREAD_OBJ = 0x08;
+    private static final int HPROF_GC_CLASS_DUMP = 0x20;
+    private static final int HPROF_GC_INSTANCE_DUMP = 0x21;
+    private static final int HPROF_GC_OBJ_ARRAY_DUMP = 0x22;
+    private static final int HPROF_GC_PRIM_ARRAY_DUMP = 0x23;
+
+    static final int HPROF_NORMAL_OBJECT = 2;
+    static final int HPROF_BOOLEAN = 4;
+    static final int HPROF_CHAR = 5;
+    static final int HPROF_FLOAT = 6;
+    static final int HPROF_DOUBLE = 7;
+    static final int HPROF_BYTE = 8;
+    static final int HPROF_SHORT = 9;
+    static final int HPROF_INT = 10;
+    static final int HPROF_LONG = 11;
+
+    /** There are no stack traces for allocation sites, so all records refer to an empty one. */
+    private static final int STACK_TRACE_SERIAL = 1;
+
+    private final HeapDumpSupportImpl support;
+    private final LoadClassVisitor loadClassVisitor;
+    private final ClassDumpVisitor classDumpVisitor;
+    private final ObjectDumpVisitor objectDumpVisitor;
+    private final FrameRootVisitor frameRootVisitor;
+    private final StackRootVisitor stackRootVisitor;
+
+    private Pointer buffer;
+    private int position;
+    /** Whether the buffer starts with the header of a segment that is not yet complete. */
+    private boolean inSegment;
+    private int fd;
+    private boolean failed;
+    private int currentThreadSerial;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    HeapDumpWriter(HeapDumpSupportImpl support) {
+        this.support = support;
+        this.loadClassVisitor = new LoadClassVisitor();
+        this.classDumpVisitor = new ClassDumpVisitor();
+        this.objectDumpVisitor = new ObjectDumpVisitor();
+        this.frameRootVisitor = new FrameRootVisitor();
+        this.stackRootVisitor = new StackRootVisitor();
+    }
+
+    @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "Must not allocate while dumping the heap.")
+    boolean write(int fileDescriptor) {
+        buffer = UnmanagedMemory.malloc(BUFFER_SIZE);
+        if (buffer.isNull()) {
+            return false;
+        }
+        try {
+            fd = fileDescriptor;
+            position = 0;
+            inSegment = false;
+            failed = false;
+
+            writeFileHeader();
+            String[] fieldNames = support.getFieldNames();
+            for (int i = 0; i < fieldNames.length; i++) {
+                writeUTF8Record(fieldNames[i], false);
+            }
+            Heap.getHeap().walkImageHeapObjects(loadClassVisitor);
+            writeStackTrace();
+
+            beginSegment();
+            Heap.getHeap().walkImageHeapObjects(classDumpVisitor);
+            writeStaticRoots();
+            writeThreadRoots();
+            Heap.getHeap().walkObjects(objectDumpVisitor);
+            endSegment();
+
+            writeRecordHeader(HPROF_HEAP_DUMP_END, 0);
+            flush();
+            return !failed;
+        } finally {
+            UnmanagedMemory.free(buffer);
+            buffer = WordFactory.nullPointer();
+        }
+    }
+
+    private void writeFileHeader() {
+        String format = "JAVA PROFILE 1.0.2";
+        for (int i = 0; i < format.length(); i++) {
+            writeByte(format.charAt(i));
+        }
+        writeByte(0);
+        writeInt(ID_SIZE);
+        writeLong(System.currentTimeMillis());
+    }
+
+    private void writeUTF8Record(String value, boolean internalName) {
+        writeRecordHeader(HPROF_UTF8, ID_SIZE + utf8Length(value));
+        writeObjectId(value);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (internalName && c == '.') {
+                c = '/';
+            }
+            if (c != 0 && c < 0x80) {
+                writeByte(c);
+            } else if (c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /** The length of the modified UTF-8 encoding, which is also used by class files. */
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != 0 && c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void writeStackTrace() {
+        writeRecordHeader(HPROF_TRACE, 4 + 4 + 4);
+        writeInt(STACK_TRACE_SERIAL);
+        writeInt(0);
+        writeInt(0);
+    }
+
+    private void writeStaticRoots() {
+        writeRoot(HPROF_GC_ROOT_UNKNOWN, StaticFieldsSupport.getStaticObjectFields());
+        writeRoot(HPROF_GC_ROOT_UNKNOWN, StaticFieldsSupport.getStaticPrimitiveFields());
+    }
+
+    private void writeRoot(int tag, Object object) {
+        beginSubRecord(1 + ID_SIZE);
+        writeByte(tag);
+        writeObjectId(object);
+        endSubRecord();
+    }
+
+    @NeverInline("Starting a stack walk in the caller frame.")
+    private void writeThreadRoots() {
+        Pointer sp = readCallerStackPointer();
+        int serial = 0;
+        for (IsolateThread vmThread = VMThreads.firstThread(); vmThread.isNonNull(); vmThread = VMThreads.nextThread(vmThread)) {
+            serial++;
+            Thread thread = JavaThreads.fromVMThread(vmThread);
+            if (thread != null) {
+                beginSubRecord(1 + ID_SIZE + 4 + 4);
+                writeByte(HPROF_GC_ROOT_THREAD_OBJ);
+                writeObjectId(thread);
+                writeInt(serial);
+                writeInt(STACK_TRACE_SERIAL);
+                endSubRecord();
+            }
+            currentThreadSerial = serial;
+            if (vmThread == CurrentIsolate.getCurrentThread()) {
+                JavaStackWalker.walkCurrentThread(sp, stackRootVisitor);
+            } else {
+                JavaStackWalker.walkThread(vmThread, stackRootVisitor);
+            }
+        }
+    }
+
+    private void writeClassDump(DynamicHub hub) {
+        int start = support.getFieldInfoStart(hub.getTypeID());
+        int fieldCount = support.getFieldInfo(start);
+        beginSubRecord(1 + ID_SIZE + 4 + 6 * ID_SIZE + 4 + 2 + 2 + 2 + fieldCount * (ID_SIZE + 1));
+        writeByte(HPROF_GC_CLASS_DUMP);
+        writeObjectId(hub);
+        writeInt(STACK_TRACE_SERIAL);
+        writeObjectId(hub.getSuperHub());
+        /* Class loader, signers, protection domain, and two reserved ids. */
+        for (int i = 0; i < 5; i++) {
+            writeId(0);
+        }
+        writeInt(instanceFieldsSize(hub));
+        writeShort(0); // constant pool
+        writeShort(0); // static fields
+        writeShort(fieldCount);
+        String[] fieldNames = support.getFieldNames();
+        for (int i = 0; i < fieldCount; i++) {
+            int info = start + 1 + 3 * i;
+            writeObjectId(fieldNames[support.getFieldInfo(info)]);
+            writeByte(support.getFieldInfo(info + 1));
+        }
+        endSubRecord();
+
+        writeRoot(HPROF_GC_ROOT_STICKY_CLASS, hub);
+    }
+
+    /** The size of the field values of an instance dump, including those of the superclasses. */
+    private int instanceFieldsSize(DynamicHub hub) {
+        int size = 0;
+        for (DynamicHub cur = hub; cur != null; cur = cur.getSuperHub()) {
+            int start = support.getFieldInfoStart(cur.getTypeID());
+            int fieldCount = support.getFieldInfo(start);
+            for (int i = 0; i < fieldCount; i++) {
+                size += basicTypeSize(support.getFieldInfo(start + 1 + 3 * i + 1));
+            }
+        }
+        return size;
+    }
+
+    private void writeInstanceDump(Object obj, DynamicHub hub) {
+        int fieldsSize = instanceFieldsSize(hub);
+        beginSubRecord(1 + ID_SIZE + 4 + ID_SIZE + 4 + fieldsSize);
+        writeByte(HPROF_GC_INSTANCE_DUMP);
+        writeObjectId(obj);
+        writeInt(STACK_TRACE_SERIAL);
+        writeObjectId(hub);
+        writeInt(fieldsSize);
+        for (DynamicHub cur = hub; cur != null; cur = cur.getSuperHub()) {
+            int start = support.getFieldInfoStart(cur.getTypeID());
+            int fieldCount = support.getFieldInfo(start);
+            for (int i = 0; i < fieldCount; i++) {
+                int info = start + 1 + 3 * i;
+                writeFieldValue(obj, support.getFieldInfo(info + 1), support.getFieldInfo(info + 2));
+            }
+        }
+        endSubRecord();
+    }
+
+    private void writeFieldValue(Object obj, int type, int offset) {
+        switch (type) {
+            case HPROF_NORMAL_OBJECT:
+                writeObjectId(BarrieredAccess.readObject(obj, offset));
+                break;
+            case HPROF_BOOLEAN:
+            case HPROF_BYTE:
+                writeByte(ObjectAccess.readByte(obj, offset));
+                break;
+            case HPROF_CHAR:
+            case HPROF_SHORT:
+                writeShort(ObjectAccess.readShort(obj, offset));
+                break;
+            case HPROF_FLOAT:
+            case HPROF_INT:
+                writeInt(ObjectAccess.readInt(obj, offset));
+                break;
+            default:
+                writeLong(ObjectAccess.readLong(obj, offset));
+                break;
+        }
+    }
+
+    private void writeArrayDump(Object array, DynamicHub hub, int encoding) {
+        boolean objectArray = LayoutEncoding.isObjectArray(encoding);
+        int type = objectArray ? HPROF_NORMAL_OBJECT : primitiveArrayType(hub.getName().charAt(1));
+        int elementSize = basicTypeSize(type);
+        long headerSize = objectArray ? 1 + ID_SIZE + 4 + 4 + ID_SIZE : 1 + ID_SIZE + 4 + 4 + 1;
+        /* Like HotSpot, truncate arrays that do not fit into a single record. */
+        long maxLength = (MAX_RECORD_LENGTH - RECORD_HEADER_SIZE - headerSize) / elementSize;
+        int length = (int) Math.min(KnownIntrinsics.readArrayLength(array), maxLength);
+
+        beginSubRecord(headerSize + (long) length * elementSize);
+        writeByte(objectArray ? HPROF_GC_OBJ_ARRAY_DUMP : HPROF_GC_PRIM_ARRAY_DUMP);
+        writeObjectId(array);
+        writeInt(STACK_TRACE_SERIAL);
+        writeInt(length);
+        if (objectArray) {
+            writeObjectId(hub);
+        } else {
+            writeByte(type);
+        }
+        for (int i = 0; i < length; i++) {
+            UnsignedWord offset = LayoutEncoding.getArrayElementOffset(encoding, i);
+            switch (elementSize) {
+                case 1:
+                    writeByte(ObjectAccess.readByte(array, offset));
+                    break;
+                case 2:
+                    writeShort(ObjectAccess.readShort(array, offset));
+                    break;
+                case 4:
+                    writeInt(ObjectAccess.readInt(array, offset));
+                    break;
+                default:
+                    if (objectArray) {
+                        writeObjectId(BarrieredAccess.readObject(array, offset));
+                    } else {
+                        writeLong(ObjectAccess.readLong(array, offset));
+                    }
+                    break;
+            }
+        }
+        endSubRecord();
+    }
+
+    private static int primitiveArrayType(char descriptor) {
+        switch (descriptor) {
+            case 'Z':
+                return HPROF_BOOLEAN;
+            case 'C':
+                return HPROF_CHAR;
+            case 'F':
+                return HPROF_FLOAT;
+            case 'D':
+                return HPROF_DOUBLE;
+            case 'B':
+                return HPROF_BYTE;
+            case 'S':
+                return HPROF_SHORT;
+            case 'I':
+                return HPROF_INT;
+            default:
+                return HPROF_LONG;
+        }
+    }
+
+    private static int basicTypeSize(int type) {
+        switch (type) {
+            case HPROF_BOOLEAN:
+            case HPROF_BYTE:
+                return 1;
+            case HPROF_CHAR:
+            case HPROF_SHORT:
+                return 2;
+            case HPROF_FLOAT:
+            case HPROF_INT:
+                return 4;
+            default:
+                return 8;
+        }
+    }
+
+    private static int classSerial(DynamicHub hub) {
+        return hub.getTypeID() + 1;
+    }
+
+    private void writeRecordHeader(int tag, long length) {
+        writeByte(tag);
+        writeInt(0);
+        writeInt((int) length);
+    }
+
+    private void beginSegment() {
+        flush();
+        inSegment = true;
+        position = RECORD_HEADER_SIZE;
+    }
+
+    /** Patch the header of the current segment and write it, unless it is empty. */
+    private void endSegment() {
+        if (position > RECORD_HEADER_SIZE) {
+            int length = position - RECORD_HEADER_SIZE;
+            buffer.writeByte(0, (byte) HPROF_HEAP_DUMP_SEGMENT);
+            putInt(1, 0);
+            putInt(5, length);
+            writeOut(position);
+        }
+        position = 0;
+        inSegment = false;
+    }
+
+    private void beginSubRecord(long size) {
+        if (RECORD_HEADER_SIZE + size > BUFFER_SIZE) {
+            /* Stream the sub-record in a segment of its own. */
+            endSegment();
+            writeRecordHeader(HPROF_HEAP_DUMP_SEGMENT, size);
+        } else if (position + size > BUFFER_SIZE) {
+            endSegment();
+            beginSegment();
+        }
+    }
+
+    private void endSubRecord() {
+        if (!inSegment) {
+            beginSegment();
+        }
+    }
+
+    private void writeObjectId(Object obj) {
+        writeId(obj == null ? 0 : Word.objectToUntrackedPointer(obj).rawValue());
+    }
+
+    private void writeId(long id) {
+        writeLong(id);
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void writeInt(int value) {
+        writeShort(value >>> 16);
+        writeShort(value);
+    }
+
+    private void writeShort(int value) {
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    private void writeByte(int value) {
+        if (position == BUFFER_SIZE) {
+            assert !inSegment : "sub-records of a segment must fit into the buffer";
+            flush();
+        }
+        buffer.writeByte(position, (byte) value);
+        position++;
+    }
+
+    private void putInt(int index, int value) {
+        buffer.writeByte(index, (byte) (value >>> 24));
+        buffer.writeByte(index + 1, (byte) (value >>> 16));
+        buffer.writeByte(index + 2, (byte) (value >>> 8));
+        buffer.writeByte(index + 3, (byte) value);
+    }
+
+    private void flush() {
+        writeOut(position);
+        position = 0;
+    }
+
+    private void writeOut(int length) {
+        if (!failed && length > 0 && !support.writeBytes(fd, (CCharPointer) buffer, WordFactory.unsigned(length))) {
+            failed = true;
+        }
+    }
+
+    private final class LoadClassVisitor implements ObjectVisitor {
+        @Override
+        public boolean visitObject(Object o) {
+            if (o instanceof Class<?>) {
+                DynamicHub hub = DynamicHub.fromClass((Class<?>) o);
+                writeUTF8Record(hub.getName(), true);
+                writeRecordHeader(HPROF_LOAD_CLASS, 4 + ID_SIZE + 4 + ID_SIZE);
+                writeInt(classSerial(hub));
+                writeObjectId(hub);
+                writeInt(STACK_TRACE_SERIAL);
+                writeObjectId(hub.getName());
+            }
+            return !failed;
+        }
+    }
+
+    private final class ClassDumpVisitor implements ObjectVisitor {
+        @Override
+        public boolean visitObject(Object o) {
+            if (o instanceof Class<?>) {
+                writeClassDump(DynamicHub.fromClass((Class<?>) o));
+            }
+            return !failed;
+        }
+    }
+
+    private final class ObjectDumpVisitor implements ObjectVisitor {
+        @Override
+        public boolean visitObject(Object o) {
+            if (o instanceof Class<?>) {
+                /* Already written as a class dump. */
+                return !failed;
+            }
+            DynamicHub hub = KnownIntrinsics.readHub(o);
+            int encoding = hub.getLayoutEncoding();
+            if (LayoutEncoding.isArray(encoding) && hub.getName().charAt(0) == '[') {
+                writeArrayDump(o, hub, encoding);
+            } else {
+                /* Hybrid objects have an array part, but only their fields are dumped. */
+                writeInstanceDump(o, hub);
+            }
+            return !failed;
+        }
+    }
+
+    private final class StackRootVisitor implements StackFrameVisitor {
+        @Override
+        public boolean visitFrame(Pointer sp, CodePointer ip, CodeInfo codeInfo, DeoptimizedFrame deoptimizedFrame) {
+            return CodeInfoTable.visitObjectReferences(sp, ip, codeInfo, deoptimizedFrame, frameRootVisitor);
+        }
+    }
+
+    private final class FrameRootVisitor implements ObjectReferenceVisitor {
+        @Override
+        public boolean visitObjectReference(Pointer objRef, boolean compressed) {
+            Word address = ImageSingletons.lookup(ReferenceAccess.class).readObjectAsUntrackedPointer(objRef, compressed);
+            if (address.isNonNull()) {
+                beginSubRecord(1 + ID_SIZE + 4 + 4);
+                writeByte(HPROF_GC_ROOT_JAVA_FRAME);
+                writeId(address.rawValue());
+                writeInt(currentThreadSerial);
+                writeInt(-1);
+                endSubRecord();
+            }
+            return !failed;
+        }
+    }
+}
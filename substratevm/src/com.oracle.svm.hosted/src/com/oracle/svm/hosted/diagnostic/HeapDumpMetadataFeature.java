@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.diagnostic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.impl.HeapDumpSupport;
+
+import com.oracle.svm.core.VMInspection;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.heapdump.HeapDumpSupportImpl;
+import com.oracle.svm.hosted.FeatureImpl.BeforeCompilationAccessImpl;
+import com.oracle.svm.hosted.meta.HostedField;
+import com.oracle.svm.hosted.meta.HostedType;
+
+/**
+ * Encodes the names, types, and offsets of the instance fields of all types for the heap dumps
+ * written by {@link HeapDumpSupportImpl}.
+ */
+@AutomaticFeature
+public class HeapDumpMetadataFeature implements Feature {
+
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return VMInspection.isEnabled();
+    }
+
+    @Override
+    public void beforeCompilation(BeforeCompilationAccess a) {
+        if (!ImageSingletons.contains(HeapDumpSupport.class)) {
+            return;
+        }
+        BeforeCompilationAccessImpl access = (BeforeCompilationAccessImpl) a;
+
+        int maxTypeID = 0;
+        for (HostedType type : access.getUniverse().getTypes()) {
+            maxTypeID = Math.max(maxTypeID, type.getTypeID());
+        }
+        int[] fieldInfoStarts = new int[maxTypeID + 1];
+        List<Integer> fieldInfos = new ArrayList<>();
+        Map<String, Integer> fieldNameIndices = new HashMap<>();
+        List<String> fieldNames = new ArrayList<>();
+
+        /* Index 0 is the empty list of fields of types without instance fields. */
+        fieldInfos.add(0);
+        for (HostedType type : access.getUniverse().getTypes()) {
+            if (!type.isInstanceClass()) {
+                continue;
+            }
+            List<HostedField> fields = new ArrayList<>();
+            for (HostedField field : type.getInstanceFields(false)) {
+                if (field.hasLocation()) {
+                    fields.add(field);
+                }
+            }
+            if (fields.isEmpty()) {
+                continue;
+            }
+            fieldInfoStarts[type.getTypeID()] = fieldInfos.size();
+            fieldInfos.add(fields.size());
+            for (HostedField field : fields) {
+                fieldInfos.add(fieldNameIndices.computeIfAbsent(field.getName(), name -> {
+                    fieldNames.add(name);
+                    return fieldNames.size() - 1;
+                }));
+                fieldInfos.add(HeapDumpSupportImpl.getBasicType(field.getStorageKind()));
+                fieldInfos.add(field.getLocation());
+            }
+        }
+
+        HeapDumpSupportImpl support = (HeapDumpSupportImpl) ImageSingletons.lookup(HeapDumpSupport.class);
+        support.setData(fieldInfoStarts, fieldInfos.stream().mapToInt(Integer::intValue).toArray(), fieldNames.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Stores young objects into old objects spread over many chunks, so that incremental collections
+ * have to find them through dirty cards. The gate builds this test with
+ * {@code -H:ParallelCardScanThreads} and {@code -H:+VerifyDirtyCardsBeforeCollection}, which
+ * checks the dirty card ranges of the parallel scan against a serial walk in every collection.
+ */
+public class ParallelCardScanTest {
+    private static final int HOLDERS = 64 * 1024;
+    private static final int ROUNDS = 16;
+
+    static final class Holder {
+        Object value;
+    }
+
+    private static Object sink;
+
+    @Test
+    public void testYoungReferencesFromOldObjects() {
+        Holder[] holders = new Holder[HOLDERS];
+        for (int i = 0; i < HOLDERS; i++) {
+            holders[i] = new Holder();
+        }
+        /* Promote the holders to the old generation. */
+        System.gc();
+        System.gc();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            /* Dirty a different subset of cards in every round. */
+            for (int i = round; i < HOLDERS; i += round + 1) {
+                holders[i].value = Integer.toString(i * ROUNDS + round);
+            }
+            /* Fill the young generation to cause incremental collections. */
+            for (int i = 0; i < HOLDERS; i++) {
+                sink = new long[16];
+            }
+            for (int i = round; i < HOLDERS; i += round + 1) {
+                Assert.assertEquals(Integer.toString(i * ROUNDS + round), holders[i].value);
+            }
+        }
+        sink = null;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.truffle;
+
+//Checkstyle: allow reflection
+
+import static com.oracle.svm.core.util.VMError.guarantee;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.graalvm.compiler.serviceprovider.GraalUnsafeAccess;
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.hosted.Feature;
+
+import com.oracle.svm.core.annotate.Alias;
+import com.oracle.svm.core.annotate.RecomputeFieldValue;
+import com.oracle.svm.core.annotate.RecomputeFieldValue.Kind;
+import com.oracle.svm.core.annotate.TargetClass;
+import com.oracle.svm.core.meta.SharedField;
+import com.oracle.svm.core.util.VMError;
+import com.oracle.svm.util.ReflectionUtil;
+import com.oracle.truffle.api.staticobject.StaticProperty;
+
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import sun.misc.Unsafe;
+
+/**
+ * A {@link StaticProperty} accesses the field that stores its value in the generated storage class
+ * via a field offset that is computed when the shape is built. Shapes therefore must be built
+ * during image generation, and the offsets of all properties that are reachable at run time are
+ * recomputed to the field locations of the image. Fields referenced by such properties are
+ * registered as unsafe accessed, which is necessary for correctness of the static analysis.
+ */
+public final class StaticObjectFeature implements Feature {
+    private static final Unsafe UNSAFE = GraalUnsafeAccess.getUnsafe();
+
+    private final Map<StaticProperty, Field> propertyFields = new ConcurrentHashMap<>();
+    private Consumer<Field> markAsUnsafeAccessed;
+
+    @Override
+    public void duringSetup(DuringSetupAccess access) {
+        access.registerObjectReplacer(this::processStaticProperty);
+    }
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access) {
+        markAsUnsafeAccessed = access::registerAsUnsafeAccessed;
+    }
+
+    @Override
+    public void afterAnalysis(AfterAnalysisAccess access) {
+        markAsUnsafeAccessed = null;
+    }
+
+    private Object processStaticProperty(Object obj) {
+        if (obj instanceof StaticProperty) {
+            StaticProperty property = (StaticProperty) obj;
+            if (!propertyFields.containsKey(property)) {
+                Field field = findPropertyField(property);
+                if (field != null) {
+                    VMError.guarantee(markAsUnsafeAccessed != null, "New StaticProperty found after static analysis");
+                    markAsUnsafeAccessed.accept(field);
+                    propertyFields.put(property, field);
+                }
+            }
+        }
+        return obj;
+    }
+
+    /**
+     * Find the field of the storage class that stores the value of a property. The property only
+     * stores the field offset and the storage class, so we iterate all fields of that class and
+     * look for the field with a matching offset. Returns {@code null} if the property was not yet
+     * added to a shape.
+     */
+    static Field findPropertyField(StaticProperty property) {
+        Class<?> storageClass = ReflectionUtil.readField(StaticProperty.class, "storageClass", property);
+        if (storageClass == null) {
+            return null;
+        }
+        long originalOffset = ReflectionUtil.<Long> readField(StaticProperty.class, "offset", property);
+        for (Field field : storageClass.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && UNSAFE.objectFieldOffset(field) == originalOffset) {
+                return field;
+            }
+        }
+        throw VMError.shouldNotReachHere("Could not find field referenced by StaticProperty: " + property + ", offset = " + originalOffset);
+    }
+
+    Field lookupPropertyField(StaticProperty property) {
+        return propertyFields.get(property);
+    }
+}
+
+@TargetClass(StaticProperty.class)
+final class Target_com_oracle_truffle_api_staticobject_StaticProperty {
+    @Alias @RecomputeFieldValue(kind = Kind.Custom, declClass = StaticPropertyOffsetComputer.class) //
+    long offset;
+}
+
+class StaticPropertyOffsetComputer implements RecomputeFieldValue.CustomFieldValueComputer {
+    @Override
+    public Object compute(MetaAccessProvider metaAccess, ResolvedJavaField original, ResolvedJavaField annotated, Object receiver) {
+        StaticProperty property = (StaticProperty) receiver;
+        Field field = ImageSingletons.lookup(StaticObjectFeature.class).lookupPropertyField(property);
+        if (field == null) {
+            /* The property was never added to a shape, so there is no offset to recompute. */
+            return Long.valueOf(ReflectionUtil.<Long> readField(StaticProperty.class, "offset", property));
+        }
+        SharedField sField = (SharedField) metaAccess.lookupJavaField(field);
+
+        guarantee(sField.isAccessed() && sField.getLocation() > 0, "Field not marked as accessed");
+        return Long.valueOf(sField.getLocation());
+    }
+}
@@ -379,6 +379,17 @@ suite = {
       "workingSets" : "API,Truffle",
     },
 
+    "com.oracle.truffle.api.staticobject" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.api",
+      ],
+      "checkstyle" : "com.oracle.truffle.api",
+      "javaCompliance" : "8+",
+      "workingSets" : "API,Truffle",
+    },
+
     "com.oracle.truffle.api.object.dsl" : {
       "subDir" : "src",
       "sourceDirs" : ["src"],
@@ -750,7 +761,8 @@ suite = {
           "static java.desktop",
           "jdk.unsupported", # sun.misc.Unsafe
           "java.logging",
-          "java.management"
+          "java.management",
+          "jdk.management"
         ],
         "exports" : [
           # Qualified exports
@@ -787,6 +799,7 @@ suite = {
           "com.oracle.truffle.api.object",
           "com.oracle.truffle.api.utilities",
           "com.oracle.truffle.api.library",
+          "com.oracle.truffle.api.staticobject",
 
           # Qualified exports
           "com.oracle.truffle.api.impl to jdk.internal.vm.compiler, org.graalvm.locator",
@@ -803,6 +816,7 @@ suite = {
         "com.oracle.truffle.api.utilities",
         "com.oracle.truffle.object",
         "com.oracle.truffle.api.object.dsl",
+        "com.oracle.truffle.api.staticobject",
         "com.oracle.truffle.polyglot",
       ],
       "distDependencies" : [
@@ -40,6 +40,9 @@
  */
 package com.oracle.truffle.api.benchmark;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.Phaser;
+
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Source;
@@ -47,6 +50,7 @@ import org.graalvm.polyglot.Value;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
@@ -218,6 +222,73 @@ public class EngineBenchmark extends TruffleBenchmark {
         state.context1.leave();
     }
 
+    /*
+     * Many threads that take turns entering and leaving the same context. Uses virtual threads if
+     * the host VM supports them, platform threads otherwise.
+     */
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class ContextEnterManyThreads {
+
+        static final int THREADS = 10000;
+
+        final Context context = Context.create(TEST_LANGUAGE);
+        final Phaser phaser = new Phaser(THREADS + 1);
+        final Thread[] threads = new Thread[THREADS];
+        volatile boolean stopped;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            context.initialize(TEST_LANGUAGE);
+            for (int i = 0; i < THREADS; i++) {
+                threads[i] = createThread(this::run);
+                threads[i].start();
+            }
+        }
+
+        private void run() {
+            while (true) {
+                phaser.arriveAndAwaitAdvance();
+                if (stopped) {
+                    return;
+                }
+                context.enter();
+                context.leave();
+                phaser.arriveAndAwaitAdvance();
+            }
+        }
+
+        private static Thread createThread(Runnable runnable) throws Exception {
+            Method ofVirtual;
+            try {
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+            } catch (NoSuchMethodException e) {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            }
+            Object builder = ofVirtual.invoke(null);
+            return (Thread) Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class).invoke(builder, runnable);
+        }
+
+        @TearDown
+        public void tearDown() throws InterruptedException {
+            stopped = true;
+            phaser.arriveAndAwaitAdvance();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ContextEnterManyThreads.THREADS)
+    public void enterLeaveManyThreads(ContextEnterManyThreads state) {
+        // start a round in which every thread enters and leaves once and wait until it is done
+        state.phaser.arriveAndAwaitAdvance();
+        state.phaser.arriveAndAwaitAdvance();
+    }
+
     @State(org.openjdk.jmh.annotations.Scope.Thread)
     public static class ContextState {
         final Source source = Source.create(TEST_LANGUAGE, "");
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.dsl.GenerateBytecode;
+import com.oracle.truffle.api.dsl.GenerateBytecode.Operation;
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+@SuppressWarnings("unused")
+public class GenerateBytecodeTest {
+
+    @GenerateBytecode
+    @Operation(name = "Add", node = AddNode.class)
+    @Operation(name = "LessThan", node = LessThanNode.class)
+    @Operation(name = "AddConstant", node = AddConstantNode.class)
+    @Operation(name = "Sum", node = SumNode.class)
+    @Operation(name = "Record", node = RecordNode.class)
+    abstract static class TestBytecodeRootNode extends RootNode {
+
+        protected TestBytecodeRootNode(TruffleLanguage<?> language, FrameDescriptor frameDescriptor) {
+            super(language, frameDescriptor);
+        }
+
+        @Override
+        public abstract Object execute(VirtualFrame frame);
+
+    }
+
+    abstract static class AddNode extends Node {
+
+        abstract Object execute(Object left, Object right);
+
+        @Specialization(rewriteOn = ArithmeticException.class)
+        int doInt(int left, int right) {
+            return Math.addExact(left, right);
+        }
+
+        @Specialization
+        long doLong(long left, long right) {
+            return left + right;
+        }
+
+        @Specialization
+        String doString(String left, String right) {
+            return left + right;
+        }
+
+    }
+
+    abstract static class LessThanNode extends Node {
+
+        abstract boolean execute(Object left, Object right);
+
+        @Specialization
+        boolean doInt(int left, int right) {
+            return left < right;
+        }
+
+    }
+
+    @NodeField(name = "constant", type = int.class)
+    abstract static class AddConstantNode extends Node {
+
+        abstract int getConstant();
+
+        abstract Object execute(Object value);
+
+        @Specialization
+        int doInt(int value) {
+            return value + getConstant();
+        }
+
+    }
+
+    abstract static class SumNode extends Node {
+
+        abstract Object execute(Object[] values);
+
+        @Specialization
+        int doDefault(Object[] values) {
+            int sum = 0;
+            for (Object value : values) {
+                sum += (int) value;
+            }
+            return sum;
+        }
+
+    }
+
+    static final List<Object> RECORDED = new ArrayList<>();
+
+    abstract static class RecordNode extends Node {
+
+        abstract void execute(Object value);
+
+        @Specialization
+        void doDefault(Object value) {
+            RECORDED.add(value);
+        }
+
+    }
+
+    /*
+     * Computes the sum of all numbers from 0 to the first argument.
+     */
+    private static CallTarget createLoop() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        int i = b.createLocal();
+        int sum = b.createLocal();
+        int loop = b.createLabel();
+        int end = b.createLabel();
+        b.emitLoadConstant(0);
+        b.emitStoreLocal(i);
+        b.emitLoadConstant(0);
+        b.emitStoreLocal(sum);
+        b.bindLabel(loop);
+        b.emitLoadLocal(i);
+        b.emitLoadArgument(0);
+        b.emitLessThan();
+        b.emitBranchFalse(end);
+        b.emitLoadLocal(sum);
+        b.emitLoadLocal(i);
+        b.emitAdd();
+        b.emitStoreLocal(sum);
+        b.emitLoadLocal(i);
+        b.emitAddConstant(1);
+        b.emitStoreLocal(i);
+        b.emitBranch(loop);
+        b.bindLabel(end);
+        b.emitLoadLocal(sum);
+        b.emitReturn();
+        return Truffle.getRuntime().createCallTarget(b.build(null));
+    }
+
+    @Test
+    public void testLoop() {
+        CallTarget target = createLoop();
+        assertEquals(0, target.call(0));
+        assertEquals(45, target.call(10));
+        assertEquals(4950, target.call(100));
+    }
+
+    @Test
+    public void testLocalTypeChange() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        int local = b.createLocal();
+        b.emitLoadArgument(0);
+        b.emitStoreLocal(local);
+        b.emitLoadLocal(local);
+        b.emitLoadLocal(local);
+        b.emitAdd();
+        b.emitReturn();
+        CallTarget target = Truffle.getRuntime().createCallTarget(b.build(null));
+
+        assertEquals(42, target.call(21));
+        assertEquals(42, target.call(21));
+        assertEquals("aa", target.call("a"));
+        assertEquals(42L, target.call(21L));
+        assertEquals(42, target.call(21));
+    }
+
+    @Test
+    public void testIntOverflow() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        b.emitLoadArgument(0);
+        b.emitLoadArgument(1);
+        b.emitAdd();
+        b.emitReturn();
+        CallTarget target = Truffle.getRuntime().createCallTarget(b.build(null));
+
+        assertEquals(3, target.call(1, 2));
+        assertEquals((long) Integer.MAX_VALUE + 1, target.call((long) Integer.MAX_VALUE, 1L));
+    }
+
+    @Test
+    public void testVariadic() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        b.emitLoadConstant(1);
+        b.emitLoadConstant(2);
+        b.emitLoadConstant(3);
+        b.emitSum(3);
+        b.emitSum(1);
+        b.emitSum(0);
+        b.emitAdd();
+        b.emitReturn();
+        CallTarget target = Truffle.getRuntime().createCallTarget(b.build(null));
+        assertEquals(6, target.call());
+    }
+
+    @Test
+    public void testVoidOperation() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        b.emitLoadArgument(0);
+        b.emitDup();
+        b.emitRecord();
+        b.emitReturn();
+        CallTarget target = Truffle.getRuntime().createCallTarget(b.build(null));
+
+        RECORDED.clear();
+        assertEquals("value", target.call("value"));
+        assertEquals(1, RECORDED.size());
+        assertEquals("value", RECORDED.get(0));
+    }
+
+    @Test
+    public void testOperationNodes() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        b.emitLoadArgument(0);
+        AddConstantNode node = b.emitAddConstant(41);
+        b.emitReturn();
+        RootNode root = b.build(null);
+        CallTarget target = Truffle.getRuntime().createCallTarget(root);
+
+        assertEquals(42, target.call(1));
+        assertEquals(41, node.getConstant());
+        assertSame(root, node.getRootNode());
+    }
+
+    @Test
+    public void testStackUnderflow() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        b.emitLoadConstant(1);
+        try {
+            b.emitAdd();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testInconsistentStackHeight() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        int label = b.createLabel();
+        b.emitLoadArgument(0);
+        b.emitLoadArgument(0);
+        b.emitBranchFalse(label);
+        b.emitLoadArgument(0);
+        try {
+            b.bindLabel(label);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testUnboundLabel() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        int label = b.createLabel();
+        b.emitBranch(label);
+        try {
+            b.build(null);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testMissingReturn() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        b.emitLoadConstant(42);
+        try {
+            b.build(null);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testInvalidLocal() {
+        TestBytecodeRootNodeGen.Builder b = TestBytecodeRootNodeGen.newBuilder();
+        try {
+            b.emitLoadLocal(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @ExpectError("Classes annotated with @GenerateBytecode must extend RootNode.")
+    @GenerateBytecode
+    abstract static class ErrorNotRootNode extends Node {
+    }
+
+    @ExpectError("The method execute(VirtualFrame) must be redeclared as abstract method to be implemented by the bytecode interpreter.")
+    @GenerateBytecode
+    abstract static class ErrorExecuteNotAbstract extends RootNode {
+
+        protected ErrorExecuteNotAbstract(TruffleLanguage<?> language, FrameDescriptor frameDescriptor) {
+            super(language, frameDescriptor);
+        }
+
+    }
+
+    abstract static class NoSpecializationNode extends Node {
+
+        abstract Object execute(Object value);
+
+    }
+
+    @ExpectError("The operation node NoSpecializationNode must declare at least one specialization.")
+    @GenerateBytecode
+    @Operation(name = "Invalid", node = NoSpecializationNode.class)
+    abstract static class ErrorOperationWithoutSpecialization extends RootNode {
+
+        protected ErrorOperationWithoutSpecialization(TruffleLanguage<?> language, FrameDescriptor frameDescriptor) {
+            super(language, frameDescriptor);
+        }
+
+        @Override
+        public abstract Object execute(VirtualFrame frame);
+
+    }
+
+}
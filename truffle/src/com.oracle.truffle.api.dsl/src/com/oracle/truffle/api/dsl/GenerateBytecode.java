@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Generates a bytecode interpreter for an abstract {@link RootNode} subclass. Instead of a tree of
+ * nodes, the generated root node executes a compact array of instructions with a single dispatch
+ * loop. The loop is annotated with {@link ExplodeLoop} using the
+ * {@link ExplodeLoop.LoopExplosionKind#MERGE_EXPLODE merge explode} strategy, so that partial
+ * evaluation of the loop produces the same code as the equivalent node tree would.
+ * <p>
+ * The language specific instructions of the interpreter are declared with {@link Operation}
+ * annotations. Every operation refers to a node class that uses {@link Specialization
+ * specializations} and declares an execute method that receives all its operands as evaluated
+ * values. The operation with the most evaluated values is used if the node declares more than one
+ * execute method. A trailing {@code Object[]} operand may be used to consume a variable number of
+ * values. Each occurrence of an operation in the bytecode gets its own instance of the node. The
+ * instances are stored out-of-line in a children array of the root node and referenced by index
+ * from the bytecode, so the specialization state and caches do not increase the size of the
+ * bytecode. Node fields declared with {@link NodeField} become parameters of the emit method of the
+ * operation.
+ * <p>
+ * The generated class is named after the annotated class with a <code>Gen</code> suffix and
+ * provides a static <code>newBuilder()</code> method. The builder offers methods to create local
+ * variables and labels, and to emit the built-in instructions:
+ * <ul>
+ * <li><code>emitLoadConstant(Object)</code>, <code>emitLoadArgument(int)</code>,
+ * <code>emitLoadLocal(int)</code> and <code>emitStoreLocal(int)</code>,
+ * <li><code>emitPop()</code> and <code>emitDup()</code>,
+ * <li><code>emitBranch(int)</code>, <code>emitBranchFalse(int)</code> and
+ * <code>emitReturn()</code>.
+ * </ul>
+ * For each operation an emit method named <code>emit</code> followed by the name of the operation
+ * is generated. It returns the created node, e.g. to allow the caller to assign a source section.
+ * Finally the <code>build</code> method creates the root node. For every non-private constructor of
+ * the annotated class a <code>build</code> method with the same parameters is generated, except
+ * for {@link FrameDescriptor} parameters. The frame descriptor is created by the builder and
+ * reserves one {@link FrameDescriptor#getNumberOfIndexedSlots() indexed slot} per local variable
+ * and per entry of the operand stack.
+ * <p>
+ * Local variable accesses are quickened: the first execution of a load or store instruction
+ * rewrites it to a variant specialized for the primitive type of the observed value, so that
+ * primitive values stay unboxed in the frame. A type change rewrites the instruction to its
+ * generic variant. Values on the operand stack keep their primitive type as well, if they were
+ * loaded from a quickened local variable or returned by an operation whose execute method declares
+ * a primitive <code>boolean</code>, <code>int</code>, <code>long</code> or <code>double</code>
+ * return type.
+ * <p>
+ * <b>Example:</b>
+ *
+ * <pre>
+ * &#64;GenerateBytecode
+ * &#64;Operation(name = "Add", node = AddNode.class)
+ * &#64;Operation(name = "LessThan", node = LessThanNode.class)
+ * abstract static class SumRootNode extends RootNode {
+ *
+ *     protected SumRootNode(TruffleLanguage&lt;?&gt; language, FrameDescriptor descriptor) {
+ *         super(language, descriptor);
+ *     }
+ *
+ *     &#64;Override
+ *     public abstract Object execute(VirtualFrame frame);
+ * }
+ *
+ * SumRootNodeGen.Builder b = SumRootNodeGen.newBuilder();
+ * int i = b.createLocal();
+ * int loop = b.createLabel();
+ * int end = b.createLabel();
+ * b.emitLoadConstant(0);
+ * b.emitStoreLocal(i);
+ * b.bindLabel(loop);
+ * b.emitLoadLocal(i);
+ * b.emitLoadArgument(0);
+ * b.emitLessThan();
+ * b.emitBranchFalse(end);
+ * b.emitLoadLocal(i);
+ * b.emitLoadConstant(1);
+ * b.emitAdd();
+ * b.emitStoreLocal(i);
+ * b.emitBranch(loop);
+ * b.bindLabel(end);
+ * b.emitLoadLocal(i);
+ * b.emitReturn();
+ * SumRootNode root = b.build(language);
+ * </pre>
+ *
+ * The annotated class must be abstract, must extend {@link RootNode} and must leave
+ * {@link RootNode#execute(com.oracle.truffle.api.frame.VirtualFrame)} abstract.
+ *
+ * @see Operation
+ * @since 20.1
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE})
+public @interface GenerateBytecode {
+
+    /**
+     * Declares a language specific instruction of a {@link GenerateBytecode bytecode interpreter}.
+     *
+     * @since 20.1
+     */
+    @Retention(RetentionPolicy.CLASS)
+    @Target({ElementType.TYPE})
+    @Repeatable(Operation.Repeat.class)
+    public @interface Operation {
+
+        /**
+         * The name of the operation. Used to derive the name of the generated emit method.
+         *
+         * @since 20.1
+         */
+        String name();
+
+        /**
+         * The node class that implements the operation.
+         *
+         * @since 20.1
+         */
+        Class<? extends Node> node();
+
+        /**
+         * @since 20.1
+         */
+        @Retention(RetentionPolicy.CLASS)
+        @Target({ElementType.TYPE})
+        public @interface Repeat {
+
+            /**
+             * @since 20.1
+             */
+            Operation[] value();
+
+        }
+    }
+
+}
@@ -216,6 +216,70 @@ public class ResourceLimitsTest {
         }
     }
 
+    @Test
+    public void testBoundContextAllocationLimit() {
+        ResourceLimits limits = ResourceLimits.newBuilder().//
+                        allocationLimit(1024 * 1024, Duration.ofMillis(10)).//
+                        build();
+
+        try (Context context = Context.newBuilder().resourceLimits(limits).build()) {
+            context.initialize(InstrumentationTestLanguage.ID);
+            try {
+                evalStatements(context);
+                fail();
+            } catch (PolyglotException e) {
+                assertAllocationLimit(context, e);
+            }
+        }
+    }
+
+    private static void assertAllocationLimit(Context c, PolyglotException e) {
+        if (!e.isCancelled()) {
+            // not expected exception
+            throw e;
+        }
+        assertTrue(e.getMessage(), e.getMessage().startsWith("Allocation resource limit of 1048576 bytes exceeded."));
+        try {
+            c.eval(InstrumentationTestLanguage.ID, "EXPRESSION");
+            fail();
+        } catch (PolyglotException ex) {
+            assertTrue(ex.isCancelled());
+        }
+    }
+
+    @Test
+    public void testRetainedHeapLimit() {
+        ResourceLimits limits = ResourceLimits.newBuilder().//
+                        retainedHeapLimit(4 * 1024 * 1024, Duration.ofMillis(10)).//
+                        build();
+
+        try (Context context = Context.newBuilder().resourceLimits(limits).build()) {
+            context.initialize(InstrumentationTestLanguage.ID);
+            List<byte[]> retained = new ArrayList<>();
+            context.getPolyglotBindings().putMember("retained", retained);
+            for (int i = 0; i < 16; i++) {
+                retained.add(new byte[64 * 1024]);
+            }
+            // below the limit, allow the heap to be walked a few times
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+            while (System.nanoTime() < end) {
+                context.eval(statements(100));
+            }
+            try {
+                while (true) {
+                    retained.add(new byte[64 * 1024]);
+                    context.eval(statements(100));
+                }
+            } catch (PolyglotException e) {
+                if (!e.isCancelled()) {
+                    throw e;
+                }
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Retained heap resource limit of 4194304 bytes exceeded."));
+                assertTrue(retained.size() > 16);
+            }
+        }
+    }
+
     @Test
     public void testStatementLimit() {
         ResourceLimits limits = ResourceLimits.newBuilder().//
@@ -692,6 +756,26 @@ public class ResourceLimitsTest {
         cpuTimeLimit(builder, null, null); // allowed to reset
     }
 
+    @Test
+    public void testAllocationLimitErrors() {
+        ResourceLimits.Builder builder = ResourceLimits.newBuilder();
+        assertFails(() -> builder.allocationLimit(-1, Duration.ofMillis(1)), IllegalArgumentException.class);
+        assertFails(() -> builder.allocationLimit(1, null), IllegalArgumentException.class);
+        assertFails(() -> builder.allocationLimit(1, Duration.ofMillis(0)), IllegalArgumentException.class);
+        assertFails(() -> builder.allocationLimit(1, Duration.ofMillis(-1)), IllegalArgumentException.class);
+        builder.allocationLimit(0, null); // allowed to reset
+    }
+
+    @Test
+    public void testRetainedHeapLimitErrors() {
+        ResourceLimits.Builder builder = ResourceLimits.newBuilder();
+        assertFails(() -> builder.retainedHeapLimit(-1, Duration.ofMillis(1)), IllegalArgumentException.class);
+        assertFails(() -> builder.retainedHeapLimit(1, null), IllegalArgumentException.class);
+        assertFails(() -> builder.retainedHeapLimit(1, Duration.ofMillis(0)), IllegalArgumentException.class);
+        assertFails(() -> builder.retainedHeapLimit(1, Duration.ofMillis(-1)), IllegalArgumentException.class);
+        builder.retainedHeapLimit(0, null); // allowed to reset
+    }
+
     @Test
     public void testStatementLimitErrors() {
         assertFails(() -> ResourceLimits.newBuilder().statementLimit(-1, null), IllegalArgumentException.class);
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import java.lang.reflect.Field;
+import java.util.Objects;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import sun.misc.Unsafe;
+
+/**
+ * A property of objects allocated by a {@link StaticShape}. Each property is stored in a dedicated
+ * field of the {@link StaticShape#getStorageClass() storage class} of its shape. If the property is
+ * a partial evaluation constant, then its accessors are compiled to a type check of the receiver
+ * followed by a direct field load or store.
+ * <p>
+ * A property can be added to a single {@link StaticShape.Builder builder} only. The accessors must
+ * be used with the matching {@link #getKind() kind}, e.g. {@link #getInt(Object)} for properties
+ * of kind {@link StaticPropertyKind#Int}, and fail with an {@link IllegalArgumentException}
+ * otherwise.
+ *
+ * @see StaticShape
+ * @since 20.1
+ */
+public final class StaticProperty {
+
+    private final String id;
+    private final StaticPropertyKind kind;
+    /*
+     * Written last and read first, so that a thread that sees the storage class also sees the
+     * offset, even if the shape was built by another thread and published without synchronization.
+     */
+    @CompilationFinal private volatile Class<?> storageClass;
+    @CompilationFinal private long offset;
+
+    /**
+     * Creates a new property that is not yet associated with a shape.
+     *
+     * @param id the identifier of the property, used as field name if possible
+     * @param kind the type of the value stored by the property
+     * @since 20.1
+     */
+    public StaticProperty(String id, StaticPropertyKind kind) {
+        this.id = Objects.requireNonNull(id);
+        this.kind = Objects.requireNonNull(kind);
+    }
+
+    /**
+     * Returns the identifier of this property.
+     *
+     * @since 20.1
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the type of the value stored by this property.
+     *
+     * @since 20.1
+     */
+    public StaticPropertyKind getKind() {
+        return kind;
+    }
+
+    boolean isInitialized() {
+        return storageClass != null;
+    }
+
+    void initialize(Class<?> generatedStorageClass, Field field) {
+        assert storageClass == null;
+        this.offset = UNSAFE.objectFieldOffset(field);
+        // publishes the offset
+        this.storageClass = generatedStorageClass;
+    }
+
+    /**
+     * Reads the value of an {@link StaticPropertyKind#Object Object} property.
+     *
+     * @since 20.1
+     */
+    public Object getObject(Object obj) {
+        return UNSAFE.getObject(checkReceiver(obj, StaticPropertyKind.Object), offset);
+    }
+
+    /**
+     * Writes the value of an {@link StaticPropertyKind#Object Object} property.
+     *
+     * @since 20.1
+     */
+    public void setObject(Object obj, Object value) {
+        UNSAFE.putObject(checkReceiver(obj, StaticPropertyKind.Object), offset, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Boolean Boolean} property.
+     *
+     * @since 20.1
+     */
+    public boolean getBoolean(Object obj) {
+        return UNSAFE.getBoolean(checkReceiver(obj, StaticPropertyKind.Boolean), offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Boolean Boolean} property.
+     *
+     * @since 20.1
+     */
+    public void setBoolean(Object obj, boolean value) {
+        UNSAFE.putBoolean(checkReceiver(obj, StaticPropertyKind.Boolean), offset, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Byte Byte} property.
+     *
+     * @since 20.1
+     */
+    public byte getByte(Object obj) {
+        return UNSAFE.getByte(checkReceiver(obj, StaticPropertyKind.Byte), offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Byte Byte} property.
+     *
+     * @since 20.1
+     */
+    public void setByte(Object obj, byte value) {
+        UNSAFE.putByte(checkReceiver(obj, StaticPropertyKind.Byte), offset, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Short Short} property.
+     *
+     * @since 20.1
+     */
+    public short getShort(Object obj) {
+        return UNSAFE.getShort(checkReceiver(obj, StaticPropertyKind.Short), offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Short Short} property.
+     *
+     * @since 20.1
+     */
+    public void setShort(Object obj, short value) {
+        UNSAFE.putShort(checkReceiver(obj, StaticPropertyKind.Short), offset, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Char Char} property.
+     *
+     * @since 20.1
+     */
+    public char getChar(Object obj) {
+        return UNSAFE.getChar(checkReceiver(obj, StaticPropertyKind.Char), offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Char Char} property.
+     *
+     * @since 20.1
+     */
+    public void setChar(Object obj, char value) {
+        UNSAFE.putChar(checkReceiver(obj, StaticPropertyKind.Char), offset, value);
+    }
+
+    /**
+     * Reads the value of an {@link StaticPropertyKind#Int Int} property.
+     *
+     * @since 20.1
+     */
+    public int getInt(Object obj) {
+        return UNSAFE.getInt(checkReceiver(obj, StaticPropertyKind.Int), offset);
+    }
+
+    /**
+     * Writes the value of an {@link StaticPropertyKind#Int Int} property.
+     *
+     * @since 20.1
+     */
+    public void setInt(Object obj, int value) {
+        UNSAFE.putInt(checkReceiver(obj, StaticPropertyKind.Int), offset, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Long Long} property.
+     *
+     * @since 20.1
+     */
+    public long getLong(Object obj) {
+        return UNSAFE.getLong(checkReceiver(obj, StaticPropertyKind.Long), offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Long Long} property.
+     *
+     * @since 20.1
+     */
+    public void setLong(Object obj, long value) {
+        UNSAFE.putLong(checkReceiver(obj, StaticPropertyKind.Long), offset, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Float Float} property.
+     *
+     * @since 20.1
+     */
+    public float getFloat(Object obj) {
+        return UNSAFE.getFloat(checkReceiver(obj, StaticPropertyKind.Float), offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Float Float} property.
+     *
+     * @since 20.1
+     */
+    public void setFloat(Object obj, float value) {
+        UNSAFE.putFloat(checkReceiver(obj, StaticPropertyKind.Float), offset, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Double Double} property.
+     *
+     * @since 20.1
+     */
+    public double getDouble(Object obj) {
+        return UNSAFE.getDouble(checkReceiver(obj, StaticPropertyKind.Double), offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Double Double} property.
+     *
+     * @since 20.1
+     */
+    public void setDouble(Object obj, double value) {
+        UNSAFE.putDouble(checkReceiver(obj, StaticPropertyKind.Double), offset, value);
+    }
+
+    /*
+     * The receiver check makes the exact type of the receiver known to the compiler, which then
+     * replaces the unsafe access at a constant offset with a field access. The class comparison
+     * also ensures that an unsafe access never happens on a null or foreign object.
+     */
+    private Object checkReceiver(Object obj, StaticPropertyKind accessKind) {
+        if (kind != accessKind) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw illegalKind(accessKind);
+        }
+        if (obj == null || obj.getClass() != storageClass) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw illegalReceiver(obj);
+        }
+        return obj;
+    }
+
+    @TruffleBoundary
+    private IllegalArgumentException illegalKind(StaticPropertyKind accessKind) {
+        return new IllegalArgumentException("Static property '" + id + "' of kind " + kind + " cannot be accessed as " + accessKind + ".");
+    }
+
+    @TruffleBoundary
+    private IllegalArgumentException illegalReceiver(Object obj) {
+        if (storageClass == null) {
+            return new IllegalArgumentException("Static property '" + id + "' is not associated with a shape.");
+        }
+        return new IllegalArgumentException("Object " + obj + " does not have the shape of static property '" + id + "'.");
+    }
+
+    /**
+     * @since 20.1
+     */
+    @Override
+    public String toString() {
+        return "StaticProperty[" + id + ":" + kind + "]";
+    }
+
+    private static final Unsafe UNSAFE = getUnsafe();
+
+    private static Unsafe getUnsafe() {
+        try {
+            return Unsafe.getUnsafe();
+        } catch (SecurityException e) {
+        }
+        try {
+            Field theUnsafeInstance = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafeInstance.setAccessible(true);
+            return (Unsafe) theUnsafeInstance.get(Unsafe.class);
+        } catch (Exception e) {
+            throw new RuntimeException("exception while trying to get Unsafe.theUnsafe via reflection:", e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.graalvm.nativeimage.ImageInfo;
+
+/**
+ * A shape of objects with a fixed set of {@link StaticProperty properties}. Building a shape
+ * generates a final subclass of a given super class, the {@link #getStorageClass() storage class},
+ * that declares one field of matching primitive or reference type per property. Unlike dynamic
+ * objects, static objects do not store their shape and do not need an extension array, and
+ * property accesses do not need a shape check.
+ * <p>
+ * Static objects are allocated with the {@link #getFactory() factory} of the shape, which
+ * implements a factory interface provided by the language. Every abstract method of the factory
+ * interface must return a super type of the storage class and its parameter types must match a
+ * public or protected constructor of the super class. Shapes built with {@link Builder#build()}
+ * extend {@link Object} and use the {@link DefaultStaticObjectFactory}:
+ *
+ * <pre>
+ * StaticProperty x = new StaticProperty("x", StaticPropertyKind.Int);
+ * StaticProperty name = new StaticProperty("name", StaticPropertyKind.Object);
+ * StaticShape&lt;DefaultStaticObjectFactory&gt; shape = StaticShape.newBuilder().property(x).property(name).build();
+ * Object point = shape.getFactory().create();
+ * x.setInt(point, 42);
+ * </pre>
+ *
+ * In a native image, classes cannot be generated at run time. Shapes must therefore be built
+ * during image generation, e.g. in a static initializer that is executed at image build time, and
+ * stored in the image heap. Building a shape at image run time throws an
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <T> the type of the factory interface
+ * @see StaticProperty
+ * @since 20.1
+ */
+public final class StaticShape<T> {
+
+    private final Class<?> storageClass;
+    private final T factory;
+
+    private StaticShape(Class<?> storageClass, T factory) {
+        this.storageClass = storageClass;
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a new builder for a static shape.
+     *
+     * @since 20.1
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the generated class that stores the properties of this shape. All objects allocated
+     * by the {@link #getFactory() factory} are exact instances of this class.
+     *
+     * @since 20.1
+     */
+    public Class<?> getStorageClass() {
+        return storageClass;
+    }
+
+    /**
+     * Returns the factory that allocates objects of this shape.
+     *
+     * @since 20.1
+     */
+    public T getFactory() {
+        return factory;
+    }
+
+    /**
+     * Builder for static shapes.
+     *
+     * @since 20.1
+     */
+    public static final class Builder {
+
+        private final Map<String, StaticProperty> properties = new LinkedHashMap<>();
+
+        Builder() {
+        }
+
+        /**
+         * Adds a property to the shape. The identifier of the property must be unique within the
+         * shape, and the property must not have been used for another shape.
+         *
+         * @throws IllegalArgumentException if the property cannot be added
+         * @since 20.1
+         */
+        public Builder property(StaticProperty property) {
+            Objects.requireNonNull(property);
+            if (properties.containsKey(property.getId())) {
+                throw new IllegalArgumentException("A property with id '" + property.getId() + "' has already been added to this shape.");
+            }
+            checkNotInitialized(property);
+            properties.put(property.getId(), property);
+            return this;
+        }
+
+        /**
+         * Builds a shape whose storage class extends {@link Object} and that uses the
+         * {@link DefaultStaticObjectFactory}.
+         *
+         * @since 20.1
+         */
+        public StaticShape<DefaultStaticObjectFactory> build() {
+            return build(Object.class, DefaultStaticObjectFactory.class);
+        }
+
+        /**
+         * Builds a shape whose storage class extends <code>superClass</code> and whose factory
+         * implements <code>factoryInterface</code>.
+         *
+         * @param superClass a public, non-final class with public or protected constructors that
+         *            match the methods of the factory interface
+         * @param factoryInterface a public interface whose abstract methods allocate objects of the
+         *            shape
+         * @throws IllegalArgumentException if the super class or the factory interface are not
+         *             suitable
+         * @throws UnsupportedOperationException if called in the runtime of a native image
+         * @since 20.1
+         */
+        public <T> StaticShape<T> build(Class<?> superClass, Class<T> factoryInterface) {
+            Objects.requireNonNull(superClass);
+            Objects.requireNonNull(factoryInterface);
+            if (ImageInfo.inImageRuntimeCode()) {
+                throw new UnsupportedOperationException("Static shapes must be built during native image generation.");
+            }
+            checkSuperClass(superClass);
+            List<Method> factoryMethods = collectFactoryMethods(superClass, factoryInterface);
+            StaticProperty[] propertyArray = properties.values().toArray(new StaticProperty[properties.size()]);
+            for (StaticProperty property : propertyArray) {
+                checkNotInitialized(property);
+            }
+
+            StaticShapeGenerator generator = new StaticShapeGenerator(superClass, factoryInterface, propertyArray, factoryMethods);
+            Class<?> storageClass = generator.generateStorageClass();
+            Object factory = generator.generateFactory(storageClass);
+            String[] fieldNames = generator.getFieldNames();
+            for (int i = 0; i < propertyArray.length; i++) {
+                try {
+                    propertyArray[i].initialize(storageClass, storageClass.getDeclaredField(fieldNames[i]));
+                } catch (NoSuchFieldException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            return new StaticShape<>(storageClass, factoryInterface.cast(factory));
+        }
+
+        private static void checkNotInitialized(StaticProperty property) {
+            if (property.isInitialized()) {
+                throw new IllegalArgumentException("Property '" + property.getId() + "' is already associated with another shape.");
+            }
+        }
+
+        private static void checkSuperClass(Class<?> superClass) {
+            int modifiers = superClass.getModifiers();
+            if (superClass.isInterface() || superClass.isArray() || superClass.isPrimitive() || !Modifier.isPublic(modifiers) || Modifier.isFinal(modifiers)) {
+                throw new IllegalArgumentException("The super class " + superClass.getName() + " of a static shape must be a public and non-final class.");
+            }
+        }
+
+        private static List<Method> collectFactoryMethods(Class<?> superClass, Class<?> factoryInterface) {
+            if (!factoryInterface.isInterface() || !Modifier.isPublic(factoryInterface.getModifiers())) {
+                throw new IllegalArgumentException("The factory " + factoryInterface.getName() + " of a static shape must be a public interface.");
+            }
+            List<Method> factoryMethods = new ArrayList<>();
+            for (Method method : factoryInterface.getMethods()) {
+                if (!Modifier.isAbstract(method.getModifiers())) {
+                    continue;
+                }
+                if (!method.getReturnType().isAssignableFrom(superClass)) {
+                    throw new IllegalArgumentException("The return type of factory method " + method + " must be assignable from " + superClass.getName() + ".");
+                }
+                int constructorModifiers;
+                try {
+                    constructorModifiers = superClass.getDeclaredConstructor(method.getParameterTypes()).getModifiers();
+                } catch (NoSuchMethodException e) {
+                    throw new IllegalArgumentException("The super class " + superClass.getName() + " does not declare a constructor matching factory method " + method + ".");
+                }
+                if (!Modifier.isPublic(constructorModifiers) && !Modifier.isProtected(constructorModifiers)) {
+                    throw new IllegalArgumentException("The constructor of " + superClass.getName() + " matching factory method " + method + " must be public or protected.");
+                }
+                factoryMethods.add(method);
+            }
+            return factoryMethods;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the storage class and the factory class of a {@link StaticShape}. The class files are
+ * written directly, since both classes only consist of fields and straight-line constructors and
+ * factory methods. Each shape uses its own class loader, such that generated classes can be
+ * unloaded together with their shape.
+ */
+final class StaticShapeGenerator {
+
+    private static final String PACKAGE = "com.oracle.truffle.api.staticobject.";
+    private static final AtomicInteger shapeCounter = new AtomicInteger();
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int ILOAD = 0x15;
+    private static final int LLOAD = 0x16;
+    private static final int FLOAD = 0x17;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD = 0x19;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int DUP = 0x59;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int NEW = 0xbb;
+
+    private final Class<?> superClass;
+    private final Class<?> factoryInterface;
+    private final StaticProperty[] properties;
+    private final List<Method> factoryMethods;
+    private final String[] fieldNames;
+    private final String storageClassName;
+    private final String factoryClassName;
+    private final GeneratedClassLoader loader;
+
+    StaticShapeGenerator(Class<?> superClass, Class<?> factoryInterface, StaticProperty[] properties, List<Method> factoryMethods) {
+        this.superClass = superClass;
+        this.factoryInterface = factoryInterface;
+        this.properties = properties;
+        this.factoryMethods = factoryMethods;
+        this.fieldNames = createFieldNames(properties);
+        int shapeId = shapeCounter.incrementAndGet();
+        this.storageClassName = PACKAGE + "GeneratedStaticObject" + shapeId;
+        this.factoryClassName = storageClassName + "$Factory";
+        this.loader = new GeneratedClassLoader(superClass.getClassLoader());
+        loader.register(superClass);
+        loader.register(factoryInterface);
+        for (Method method : factoryMethods) {
+            loader.register(method.getReturnType());
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                loader.register(parameterType);
+            }
+        }
+    }
+
+    String[] getFieldNames() {
+        return fieldNames;
+    }
+
+    Class<?> generateStorageClass() {
+        ClassFileWriter writer = new ClassFileWriter();
+        for (int i = 0; i < properties.length; i++) {
+            writer.addField(ACC_PUBLIC, fieldNames[i], descriptor(properties[i].getKind().type));
+        }
+        Set<String> constructorDescriptors = new HashSet<>();
+        for (Method method : factoryMethods) {
+            String constructorDescriptor = constructorDescriptor(method.getParameterTypes());
+            if (!constructorDescriptors.add(constructorDescriptor)) {
+                continue;
+            }
+            CodeWriter code = new CodeWriter();
+            code.op(ALOAD_0);
+            int maxLocals = loadParameters(code, method.getParameterTypes());
+            code.op(INVOKESPECIAL).u2(writer.methodRef(internalName(superClass), "<init>", constructorDescriptor));
+            code.op(RETURN);
+            writer.addMethod(ACC_PUBLIC, "<init>", constructorDescriptor, code, maxLocals, maxLocals);
+        }
+        return loader.define(storageClassName, writer.toByteArray(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName(storageClassName), internalName(superClass)));
+    }
+
+    Object generateFactory(Class<?> storageClass) {
+        ClassFileWriter writer = new ClassFileWriter();
+        CodeWriter init = new CodeWriter();
+        init.op(ALOAD_0);
+        init.op(INVOKESPECIAL).u2(writer.methodRef("java/lang/Object", "<init>", "()V"));
+        init.op(RETURN);
+        writer.addMethod(ACC_PUBLIC, "<init>", "()V", init, 1, 1);
+
+        Set<String> methodSignatures = new HashSet<>();
+        String storageInternalName = internalName(storageClassName);
+        for (Method method : factoryMethods) {
+            String methodDescriptor = methodDescriptor(method.getParameterTypes(), method.getReturnType());
+            if (!methodSignatures.add(method.getName() + methodDescriptor)) {
+                continue;
+            }
+            CodeWriter code = new CodeWriter();
+            code.op(NEW).u2(writer.classRef(storageInternalName));
+            code.op(DUP);
+            int maxLocals = loadParameters(code, method.getParameterTypes());
+            code.op(INVOKESPECIAL).u2(writer.methodRef(storageInternalName, "<init>", constructorDescriptor(method.getParameterTypes())));
+            code.op(ARETURN);
+            writer.addMethod(ACC_PUBLIC, method.getName(), methodDescriptor, code, maxLocals + 1, maxLocals);
+        }
+        Class<?> factoryClass = loader.define(factoryClassName, writer.toByteArray(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName(factoryClassName), "java/lang/Object",
+                        internalName(factoryInterface)));
+        assert storageClass.getClassLoader() == factoryClass.getClassLoader();
+        try {
+            return factoryClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /*
+     * Loads the parameters of a method with the receiver in local 0 and returns the number of used
+     * locals, which is also the size of the loaded values on the operand stack plus one.
+     */
+    private static int loadParameters(CodeWriter code, Class<?>[] parameterTypes) {
+        int local = 1;
+        for (Class<?> type : parameterTypes) {
+            if (type == long.class) {
+                code.op(LLOAD).u1(local);
+                local += 2;
+            } else if (type == double.class) {
+                code.op(DLOAD).u1(local);
+                local += 2;
+            } else if (type == float.class) {
+                code.op(FLOAD).u1(local);
+                local++;
+            } else if (type.isPrimitive()) {
+                code.op(ILOAD).u1(local);
+                local++;
+            } else {
+                code.op(ALOAD).u1(local);
+                local++;
+            }
+        }
+        return local;
+    }
+
+    private static String[] createFieldNames(StaticProperty[] properties) {
+        String[] names = new String[properties.length];
+        Set<String> usedNames = new HashSet<>();
+        for (int i = 0; i < properties.length; i++) {
+            String name = properties[i].getId();
+            StringBuilder sb = new StringBuilder(name.length());
+            for (int j = 0; j < name.length(); j++) {
+                char c = name.charAt(j);
+                /* Characters that are not allowed in unqualified names of the JVM. */
+                sb.append(c == '.' || c == ';' || c == '[' || c == '/' || c == '<' || c == '>' ? '_' : c);
+            }
+            if (sb.length() == 0) {
+                sb.append('_');
+            }
+            String fieldName = sb.toString();
+            if (!usedNames.add(fieldName)) {
+                fieldName = fieldName + "$" + i;
+                usedNames.add(fieldName);
+            }
+            names[i] = fieldName;
+        }
+        return names;
+    }
+
+    private static String internalName(Class<?> type) {
+        return internalName(type.getName());
+    }
+
+    private static String internalName(String binaryName) {
+        return binaryName.replace('.', '/');
+    }
+
+    private static String constructorDescriptor(Class<?>[] parameterTypes) {
+        return methodDescriptor(parameterTypes, void.class);
+    }
+
+    private static String methodDescriptor(Class<?>[] parameterTypes, Class<?> returnType) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Class<?> type : parameterTypes) {
+            sb.append(descriptor(type));
+        }
+        return sb.append(')').append(descriptor(returnType)).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type == boolean.class) {
+            return "Z";
+        } else if (type == byte.class) {
+            return "B";
+        } else if (type == short.class) {
+            return "S";
+        } else if (type == char.class) {
+            return "C";
+        } else if (type == int.class) {
+            return "I";
+        } else if (type == long.class) {
+            return "J";
+        } else if (type == float.class) {
+            return "F";
+        } else if (type == double.class) {
+            return "D";
+        } else if (type == void.class) {
+            return "V";
+        } else if (type.isArray()) {
+            return internalName(type);
+        } else {
+            return "L" + internalName(type) + ";";
+        }
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        private final Map<String, Class<?>> knownClasses = new HashMap<>();
+
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        /*
+         * Classes referenced by the generated code must resolve to the classes used to build the
+         * shape, even if they are not visible from the parent class loader.
+         */
+        void register(Class<?> type) {
+            Class<?> elementType = type;
+            while (elementType.isArray()) {
+                elementType = elementType.getComponentType();
+            }
+            if (!elementType.isPrimitive()) {
+                knownClasses.put(elementType.getName(), elementType);
+            }
+        }
+
+        Class<?> define(String binaryName, byte[] classFile) {
+            return defineClass(binaryName, classFile, 0, classFile.length);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            Class<?> knownClass = knownClasses.get(name);
+            if (knownClass != null) {
+                return knownClass;
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    private static final class CodeWriter {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        CodeWriter op(int opcode) {
+            out.write(opcode);
+            return this;
+        }
+
+        CodeWriter u1(int value) {
+            assert (value & ~0xFF) == 0;
+            out.write(value);
+            return this;
+        }
+
+        CodeWriter u2(int value) {
+            assert (value & ~0xFFFF) == 0;
+            out.write(value >>> 8);
+            out.write(value);
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Minimal writer for class files of version 52 (Java 8) without stack map frames, which are
+     * only required for methods with branches.
+     */
+    private static final class ClassFileWriter {
+
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_METHODREF = 10;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+        private final Map<String, Integer> poolIndices = new HashMap<>();
+        private int poolCount = 1;
+
+        private final ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+        private final DataOutputStream fields = new DataOutputStream(fieldBytes);
+        private int fieldCount;
+
+        private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+        private final DataOutputStream methods = new DataOutputStream(methodBytes);
+        private int methodCount;
+
+        int utf8(String value) {
+            String key = "U" + value;
+            Integer index = poolIndices.get(key);
+            if (index == null) {
+                try {
+                    pool.writeByte(CONSTANT_UTF8);
+                    pool.writeUTF(value);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+                index = addConstant(key);
+            }
+            return index;
+        }
+
+        int classRef(String internalName) {
+            return constant("C" + internalName, CONSTANT_CLASS, utf8(internalName), -1);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return constant("M" + owner + "." + name + descriptor, CONSTANT_METHODREF, classRef(owner), nameAndType(name, descriptor));
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            return constant("N" + name + ":" + descriptor, CONSTANT_NAME_AND_TYPE, utf8(name), utf8(descriptor));
+        }
+
+        private int constant(String key, int tag, int first, int second) {
+            Integer index = poolIndices.get(key);
+            if (index == null) {
+                try {
+                    pool.writeByte(tag);
+                    pool.writeShort(first);
+                    if (second != -1) {
+                        pool.writeShort(second);
+                    }
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+                index = addConstant(key);
+            }
+            return index;
+        }
+
+        private int addConstant(String key) {
+            int index = poolCount++;
+            if (index > 0xFFFF) {
+                throw new IllegalArgumentException("Too many constants in generated class.");
+            }
+            poolIndices.put(key, index);
+            return index;
+        }
+
+        void addField(int access, String name, String descriptor) {
+            try {
+                fields.writeShort(access);
+                fields.writeShort(utf8(name));
+                fields.writeShort(utf8(descriptor));
+                fields.writeShort(0);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            fieldCount++;
+        }
+
+        void addMethod(int access, String name, String descriptor, CodeWriter code, int maxStack, int maxLocals) {
+            byte[] bytecodes = code.toByteArray();
+            try {
+                methods.writeShort(access);
+                methods.writeShort(utf8(name));
+                methods.writeShort(utf8(descriptor));
+                methods.writeShort(1);
+                methods.writeShort(utf8("Code"));
+                methods.writeInt(12 + bytecodes.length);
+                methods.writeShort(maxStack);
+                methods.writeShort(maxLocals);
+                methods.writeInt(bytecodes.length);
+                methods.write(bytecodes);
+                methods.writeShort(0);
+                methods.writeShort(0);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            methodCount++;
+        }
+
+        byte[] toByteArray(int access, String thisClass, String superClass, String... interfaces) {
+            int thisIndex = classRef(thisClass);
+            int superIndex = classRef(superClass);
+            int[] interfaceIndices = new int[interfaces.length];
+            for (int i = 0; i < interfaces.length; i++) {
+                interfaceIndices[i] = classRef(interfaces[i]);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(52);
+                out.writeShort(poolCount);
+                poolBytes.writeTo(out);
+                out.writeShort(access);
+                out.writeShort(thisIndex);
+                out.writeShort(superIndex);
+                out.writeShort(interfaceIndices.length);
+                for (int index : interfaceIndices) {
+                    out.writeShort(index);
+                }
+                out.writeShort(fieldCount);
+                fieldBytes.writeTo(out);
+                out.writeShort(methodCount);
+                methodBytes.writeTo(out);
+                out.writeShort(0);
+                out.flush();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
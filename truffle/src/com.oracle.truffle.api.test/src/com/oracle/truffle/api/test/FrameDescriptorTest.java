@@ -111,6 +111,69 @@ public class FrameDescriptorTest {
         assertEquals("Kind isn't copied", FrameSlotKind.Illegal, copy.getFrameSlotKind(copy.getSlots().get(1)));
     }
 
+    @Test
+    public void indexedSlots() throws FrameSlotTypeException {
+        FrameDescriptor d = new FrameDescriptor("default", 2);
+        s1 = d.addFrameSlot("v1");
+        assertEquals(2, d.getNumberOfIndexedSlots());
+        assertEquals("Frame slots follow the indexed slots", 3, d.getSize());
+        assertEquals(1, d.getSlots().size());
+
+        VirtualFrame f = Truffle.getRuntime().createVirtualFrame(new Object[0], d);
+        assertEquals("default", f.getObject(0));
+        assertEquals("default", f.getValue(1));
+        assertEquals("default", f.getObject(s1));
+
+        Assumption version = d.getVersion();
+        f.setInt(0, 42);
+        f.setLong(1, 43L);
+        f.setObject(s1, "v1");
+        assertTrue(version.isValid());
+        assertTrue(f.isInt(0));
+        assertFalse(f.isObject(0));
+        assertEquals(42, f.getInt(0));
+        assertEquals(43L, f.getLong(1));
+        assertEquals(43L, f.getValue(1));
+        assertEquals("v1", f.getObject(s1));
+        try {
+            f.getLong(0);
+            fail();
+        } catch (FrameSlotTypeException e) {
+        }
+
+        Frame m = f.materialize();
+        m.setDouble(0, 1.5);
+        assertEquals(1.5, f.getDouble(0), 0);
+        assertTrue(version.isValid());
+
+        FrameDescriptor copy = d.copy();
+        assertEquals(2, copy.getNumberOfIndexedSlots());
+        assertEquals(3, copy.getSize());
+    }
+
+    @Test
+    public void indexedSlotOutOfBounds() throws FrameSlotTypeException {
+        FrameDescriptor d = new FrameDescriptor("default", 1);
+        s1 = d.addFrameSlot("v1");
+        VirtualFrame f = Truffle.getRuntime().createVirtualFrame(new Object[0], d);
+        try {
+            f.setInt(1, 42);
+            fail("The index of a frame slot is not an indexed slot");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            f.getObject(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        assertEquals("default", f.getObject(s1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeIndexedSlots() {
+        new FrameDescriptor(null, -1);
+    }
+
     @Test
     public void version() {
         FrameDescriptor d = new FrameDescriptor();
@@ -41,8 +41,11 @@
 package com.oracle.truffle.api.test.polyglot;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -171,6 +174,32 @@ public class ContextPolicyTest {
         engine.close();
     }
 
+    @Test
+    public void testTraceCodeSharing() {
+        Source shared = Source.create(SHARED0, "s0");
+        Source exclusive = Source.create(EXCLUSIVE0, "s0");
+        Source uncached = Source.newBuilder(SHARED0, "s1", "s1").cached(false).buildLiteral();
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Engine engine = Engine.newBuilder().option("engine.TraceCodeSharing", "true").err(err).build();
+        Context context0 = Context.newBuilder().engine(engine).build();
+        context0.eval(shared);
+        context0.eval(exclusive);
+        context0.eval(uncached);
+
+        Context context1 = Context.newBuilder().engine(engine).build();
+        context1.eval(shared);
+        context1.eval(exclusive);
+        context1.eval(uncached);
+        assertEquals(5, parseRequest.size());
+        engine.close();
+
+        String output = new String(err.toByteArray());
+        assertTrue(output, output.contains("Code sharing of language " + SHARED0 + ": parsed      1 | shared      1 | duplicated      0 | uncached      2"));
+        assertTrue(output, output.contains("Code sharing of language " + EXCLUSIVE0 + ": parsed      2 | shared      0 | duplicated      1 | uncached      0"));
+        assertFalse(output, output.contains(REUSE0));
+    }
+
     @Test
     public void testOneReuseLanguageASTParsing() {
         Source source0 = Source.create(REUSE0, "s0");
@@ -42,6 +42,7 @@ package com.oracle.truffle.api.test.polyglot;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -75,6 +76,7 @@ import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -639,6 +641,85 @@ public class MultiThreadedLanguageTest {
         Assert.assertTrue(seenInterrupt.get());
     }
 
+    @Test
+    public void testAsyncHostCallbacks() throws Throwable {
+        MultiThreadedLanguage.isThreadAccessAllowed = (req) -> {
+            return req.singleThreaded;
+        };
+        Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.AsyncHostCallbacks", "true").build();
+        context.initialize(MultiThreadedLanguage.ID);
+        List<Thread> callbackThreads = Collections.synchronizedList(new ArrayList<>());
+        Runnable callback = context.asValue((ProxyExecutable) (args) -> {
+            callbackThreads.add(Thread.currentThread());
+            return null;
+        }).as(Runnable.class);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executors.add(executor);
+
+        eval(context, (env) -> {
+            try {
+                // the context is active on this thread so the callback is deferred
+                executor.submit(callback).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new AssertionError(e);
+            }
+            assertTrue(callbackThreads.isEmpty());
+            return null;
+        });
+        // run when returning to the host
+        assertEquals(1, callbackThreads.size());
+        assertSame(Thread.currentThread(), callbackThreads.get(0));
+
+        // the context is not active, so the callback runs on the calling thread
+        executor.submit(callback).get();
+        assertEquals(2, callbackThreads.size());
+        assertNotSame(Thread.currentThread(), callbackThreads.get(1));
+        context.close();
+    }
+
+    @Test
+    public void testAsyncHostCallbacksExplicitEnter() throws Throwable {
+        MultiThreadedLanguage.isThreadAccessAllowed = (req) -> {
+            return req.singleThreaded;
+        };
+        Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.AsyncHostCallbacks", "true").build();
+        context.initialize(MultiThreadedLanguage.ID);
+        List<Thread> callbackThreads = Collections.synchronizedList(new ArrayList<>());
+        Runnable callback = context.asValue((ProxyExecutable) (args) -> {
+            callbackThreads.add(Thread.currentThread());
+            return null;
+        }).as(Runnable.class);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executors.add(executor);
+
+        context.enter();
+        // the context is explicitly entered on this thread so the callback is deferred
+        executor.submit(callback).get();
+        assertTrue(callbackThreads.isEmpty());
+        context.leave();
+        // run when the context is left
+        assertEquals(1, callbackThreads.size());
+        assertSame(Thread.currentThread(), callbackThreads.get(0));
+
+        context.enter();
+        context.enter();
+        executor.submit(callback).get();
+        context.leave();
+        // still entered once, so the callback stays deferred
+        assertEquals(1, callbackThreads.size());
+        context.leave();
+        assertEquals(2, callbackThreads.size());
+        assertSame(Thread.currentThread(), callbackThreads.get(1));
+
+        context.enter();
+        executor.submit(callback).get();
+        assertEquals(2, callbackThreads.size());
+        // callbacks still deferred on close are run before the context is closed
+        context.close();
+        assertEquals(3, callbackThreads.size());
+        assertSame(Thread.currentThread(), callbackThreads.get(2));
+    }
+
     /*
      * Test infrastructure code.
      */
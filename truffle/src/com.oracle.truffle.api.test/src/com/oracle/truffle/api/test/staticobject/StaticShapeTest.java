@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.staticobject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.staticobject.DefaultStaticObjectFactory;
+import com.oracle.truffle.api.staticobject.StaticProperty;
+import com.oracle.truffle.api.staticobject.StaticPropertyKind;
+import com.oracle.truffle.api.staticobject.StaticShape;
+
+public class StaticShapeTest {
+
+    @Test
+    public void testAllKinds() {
+        StaticProperty booleanProperty = new StaticProperty("boolean", StaticPropertyKind.Boolean);
+        StaticProperty byteProperty = new StaticProperty("byte", StaticPropertyKind.Byte);
+        StaticProperty shortProperty = new StaticProperty("short", StaticPropertyKind.Short);
+        StaticProperty charProperty = new StaticProperty("char", StaticPropertyKind.Char);
+        StaticProperty intProperty = new StaticProperty("int", StaticPropertyKind.Int);
+        StaticProperty longProperty = new StaticProperty("long", StaticPropertyKind.Long);
+        StaticProperty floatProperty = new StaticProperty("float", StaticPropertyKind.Float);
+        StaticProperty doubleProperty = new StaticProperty("double", StaticPropertyKind.Double);
+        StaticProperty objectProperty = new StaticProperty("object", StaticPropertyKind.Object);
+        StaticShape<DefaultStaticObjectFactory> shape = StaticShape.newBuilder().property(booleanProperty).property(byteProperty).property(shortProperty).property(charProperty).property(
+                        intProperty).property(longProperty).property(floatProperty).property(doubleProperty).property(objectProperty).build();
+
+        Object obj = shape.getFactory().create();
+        assertSame(shape.getStorageClass(), obj.getClass());
+        assertFalse(booleanProperty.getBoolean(obj));
+        assertEquals(0, intProperty.getInt(obj));
+        assertNull(objectProperty.getObject(obj));
+
+        booleanProperty.setBoolean(obj, true);
+        byteProperty.setByte(obj, (byte) 42);
+        shortProperty.setShort(obj, (short) 4242);
+        charProperty.setChar(obj, 'c');
+        intProperty.setInt(obj, Integer.MAX_VALUE);
+        longProperty.setLong(obj, Long.MIN_VALUE);
+        floatProperty.setFloat(obj, 4.2f);
+        doubleProperty.setDouble(obj, 42.42);
+        objectProperty.setObject(obj, "value");
+
+        assertTrue(booleanProperty.getBoolean(obj));
+        assertEquals(42, byteProperty.getByte(obj));
+        assertEquals(4242, shortProperty.getShort(obj));
+        assertEquals('c', charProperty.getChar(obj));
+        assertEquals(Integer.MAX_VALUE, intProperty.getInt(obj));
+        assertEquals(Long.MIN_VALUE, longProperty.getLong(obj));
+        assertTrue(floatProperty.getFloat(obj) == 4.2f);
+        assertTrue(doubleProperty.getDouble(obj) == 42.42);
+        assertEquals("value", objectProperty.getObject(obj));
+
+        Object other = shape.getFactory().create();
+        assertNotSame(obj, other);
+        assertEquals(0, intProperty.getInt(other));
+    }
+
+    @Test
+    public void testStorageClassFields() {
+        StaticProperty x = new StaticProperty("x", StaticPropertyKind.Int);
+        StaticProperty y = new StaticProperty("y", StaticPropertyKind.Double);
+        StaticProperty invalid = new StaticProperty("a.b", StaticPropertyKind.Object);
+        StaticShape<DefaultStaticObjectFactory> shape = StaticShape.newBuilder().property(x).property(y).property(invalid).build();
+
+        Class<?> storageClass = shape.getStorageClass();
+        assertTrue(Modifier.isFinal(storageClass.getModifiers()));
+        Field[] fields = storageClass.getDeclaredFields();
+        assertEquals(3, fields.length);
+        assertEquals(int.class, fields[0].getType());
+        assertEquals("x", fields[0].getName());
+        assertEquals(double.class, fields[1].getType());
+        assertEquals(Object.class, fields[2].getType());
+    }
+
+    public static class Point {
+
+        private final String name;
+
+        public Point(String name) {
+            this.name = name;
+        }
+
+        protected Point(long id, double weight) {
+            this.name = id + ":" + weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public interface PointFactory {
+
+        Point create(String name);
+
+        Object create(long id, double weight);
+    }
+
+    @Test
+    public void testCustomSuperClass() {
+        StaticProperty x = new StaticProperty("x", StaticPropertyKind.Long);
+        StaticShape<PointFactory> shape = StaticShape.newBuilder().property(x).build(Point.class, PointFactory.class);
+
+        Point p1 = shape.getFactory().create("p1");
+        assertEquals("p1", p1.getName());
+        assertSame(Point.class, shape.getStorageClass().getSuperclass());
+        x.setLong(p1, 42L);
+        assertEquals(42L, x.getLong(p1));
+
+        Point p2 = (Point) shape.getFactory().create(42L, 0.5);
+        assertEquals("42:0.5", p2.getName());
+        assertEquals(0L, x.getLong(p2));
+    }
+
+    @Test
+    public void testInvalidAccess() {
+        StaticProperty x = new StaticProperty("x", StaticPropertyKind.Int);
+        StaticShape<DefaultStaticObjectFactory> shape = StaticShape.newBuilder().property(x).build();
+        Object obj = shape.getFactory().create();
+        try {
+            x.getLong(obj);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            x.setObject(obj, "value");
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            x.getInt(new Object());
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            x.getInt(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        StaticProperty y = new StaticProperty("y", StaticPropertyKind.Int);
+        StaticShape<DefaultStaticObjectFactory> otherShape = StaticShape.newBuilder().property(y).build();
+        try {
+            x.getInt(otherShape.getFactory().create());
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new StaticProperty("z", StaticPropertyKind.Int).getInt(obj);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testInvalidProperties() {
+        StaticProperty x = new StaticProperty("x", StaticPropertyKind.Int);
+        StaticShape.Builder builder = StaticShape.newBuilder().property(x);
+        try {
+            builder.property(new StaticProperty("x", StaticPropertyKind.Object));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        builder.build();
+        try {
+            StaticShape.newBuilder().property(x);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public static final class FinalClass {
+    }
+
+    public interface InvalidReturnTypeFactory {
+
+        String create();
+    }
+
+    public interface MissingConstructorFactory {
+
+        Point create(int value);
+    }
+
+    @Test
+    public void testInvalidSuperClass() {
+        try {
+            StaticShape.newBuilder().build(FinalClass.class, DefaultStaticObjectFactory.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            StaticShape.newBuilder().build(Object.class, InvalidReturnTypeFactory.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            StaticShape.newBuilder().build(Point.class, MissingConstructorFactory.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            StaticShape.newBuilder().build(Object.class, Point.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
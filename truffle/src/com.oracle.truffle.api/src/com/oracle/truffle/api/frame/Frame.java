@@ -43,6 +43,10 @@ package com.oracle.truffle.api.frame;
 /**
  * Represents a frame containing values of local variables of the guest language. Instances of this
  * type must not be stored in a field or cast to {@link java.lang.Object}.
+ * <p>
+ * The accessors for indexed slots, which take an <code>int</code> index, are implemented by the
+ * frames of the Truffle runtime. Other implementations of this interface throw
+ * {@link UnsupportedOperationException} from them by default.
  * 
  * @since 0.8 or earlier
  */
@@ -256,4 +260,254 @@ public interface Frame {
      * @since 0.8 or earlier
      */
     boolean isDouble(FrameSlot slot);
+
+    /**
+     * Read access to an indexed local variable of type {@link Object}.
+     *
+     * @param slot the index of the slot of the local variable
+     * @return the current value of the local variable
+     * @throws FrameSlotTypeException if the slot does not currently hold a value of type {@link Object}
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default Object getObject(int slot) throws FrameSlotTypeException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an indexed local variable of type {@link Object}.
+     *
+     * @param slot the index of the slot of the local variable
+     * @param value the new value of the local variable
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default void setObject(int slot, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an indexed local variable of type byte.
+     *
+     * @param slot the index of the slot of the local variable
+     * @return the current value of the local variable
+     * @throws FrameSlotTypeException if the slot does not currently hold a value of type byte
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default byte getByte(int slot) throws FrameSlotTypeException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an indexed local variable of type byte.
+     *
+     * @param slot the index of the slot of the local variable
+     * @param value the new value of the local variable
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default void setByte(int slot, byte value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an indexed local variable of type boolean.
+     *
+     * @param slot the index of the slot of the local variable
+     * @return the current value of the local variable
+     * @throws FrameSlotTypeException if the slot does not currently hold a value of type boolean
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default boolean getBoolean(int slot) throws FrameSlotTypeException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an indexed local variable of type boolean.
+     *
+     * @param slot the index of the slot of the local variable
+     * @param value the new value of the local variable
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default void setBoolean(int slot, boolean value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an indexed local variable of type int.
+     *
+     * @param slot the index of the slot of the local variable
+     * @return the current value of the local variable
+     * @throws FrameSlotTypeException if the slot does not currently hold a value of type int
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default int getInt(int slot) throws FrameSlotTypeException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an indexed local variable of type int.
+     *
+     * @param slot the index of the slot of the local variable
+     * @param value the new value of the local variable
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default void setInt(int slot, int value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an indexed local variable of type long.
+     *
+     * @param slot the index of the slot of the local variable
+     * @return the current value of the local variable
+     * @throws FrameSlotTypeException if the slot does not currently hold a value of type long
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default long getLong(int slot) throws FrameSlotTypeException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an indexed local variable of type long.
+     *
+     * @param slot the index of the slot of the local variable
+     * @param value the new value of the local variable
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default void setLong(int slot, long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an indexed local variable of type float.
+     *
+     * @param slot the index of the slot of the local variable
+     * @return the current value of the local variable
+     * @throws FrameSlotTypeException if the slot does not currently hold a value of type float
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default float getFloat(int slot) throws FrameSlotTypeException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an indexed local variable of type float.
+     *
+     * @param slot the index of the slot of the local variable
+     * @param value the new value of the local variable
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default void setFloat(int slot, float value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an indexed local variable of type double.
+     *
+     * @param slot the index of the slot of the local variable
+     * @return the current value of the local variable
+     * @throws FrameSlotTypeException if the slot does not currently hold a value of type double
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default double getDouble(int slot) throws FrameSlotTypeException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an indexed local variable of type double.
+     *
+     * @param slot the index of the slot of the local variable
+     * @param value the new value of the local variable
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default void setDouble(int slot, double value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an indexed local variable of any type.
+     *
+     * @param slot the index of the slot of the local variable
+     * @return the current value of the local variable or defaultValue if unset
+     * @see FrameDescriptor#getNumberOfIndexedSlots()
+     * @since 20.1
+     */
+    default Object getValue(int slot) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check whether the indexed slot <code>slot</code> currently holds a value of type object.
+     *
+     * @since 20.1
+     */
+    default boolean isObject(int slot) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check whether the indexed slot <code>slot</code> currently holds a value of type byte.
+     *
+     * @since 20.1
+     */
+    default boolean isByte(int slot) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check whether the indexed slot <code>slot</code> currently holds a value of type boolean.
+     *
+     * @since 20.1
+     */
+    default boolean isBoolean(int slot) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check whether the indexed slot <code>slot</code> currently holds a value of type int.
+     *
+     * @since 20.1
+     */
+    default boolean isInt(int slot) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check whether the indexed slot <code>slot</code> currently holds a value of type long.
+     *
+     * @since 20.1
+     */
+    default boolean isLong(int slot) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check whether the indexed slot <code>slot</code> currently holds a value of type float.
+     *
+     * @since 20.1
+     */
+    default boolean isFloat(int slot) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check whether the indexed slot <code>slot</code> currently holds a value of type double.
+     *
+     * @since 20.1
+     */
+    default boolean isDouble(int slot) {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -62,12 +62,22 @@ import com.oracle.truffle.api.impl.TVMCI;
 /**
  * Descriptor of the slots of frame objects. Multiple frame instances are associated with one such
  * descriptor. The FrameDescriptor is thread-safe.
+ * <p>
+ * A descriptor may declare a fixed number of {@linkplain #FrameDescriptor(Object, int) indexed
+ * slots}. Indexed slots occupy the indices <code>0</code> to
+ * <code>{@link #getNumberOfIndexedSlots()} - 1</code> of a frame and are accessed by their index,
+ * e.g. with {@link Frame#getInt(int)}, without a {@link FrameSlot} object. They have no
+ * {@link FrameSlotKind}, so using them never invalidates the {@link #getVersion() version} of the
+ * descriptor. Slots {@linkplain #addFrameSlot(Object) added} as {@link FrameSlot} objects are placed
+ * after the indexed slots and can be used for additional slots that are only known later, e.g. for
+ * instruments.
  *
  * @since 0.8 or earlier
  */
 public final class FrameDescriptor implements Cloneable {
 
     private final Object defaultValue;
+    private final int numberOfIndexedSlots;
     private final ArrayList<FrameSlot> slots;
     private final EconomicMap<Object, FrameSlot> identifierToSlotMap;
     @CompilationFinal private volatile Assumption version;
@@ -102,12 +112,31 @@ public final class FrameDescriptor implements Cloneable {
      * @since 0.8 or earlier
      */
     public FrameDescriptor(Object defaultValue) {
-        this(defaultValue, null);
+        this(defaultValue, 0, null);
     }
 
-    private FrameDescriptor(Object defaultValue, Object lock) {
+    /**
+     * Constructs new descriptor with specified {@link #getDefaultValue()} and a fixed number of
+     * indexed slots. The indexed slots are accessed by their index using the <code>int</code>
+     * based accessors of {@link Frame}, e.g. {@link Frame#getObject(int)}.
+     *
+     * @param defaultValue to be returned from {@link #getDefaultValue()}
+     * @param numberOfIndexedSlots the number of indexed slots, must not be negative
+     * @throws IllegalArgumentException if <code>numberOfIndexedSlots</code> is negative
+     * @since 20.1
+     */
+    public FrameDescriptor(Object defaultValue, int numberOfIndexedSlots) {
+        this(defaultValue, numberOfIndexedSlots, null);
+    }
+
+    private FrameDescriptor(Object defaultValue, int numberOfIndexedSlots, Object lock) {
         CompilerAsserts.neverPartOfCompilation("do not create a FrameDescriptor from compiled code");
+        if (numberOfIndexedSlots < 0) {
+            throw new IllegalArgumentException("The number of indexed slots must not be negative.");
+        }
         this.defaultValue = defaultValue;
+        this.numberOfIndexedSlots = numberOfIndexedSlots;
+        this.size = numberOfIndexedSlots;
         this.slots = new ArrayList<>();
         this.identifierToSlotMap = EconomicMap.create();
         this.lock = lock == null ? this : lock;
@@ -369,6 +398,17 @@ public final class FrameDescriptor implements Cloneable {
         return this.size;
     }
 
+    /**
+     * Returns the number of indexed slots of this descriptor. Indexed slots use the indices
+     * <code>0</code> to <code>getNumberOfIndexedSlots() - 1</code> of a frame.
+     *
+     * @see #FrameDescriptor(Object, int)
+     * @since 20.1
+     */
+    public int getNumberOfIndexedSlots() {
+        return numberOfIndexedSlots;
+    }
+
     /**
      * Retrieve the current list of slots in the descriptor. Further changes are not reflected in
      * the returned collection.
@@ -475,7 +515,7 @@ public final class FrameDescriptor implements Cloneable {
     public FrameDescriptor copy() {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         synchronized (lock) {
-            FrameDescriptor clonedFrameDescriptor = new FrameDescriptor(this.defaultValue);
+            FrameDescriptor clonedFrameDescriptor = new FrameDescriptor(this.defaultValue, this.numberOfIndexedSlots);
             for (int i = 0; i < slots.size(); i++) {
                 FrameSlot slot = slots.get(i);
                 clonedFrameDescriptor.addFrameSlot(slot.getIdentifier(), slot.getInfo(), FrameSlotKind.Illegal);
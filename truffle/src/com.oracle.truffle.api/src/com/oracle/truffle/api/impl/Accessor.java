@@ -135,6 +135,10 @@ public abstract class Accessor {
         getTVMCI().onEngineClosed(runtimeData);
     }
 
+    protected void onContextClosed(Object runtimeData, Object context) {
+        getTVMCI().onContextClosed(runtimeData, context);
+    }
+
     public abstract static class NodeSupport {
 
         public abstract boolean isInstrumentable(RootNode rootNode);
@@ -184,4 +184,114 @@ final class DefaultMaterializedFrame implements MaterializedFrame {
     public boolean isDouble(FrameSlot slot) {
         return wrapped.isDouble(slot);
     }
+
+    @Override
+    public Object getObject(int slot) throws FrameSlotTypeException {
+        return wrapped.getObject(slot);
+    }
+
+    @Override
+    public void setObject(int slot, Object value) {
+        wrapped.setObject(slot, value);
+    }
+
+    @Override
+    public byte getByte(int slot) throws FrameSlotTypeException {
+        return wrapped.getByte(slot);
+    }
+
+    @Override
+    public void setByte(int slot, byte value) {
+        wrapped.setByte(slot, value);
+    }
+
+    @Override
+    public boolean getBoolean(int slot) throws FrameSlotTypeException {
+        return wrapped.getBoolean(slot);
+    }
+
+    @Override
+    public void setBoolean(int slot, boolean value) {
+        wrapped.setBoolean(slot, value);
+    }
+
+    @Override
+    public int getInt(int slot) throws FrameSlotTypeException {
+        return wrapped.getInt(slot);
+    }
+
+    @Override
+    public void setInt(int slot, int value) {
+        wrapped.setInt(slot, value);
+    }
+
+    @Override
+    public long getLong(int slot) throws FrameSlotTypeException {
+        return wrapped.getLong(slot);
+    }
+
+    @Override
+    public void setLong(int slot, long value) {
+        wrapped.setLong(slot, value);
+    }
+
+    @Override
+    public float getFloat(int slot) throws FrameSlotTypeException {
+        return wrapped.getFloat(slot);
+    }
+
+    @Override
+    public void setFloat(int slot, float value) {
+        wrapped.setFloat(slot, value);
+    }
+
+    @Override
+    public double getDouble(int slot) throws FrameSlotTypeException {
+        return wrapped.getDouble(slot);
+    }
+
+    @Override
+    public void setDouble(int slot, double value) {
+        wrapped.setDouble(slot, value);
+    }
+
+    @Override
+    public Object getValue(int slot) {
+        return wrapped.getValue(slot);
+    }
+
+    @Override
+    public boolean isObject(int slot) {
+        return wrapped.isObject(slot);
+    }
+
+    @Override
+    public boolean isByte(int slot) {
+        return wrapped.isByte(slot);
+    }
+
+    @Override
+    public boolean isBoolean(int slot) {
+        return wrapped.isBoolean(slot);
+    }
+
+    @Override
+    public boolean isInt(int slot) {
+        return wrapped.isInt(slot);
+    }
+
+    @Override
+    public boolean isLong(int slot) {
+        return wrapped.isLong(slot);
+    }
+
+    @Override
+    public boolean isFloat(int slot) {
+        return wrapped.isFloat(slot);
+    }
+
+    @Override
+    public boolean isDouble(int slot) {
+        return wrapped.isDouble(slot);
+    }
 }
@@ -259,4 +259,154 @@ final class DefaultVirtualFrame implements VirtualFrame {
     public boolean isDouble(FrameSlot slot) {
         return getTag(slot) == FrameSlotKind.Double.ordinal();
     }
+
+    @Override
+    public Object getObject(int slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Object);
+        return locals[slot];
+    }
+
+    @Override
+    public void setObject(int slot, Object value) {
+        verifySet(slot, FrameSlotKind.Object);
+        locals[slot] = value;
+    }
+
+    @Override
+    public byte getByte(int slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Byte);
+        return (byte) locals[slot];
+    }
+
+    @Override
+    public void setByte(int slot, byte value) {
+        verifySet(slot, FrameSlotKind.Byte);
+        locals[slot] = value;
+    }
+
+    @Override
+    public boolean getBoolean(int slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Boolean);
+        return (boolean) locals[slot];
+    }
+
+    @Override
+    public void setBoolean(int slot, boolean value) {
+        verifySet(slot, FrameSlotKind.Boolean);
+        locals[slot] = value;
+    }
+
+    @Override
+    public int getInt(int slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Int);
+        return (int) locals[slot];
+    }
+
+    @Override
+    public void setInt(int slot, int value) {
+        verifySet(slot, FrameSlotKind.Int);
+        locals[slot] = value;
+    }
+
+    @Override
+    public long getLong(int slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Long);
+        return (long) locals[slot];
+    }
+
+    @Override
+    public void setLong(int slot, long value) {
+        verifySet(slot, FrameSlotKind.Long);
+        locals[slot] = value;
+    }
+
+    @Override
+    public float getFloat(int slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Float);
+        return (float) locals[slot];
+    }
+
+    @Override
+    public void setFloat(int slot, float value) {
+        verifySet(slot, FrameSlotKind.Float);
+        locals[slot] = value;
+    }
+
+    @Override
+    public double getDouble(int slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Double);
+        return (double) locals[slot];
+    }
+
+    @Override
+    public void setDouble(int slot, double value) {
+        verifySet(slot, FrameSlotKind.Double);
+        locals[slot] = value;
+    }
+
+    @Override
+    public Object getValue(int slot) {
+        checkSlotIndex(slot);
+        return locals[slot];
+    }
+
+    private void checkSlotIndex(int slotIndex) {
+        // indexed slots are allocated with the frame, so the arrays never need to grow for them
+        if (slotIndex < 0 || slotIndex >= descriptor.getNumberOfIndexedSlots()) {
+            throw new IllegalArgumentException(String.format("The indexed frame slot '%s' is not known by the frame descriptor.", slotIndex));
+        }
+    }
+
+    private void verifySet(int slotIndex, FrameSlotKind accessKind) {
+        checkSlotIndex(slotIndex);
+        tags[slotIndex] = (byte) accessKind.ordinal();
+    }
+
+    private void verifyGet(int slotIndex, FrameSlotKind accessKind) throws FrameSlotTypeException {
+        checkSlotIndex(slotIndex);
+        byte tag = tags[slotIndex];
+        if (accessKind == FrameSlotKind.Object ? tag != 0 : tag != accessKind.ordinal()) {
+            throw new FrameSlotTypeException();
+        }
+    }
+
+    private byte getTag(int slotIndex) {
+        checkSlotIndex(slotIndex);
+        return tags[slotIndex];
+    }
+
+    @Override
+    public boolean isObject(int slot) {
+        return getTag(slot) == FrameSlotKind.Object.ordinal();
+    }
+
+    @Override
+    public boolean isByte(int slot) {
+        return getTag(slot) == FrameSlotKind.Byte.ordinal();
+    }
+
+    @Override
+    public boolean isBoolean(int slot) {
+        return getTag(slot) == FrameSlotKind.Boolean.ordinal();
+    }
+
+    @Override
+    public boolean isInt(int slot) {
+        return getTag(slot) == FrameSlotKind.Int.ordinal();
+    }
+
+    @Override
+    public boolean isLong(int slot) {
+        return getTag(slot) == FrameSlotKind.Long.ordinal();
+    }
+
+    @Override
+    public boolean isFloat(int slot) {
+        return getTag(slot) == FrameSlotKind.Float.ordinal();
+    }
+
+    @Override
+    public boolean isDouble(int slot) {
+        return getTag(slot) == FrameSlotKind.Double.ordinal();
+    }
 }
@@ -344,6 +344,10 @@ public abstract class TVMCI {
     protected void onEngineClosed(Object runtimeData) {
     }
 
+    @SuppressWarnings("unused")
+    protected void onContextClosed(Object runtimeData, Object context) {
+    }
+
     protected void applyPolyglotEngine(RootNode from, RootNode to) {
         TVMCIAccessor.nodesAccess().applyPolyglotEngine(from, to);
     }
@@ -76,8 +76,11 @@ public class TruffleTypes {
     public static final String CompilerDirectives_Name = "com.oracle.truffle.api.CompilerDirectives";
     public static final String CompilerDirectives_TruffleBoundary_Name = "com.oracle.truffle.api.CompilerDirectives.TruffleBoundary";
     public static final String ExplodeLoop_Name = "com.oracle.truffle.api.nodes.ExplodeLoop";
+    public static final String ExplodeLoop_LoopExplosionKind_Name = "com.oracle.truffle.api.nodes.ExplodeLoop.LoopExplosionKind";
     public static final String Frame_Name = "com.oracle.truffle.api.frame.Frame";
     public static final String FinalBitSet_Name = "com.oracle.truffle.api.utilities.FinalBitSet";
+    public static final String FrameDescriptor_Name = "com.oracle.truffle.api.frame.FrameDescriptor";
+    public static final String FrameSlotTypeException_Name = "com.oracle.truffle.api.frame.FrameSlotTypeException";
     public static final String InvalidAssumptionException_Name = "com.oracle.truffle.api.nodes.InvalidAssumptionException";
     public static final String MaterializedFrame_Name = "com.oracle.truffle.api.frame.MaterializedFrame";
     public static final String Node_Child_Name = "com.oracle.truffle.api.nodes.Node.Child";
@@ -89,6 +92,7 @@ public class TruffleTypes {
     public static final String NodeUtil_Name = "com.oracle.truffle.api.nodes.NodeUtil";
     public static final String Option_Group_Name = "com.oracle.truffle.api.Option.Group";
     public static final String Option_Name = "com.oracle.truffle.api.Option";
+    public static final String RootNode_Name = "com.oracle.truffle.api.nodes.RootNode";
     public static final String SlowPathException_Name = "com.oracle.truffle.api.nodes.SlowPathException";
     public static final String SourceSection_Name = "com.oracle.truffle.api.source.SourceSection";
     public static final String TruffleLanguage_ContextReference_Name = "com.oracle.truffle.api.TruffleLanguage.ContextReference";
@@ -106,8 +110,11 @@ public class TruffleTypes {
     public final DeclaredType CompilerDirectives_CompilationFinal = c.getDeclaredType(CompilerDirectives_CompilationFinal_Name);
     public final DeclaredType CompilerDirectives_TruffleBoundary = c.getDeclaredType(CompilerDirectives_TruffleBoundary_Name);
     public final DeclaredType ExplodeLoop = c.getDeclaredType(ExplodeLoop_Name);
+    public final DeclaredType ExplodeLoop_LoopExplosionKind = c.getDeclaredType(ExplodeLoop_LoopExplosionKind_Name);
     public final DeclaredType Frame = c.getDeclaredType(Frame_Name);
     public final DeclaredType FinalBitSet = c.getDeclaredType(FinalBitSet_Name);
+    public final DeclaredType FrameDescriptor = c.getDeclaredType(FrameDescriptor_Name);
+    public final DeclaredType FrameSlotTypeException = c.getDeclaredType(FrameSlotTypeException_Name);
     public final DeclaredType InvalidAssumptionException = c.getDeclaredType(InvalidAssumptionException_Name);
     public final DeclaredType MaterializedFrame = c.getDeclaredType(MaterializedFrame_Name);
     public final DeclaredType Node = c.getDeclaredType(Node_Name);
@@ -117,6 +124,7 @@ public class TruffleTypes {
     public final DeclaredType NodeInfo = c.getDeclaredType(NodeInfo_Name);
     public final DeclaredType NodeInterface = c.getDeclaredType(NodeInterface_Name);
     public final DeclaredType NodeUtil = c.getDeclaredType(NodeUtil_Name);
+    public final DeclaredType RootNode = c.getDeclaredType(RootNode_Name);
     public final DeclaredType SlowPathException = c.getDeclaredType(SlowPathException_Name);
     public final DeclaredType SourceSection = c.getDeclaredType(SourceSection_Name);
     public final DeclaredType TruffleLanguage = c.getDeclaredType(TruffleLanguage_Name);
@@ -138,6 +146,9 @@ public class TruffleTypes {
     public static final String Executed_Name = "com.oracle.truffle.api.dsl.Executed";
     public static final String Fallback_Name = "com.oracle.truffle.api.dsl.Fallback";
     public static final String GeneratedBy_Name = "com.oracle.truffle.api.dsl.GeneratedBy";
+    public static final String GenerateBytecode_Name = "com.oracle.truffle.api.dsl.GenerateBytecode";
+    public static final String GenerateBytecode_Operation_Name = "com.oracle.truffle.api.dsl.GenerateBytecode.Operation";
+    public static final String GenerateBytecode_Operation_Repeat_Name = "com.oracle.truffle.api.dsl.GenerateBytecode.Operation.Repeat";
     public static final String GenerateNodeFactory_Name = "com.oracle.truffle.api.dsl.GenerateNodeFactory";
     public static final String GenerateUncached_Name = "com.oracle.truffle.api.dsl.GenerateUncached";
     public static final String ImplicitCast_Name = "com.oracle.truffle.api.dsl.ImplicitCast";
@@ -168,6 +179,9 @@ public class TruffleTypes {
     public final DeclaredType Executed = c.getDeclaredType(Executed_Name);
     public final DeclaredType Fallback = c.getDeclaredType(Fallback_Name);
     public final DeclaredType GeneratedBy = c.getDeclaredType(GeneratedBy_Name);
+    public final DeclaredType GenerateBytecode = c.getDeclaredType(GenerateBytecode_Name);
+    public final DeclaredType GenerateBytecode_Operation = c.getDeclaredType(GenerateBytecode_Operation_Name);
+    public final DeclaredType GenerateBytecode_Operation_Repeat = c.getDeclaredType(GenerateBytecode_Operation_Repeat_Name);
     public final DeclaredType GenerateNodeFactory = c.getDeclaredType(GenerateNodeFactory_Name);
     public final DeclaredType GenerateUncached = c.getDeclaredType(GenerateUncached_Name);
     public final DeclaredType ImplicitCast = c.getDeclaredType(ImplicitCast_Name);
@@ -0,0 +1,775 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.dsl.processor.bytecode;
+
+import static com.oracle.truffle.dsl.processor.generator.GeneratorUtils.createClass;
+import static com.oracle.truffle.dsl.processor.java.ElementUtils.modifiers;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import com.oracle.truffle.dsl.processor.AnnotationProcessor;
+import com.oracle.truffle.dsl.processor.ProcessorContext;
+import com.oracle.truffle.dsl.processor.generator.CodeTypeElementFactory;
+import com.oracle.truffle.dsl.processor.generator.GeneratorUtils;
+import com.oracle.truffle.dsl.processor.generator.NodeCodeGenerator;
+import com.oracle.truffle.dsl.processor.java.ElementUtils;
+import com.oracle.truffle.dsl.processor.java.model.CodeAnnotationMirror;
+import com.oracle.truffle.dsl.processor.java.model.CodeAnnotationValue;
+import com.oracle.truffle.dsl.processor.java.model.CodeExecutableElement;
+import com.oracle.truffle.dsl.processor.java.model.CodeTree;
+import com.oracle.truffle.dsl.processor.java.model.CodeTreeBuilder;
+import com.oracle.truffle.dsl.processor.java.model.CodeTypeElement;
+import com.oracle.truffle.dsl.processor.java.model.CodeTypeMirror.ArrayCodeTypeMirror;
+import com.oracle.truffle.dsl.processor.java.model.CodeVariableElement;
+import com.oracle.truffle.dsl.processor.model.NodeChildData;
+import com.oracle.truffle.dsl.processor.model.NodeFieldData;
+
+/**
+ * Generates the bytecode interpreter for a {@link BytecodeData} model. The generated root node
+ * executes the instructions with a single loop that is exploded using the merge explode strategy.
+ * The operand stack is kept in indexed frame slots that follow the local variables. Primitive
+ * values keep their frame slot kind on the stack, so that quickened local variable accesses and
+ * operations with primitive results do not box.
+ */
+public class BytecodeGenerator extends CodeTypeElementFactory<BytecodeData> {
+
+    private static final String LOAD_CONSTANT = "LOAD_CONSTANT";
+    private static final String LOAD_ARGUMENT = "LOAD_ARGUMENT";
+    private static final String LOAD_LOCAL = "LOAD_LOCAL";
+    private static final String STORE_LOCAL = "STORE_LOCAL";
+    private static final String POP = "POP";
+    private static final String DUP = "DUP";
+    private static final String BRANCH = "BRANCH";
+    private static final String BRANCH_FALSE = "BRANCH_FALSE";
+    private static final String RETURN = "RETURN";
+
+    /*
+     * Local variable kinds used for quickening. The generic kind must be last.
+     */
+    private static final String[] LOCAL_KINDS = {"Boolean", "Int", "Long", "Double", "Object"};
+
+    private ProcessorContext context;
+    private BytecodeData model;
+
+    @Override
+    public List<CodeTypeElement> create(ProcessorContext context1, AnnotationProcessor<?> processor, BytecodeData model1) {
+        this.context = context1;
+        this.model = model1;
+        if (model.hasErrors()) {
+            return Collections.emptyList();
+        }
+
+        Modifier visibility = ElementUtils.getVisibility(model.getTemplateType().getModifiers());
+        CodeTypeElement genClass = createClass(model, null, modifiers(FINAL), createGenTypeName(model), model.getTemplateType().asType());
+        if (visibility != null) {
+            genClass.getModifiers().add(visibility);
+        }
+
+        List<String> opcodes = new ArrayList<>();
+        opcodes.add(LOAD_CONSTANT);
+        opcodes.add(LOAD_ARGUMENT);
+        opcodes.add(LOAD_LOCAL);
+        for (String kind : LOCAL_KINDS) {
+            opcodes.add(localOpcode(LOAD_LOCAL, kind));
+        }
+        opcodes.add(STORE_LOCAL);
+        for (String kind : LOCAL_KINDS) {
+            opcodes.add(localOpcode(STORE_LOCAL, kind));
+        }
+        opcodes.add(POP);
+        opcodes.add(DUP);
+        opcodes.add(BRANCH);
+        opcodes.add(BRANCH_FALSE);
+        opcodes.add(RETURN);
+        for (BytecodeOperationData operation : model.getOperations()) {
+            opcodes.add(operationOpcode(operation));
+        }
+        for (int i = 0; i < opcodes.size(); i++) {
+            genClass.add(new CodeVariableElement(modifiers(PRIVATE, STATIC, FINAL), context.getType(short.class), opcodes.get(i), String.valueOf(i)));
+        }
+
+        CodeVariableElement bytecodes = genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(context.getType(short.class)), "bytecodes"));
+        bytecodes.addAnnotationMirror(createCompilationFinal());
+        CodeVariableElement constants = genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(context.getType(Object.class)), "constants"));
+        constants.addAnnotationMirror(createCompilationFinal());
+        CodeVariableElement operationNodes = genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(types.Node), "operationNodes"));
+        operationNodes.addAnnotationMirror(new CodeAnnotationMirror(types.Node_Children));
+        genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), context.getType(int.class), "numLocals"));
+
+        for (ExecutableElement constructor : model.getConstructors()) {
+            genClass.add(createConstructor(genClass, constructor));
+        }
+        genClass.add(createExecute());
+        genClass.add(createCopySlot());
+
+        CodeTypeElement builderClass = createBuilder(genClass);
+        CodeExecutableElement newBuilder = new CodeExecutableElement(modifiers(PUBLIC, STATIC), builderClass.asType(), "newBuilder");
+        newBuilder.createBuilder().startReturn().startNew(builderClass.asType()).end().end();
+        genClass.add(newBuilder);
+        genClass.add(builderClass);
+
+        return Arrays.asList(genClass);
+    }
+
+    private CodeExecutableElement createConstructor(CodeTypeElement genClass, ExecutableElement superConstructor) {
+        CodeExecutableElement constructor = new CodeExecutableElement(modifiers(PRIVATE), null, genClass.getSimpleName().toString());
+        for (VariableElement parameter : superConstructor.getParameters()) {
+            constructor.addParameter(new CodeVariableElement(parameter.asType(), parameter.getSimpleName().toString()));
+        }
+        constructor.addParameter(new CodeVariableElement(arrayOf(context.getType(short.class)), "bytecodes"));
+        constructor.addParameter(new CodeVariableElement(arrayOf(context.getType(Object.class)), "constants"));
+        constructor.addParameter(new CodeVariableElement(arrayOf(types.Node), "operationNodes"));
+        constructor.addParameter(new CodeVariableElement(context.getType(int.class), "numLocals"));
+
+        CodeTreeBuilder b = constructor.createBuilder();
+        b.startStatement().startSuperCall();
+        for (VariableElement parameter : superConstructor.getParameters()) {
+            b.string(parameter.getSimpleName().toString());
+        }
+        b.end().end();
+        b.statement("this.bytecodes = bytecodes");
+        b.statement("this.constants = constants");
+        b.statement("this.operationNodes = operationNodes");
+        b.statement("this.numLocals = numLocals");
+        return constructor;
+    }
+
+    private CodeExecutableElement createExecute() {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PUBLIC), context.getType(Object.class), "execute", new CodeVariableElement(types.VirtualFrame, "frame"));
+        CodeAnnotationMirror explodeLoop = new CodeAnnotationMirror(types.ExplodeLoop);
+        explodeLoop.setElementValue(explodeLoop.findExecutableElement("kind"),
+                        new CodeAnnotationValue(ElementUtils.findVariableElement(types.ExplodeLoop_LoopExplosionKind, "MERGE_EXPLODE")));
+        method.addAnnotationMirror(explodeLoop);
+
+        CodeTreeBuilder b = method.createBuilder();
+        b.declaration(arrayOf(context.getType(short.class)), "bc", "this.bytecodes");
+        b.declaration(context.getType(int.class), "bci", "0");
+        b.declaration(context.getType(int.class), "sp", "this.numLocals");
+        b.string("while (true) ").startBlock();
+        b.startSwitch().string("bc[bci]").end().startBlock();
+
+        startCase(b, LOAD_CONSTANT);
+        b.statement("frame.setObject(sp, constants[bc[bci + 1]])");
+        endCase(b, 1, 2);
+
+        startCase(b, LOAD_ARGUMENT);
+        b.statement("frame.setObject(sp, frame.getArguments()[bc[bci + 1]])");
+        endCase(b, 1, 2);
+
+        startCase(b, LOAD_LOCAL);
+        b.tree(GeneratorUtils.createTransferToInterpreterAndInvalidate());
+        b.declaration(context.getType(int.class), "local", "bc[bci + 1]");
+        for (int i = 0; i < LOCAL_KINDS.length - 1; i++) {
+            if (i == 0) {
+                b.startIf();
+            } else {
+                b.startElseIf();
+            }
+            b.string("frame.is" + LOCAL_KINDS[i] + "(local)").end().startBlock();
+            b.statement("bc[bci] = " + localOpcode(LOAD_LOCAL, LOCAL_KINDS[i]));
+            b.end();
+        }
+        b.startElseBlock();
+        b.statement("bc[bci] = " + localOpcode(LOAD_LOCAL, "Object"));
+        b.end();
+        b.statement("copySlot(frame, local, sp)");
+        endCase(b, 1, 2);
+
+        for (String kind : LOCAL_KINDS) {
+            startCase(b, localOpcode(LOAD_LOCAL, kind));
+            if (kind.equals("Object")) {
+                b.statement("frame.setObject(sp, frame.getValue(bc[bci + 1]))");
+            } else {
+                b.startTryBlock();
+                b.statement("frame.set" + kind + "(sp, frame.get" + kind + "(bc[bci + 1]))");
+                b.end().startCatchBlock(types.FrameSlotTypeException, "e");
+                b.tree(GeneratorUtils.createTransferToInterpreterAndInvalidate());
+                b.statement("bc[bci] = " + localOpcode(LOAD_LOCAL, "Object"));
+                b.statement("frame.setObject(sp, frame.getValue(bc[bci + 1]))");
+                b.end();
+            }
+            endCase(b, 1, 2);
+        }
+
+        startCase(b, STORE_LOCAL);
+        b.tree(GeneratorUtils.createTransferToInterpreterAndInvalidate());
+        b.declaration(context.getType(int.class), "local", "bc[bci + 1]");
+        b.declaration(context.getType(Object.class), "value", "frame.getValue(sp - 1)");
+        for (int i = 0; i < LOCAL_KINDS.length - 1; i++) {
+            String kind = LOCAL_KINDS[i];
+            TypeMirror primitive = primitiveType(kind);
+            if (i == 0) {
+                b.startIf();
+            } else {
+                b.startElseIf();
+            }
+            b.string("value instanceof ").type(ElementUtils.boxType(context, primitive)).end().startBlock();
+            b.startStatement().string("frame.set" + kind + "(local, ").cast(primitive).string("value)").end();
+            b.statement("bc[bci] = " + localOpcode(STORE_LOCAL, kind));
+            b.end();
+        }
+        b.startElseBlock();
+        b.statement("frame.setObject(local, value)");
+        b.statement("bc[bci] = " + localOpcode(STORE_LOCAL, "Object"));
+        b.end();
+        endCase(b, -1, 2);
+
+        for (String kind : LOCAL_KINDS) {
+            startCase(b, localOpcode(STORE_LOCAL, kind));
+            if (kind.equals("Object")) {
+                b.statement("frame.setObject(bc[bci + 1], frame.getValue(sp - 1))");
+            } else {
+                TypeMirror primitive = primitiveType(kind);
+                b.startTryBlock();
+                b.statement("frame.set" + kind + "(bc[bci + 1], frame.get" + kind + "(sp - 1))");
+                b.end().startCatchBlock(types.FrameSlotTypeException, "e");
+                // the value was pushed boxed, e.g. by a constant or an operation returning Object
+                b.declaration(context.getType(Object.class), "value", "frame.getValue(sp - 1)");
+                b.startIf().string("value instanceof ").type(ElementUtils.boxType(context, primitive)).end().startBlock();
+                b.startStatement().string("frame.set" + kind + "(bc[bci + 1], ").cast(primitive).string("value)").end();
+                b.end().startElseBlock();
+                b.tree(GeneratorUtils.createTransferToInterpreterAndInvalidate());
+                b.statement("bc[bci] = " + localOpcode(STORE_LOCAL, "Object"));
+                b.statement("frame.setObject(bc[bci + 1], value)");
+                b.end();
+                b.end();
+            }
+            endCase(b, -1, 2);
+        }
+
+        startCase(b, POP);
+        endCase(b, -1, 1);
+
+        startCase(b, DUP);
+        b.statement("copySlot(frame, sp - 1, sp)");
+        endCase(b, 1, 1);
+
+        startCase(b, BRANCH);
+        b.statement("bci = bc[bci + 1]");
+        b.statement("break");
+        b.end();
+
+        startCase(b, BRANCH_FALSE);
+        b.declaration(context.getType(boolean.class), "condition", (CodeTree) null);
+        b.startTryBlock();
+        b.statement("condition = frame.getBoolean(sp - 1)");
+        b.end().startCatchBlock(types.FrameSlotTypeException, "e");
+        b.statement("condition = (boolean) frame.getValue(sp - 1)");
+        b.end();
+        b.startIf().string("condition").end().startBlock();
+        b.statement("bci += 2");
+        b.end().startElseBlock();
+        b.statement("bci = bc[bci + 1]");
+        b.end();
+        b.statement("sp -= 1");
+        b.statement("break");
+        b.end();
+
+        startCase(b, RETURN);
+        b.statement("return frame.getValue(sp - 1)");
+        b.end();
+
+        for (BytecodeOperationData operation : model.getOperations()) {
+            startCase(b, operationOpcode(operation));
+            createOperationCase(b, operation);
+            b.end();
+        }
+
+        b.caseDefault();
+        b.startCaseBlock();
+        b.tree(GeneratorUtils.createTransferToInterpreterAndInvalidate());
+        b.startThrow().startNew(context.getType(IllegalStateException.class));
+        b.string("\"Invalid bytecode \" + bc[bci] + \" at index \" + bci + \".\"");
+        b.end().end();
+        b.end();
+
+        b.end(); // switch block
+        b.end(); // while block
+        return method;
+    }
+
+    private void createOperationCase(CodeTreeBuilder b, BytecodeOperationData operation) {
+        int fixed = operation.getFixedArgumentCount();
+        if (operation.isVariadic()) {
+            b.declaration(context.getType(int.class), "count", "bc[bci + 2]");
+            b.declaration(arrayOf(context.getType(Object.class)), "varArgs", "new Object[count]");
+            b.string("for (int i = 0; i < count; i++) ").startBlock();
+            b.statement("varArgs[i] = frame.getValue(sp - count + i)");
+            b.end();
+        }
+        for (int i = 0; i < fixed; i++) {
+            b.declaration(context.getType(Object.class), "arg" + i, "frame.getValue(" + stackIndex(operation, fixed - i) + ")");
+        }
+        String base = stackIndex(operation, fixed);
+
+        CodeTreeBuilder call = b.create();
+        call.startCall(CodeTreeBuilder.createBuilder().startParantheses().cast(operation.getNodeType()).string("operationNodes[bc[bci + 1]]").end().build(),
+                        operation.getExecute().getMethod().getSimpleName().toString());
+        if (operation.hasFrame()) {
+            call.string("frame");
+        }
+        for (int i = 0; i < fixed; i++) {
+            call.string("arg" + i);
+        }
+        if (operation.isVariadic()) {
+            call.string("varArgs");
+        }
+        call.end();
+
+        if (operation.returnsValue()) {
+            TypeMirror returnType = operation.getExecute().getReturnType();
+            b.declaration(returnType, "result", call.build());
+            b.statement("frame.set" + stackKind(returnType) + "(" + base + ", result)");
+            String newStackPointer = stackIndex(operation, fixed - 1);
+            if (!newStackPointer.equals("sp")) {
+                b.statement("sp = " + newStackPointer);
+            }
+        } else {
+            b.startStatement().tree(call.build()).end();
+            b.statement("sp = " + base);
+        }
+        b.statement("bci += " + (operation.isVariadic() ? 3 : 2));
+        b.statement("break");
+    }
+
+    private CodeTypeElement createBuilder(CodeTypeElement genClass) {
+        CodeTypeElement builder = createClass(model, null, modifiers(PUBLIC, STATIC, FINAL), "Builder", null);
+        TypeMirror intType = context.getType(int.class);
+        TypeMirror intArray = arrayOf(intType);
+
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), arrayOf(context.getType(short.class)), "bc")).createInitBuilder().string("new short[32]");
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "bci"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), arrayOf(context.getType(Object.class)), "constants")).createInitBuilder().string("new Object[8]");
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "numConstants"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), arrayOf(types.Node), "nodes")).createInitBuilder().startNewArray((ArrayType) arrayOf(types.Node),
+                        CodeTreeBuilder.singleString("8")).end();
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "numNodes"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "numLocals"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intArray, "labelTargets")).createInitBuilder().string("new int[8]");
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intArray, "labelStackHeights")).createInitBuilder().string("new int[8]");
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "numLabels"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intArray, "branchFixups")).createInitBuilder().string("new int[8]");
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "numBranchFixups"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "stackHeight"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "maxStackHeight"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(boolean.class), "reachable")).createInitBuilder().string("true");
+
+        builder.add(new CodeExecutableElement(modifiers(PRIVATE), null, "Builder"));
+
+        CodeExecutableElement method;
+        CodeTreeBuilder b;
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), intType, "createLocal"));
+        method.createBuilder().startReturn().string("numLocals++").end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), intType, "createLabel"));
+        b = method.createBuilder();
+        b.startIf().string("numLabels == labelTargets.length").end().startBlock();
+        b.startStatement().string("labelTargets = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("labelTargets").string("numLabels * 2").end().end();
+        b.startStatement().string("labelStackHeights = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("labelStackHeights").string("numLabels * 2").end().end();
+        b.end();
+        b.statement("labelTargets[numLabels] = -1");
+        b.statement("labelStackHeights[numLabels] = -1");
+        b.startReturn().string("numLabels++").end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "bindLabel", new CodeVariableElement(intType, "label")));
+        b = method.createBuilder();
+        b.statement("checkLabel(label)");
+        b.startIf().string("labelTargets[label] != -1").end().startBlock();
+        throwException(b, IllegalStateException.class, "\"Label \" + label + \" is already bound.\"");
+        b.end();
+        b.statement("labelTargets[label] = bci");
+        b.startIf().string("labelStackHeights[label] == -1").end().startBlock();
+        b.statement("labelStackHeights[label] = stackHeight");
+        b.end().startElseIf().string("reachable && labelStackHeights[label] != stackHeight").end().startBlock();
+        throwException(b, IllegalStateException.class, "\"Inconsistent operand stack height at label \" + label + \".\"");
+        b.end().startElseBlock();
+        b.statement("stackHeight = labelStackHeights[label]");
+        b.end();
+        b.statement("reachable = true");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitLoadConstant", new CodeVariableElement(context.getType(Object.class), "value")));
+        b = method.createBuilder();
+        b.startIf().string("numConstants == constants.length").end().startBlock();
+        b.startStatement().string("constants = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("constants").string("numConstants * 2").end().end();
+        b.end();
+        b.statement("constants[numConstants] = value");
+        b.statement("adjustStack(0, 1)");
+        b.statement("emit(" + LOAD_CONSTANT + ")");
+        b.statement("emit(operand(numConstants++))");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitLoadArgument", new CodeVariableElement(intType, "index")));
+        b = method.createBuilder();
+        b.statement("adjustStack(0, 1)");
+        b.statement("emit(" + LOAD_ARGUMENT + ")");
+        b.statement("emit(operand(index))");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitLoadLocal", new CodeVariableElement(intType, "local")));
+        b = method.createBuilder();
+        b.statement("checkLocal(local)");
+        b.statement("adjustStack(0, 1)");
+        b.statement("emit(" + LOAD_LOCAL + ")");
+        b.statement("emit(operand(local))");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitStoreLocal", new CodeVariableElement(intType, "local")));
+        b = method.createBuilder();
+        b.statement("checkLocal(local)");
+        b.statement("adjustStack(1, 0)");
+        b.statement("emit(" + STORE_LOCAL + ")");
+        b.statement("emit(operand(local))");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitPop"));
+        b = method.createBuilder();
+        b.statement("adjustStack(1, 0)");
+        b.statement("emit(" + POP + ")");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitDup"));
+        b = method.createBuilder();
+        b.statement("adjustStack(1, 2)");
+        b.statement("emit(" + DUP + ")");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitBranch", new CodeVariableElement(intType, "label")));
+        b = method.createBuilder();
+        b.statement("emit(" + BRANCH + ")");
+        b.statement("emitLabelOperand(label)");
+        b.statement("reachable = false");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitBranchFalse", new CodeVariableElement(intType, "label")));
+        b = method.createBuilder();
+        b.statement("adjustStack(1, 0)");
+        b.statement("emit(" + BRANCH_FALSE + ")");
+        b.statement("emitLabelOperand(label)");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitReturn"));
+        b = method.createBuilder();
+        b.statement("adjustStack(1, 0)");
+        b.statement("emit(" + RETURN + ")");
+        b.statement("reachable = false");
+
+        for (BytecodeOperationData operation : model.getOperations()) {
+            builder.add(createEmitOperation(operation));
+        }
+
+        for (ExecutableElement constructor : model.getConstructors()) {
+            builder.add(createBuild(genClass, constructor));
+        }
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "emitLabelOperand", new CodeVariableElement(intType, "label")));
+        b = method.createBuilder();
+        b.statement("checkLabel(label)");
+        b.startIf().string("labelStackHeights[label] == -1").end().startBlock();
+        b.statement("labelStackHeights[label] = stackHeight");
+        b.end().startElseIf().string("labelStackHeights[label] != stackHeight").end().startBlock();
+        throwException(b, IllegalStateException.class, "\"Inconsistent operand stack height at label \" + label + \".\"");
+        b.end();
+        b.startIf().string("numBranchFixups == branchFixups.length").end().startBlock();
+        b.startStatement().string("branchFixups = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("branchFixups").string("numBranchFixups * 2").end().end();
+        b.end();
+        b.statement("branchFixups[numBranchFixups++] = bci");
+        b.statement("emit(operand(label))");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), intType, "addNode", new CodeVariableElement(types.Node, "node")));
+        b = method.createBuilder();
+        b.startIf().string("numNodes == nodes.length").end().startBlock();
+        b.startStatement().string("nodes = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("nodes").string("numNodes * 2").end().end();
+        b.end();
+        b.statement("nodes[numNodes] = node");
+        b.startReturn().string("numNodes++").end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "adjustStack", new CodeVariableElement(intType, "pop"),
+                        new CodeVariableElement(intType, "push")));
+        b = method.createBuilder();
+        b.startIf().string("stackHeight < pop").end().startBlock();
+        throwException(b, IllegalStateException.class, "\"Operand stack underflow at index \" + bci + \".\"");
+        b.end();
+        b.statement("stackHeight = stackHeight - pop + push");
+        b.startIf().string("stackHeight > maxStackHeight").end().startBlock();
+        b.statement("maxStackHeight = stackHeight");
+        b.end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "emit", new CodeVariableElement(context.getType(short.class), "value")));
+        b = method.createBuilder();
+        b.startIf().string("bci == bc.length").end().startBlock();
+        b.startStatement().string("bc = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("bc").string("bci * 2").end().end();
+        b.end();
+        b.statement("bc[bci++] = value");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE, STATIC), context.getType(short.class), "operand", new CodeVariableElement(intType, "value")));
+        b = method.createBuilder();
+        b.startIf().string("value < 0 || value > Short.MAX_VALUE").end().startBlock();
+        throwException(b, IllegalArgumentException.class, "\"Bytecode operand out of range: \" + value + \".\"");
+        b.end();
+        b.startReturn().string("(short) value").end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "checkLocal", new CodeVariableElement(intType, "local")));
+        b = method.createBuilder();
+        b.startIf().string("local < 0 || local >= numLocals").end().startBlock();
+        throwException(b, IllegalArgumentException.class, "\"Invalid local \" + local + \".\"");
+        b.end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "checkLabel", new CodeVariableElement(intType, "label")));
+        b = method.createBuilder();
+        b.startIf().string("label < 0 || label >= numLabels").end().startBlock();
+        throwException(b, IllegalArgumentException.class, "\"Invalid label \" + label + \".\"");
+        b.end();
+
+        return builder;
+    }
+
+    private CodeExecutableElement createEmitOperation(BytecodeOperationData operation) {
+        TypeMirror nodeType = operation.getNodeType();
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PUBLIC), nodeType, "emit" + ElementUtils.firstLetterUpperCase(operation.getName()));
+        for (NodeFieldData field : operation.getFields()) {
+            method.addParameter(new CodeVariableElement(field.getType(), field.getName()));
+        }
+        if (operation.isVariadic()) {
+            method.addParameter(new CodeVariableElement(context.getType(int.class), "count"));
+        }
+
+        CodeTreeBuilder b = method.createBuilder();
+        String pops = String.valueOf(operation.getFixedArgumentCount());
+        if (operation.isVariadic()) {
+            b.startIf().string("count < 0").end().startBlock();
+            throwException(b, IllegalArgumentException.class, "\"Invalid argument count \" + count + \".\"");
+            b.end();
+            pops = pops.equals("0") ? "count" : pops + " + count";
+        }
+        b.statement("adjustStack(" + pops + ", " + (operation.returnsValue() ? 1 : 0) + ")");
+
+        b.startStatement().type(nodeType).string(" node = ").startStaticCall(NodeCodeGenerator.factoryOrNodeType(operation.getNode()), "create");
+        for (NodeChildData child : operation.getChildren()) {
+            if (child.needsGeneratedField()) {
+                b.cast(child.getOriginalType(), CodeTreeBuilder.singleString("null"));
+            }
+        }
+        for (NodeFieldData field : operation.getFields()) {
+            b.string(field.getName());
+        }
+        b.end().end();
+
+        b.statement("emit(" + operationOpcode(operation) + ")");
+        b.statement("emit(operand(addNode(node)))");
+        if (operation.isVariadic()) {
+            b.statement("emit(operand(count))");
+        }
+        b.startReturn().string("node").end();
+        return method;
+    }
+
+    private CodeExecutableElement createBuild(CodeTypeElement genClass, ExecutableElement constructor) {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PUBLIC), model.getTemplateType().asType(), "build");
+        for (VariableElement parameter : constructor.getParameters()) {
+            if (!ElementUtils.typeEquals(parameter.asType(), types.FrameDescriptor)) {
+                method.addParameter(new CodeVariableElement(parameter.asType(), parameter.getSimpleName().toString()));
+            }
+        }
+        CodeTreeBuilder b = method.createBuilder();
+        b.startIf().string("reachable").end().startBlock();
+        throwException(b, IllegalStateException.class, "\"The bytecode must end with a branch or a return.\"");
+        b.end();
+        b.declaration(arrayOf(context.getType(short.class)), "bytecodes", CodeTreeBuilder.createBuilder().startStaticCall(context.getType(Arrays.class), "copyOf").string("bc").string("bci").end().build());
+        b.string("for (int i = 0; i < numBranchFixups; i++) ").startBlock();
+        b.declaration(context.getType(int.class), "index", "branchFixups[i]");
+        b.declaration(context.getType(int.class), "target", "labelTargets[bytecodes[index]]");
+        b.startIf().string("target == -1").end().startBlock();
+        throwException(b, IllegalStateException.class, "\"Label \" + bytecodes[index] + \" is not bound.\"");
+        b.end();
+        b.statement("bytecodes[index] = operand(target)");
+        b.end();
+
+        String descriptorName = null;
+        for (VariableElement parameter : constructor.getParameters()) {
+            if (ElementUtils.typeEquals(parameter.asType(), types.FrameDescriptor)) {
+                descriptorName = parameter.getSimpleName().toString();
+            }
+        }
+        b.declaration(types.FrameDescriptor, descriptorName, CodeTreeBuilder.createBuilder().startNew(types.FrameDescriptor).nullLiteral().string("numLocals + maxStackHeight").end().build());
+
+        b.startReturn().startNew(genClass.asType());
+        for (VariableElement parameter : constructor.getParameters()) {
+            b.string(parameter.getSimpleName().toString());
+        }
+        b.string("bytecodes");
+        b.startStaticCall(context.getType(Arrays.class), "copyOf").string("constants").string("numConstants").end();
+        b.startStaticCall(context.getType(Arrays.class), "copyOf").string("nodes").string("numNodes").end();
+        b.string("numLocals");
+        b.end().end();
+        return method;
+    }
+
+    /*
+     * Returns the expression for the stack slot that is the given number of values below the
+     * values consumed by a variadic argument.
+     */
+    private static String stackIndex(BytecodeOperationData operation, int offset) {
+        String index = operation.isVariadic() ? "sp - count" : "sp";
+        if (offset > 0) {
+            index += " - " + offset;
+        } else if (offset < 0) {
+            index += " + " + -offset;
+        }
+        return index;
+    }
+
+    private static void startCase(CodeTreeBuilder b, String opcode) {
+        b.startCase().string(opcode).end();
+        b.startBlock();
+    }
+
+    /*
+     * Ends a case of a simple instruction that changes the stack pointer by stackEffect and has a
+     * fixed length.
+     */
+    private static void endCase(CodeTreeBuilder b, int stackEffect, int length) {
+        if (stackEffect > 0) {
+            b.statement("sp += " + stackEffect);
+        } else if (stackEffect < 0) {
+            b.statement("sp -= " + -stackEffect);
+        }
+        b.statement("bci += " + length);
+        b.statement("break");
+        b.end();
+    }
+
+    private void throwException(CodeTreeBuilder b, Class<?> exceptionClass, String message) {
+        b.startThrow().startNew(context.getType(exceptionClass)).string(message).end().end();
+    }
+
+    /**
+     * Generates a method that copies a frame slot without boxing primitive values.
+     */
+    private CodeExecutableElement createCopySlot() {
+        TypeMirror intType = context.getType(int.class);
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PRIVATE, STATIC), context.getType(void.class), "copySlot",
+                        new CodeVariableElement(types.VirtualFrame, "frame"), new CodeVariableElement(intType, "source"), new CodeVariableElement(intType, "target"));
+        CodeTreeBuilder b = method.createBuilder();
+        b.startTryBlock();
+        for (int i = 0; i < LOCAL_KINDS.length - 1; i++) {
+            String kind = LOCAL_KINDS[i];
+            if (i == 0) {
+                b.startIf();
+            } else {
+                b.startElseIf();
+            }
+            b.string("frame.is" + kind + "(source)").end().startBlock();
+            b.statement("frame.set" + kind + "(target, frame.get" + kind + "(source))");
+            b.end();
+        }
+        b.startElseBlock();
+        b.statement("frame.setObject(target, frame.getValue(source))");
+        b.end();
+        b.end().startCatchBlock(types.FrameSlotTypeException, "e");
+        b.tree(GeneratorUtils.createTransferToInterpreter());
+        b.startThrow().startNew(context.getType(IllegalStateException.class)).string("e").end().end();
+        b.end();
+        return method;
+    }
+
+    /**
+     * Returns the kind of the frame slot used to push a value of the given type onto the stack.
+     */
+    private static String stackKind(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Boolean";
+            case INT:
+                return "Int";
+            case LONG:
+                return "Long";
+            case DOUBLE:
+                return "Double";
+            default:
+                return "Object";
+        }
+    }
+
+    private TypeMirror primitiveType(String kind) {
+        switch (kind) {
+            case "Boolean":
+                return context.getType(boolean.class);
+            case "Int":
+                return context.getType(int.class);
+            case "Long":
+                return context.getType(long.class);
+            case "Double":
+                return context.getType(double.class);
+            default:
+                throw new AssertionError(kind);
+        }
+    }
+
+    private CodeAnnotationMirror createCompilationFinal() {
+        CodeAnnotationMirror annotation = new CodeAnnotationMirror(types.CompilerDirectives_CompilationFinal);
+        annotation.setElementValue(annotation.findExecutableElement("dimensions"), new CodeAnnotationValue(1));
+        return annotation;
+    }
+
+    private static TypeMirror arrayOf(TypeMirror componentType) {
+        return new ArrayCodeTypeMirror(componentType);
+    }
+
+    private static String localOpcode(String base, String kind) {
+        return base + "_" + kind.toUpperCase();
+    }
+
+    private static String operationOpcode(BytecodeOperationData operation) {
+        return "OP_" + ElementUtils.createConstantName(operation.getName());
+    }
+
+    private static String createGenTypeName(BytecodeData model) {
+        return ElementUtils.firstLetterUpperCase(model.getTemplateType().getSimpleName().toString()) + "Gen";
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.dsl.processor.bytecode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import com.oracle.truffle.dsl.processor.model.ExecutableTypeData;
+import com.oracle.truffle.dsl.processor.model.NodeChildData;
+import com.oracle.truffle.dsl.processor.model.NodeData;
+import com.oracle.truffle.dsl.processor.model.NodeFieldData;
+
+public final class BytecodeOperationData {
+
+    private final AnnotationMirror mirror;
+    private final String name;
+    private final NodeData node;
+    private final ExecutableTypeData execute;
+    private final boolean variadic;
+    private final List<NodeFieldData> fields = new ArrayList<>();
+
+    BytecodeOperationData(AnnotationMirror mirror, String name, NodeData node, ExecutableTypeData execute, boolean variadic) {
+        this.mirror = mirror;
+        this.name = name;
+        this.node = node;
+        this.execute = execute;
+        this.variadic = variadic;
+    }
+
+    public AnnotationMirror getMirror() {
+        return mirror;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public NodeData getNode() {
+        return node;
+    }
+
+    public TypeMirror getNodeType() {
+        return node.getNodeType();
+    }
+
+    public ExecutableTypeData getExecute() {
+        return execute;
+    }
+
+    public List<NodeFieldData> getFields() {
+        return fields;
+    }
+
+    public List<NodeChildData> getChildren() {
+        return node.getChildren();
+    }
+
+    /**
+     * Returns <code>true</code> if the last evaluated value of the operation is an
+     * <code>Object[]</code> that consumes a variable number of values from the operand stack.
+     */
+    public boolean isVariadic() {
+        return variadic;
+    }
+
+    /**
+     * Returns the number of values the operation pops from the operand stack, not counting the
+     * values consumed by a variadic argument.
+     */
+    public int getFixedArgumentCount() {
+        return execute.getEvaluatedCount() - (variadic ? 1 : 0);
+    }
+
+    public boolean hasFrame() {
+        return execute.getFrameParameter() != null;
+    }
+
+    public boolean returnsValue() {
+        return execute.getReturnType().getKind() != TypeKind.VOID;
+    }
+
+}
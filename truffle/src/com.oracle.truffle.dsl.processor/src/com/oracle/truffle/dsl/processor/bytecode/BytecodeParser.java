@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.dsl.processor.bytecode;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+import com.oracle.truffle.dsl.processor.java.ElementUtils;
+import com.oracle.truffle.dsl.processor.model.ExecutableTypeData;
+import com.oracle.truffle.dsl.processor.model.NodeData;
+import com.oracle.truffle.dsl.processor.model.NodeFieldData;
+import com.oracle.truffle.dsl.processor.parser.AbstractParser;
+import com.oracle.truffle.dsl.processor.parser.NodeParser;
+
+public class BytecodeParser extends AbstractParser<BytecodeData> {
+
+    @Override
+    public DeclaredType getAnnotationType() {
+        return types.GenerateBytecode;
+    }
+
+    @Override
+    protected BytecodeData parse(Element element, List<AnnotationMirror> mirrors) {
+        if (mirrors == null || mirrors.isEmpty()) {
+            return null;
+        }
+        TypeElement type = (TypeElement) element;
+        BytecodeData model = new BytecodeData(type, mirrors.iterator().next());
+
+        if (!ElementUtils.isAssignable(type.asType(), types.RootNode)) {
+            model.addError("Classes annotated with @%s must extend %s.", ElementUtils.getSimpleName(types.GenerateBytecode), ElementUtils.getSimpleName(types.RootNode));
+            return model;
+        }
+        if (!type.getModifiers().contains(Modifier.ABSTRACT)) {
+            model.addError("Classes annotated with @%s must be abstract.", ElementUtils.getSimpleName(types.GenerateBytecode));
+            return model;
+        }
+        if (type.getEnclosingElement().getKind() != ElementKind.PACKAGE && !type.getModifiers().contains(Modifier.STATIC)) {
+            model.addError("Inner classes annotated with @%s must be static.", ElementUtils.getSimpleName(types.GenerateBytecode));
+            return model;
+        }
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            model.addError("Classes annotated with @%s must not be private.", ElementUtils.getSimpleName(types.GenerateBytecode));
+            return model;
+        }
+
+        ExecutableElement execute = null;
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().toString().equals("execute") && method.getParameters().size() == 1 && ElementUtils.typeEquals(method.getParameters().get(0).asType(), types.VirtualFrame)) {
+                execute = method;
+            }
+        }
+        if (execute == null || !execute.getModifiers().contains(Modifier.ABSTRACT)) {
+            model.addError("The method execute(VirtualFrame) must be redeclared as abstract method to be implemented by the bytecode interpreter.");
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            int descriptors = 0;
+            for (VariableElement parameter : constructor.getParameters()) {
+                if (ElementUtils.typeEquals(parameter.asType(), types.FrameDescriptor)) {
+                    descriptors++;
+                }
+            }
+            if (descriptors != 1) {
+                model.addError(constructor, "Constructors of classes annotated with @%s must declare exactly one parameter of type %s.",
+                                ElementUtils.getSimpleName(types.GenerateBytecode), ElementUtils.getSimpleName(types.FrameDescriptor));
+                continue;
+            }
+            model.getConstructors().add(constructor);
+        }
+        if (!model.hasErrors() && model.getConstructors().isEmpty()) {
+            model.addError("No accessible constructor with a %s parameter found.", ElementUtils.getSimpleName(types.FrameDescriptor));
+        }
+
+        Set<String> names = new HashSet<>();
+        for (AnnotationMirror operationMirror : ElementUtils.getRepeatedAnnotation(type.getAnnotationMirrors(), types.GenerateBytecode_Operation)) {
+            BytecodeOperationData operation = parseOperation(model, operationMirror);
+            if (operation == null) {
+                continue;
+            }
+            if (!names.add(operation.getName())) {
+                model.addError(operationMirror, ElementUtils.getAnnotationValue(operationMirror, "name"), "Duplicate operation name '%s'.", operation.getName());
+                continue;
+            }
+            model.getOperations().add(operation);
+        }
+        return model;
+    }
+
+    private BytecodeOperationData parseOperation(BytecodeData model, AnnotationMirror mirror) {
+        String name = ElementUtils.getAnnotationValue(String.class, mirror, "name");
+        AnnotationValue nodeValue = ElementUtils.getAnnotationValue(mirror, "node");
+        TypeMirror nodeType = ElementUtils.getAnnotationValue(TypeMirror.class, mirror, "node");
+
+        if (!isJavaIdentifier(name)) {
+            model.addError(mirror, ElementUtils.getAnnotationValue(mirror, "name"), "The operation name '%s' is not a valid Java identifier.", name);
+            return null;
+        }
+
+        TypeElement nodeElement = ElementUtils.castTypeElement(nodeType);
+        NodeData node = nodeElement != null ? NodeParser.createDefaultParser().parse(nodeElement, false) : null;
+        if (node == null || node.getSpecializations().isEmpty()) {
+            model.addError(mirror, nodeValue, "The operation node %s must declare at least one specialization.", ElementUtils.getSimpleName(nodeType));
+            return null;
+        }
+        if (node.hasErrors()) {
+            model.addError(mirror, nodeValue, "The operation node %s has errors.", ElementUtils.getSimpleName(nodeType));
+            return null;
+        }
+        if (!hasDefaultConstructor(nodeElement)) {
+            model.addError(mirror, nodeValue, "The operation node %s must declare a constructor without parameters.", ElementUtils.getSimpleName(nodeType));
+            return null;
+        }
+
+        ExecutableTypeData execute = null;
+        boolean ambiguous = false;
+        for (ExecutableTypeData executable : node.getExecutableTypes()) {
+            if (!executable.isAbstract() || executable.hasUnexpectedValue()) {
+                continue;
+            }
+            if (execute == null || executable.getEvaluatedCount() > execute.getEvaluatedCount()) {
+                execute = executable;
+                ambiguous = false;
+            } else if (executable.getEvaluatedCount() == execute.getEvaluatedCount()) {
+                boolean generic = ElementUtils.isObject(executable.getReturnType());
+                boolean previousGeneric = ElementUtils.isObject(execute.getReturnType());
+                if (generic && !previousGeneric) {
+                    execute = executable;
+                    ambiguous = false;
+                } else if (generic == previousGeneric) {
+                    ambiguous = true;
+                }
+            }
+        }
+        if (execute == null || ambiguous) {
+            model.addError(mirror, nodeValue, "The operation node %s must declare a unique abstract execute method with the highest number of evaluated values.", ElementUtils.getSimpleName(nodeType));
+            return null;
+        }
+        if (execute.getFrameParameter() != null && !ElementUtils.typeEquals(execute.getFrameParameter(), types.VirtualFrame)) {
+            model.addError(mirror, nodeValue, "The frame parameter of the operation node %s must be of type %s.", ElementUtils.getSimpleName(nodeType), ElementUtils.getSimpleName(types.VirtualFrame));
+            return null;
+        }
+
+        boolean variadic = false;
+        List<TypeMirror> evaluated = execute.getEvaluatedParameters();
+        if (!evaluated.isEmpty()) {
+            TypeMirror last = evaluated.get(evaluated.size() - 1);
+            variadic = last.getKind() == TypeKind.ARRAY && ElementUtils.isObject(((ArrayType) last).getComponentType());
+        }
+        for (int i = 0; i < evaluated.size() - (variadic ? 1 : 0); i++) {
+            if (!ElementUtils.isObject(evaluated.get(i))) {
+                model.addError(mirror, nodeValue, "The evaluated values of the execute method %s must be of type Object.", ElementUtils.getSimpleName(nodeType));
+                return null;
+            }
+        }
+
+        BytecodeOperationData operation = new BytecodeOperationData(mirror, name, node, execute, variadic);
+        for (NodeFieldData field : node.getFields()) {
+            if (!field.isSettable()) {
+                operation.getFields().add(field);
+            }
+        }
+        return operation;
+    }
+
+    private static boolean hasDefaultConstructor(TypeElement nodeElement) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(nodeElement.getEnclosedElements());
+        if (constructors.isEmpty()) {
+            return true;
+        }
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isJavaIdentifier(String name) {
+        if (name == null || name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ShapeImpl;
+
+public class TransitionFanOutTest {
+    static final Layout LAYOUT = Layout.createLayout();
+    static final int KEYS = 1000;
+    static final int MAX_FAN_OUT = Integer.getInteger("truffle.object.MaxTransitionFanOut", 256);
+
+    @Test
+    public void testMegamorphicFanOut() {
+        Shape emptyShape = LAYOUT.createShape(new ObjectType());
+        Shape first = emptyShape.defineProperty("key0", 0, 0);
+        assertSame(first, emptyShape.defineProperty("key0", 0, 0));
+        List<Shape> shapes = new ArrayList<>();
+        shapes.add(first);
+        for (int i = 1; i < KEYS; i++) {
+            shapes.add(emptyShape.defineProperty("key" + i, i, 0));
+        }
+
+        // The transition map is bounded, and still caches the most recent transitions.
+        int[] transitions = new int[1];
+        ((ShapeImpl) emptyShape).forEachTransition((transition, successor) -> transitions[0]++);
+        assertTrue(transitions[0] <= MAX_FAN_OUT);
+        Shape last = shapes.get(KEYS - 1);
+        assertSame(last, emptyShape.defineProperty("key" + (KEYS - 1), KEYS - 1, 0));
+
+        // The oldest transitions were evicted.
+        assertNotSame(first, emptyShape.defineProperty("key0", 0, 0));
+
+        // Successors of a shape with a megamorphic fan-out still share their transitions.
+        Shape ab = last.defineProperty("a", 1, 0).defineProperty("b", 2, 0);
+        assertSame(ab, last.defineProperty("a", 1, 0).defineProperty("b", 2, 0));
+    }
+
+    @Test
+    public void testObsoleteShapeTransitions() {
+        Shape emptyShape = LAYOUT.createShape(new ObjectType());
+        Shape a = emptyShape.defineProperty("a", 1, 0);
+        Shape ab = a.defineProperty("b", 2, 0);
+        assertSame(ab, a.defineProperty("b", 2, 0));
+
+        ((ShapeImpl) a).invalidateValidAssumption();
+        ((ShapeImpl) a).forEachTransition((transition, successor) -> {
+            throw new AssertionError("obsolete shape should not have transitions: " + transition);
+        });
+    }
+}
@@ -70,6 +70,12 @@ public final class ObjectStorageOptions {
 
     static final boolean TriePropertyMap = booleanOption(OPTION_PREFIX + "TriePropertyMap", true);
 
+    /**
+     * Maximum number of cached transitions per shape. Adding a transition to a full transition map
+     * evicts the oldest entry.
+     */
+    static final int MaxTransitionFanOut = Integer.getInteger(OPTION_PREFIX + "MaxTransitionFanOut", 256);
+
     // Debug options (should be final)
     /** @since 0.17 or earlier */
     public static final boolean TraceReshape = booleanOption(OPTION_PREFIX + "TraceReshape", false);
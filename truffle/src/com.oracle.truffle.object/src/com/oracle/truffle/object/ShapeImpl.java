@@ -334,6 +334,11 @@ public abstract class ShapeImpl extends Shape {
     }
 
     private void addTransitionInternal(Transition transition, ShapeImpl successor) {
+        if (!isTransitionCacheEnabled()) {
+            invalidateLeafAssumption();
+            shapeCacheSkipped.inc();
+            return;
+        }
         Object prev;
         Object next;
         do {
@@ -351,6 +356,15 @@ public abstract class ShapeImpl extends Shape {
                     next = newSingleEntry(transition, successor);
                 }
             } else {
+                TransitionMap<Transition, ShapeImpl> map = asTransitionMap(prev);
+                if (map.size() >= ObjectStorageOptions.MaxTransitionFanOut && map.get(transition) == null) {
+                    /*
+                     * Megamorphic transition fan-out. Evict the oldest entry, so that the map
+                     * stays bounded while recently used transitions are still shared.
+                     */
+                    map.removeOldest();
+                    shapeCacheEvicted.inc();
+                }
                 next = addToTransitionMap(transition, successor, prev);
             }
             if (prev == next) {
@@ -359,6 +373,39 @@ public abstract class ShapeImpl extends Shape {
         } while (!TRANSITION_MAP_UPDATER.compareAndSet(this, prev, next));
     }
 
+    /**
+     * Returns {@code true} if transitions from this shape are added to its transition map. Caching
+     * is disabled for obsolete shapes, since objects are migrated away from them anyway.
+     */
+    final boolean isTransitionCacheEnabled() {
+        return isValid();
+    }
+
+    /**
+     * Returns {@code true} if the transition map of this shape has reached the fan-out limit. Adding
+     * another transition evicts the oldest one. Since the map references its successors weakly,
+     * objects with arbitrary property keys cannot grow the shape tree without bounds.
+     *
+     * @see ObjectStorageOptions#MaxTransitionFanOut
+     */
+    final boolean hasMegamorphicTransitions() {
+        Object trans = transitionMap;
+        return isTransitionMap(trans) && asTransitionMap(trans).size() >= ObjectStorageOptions.MaxTransitionFanOut;
+    }
+
+    private void clearTransitions() {
+        Object prev;
+        do {
+            prev = TRANSITION_MAP_UPDATER.get(this);
+            if (prev == null) {
+                break;
+            }
+        } while (!TRANSITION_MAP_UPDATER.compareAndSet(this, prev, null));
+        if (prev != null) {
+            shapeCacheCollapsed.inc();
+        }
+    }
+
     private static Object newTransitionMap(Transition firstTransition, ShapeImpl firstShape, Transition secondTransition, ShapeImpl secondShape) {
         Map<Transition, ShapeImpl> map = newTransitionMap();
         map.put(firstTransition, firstShape);
@@ -368,7 +415,7 @@ public abstract class ShapeImpl extends Shape {
 
     private static Object addToTransitionMap(Transition transition, ShapeImpl successor, Object prevMap) {
         assert isTransitionMap(prevMap);
-        Map<Transition, ShapeImpl> map = asTransitionMap(prevMap);
+        TransitionMap<Transition, ShapeImpl> map = asTransitionMap(prevMap);
         map.put(transition, successor);
         return map;
     }
@@ -378,8 +425,8 @@ public abstract class ShapeImpl extends Shape {
     }
 
     @SuppressWarnings("unchecked")
-    private static Map<Transition, ShapeImpl> asTransitionMap(Object map) {
-        return (Map<Transition, ShapeImpl>) map;
+    private static TransitionMap<Transition, ShapeImpl> asTransitionMap(Object map) {
+        return (TransitionMap<Transition, ShapeImpl>) map;
     }
 
     private static boolean isTransitionMap(Object trans) {
@@ -699,9 +746,16 @@ public abstract class ShapeImpl extends Shape {
         return Truffle.getRuntime().createAssumption("valid shape");
     }
 
-    /** @since 0.17 or earlier */
+    /**
+     * Marks this shape as obsolete. The transitions of an obsolete shape are no longer needed since
+     * its objects are migrated to a valid shape, so they are dropped to allow the obsolete subtree to
+     * be collected.
+     *
+     * @since 0.17 or earlier
+     */
     public final void invalidateValidAssumption() {
         getValidAssumption().invalidate();
+        clearTransitions();
     }
 
     /** @since 0.17 or earlier */
@@ -1301,5 +1355,8 @@ public abstract class ShapeImpl extends Shape {
     private static final DebugCounter shapeCacheHitCount = DebugCounter.create("Shape cache hits");
     private static final DebugCounter shapeCacheMissCount = DebugCounter.create("Shape cache misses");
     static final DebugCounter shapeCacheExpunged = DebugCounter.create("Shape cache expunged");
+    private static final DebugCounter shapeCacheSkipped = DebugCounter.create("Shape cache skipped");
+    private static final DebugCounter shapeCacheEvicted = DebugCounter.create("Shape cache evicted");
+    private static final DebugCounter shapeCacheCollapsed = DebugCounter.create("Shape cache collapsed");
 
 }
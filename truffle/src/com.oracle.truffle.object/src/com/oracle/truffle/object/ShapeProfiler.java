@@ -42,12 +42,17 @@ package com.oracle.truffle.object;
 
 import java.io.PrintWriter;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
 
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Shape;
@@ -75,6 +80,35 @@ class ShapeProfiler {
         }
 
         globalStats.dump(out);
+        dumpShapeTrees(out);
+    }
+
+    /**
+     * Dumps the number of shapes and their approximate memory usage per root shape, i.e., per
+     * layout and object type. Counts both the shapes reachable via cached transitions and the
+     * (possibly evicted) shapes of the tracked objects and their ancestors.
+     */
+    public void dumpShapeTrees(PrintWriter out) {
+        Map<Shape, ShapeTreeStats> rootMap = new IdentityHashMap<>();
+        for (DynamicObject obj : queue) {
+            ShapeImpl shape = (ShapeImpl) obj.getShape();
+            ShapeTreeStats stats = rootMap.get(shape.getRoot());
+            if (stats == null) {
+                rootMap.put(shape.getRoot(), stats = new ShapeTreeStats(createLabel(shape.getRoot()) + " " + shape.getObjectType()));
+                stats.profileTree(shape.getRoot());
+            }
+            stats.profileLive(shape);
+        }
+
+        List<ShapeTreeStats> allStats = new ArrayList<>(rootMap.values());
+        Collections.sort(allStats, new Comparator<ShapeTreeStats>() {
+            public int compare(ShapeTreeStats a, ShapeTreeStats b) {
+                return Long.compare(b.estimatedSize(), a.estimatedSize());
+            }
+        });
+        for (ShapeTreeStats stats : allStats) {
+            stats.dump(out);
+        }
     }
 
     public void dump(PrintWriter out, int topResults) {
@@ -116,6 +150,87 @@ class ShapeProfiler {
         return label.substring(label.indexOf('{') + 1, label.lastIndexOf('}'));
     }
 
+    private static class ShapeTreeStats {
+        /** Approximate size of a shape, its assumptions and property map node. */
+        private static final long SHAPE_SIZE_ESTIMATE = 192;
+        /** Approximate size of a transition map entry and its transition. */
+        private static final long TRANSITION_SIZE_ESTIMATE = 64;
+
+        private final String label;
+        private final Set<ShapeImpl> shapes = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<ShapeImpl> liveShapes = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long transitions;
+        private long megamorphicShapes;
+        private long invalidShapes;
+        private long maxFanOut;
+
+        ShapeTreeStats(String label) {
+            this.label = label;
+        }
+
+        void profileTree(ShapeImpl root) {
+            Deque<ShapeImpl> worklist = new ArrayDeque<>();
+            worklist.add(root);
+            while (!worklist.isEmpty()) {
+                ShapeImpl shape = worklist.pop();
+                if (!add(shape)) {
+                    continue;
+                }
+                long before = transitions;
+                shape.forEachTransition(new BiConsumer<Transition, ShapeImpl>() {
+                    public void accept(Transition transition, ShapeImpl successor) {
+                        transitions++;
+                        worklist.push(successor);
+                    }
+                });
+                maxFanOut = Math.max(maxFanOut, transitions - before);
+            }
+        }
+
+        void profileLive(ShapeImpl shape) {
+            if (!liveShapes.add(shape)) {
+                return;
+            }
+            for (ShapeImpl current = shape; current != null; current = current.getParent()) {
+                if (!add(current)) {
+                    break;
+                }
+            }
+        }
+
+        private boolean add(ShapeImpl shape) {
+            if (!shapes.add(shape)) {
+                return false;
+            }
+            if (shape.hasMegamorphicTransitions()) {
+                megamorphicShapes++;
+            }
+            if (!shape.isValid()) {
+                invalidShapes++;
+            }
+            return true;
+        }
+
+        long estimatedSize() {
+            return shapes.size() * SHAPE_SIZE_ESTIMATE + transitions * TRANSITION_SIZE_ESTIMATE;
+        }
+
+        void dump(PrintWriter out) {
+            out.println(LINE_SEPARATOR);
+            out.println(BULLET + "Shape tree of root {" + label + "}");
+            out.println(LINE_SEPARATOR);
+            out.println(BULLET + "Shapes:\t" + shapes.size());
+            out.println(BULLET + "Shapes of live objects:\t" + liveShapes.size());
+            out.println(BULLET + "Shapes with megamorphic transitions:\t" + megamorphicShapes);
+            out.println(BULLET + "Invalid shapes:\t" + invalidShapes);
+            out.println(BULLET + "Cached transitions:\t" + transitions);
+            out.println(BULLET + "Maximum transition fan-out:\t" + maxFanOut);
+            out.println(BULLET + "Estimated size (bytes):\t" + estimatedSize());
+            out.println(LINE_SEPARATOR + "\n");
+            out.flush();
+        }
+    }
+
     private static class ShapeStats {
         private String label;
         private long objects;
@@ -52,7 +52,7 @@ import org.graalvm.collections.MapCursor;
 
 /**
  * A synchronized hash map with weakly referenced values. Cleared value references are expunged only
- * when the map is mutated.
+ * when the map is mutated or its size is queried.
  */
 final class TransitionMap<K, V> implements Map<K, V> {
     private final EconomicMap<K, StrongKeyWeakValueEntry<K, V>> map;
@@ -97,6 +97,18 @@ final class TransitionMap<K, V> implements Map<K, V> {
         }
     }
 
+    /**
+     * Removes the entry that was added first, if any.
+     */
+    void removeOldest() {
+        synchronized (queue) {
+            MapCursor<K, StrongKeyWeakValueEntry<K, V>> cursor = map.getEntries();
+            if (cursor.advance()) {
+                cursor.remove();
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private void expungeStaleEntries() {
         for (Reference<? extends V> x; (x = queue.poll()) != null;) {
@@ -133,7 +145,10 @@ final class TransitionMap<K, V> implements Map<K, V> {
 
     @Override
     public int size() {
-        throw new UnsupportedOperationException();
+        synchronized (queue) {
+            expungeStaleEntries();
+            return map.size();
+        }
     }
 
     @Override
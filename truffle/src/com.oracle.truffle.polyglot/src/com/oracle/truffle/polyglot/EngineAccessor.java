@@ -172,6 +172,11 @@ final class EngineAccessor extends Accessor {
         super.onEngineClosed(runtimeData);
     }
 
+    @Override
+    protected void onContextClosed(Object runtimeData, Object context) {
+        super.onContextClosed(runtimeData, context);
+    }
+
     @Override
     protected CastUnsafe getCastUnsafe() {
         return super.getCastUnsafe();
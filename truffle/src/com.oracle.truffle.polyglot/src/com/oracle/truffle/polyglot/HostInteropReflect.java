@@ -451,7 +451,11 @@ final class FunctionProxyHandler implements InvocationHandler, HostWrapper {
         CompilerAsserts.neverPartOfCompilation();
         Object[] resolvedArguments = arguments == null ? HostInteropReflect.EMPTY : arguments;
         if (method.equals(functionMethod)) {
-            return target.call(languageContext, functionObj, spreadVarArgsArray(resolvedArguments));
+            Object[] callArguments = spreadVarArgsArray(resolvedArguments);
+            if (functionMethod.getReturnType() == void.class && languageContext.context.deferCallback(() -> target.call(languageContext, functionObj, callArguments))) {
+                return null;
+            }
+            return target.call(languageContext, functionObj, callArguments);
         } else {
             return invokeDefault(this, proxy, method, resolvedArguments);
         }
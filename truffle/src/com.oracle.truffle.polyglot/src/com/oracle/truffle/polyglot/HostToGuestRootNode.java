@@ -104,6 +104,9 @@ abstract class HostToGuestRootNode extends RootNode {
         } finally {
             if (needsEnter) {
                 engine.leave(prev, context);
+                if (engine.asyncHostCallbacks) {
+                    context.runDeferredCallbacks();
+                }
             }
         }
     }
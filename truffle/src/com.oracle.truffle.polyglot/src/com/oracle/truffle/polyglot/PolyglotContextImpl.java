@@ -53,12 +53,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Queue;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -160,6 +161,7 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
     private final Map<Thread, PolyglotThreadInfo> threads = new WeakHashMap<>();
 
     private volatile PolyglotThreadInfo currentThreadInfo = PolyglotThreadInfo.NULL;
+    private final Queue<Runnable> deferredCallbacks = new ConcurrentLinkedQueue<>();
     @CompilationFinal private volatile PolyglotThreadInfo constantCurrentThreadInfo = PolyglotThreadInfo.NULL;
 
     /*
@@ -431,23 +433,30 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
         Object prev = engine.enter(this);
         PolyglotThreadInfo current = getCurrentThreadInfo();
         assert current.getThread() == Thread.currentThread();
-        current.explicitContextStack.addLast(prev);
+        current.pushExplicitContext(prev);
     }
 
     @Override
-    public synchronized void explicitLeave(Context sourceContext) {
+    public void explicitLeave(Context sourceContext) {
+        if (explicitLeaveImpl(sourceContext) && engine.asyncHostCallbacks) {
+            // callbacks deferred while the context was entered run outside of the context lock
+            runDeferredCallbacks();
+        }
+    }
+
+    private synchronized boolean explicitLeaveImpl(Context sourceContext) {
         if (closed || closingThread == Thread.currentThread()) {
             // explicit leaves if already closed are allowed.
             // as close may automatically leave the context on threads.
-            return;
+            return false;
         }
         checkCreatorAccess(sourceContext, "left");
         PolyglotThreadInfo current = getCurrentThreadInfo();
-        LinkedList<Object> stack = current.explicitContextStack;
-        if (stack.isEmpty() || current.getThread() == null) {
+        if (!current.hasExplicitContext() || current.getThread() == null) {
             throw new IllegalStateException("The context is not entered explicity. A context can only be left if it was previously entered.");
         }
-        engine.leave(stack.removeLast(), this);
+        engine.leave(current.popExplicitContext(), this);
+        return true;
     }
 
     private void checkCreatorAccess(Context context, String operation) {
@@ -982,6 +991,96 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
         return getFirstActiveOtherThread(includePolyglotThreads) != null;
     }
 
+    /**
+     * Defers a callback from host code into guest code if the current thread cannot enter this
+     * context because another thread is active in it and one of the initialized languages does
+     * not allow multi-threaded access. The callback is run by the active thread the next time it
+     * returns from guest code to the host. Returns <code>false</code> if the callback should be
+     * run by the current thread.
+     */
+    boolean deferCallback(Runnable callback) {
+        if (!engine.asyncHostCallbacks) {
+            return false;
+        }
+        synchronized (this) {
+            if (closed || invalid || cancelling || closingThread != null || !isSingleThreaded() || !hasActiveOtherThread(false)) {
+                return false;
+            }
+            Thread current = Thread.currentThread();
+            boolean multiThreadingDenied = false;
+            for (PolyglotLanguageContext context : contexts) {
+                if (context.isInitialized() && !LANGUAGE.isThreadAccessAllowed(context.env, current, false)) {
+                    multiThreadingDenied = true;
+                    break;
+                }
+            }
+            if (!multiThreadingDenied) {
+                return false;
+            }
+            deferredCallbacks.add(callback);
+            return true;
+        }
+    }
+
+    /**
+     * Runs the callbacks that were deferred while the current thread was active. Called after the
+     * current thread returned from guest code to the host.
+     */
+    @TruffleBoundary
+    void runDeferredCallbacks() {
+        Runnable callback;
+        while ((callback = pollDeferredCallback()) != null) {
+            try {
+                callback.run();
+            } catch (Throwable t) {
+                if (closed || invalid) {
+                    discardDeferredCallbacks("the context was closed");
+                    return;
+                }
+                LOG.log(Level.WARNING, "Deferred host callback failed.", t);
+            }
+        }
+    }
+
+    /**
+     * Runs the remaining deferred callbacks before the context is closed. The closing thread is
+     * entered and no other thread is active at this point. If the context is cancelled the
+     * callbacks cannot run anymore and are discarded with a warning.
+     */
+    private void runDeferredCallbacksOnClose(boolean cancelIfExecuting) {
+        if (cancelIfExecuting) {
+            discardDeferredCallbacks("the context was cancelled");
+            return;
+        }
+        Runnable callback;
+        while ((callback = deferredCallbacks.poll()) != null) {
+            try {
+                callback.run();
+            } catch (Throwable t) {
+                LOG.log(Level.WARNING, "Deferred host callback failed.", t);
+            }
+        }
+    }
+
+    private void discardDeferredCallbacks(String reason) {
+        int discarded = 0;
+        while (deferredCallbacks.poll() != null) {
+            discarded++;
+        }
+        if (discarded > 0) {
+            LOG.log(Level.WARNING, "Discarded {0} deferred host callbacks because {1}.", new Object[]{discarded, reason});
+        }
+    }
+
+    private synchronized Runnable pollDeferredCallback() {
+        PolyglotThreadInfo info = threads.get(Thread.currentThread());
+        if ((info != null && info.isActive()) || hasActiveOtherThread(false)) {
+            // the active thread runs the remaining callbacks when it leaves
+            return null;
+        }
+        return deferredCallbacks.poll();
+    }
+
     synchronized void notifyThreadClosed() {
         PolyglotThreadInfo currentTInfo = getCurrentThreadInfo();
         if (currentTInfo != PolyglotThreadInfo.NULL) {
@@ -1056,14 +1155,11 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
                     return false;
                 }
                 closingThread = Thread.currentThread();
-                if (!threadInfo.explicitContextStack.isEmpty()) {
-                    PolyglotContextImpl c = this;
-                    while (!threadInfo.explicitContextStack.isEmpty()) {
-                        Object prev = threadInfo.explicitContextStack.removeLast();
-                        engine.leave(prev, c);
-                        c = (PolyglotContextImpl) prev;
-                    }
-                    threadInfo.explicitContextStack.clear();
+                PolyglotContextImpl c = this;
+                while (threadInfo.hasExplicitContext()) {
+                    Object prev = threadInfo.popExplicitContext();
+                    engine.leave(prev, c);
+                    c = (PolyglotContextImpl) prev;
                 }
                 closingLock.lock();
 
@@ -1085,6 +1181,9 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
             assert !closed;
             Object prev = engine.enter(this);
             try {
+                if (engine.asyncHostCallbacks) {
+                    runDeferredCallbacksOnClose(cancelIfExecuting);
+                }
                 closeChildContexts(cancelIfExecuting, waitForPolyglotThreads, notifyInstruments);
 
                 finalizeContext(notifyInstruments);
@@ -1133,6 +1232,10 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
                 }
             } else if (notifyInstruments) {
                 engine.removeContext(this);
+                Object runtimeData = engine.runtimeData;
+                if (runtimeData != null) {
+                    EngineAccessor.ACCESSOR.onContextClosed(runtimeData, this);
+                }
             }
 
             if (notifyInstruments) {
@@ -1400,6 +1503,45 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
         }
     }
 
+    synchronized long getBytesAllocated() {
+        long bytesAllocated = 0;
+        Collection<PolyglotThreadInfo> polyglotThreads = getSeenThreads().values();
+        for (PolyglotThreadInfo threadInfo : polyglotThreads) {
+            bytesAllocated += threadInfo.getBytesAllocated();
+        }
+        return bytesAllocated;
+    }
+
+    /**
+     * Returns the objects the retained heap of this context is estimated from: the contexts of the
+     * initialized guest languages and the values of the polyglot bindings.
+     */
+    synchronized List<Object> getRetainedHeapRoots() {
+        List<Object> roots = new ArrayList<>();
+        for (PolyglotLanguageContext context : contexts) {
+            if (context.isInitialized() && !context.language.isHost()) {
+                Object contextImpl = context.getContextImpl();
+                if (contextImpl != null) {
+                    roots.add(contextImpl);
+                }
+            }
+        }
+        Map<String, Value> bindings = this.polyglotBindings;
+        if (bindings != null) {
+            for (Value value : bindings.values()) {
+                roots.add(getAPIAccess().getReceiver(value));
+            }
+        }
+        return roots;
+    }
+
+    synchronized void resetAllocations() {
+        Collection<PolyglotThreadInfo> polyglotThreads = getSeenThreads().values();
+        for (PolyglotThreadInfo threadInfo : polyglotThreads) {
+            threadInfo.resetAllocations();
+        }
+    }
+
     PolyglotThreadInfo getCachedThreadInfo(boolean isConstant) {
         return isConstant ? constantCurrentThreadInfo : currentThreadInfo;
     }
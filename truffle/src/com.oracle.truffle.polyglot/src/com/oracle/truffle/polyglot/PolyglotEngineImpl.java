@@ -162,6 +162,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
     final Assumption singleThreadPerContext = Truffle.getRuntime().createAssumption("Single thread per context of an engine.");
     final Assumption noInnerContexts = Truffle.getRuntime().createAssumption("No inner contexts.");
     final Assumption noThreadTimingNeeded = Truffle.getRuntime().createAssumption("No enter timing needed.");
+    final Assumption noThreadAllocationTrackingNeeded = Truffle.getRuntime().createAssumption("No enter allocation tracking needed.");
     final Assumption noPriorityChangeNeeded = Truffle.getRuntime().createAssumption("No priority change needed.");
 
     volatile OptionDescriptors allOptions;
@@ -179,6 +180,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
     final int contextLength;
     private volatile EngineLimits limits;
     final boolean conservativeContextReferences;
+    final boolean asyncHostCallbacks;
     private final MessageTransport messageInterceptor;
 
     PolyglotEngineImpl(PolyglotImpl impl, DispatchOutputStream out, DispatchOutputStream err, InputStream in, Map<String, String> options,
@@ -254,6 +256,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
 
         this.engineOptionValues.putAll(originalEngineOptions, allowExperimentalOptions);
         this.conservativeContextReferences = engineOptionValues.get(PolyglotEngineOptions.UseConservativeContextReferences);
+        this.asyncHostCallbacks = engineOptionValues.get(PolyglotEngineOptions.AsyncHostCallbacks);
 
         for (PolyglotLanguage language : languagesOptions.keySet()) {
             language.getOptionValues().putAll(languagesOptions.get(language), allowExperimentalOptions);
@@ -331,6 +334,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
 
         prototype.engineOptionValues.copyInto(this.engineOptionValues);
         this.conservativeContextReferences = engineOptionValues.get(PolyglotEngineOptions.UseConservativeContextReferences);
+        this.asyncHostCallbacks = engineOptionValues.get(PolyglotEngineOptions.AsyncHostCallbacks);
 
         for (String languageId : idToLanguage.keySet()) {
             OptionValuesImpl prototypeOptions = prototype.idToLanguage.get(languageId).getOptionValuesIfExists();
@@ -1010,6 +1014,9 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
                 }
                 ENGINES.remove(this);
                 closed = true;
+                if (engineOptionValues.get(PolyglotEngineOptions.TraceCodeSharing)) {
+                    printCodeSharingStatistics();
+                }
                 for (PolyglotLanguage language : idToLanguage.values()) {
                     language.close();
                 }
@@ -1023,6 +1030,14 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
         }
     }
 
+    private void printCodeSharingStatistics() {
+        PrintStream out = new PrintStream(INSTRUMENT.getOut(err));
+        for (PolyglotLanguage language : idToLanguage.values()) {
+            language.sourceCacheStatistics.print(out, language.getId());
+        }
+        out.flush();
+    }
+
     List<PolyglotContextImpl> collectAliveContexts() {
         Thread.holdsLock(this);
         List<PolyglotContextImpl> localContexts = new ArrayList<>(contexts.size());
@@ -1531,6 +1546,9 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
     void leaveIfNeeded(Object prev, PolyglotContextImpl context) {
         if (prev != NO_ENTER) {
             leave(prev, context);
+            if (asyncHostCallbacks) {
+                context.runDeferredCallbacks();
+            }
         }
     }
 
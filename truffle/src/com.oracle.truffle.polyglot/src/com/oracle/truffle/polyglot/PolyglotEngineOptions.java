@@ -65,4 +65,12 @@ final class PolyglotEngineOptions {
                     "This allows invalid sharing between contexts. " +
                     "For testing purposes only.")//
     static final OptionKey<Boolean> UseConservativeContextReferences = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, help = "Prints how many call targets were shared through the source cache and how many were parsed more than once when the engine is closed.")//
+    static final OptionKey<Boolean> TraceCodeSharing = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Defers guest functions called back by host code through void functional interfaces " +
+                    "if another thread is active in a context that does not allow multi-threaded access. " +
+                    "Deferred callbacks are run by the active thread when it returns from guest code to the host.")//
+    static final OptionKey<Boolean> AsyncHostCallbacks = new OptionKey<>(false);
 }
@@ -128,9 +128,10 @@ public final class PolyglotImpl extends AbstractPolyglotImpl {
 
     @Override
     public Object buildLimits(long statementLimit, Predicate<org.graalvm.polyglot.Source> statementLimitSourceFilter,
-                    Duration timeLimit, Duration timeLimitAccuracy,
-                    Consumer<ResourceLimitEvent> onLimit) {
-        return new PolyglotLimits(statementLimit, statementLimitSourceFilter, timeLimit, timeLimitAccuracy, onLimit);
+                    Duration timeLimit, Duration timeLimitAccuracy, long allocationLimit, Duration allocationLimitAccuracy,
+                    long retainedHeapLimit, Duration retainedHeapLimitAccuracy, Consumer<ResourceLimitEvent> onLimit) {
+        return new PolyglotLimits(statementLimit, statementLimitSourceFilter, timeLimit, timeLimitAccuracy, allocationLimit, allocationLimitAccuracy,
+                        retainedHeapLimit, retainedHeapLimitAccuracy, onLimit);
     }
 
     /**
@@ -83,6 +83,7 @@ final class PolyglotLanguage extends AbstractLanguageImpl implements com.oracle.
     private final LinkedList<PolyglotLanguageInstance> instancePool;
 
     final ContextProfile profile;
+    final PolyglotSourceCache.SharingStatistics sourceCacheStatistics = new PolyglotSourceCache.SharingStatistics();
     private final LanguageReference<TruffleLanguage<Object>> multiLanguageReference;
     private final LanguageReference<TruffleLanguage<Object>> singleOrMultiLanguageReference;
     private final ContextReference<Object> multiContextReference;
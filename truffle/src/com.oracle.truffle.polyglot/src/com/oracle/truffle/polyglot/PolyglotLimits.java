@@ -90,13 +90,22 @@ final class PolyglotLimits {
     final Predicate<Source> statementLimitSourcePredicate;
     final Duration timeLimit;
     final Duration timeAccuracy;
+    final long allocationLimit;
+    final Duration allocationAccuracy;
+    final long retainedHeapLimit;
+    final Duration retainedHeapAccuracy;
     final Consumer<ResourceLimitEvent> onEvent;
 
-    PolyglotLimits(long statementLimit, Predicate<Source> statementLimitSourcePredicate, Duration timeLimit, Duration timeAccuracy, Consumer<ResourceLimitEvent> onEvent) {
+    PolyglotLimits(long statementLimit, Predicate<Source> statementLimitSourcePredicate, Duration timeLimit, Duration timeAccuracy, long allocationLimit, Duration allocationAccuracy,
+                    long retainedHeapLimit, Duration retainedHeapAccuracy, Consumer<ResourceLimitEvent> onEvent) {
         this.statementLimit = statementLimit;
         this.statementLimitSourcePredicate = statementLimitSourcePredicate;
         this.timeLimit = timeLimit;
         this.timeAccuracy = timeAccuracy;
+        this.allocationLimit = allocationLimit;
+        this.allocationAccuracy = allocationAccuracy;
+        this.retainedHeapLimit = retainedHeapLimit;
+        this.retainedHeapAccuracy = retainedHeapAccuracy;
         this.onEvent = onEvent;
     }
 
@@ -106,6 +115,9 @@ final class PolyglotLimits {
             if (limits != null && limits.timeLimit != null) {
                 context.resetTiming();
             }
+            if (limits != null && limits.allocationLimit != 0) {
+                context.resetAllocations();
+            }
             context.statementCounter = context.statementLimit;
             context.volatileStatementCounter.set(context.statementLimit);
         }
@@ -224,21 +236,28 @@ final class PolyglotLimits {
 
     }
 
-    static final class TimeLimitChecker extends TimerTask {
+    /**
+     * Regularly samples a resource of a context and cancels the context when its limit is exceeded.
+     */
+    abstract static class LimitChecker extends TimerTask {
 
         private final WeakReference<PolyglotContextImpl> context;
-        private final long timeLimitNS;
         private final EngineLimits limits;
         private FutureTask<?> cancelResult;
 
-        TimeLimitChecker(PolyglotContextImpl context, EngineLimits limits) {
+        LimitChecker(PolyglotContextImpl context, EngineLimits limits) {
             this.context = new WeakReference<>(context);
-            this.timeLimitNS = context.config.limits.timeLimit.toNanos();
             this.limits = limits;
         }
 
+        /**
+         * Returns the cancellation message if the limit of the context is exceeded, otherwise
+         * <code>null</code>.
+         */
+        abstract String checkLimit(PolyglotContextImpl c);
+
         @Override
-        public void run() {
+        public final void run() {
             PolyglotContextImpl c = this.context.get();
             if (cancelResult != null) {
                 if (cancelResult.isDone()) {
@@ -253,12 +272,9 @@ final class PolyglotLimits {
                 cancel();
                 return;
             }
-            long timeActiveNS = c.getTimeActive();
-            if (timeActiveNS > timeLimitNS) {
-                if (!c.invalid) {
-                    String message = String.format("Time resource limit of %sms exceeded. Time executed %sms.",
-                                    c.config.limits.timeLimit.toMillis(),
-                                    Duration.ofNanos(timeActiveNS).toMillis());
+            if (!c.invalid) {
+                String message = checkLimit(c);
+                if (message != null) {
                     boolean invalidated = c.invalidate(message);
                     /*
                      * We immediately set the context invalid so it can no longer be entered. The
@@ -282,6 +298,82 @@ final class PolyglotLimits {
         }
     }
 
+    static final class TimeLimitChecker extends LimitChecker {
+
+        private final long timeLimitNS;
+
+        TimeLimitChecker(PolyglotContextImpl context, EngineLimits limits) {
+            super(context, limits);
+            this.timeLimitNS = context.config.limits.timeLimit.toNanos();
+        }
+
+        @Override
+        String checkLimit(PolyglotContextImpl c) {
+            long timeActiveNS = c.getTimeActive();
+            if (timeActiveNS > timeLimitNS) {
+                return String.format("Time resource limit of %sms exceeded. Time executed %sms.",
+                                c.config.limits.timeLimit.toMillis(),
+                                Duration.ofNanos(timeActiveNS).toMillis());
+            }
+            return null;
+        }
+    }
+
+    static final class AllocationLimitChecker extends LimitChecker {
+
+        private final long allocationLimit;
+
+        AllocationLimitChecker(PolyglotContextImpl context, EngineLimits limits) {
+            super(context, limits);
+            this.allocationLimit = context.config.limits.allocationLimit;
+        }
+
+        @Override
+        String checkLimit(PolyglotContextImpl c) {
+            long bytesAllocated = c.getBytesAllocated();
+            if (bytesAllocated > allocationLimit) {
+                return String.format("Allocation resource limit of %s bytes exceeded. Bytes allocated %s.",
+                                allocationLimit, bytesAllocated);
+            }
+            return null;
+        }
+    }
+
+    static final class RetainedHeapLimitChecker extends LimitChecker {
+
+        /*
+         * Number of objects visited per run of the checker. Bounds the time the checker thread
+         * spends per run independent of the size of the heap of the context.
+         */
+        private static final int OBJECTS_PER_RUN = 50_000;
+
+        private final long retainedHeapLimit;
+        private RetainedHeapEstimate estimate;
+
+        RetainedHeapLimitChecker(PolyglotContextImpl context, EngineLimits limits) {
+            super(context, limits);
+            this.retainedHeapLimit = context.config.limits.retainedHeapLimit;
+        }
+
+        @Override
+        String checkLimit(PolyglotContextImpl c) {
+            if (estimate == null) {
+                estimate = new RetainedHeapEstimate(c.getRetainedHeapRoots());
+            }
+            boolean complete = estimate.step(OBJECTS_PER_RUN);
+            // the bytes of an incomplete walk are a lower bound of the retained heap
+            long retainedBytes = estimate.getRetainedBytes();
+            if (complete) {
+                estimate = null;
+            }
+            if (retainedBytes > retainedHeapLimit) {
+                return String.format("Retained heap resource limit of %s bytes exceeded. Bytes retained %s.",
+                                retainedHeapLimit, retainedBytes);
+            }
+            return null;
+        }
+    }
+
     /**
      * Resource limit related data for each engine. Lazily constructed.
      */
@@ -335,6 +427,27 @@ final class PolyglotLimits {
                     throw new UnsupportedOperationException("ThreadMXBean.getCurrentThreadCpuTime() is not supported or enabled by the host VM but required for time limits.", cause);
                 }
             }
+
+            if (limits != null && limits.allocationLimit != 0) {
+                long allocated = -1;
+                RuntimeException cause = null;
+                if (!TruffleOptions.AOT) {
+                    try {
+                        PolyglotThreadInfo.enableThreadAllocatedMemory();
+                        allocated = PolyglotThreadInfo.getCurrentThreadAllocatedBytes();
+                    } catch (UnsupportedOperationException e) {
+                        // fallthrough not supported
+                        cause = e;
+                    }
+                }
+                if (allocated == -1) {
+                    throw new UnsupportedOperationException("ThreadMXBean.getThreadAllocatedBytes() is not supported or enabled by the host VM but required for allocation limits.", cause);
+                }
+            }
+
+            if (limits != null && limits.retainedHeapLimit != 0 && TruffleOptions.AOT) {
+                throw new UnsupportedOperationException("Retained heap limits are not supported in native images.");
+            }
         }
 
         void initialize(PolyglotLimits limits, PolyglotContextImpl context) {
@@ -389,6 +502,17 @@ final class PolyglotLimits {
                 long accuracy = Math.max(10, limits.timeAccuracy.toMillis());
                 getLimitTimer().scheduleAtFixedRate(task, accuracy, accuracy, TimeUnit.MILLISECONDS);
             }
+            if (limits.allocationLimit != 0) {
+                engine.noThreadAllocationTrackingNeeded.invalidate();
+                AllocationLimitChecker task = new AllocationLimitChecker(context, this);
+                long accuracy = Math.max(10, limits.allocationAccuracy.toMillis());
+                getLimitTimer().scheduleAtFixedRate(task, accuracy, accuracy, TimeUnit.MILLISECONDS);
+            }
+            if (limits.retainedHeapLimit != 0) {
+                RetainedHeapLimitChecker task = new RetainedHeapLimitChecker(context, this);
+                long accuracy = Math.max(10, limits.retainedHeapAccuracy.toMillis());
+                getLimitTimer().scheduleAtFixedRate(task, accuracy, accuracy, TimeUnit.MILLISECONDS);
+            }
 
             reset(context);
         }
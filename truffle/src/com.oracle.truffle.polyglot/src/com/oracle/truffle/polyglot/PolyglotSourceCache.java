@@ -44,10 +44,15 @@ import static com.oracle.truffle.polyglot.EngineAccessor.LANGUAGE;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.source.Source;
@@ -56,9 +61,11 @@ final class PolyglotSourceCache {
 
     private final ConcurrentHashMap<Object, CallTarget> sourceCache;
     private final ReferenceQueue<Source> deadSources = new ReferenceQueue<>();
+    private final SharingStatistics statistics;
 
-    PolyglotSourceCache() {
+    PolyglotSourceCache(SharingStatistics statistics) {
         this.sourceCache = new ConcurrentHashMap<>();
+        this.statistics = statistics;
     }
 
     CallTarget parseCached(PolyglotLanguageContext context, Source source, String[] argumentNames) {
@@ -77,10 +84,16 @@ final class PolyglotSourceCache {
                      * Parsed twice -> discard the one not in the cache.
                      */
                     target = prev;
+                    statistics.duplicated.incrementAndGet();
+                } else {
+                    statistics.onParsed(ref);
                 }
+            } else {
+                statistics.shared.incrementAndGet();
             }
         } else {
             target = parseImpl(context, argumentNames, source);
+            statistics.uncached.incrementAndGet();
         }
         return target;
     }
@@ -169,6 +182,37 @@ final class PolyglotSourceCache {
         }
     }
 
+    /**
+     * Code sharing statistics of all source caches of a language in an engine. A call target is
+     * counted as shared if it was taken from the cache instead of parsing the source again, and as
+     * duplicated if the same source was parsed more than once, either concurrently or by another
+     * instance of the language. Printed on engine close if
+     * {@link PolyglotEngineOptions#TraceCodeSharing} is enabled.
+     */
+    static final class SharingStatistics {
+
+        final AtomicLong parsed = new AtomicLong();
+        final AtomicLong shared = new AtomicLong();
+        final AtomicLong duplicated = new AtomicLong();
+        final AtomicLong uncached = new AtomicLong();
+        private final Map<Object, Boolean> parsedSources = Collections.synchronizedMap(new WeakHashMap<>());
+
+        void onParsed(WeakSourceKey key) {
+            parsed.incrementAndGet();
+            if (parsedSources.put(key, Boolean.TRUE) != null) {
+                duplicated.incrementAndGet();
+            }
+        }
+
+        void print(PrintStream out, String languageId) {
+            if (parsed.get() == 0 && uncached.get() == 0) {
+                return;
+            }
+            out.printf("[engine] Code sharing of language %-10s: parsed %6d | shared %6d | duplicated %6d | uncached %6d%n",
+                            languageId, parsed.get(), shared.get(), duplicated.get(), uncached.get());
+        }
+    }
+
     private static final class WeakSourceKey extends WeakReference<Source> {
 
         final Object key;
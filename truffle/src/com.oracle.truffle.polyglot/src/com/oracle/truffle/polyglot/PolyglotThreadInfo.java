@@ -44,8 +44,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
-import java.util.LinkedList;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
@@ -55,11 +54,19 @@ final class PolyglotThreadInfo {
 
     private final Reference<Thread> thread;
 
+    private static final Object[] EMPTY_STACK = new Object[0];
+
     private int enteredCount;
-    final LinkedList<Object> explicitContextStack = new LinkedList<>();
+    /*
+     * Array based stack to avoid allocating on each explicit enter. Entries may be null.
+     */
+    private Object[] explicitContextStack = EMPTY_STACK;
+    private int explicitContextStackSize;
     volatile boolean cancelled;
     private volatile long lastEntered;
     private volatile long timeExecuted;
+    private volatile long lastEnteredAllocatedBytes = -1;
+    private volatile long bytesAllocated;
     private boolean deprioritized;
 
     private static volatile ThreadMXBean threadBean;
@@ -87,6 +94,9 @@ final class PolyglotThreadInfo {
         if (!engine.noThreadTimingNeeded.isValid() && count == 1) {
             lastEntered = getTime();
         }
+        if (!engine.noThreadAllocationTrackingNeeded.isValid() && count == 1) {
+            lastEnteredAllocatedBytes = getAllocatedBytes();
+        }
 
     }
 
@@ -123,6 +133,74 @@ final class PolyglotThreadInfo {
         if (t == null) {
             return timeExecuted;
         }
+        ThreadMXBean bean = getThreadBean();
+        long time = bean.getThreadCpuTime(t.getId());
+        if (time == -1) {
+            // e.g. virtual threads do not support cpu time, fall back to elapsed time
+            return System.nanoTime();
+        }
+        return time;
+    }
+
+    void resetAllocations() {
+        if (enteredCount > 0) {
+            lastEnteredAllocatedBytes = getAllocatedBytes();
+        }
+        this.bytesAllocated = 0;
+    }
+
+    long getBytesAllocated() {
+        long totalBytes = bytesAllocated;
+        long last = this.lastEnteredAllocatedBytes;
+        if (last >= 0) {
+            totalBytes += Math.max(0, getAllocatedBytes() - last);
+        }
+        return totalBytes;
+    }
+
+    /**
+     * Returns the number of bytes allocated by this thread so far, or <code>-1</code> if the
+     * thread is no longer alive or the host VM does not support allocation tracking.
+     */
+    @TruffleBoundary
+    private long getAllocatedBytes() {
+        Thread t = getThread();
+        if (t == null) {
+            return -1;
+        }
+        ThreadMXBean bean = getThreadBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(t.getId());
+        }
+        return -1;
+    }
+
+    static long getCurrentThreadAllocatedBytes() {
+        ThreadMXBean bean = getThreadBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+        if (!allocationBean.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Enables the allocation tracking of the host VM, which is only needed for allocation limits.
+     */
+    static void enableThreadAllocatedMemory() {
+        ThreadMXBean bean = getThreadBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && !allocationBean.isThreadAllocatedMemoryEnabled()) {
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+    }
+
+    private static ThreadMXBean getThreadBean() {
         ThreadMXBean bean = threadBean;
         if (bean == null) {
             /*
@@ -131,11 +209,24 @@ final class PolyglotThreadInfo {
              */
             threadBean = bean = ManagementFactory.getThreadMXBean();
         }
-        long time = bean.getThreadCpuTime(t.getId());
-        if (time == -1) {
-            return TimeUnit.MILLISECONDS.convert(System.currentTimeMillis(), TimeUnit.NANOSECONDS);
+        return bean;
+    }
+
+    void pushExplicitContext(Object prev) {
+        if (explicitContextStackSize == explicitContextStack.length) {
+            explicitContextStack = Arrays.copyOf(explicitContextStack, Math.max(4, explicitContextStackSize * 2));
         }
-        return time;
+        explicitContextStack[explicitContextStackSize++] = prev;
+    }
+
+    Object popExplicitContext() {
+        Object prev = explicitContextStack[--explicitContextStackSize];
+        explicitContextStack[explicitContextStackSize] = null;
+        return prev;
+    }
+
+    boolean hasExplicitContext() {
+        return explicitContextStackSize > 0;
     }
 
     boolean isPolyglotThread(PolyglotContextImpl c) {
@@ -153,6 +244,14 @@ final class PolyglotThreadInfo {
             this.lastEntered = 0;
             this.timeExecuted += getTime() - last;
         }
+        if (!engine.noThreadAllocationTrackingNeeded.isValid() && count == 0) {
+            long last = this.lastEnteredAllocatedBytes;
+            this.lastEnteredAllocatedBytes = -1;
+            long current = getAllocatedBytes();
+            if (last >= 0 && current >= last) {
+                this.bytesAllocated += current - last;
+            }
+        }
         if (!engine.noPriorityChangeNeeded.isValid() && deprioritized && count == 0) {
             raisePriority();
             deprioritized = false;
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.polyglot;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * Incremental estimate of the heap memory retained by a polyglot context. Walks the objects
+ * reachable from the roots of a context in bounded steps, so that the walk of a large heap can be
+ * spread over multiple runs of a limit checker. Objects that are shared between the contexts of an
+ * engine, like ASTs, sources and languages, as well as classes and threads are neither counted nor
+ * followed.
+ *
+ * The size of an object is estimated from the kinds of its fields, assuming compressed references
+ * for heaps smaller than 32GB. Fields that cannot be made accessible are not followed. Strings, as
+ * well as JDK collections and maps with inaccessible fields are estimated from their length or
+ * traversed through their elements instead. Other collections are not traversed, because their
+ * methods may run arbitrary code on the thread that checks the limits.
+ *
+ * Visited objects are recorded by their identity hash code only, so that the estimate does not keep
+ * objects alive that the context releases while the walk is in progress. Objects with colliding
+ * hash codes are counted once, which makes the estimate slightly low for large heaps.
+ */
+final class RetainedHeapEstimate {
+
+    private static final int REFERENCE_SIZE = Runtime.getRuntime().maxMemory() < (32L << 30) ? 4 : 8;
+    private static final int OBJECT_HEADER_SIZE = REFERENCE_SIZE == 4 ? 12 : 16;
+    private static final int ARRAY_HEADER_SIZE = OBJECT_HEADER_SIZE + 4;
+    /*
+     * Per element overhead of collections whose internal structure is not accessible, e.g. the
+     * entries and table slots of a hash map.
+     */
+    private static final int COLLECTION_ELEMENT_SIZE = 32;
+
+    private static final Class<?>[] EXCLUDED_TYPES = {Class.class, ClassLoader.class, Thread.class, Node.class, CallTarget.class, TruffleLanguage.class, TruffleLanguage.Env.class,
+                    TruffleContext.class, Assumption.class, FrameDescriptor.class, FrameSlot.class, Source.class, Context.class, Engine.class, PolyglotEngineImpl.class,
+                    PolyglotContextImpl.class, PolyglotLanguage.class, PolyglotLanguageContext.class, PolyglotLanguageInstance.class, PolyglotValue.class};
+    /*
+     * Shared types of modules the polyglot implementation does not depend on.
+     */
+    private static final String[] EXCLUDED_TYPE_NAMES = {"com.oracle.truffle.api.object.Shape", "com.oracle.truffle.api.object.Layout"};
+
+    private static final ClassValue<ClassLayout> LAYOUTS = new ClassValue<ClassLayout>() {
+        @Override
+        protected ClassLayout computeValue(Class<?> type) {
+            return new ClassLayout(type);
+        }
+    };
+
+    private final IdentityHashCodeSet visited = new IdentityHashCodeSet();
+    private final ArrayDeque<Object> pending = new ArrayDeque<>();
+    private long retainedBytes;
+
+    RetainedHeapEstimate(List<Object> roots) {
+        for (Object root : roots) {
+            push(root);
+        }
+    }
+
+    /**
+     * Returns the number of bytes retained by the objects visited so far.
+     */
+    long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Visits at most the given number of objects. Returns <code>true</code> if all objects
+     * reachable from the roots were visited.
+     */
+    boolean step(int maxObjects) {
+        for (int i = 0; i < maxObjects; i++) {
+            Object object = pending.poll();
+            if (object == null) {
+                return true;
+            }
+            visit(object);
+        }
+        return pending.isEmpty();
+    }
+
+    private void visit(Object object) {
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(object);
+            if (type.getComponentType().isPrimitive()) {
+                retainedBytes += align(ARRAY_HEADER_SIZE + (long) length * primitiveSize(type.getComponentType()));
+            } else {
+                retainedBytes += align(ARRAY_HEADER_SIZE + (long) length * REFERENCE_SIZE);
+                for (Object element : (Object[]) object) {
+                    push(element);
+                }
+            }
+            return;
+        }
+        ClassLayout layout = LAYOUTS.get(type);
+        retainedBytes += layout.size;
+        for (Field field : layout.referenceFields) {
+            try {
+                push(field.get(object));
+            } catch (IllegalAccessException e) {
+                // not accessible, ignore
+            }
+        }
+        if (!layout.accessible) {
+            visitInaccessible(object);
+        }
+    }
+
+    private void visitInaccessible(Object object) {
+        if (object instanceof String) {
+            retainedBytes += align(ARRAY_HEADER_SIZE + 2L * ((String) object).length());
+            return;
+        }
+        if (object.getClass().getClassLoader() != null) {
+            // not a JDK collection, calling its methods could run guest or embedder code
+            return;
+        }
+        Object[] elements;
+        try {
+            if (object instanceof Collection<?>) {
+                elements = ((Collection<?>) object).toArray();
+            } else if (object instanceof Map<?, ?>) {
+                Map<?, ?> map = (Map<?, ?>) object;
+                Object[] keys = map.keySet().toArray();
+                Object[] values = map.values().toArray();
+                elements = new Object[keys.length + values.length];
+                System.arraycopy(keys, 0, elements, 0, keys.length);
+                System.arraycopy(values, 0, elements, keys.length, values.length);
+            } else {
+                return;
+            }
+        } catch (RuntimeException e) {
+            // concurrently modified or not supported, ignore the elements
+            return;
+        }
+        retainedBytes += (long) elements.length * COLLECTION_ELEMENT_SIZE;
+        for (Object element : elements) {
+            push(element);
+        }
+    }
+
+    private void push(Object object) {
+        if (object != null && !LAYOUTS.get(object.getClass()).excluded && visited.add(System.identityHashCode(object))) {
+            pending.push(object);
+        }
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else {
+            return 1;
+        }
+    }
+
+    private static boolean isExcluded(Class<?> type) {
+        for (Class<?> excluded : EXCLUDED_TYPES) {
+            if (excluded.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (String name : EXCLUDED_TYPE_NAMES) {
+                if (c.getName().equals(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An open addressing hash set of identity hash codes.
+     */
+    private static final class IdentityHashCodeSet {
+
+        private int[] table = new int[1024];
+        private int size;
+
+        /**
+         * Adds the hash code and returns <code>true</code> if it was not contained in the set.
+         */
+        boolean add(int identityHashCode) {
+            // 0 marks a free slot
+            int value = identityHashCode == 0 ? 1 : identityHashCode;
+            int mask = table.length - 1;
+            int index = mix(value) & mask;
+            while (table[index] != 0) {
+                if (table[index] == value) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            table[index] = value;
+            if (++size > table.length / 2) {
+                grow();
+            }
+            return true;
+        }
+
+        private void grow() {
+            int[] oldTable = table;
+            table = new int[oldTable.length * 2];
+            int mask = table.length - 1;
+            for (int value : oldTable) {
+                if (value != 0) {
+                    int index = mix(value) & mask;
+                    while (table[index] != 0) {
+                        index = (index + 1) & mask;
+                    }
+                    table[index] = value;
+                }
+            }
+        }
+
+        private static int mix(int value) {
+            int h = value * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static final class ClassLayout {
+
+        final boolean excluded;
+        final long size;
+        final Field[] referenceFields;
+        final boolean accessible;
+
+        ClassLayout(Class<?> type) {
+            this.excluded = isExcluded(type);
+            List<Field> fields = new ArrayList<>();
+            long fieldsSize = 0;
+            boolean allAccessible = true;
+            if (!excluded && !type.isArray()) {
+                for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers())) {
+                            continue;
+                        }
+                        Class<?> fieldType = field.getType();
+                        if (fieldType.isPrimitive()) {
+                            fieldsSize += primitiveSize(fieldType);
+                            continue;
+                        }
+                        fieldsSize += REFERENCE_SIZE;
+                        if (c == Reference.class) {
+                            // do not follow the referent and queues of weak references
+                            continue;
+                        }
+                        try {
+                            field.setAccessible(true);
+                            fields.add(field);
+                        } catch (RuntimeException e) {
+                            // not accessible, e.g. a field of a module that is not open
+                            allAccessible = false;
+                        }
+                    }
+                }
+            }
+            this.size = align(OBJECT_HEADER_SIZE + fieldsSize);
+            this.referenceFields = fields.toArray(new Field[fields.size()]);
+            this.accessible = allAccessible;
+        }
+    }
+}
@@ -57,10 +57,13 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -145,6 +148,7 @@ public class SLTestRunner extends ParentRunner<TestCase> {
         for (int i = 0; i < optionsList.length; i += 2) {
             options.put(optionsList[i], optionsList[i + 1]);
         }
+        final Set<String> excludes = new HashSet<>(Arrays.asList(suite.excludes()));
 
         Class<?> testCaseDirectory = c;
         if (suite.testCaseDirectory() != SLTestSuite.class) {
@@ -174,6 +178,9 @@ public class SLTestRunner extends ParentRunner<TestCase> {
                 String sourceName = sourceFile.getFileName().toString();
                 if (sourceName.endsWith(SOURCE_SUFFIX)) {
                     String baseName = sourceName.substring(0, sourceName.length() - SOURCE_SUFFIX.length());
+                    if (excludes.contains(baseName)) {
+                        return FileVisitResult.CONTINUE;
+                    }
 
                     Path inputFile = sourceFile.resolveSibling(baseName + INPUT_SUFFIX);
                     String testInput = "";
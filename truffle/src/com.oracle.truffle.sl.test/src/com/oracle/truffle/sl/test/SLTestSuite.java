@@ -70,4 +70,12 @@ public @interface SLTestSuite {
      * @since 20.0.0
      */
     String[] options() default {};
+
+    /**
+     * The base names of test cases in the {@link #value test case directory} that are not executed
+     * by this test suite.
+     *
+     * @since 20.1.0
+     */
+    String[] excludes() default {};
 }
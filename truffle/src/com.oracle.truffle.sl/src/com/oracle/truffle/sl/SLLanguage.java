@@ -47,7 +47,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import org.graalvm.options.OptionCategory;
+import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionValues;
+
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Option;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Scope;
 import com.oracle.truffle.api.Truffle;
@@ -196,15 +202,43 @@ public final class SLLanguage extends TruffleLanguage<SLContext> {
     public static final String ID = "sl";
     public static final String MIME_TYPE = "application/x-sl";
 
+    @Option(help = "Execute functions with a bytecode interpreter instead of an AST interpreter. Bytecode functions are not instrumentable.", category = OptionCategory.EXPERT) //
+    public static final OptionKey<Boolean> Bytecode = new OptionKey<>(false);
+
+    /*
+     * Language instances are only shared between contexts with compatible options, so the option
+     * value can be stored in the language. The parser may run without a current context.
+     */
+    private volatile boolean bytecode;
+
     public SLLanguage() {
         counter++;
     }
 
     @Override
     protected SLContext createContext(Env env) {
+        bytecode = env.getOptions().get(Bytecode);
         return new SLContext(this, env, new ArrayList<>(EXTERNAL_BUILTINS));
     }
 
+    @Override
+    protected OptionDescriptors getOptionDescriptors() {
+        return new SLLanguageOptionDescriptors();
+    }
+
+    @Override
+    protected boolean areOptionsCompatible(OptionValues firstOptions, OptionValues newOptions) {
+        return firstOptions.get(Bytecode).equals(newOptions.get(Bytecode));
+    }
+
+    /**
+     * Returns <code>true</code> if parsed functions are executed by the
+     * {@link com.oracle.truffle.sl.nodes.bytecode.SLBytecodeRootNode bytecode interpreter}.
+     */
+    public boolean isBytecode() {
+        return bytecode;
+    }
+
     @Override
     protected CallTarget parse(ParsingRequest request) throws Exception {
         Source source = request.getSource();
@@ -50,4 +50,11 @@ import com.oracle.truffle.api.dsl.NodeChild;
 @NodeChild("leftNode")
 @NodeChild("rightNode")
 public abstract class SLBinaryNode extends SLExpressionNode {
+
+    public abstract SLExpressionNode getLeftNode();
+
+    public abstract SLExpressionNode getRightNode();
+
+    public abstract Object executeEvaluated(Object leftValue, Object rightValue);
+
 }
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.nodes.bytecode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.nodes.SLBinaryNode;
+import com.oracle.truffle.sl.nodes.SLExpressionNode;
+import com.oracle.truffle.sl.nodes.SLStatementNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLBlockNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLBreakNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLContinueNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLDebuggerNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLFunctionBodyNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLIfNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLReturnNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLWhileNode;
+import com.oracle.truffle.sl.nodes.controlflow.SLWhileRepeatingNode;
+import com.oracle.truffle.sl.nodes.expression.SLAddNode;
+import com.oracle.truffle.sl.nodes.expression.SLBigIntegerLiteralNode;
+import com.oracle.truffle.sl.nodes.expression.SLDivNode;
+import com.oracle.truffle.sl.nodes.expression.SLEqualNode;
+import com.oracle.truffle.sl.nodes.expression.SLFunctionLiteralNode;
+import com.oracle.truffle.sl.nodes.expression.SLInvokeNode;
+import com.oracle.truffle.sl.nodes.expression.SLLessOrEqualNode;
+import com.oracle.truffle.sl.nodes.expression.SLLessThanNode;
+import com.oracle.truffle.sl.nodes.expression.SLLogicalAndNode;
+import com.oracle.truffle.sl.nodes.expression.SLLogicalNotNode;
+import com.oracle.truffle.sl.nodes.expression.SLLogicalOrNode;
+import com.oracle.truffle.sl.nodes.expression.SLLongLiteralNode;
+import com.oracle.truffle.sl.nodes.expression.SLMulNode;
+import com.oracle.truffle.sl.nodes.expression.SLParenExpressionNode;
+import com.oracle.truffle.sl.nodes.expression.SLReadPropertyNode;
+import com.oracle.truffle.sl.nodes.expression.SLShortCircuitNode;
+import com.oracle.truffle.sl.nodes.expression.SLStringLiteralNode;
+import com.oracle.truffle.sl.nodes.expression.SLSubNode;
+import com.oracle.truffle.sl.nodes.expression.SLWritePropertyNode;
+import com.oracle.truffle.sl.nodes.local.SLReadArgumentNode;
+import com.oracle.truffle.sl.nodes.local.SLReadLocalVariableNode;
+import com.oracle.truffle.sl.nodes.local.SLWriteLocalVariableNode;
+import com.oracle.truffle.sl.nodes.util.SLUnboxNode;
+import com.oracle.truffle.sl.runtime.SLNull;
+
+/**
+ * Translates the AST of an SL function, as created by the
+ * {@link com.oracle.truffle.sl.parser.SLNodeFactory parser}, to bytecode. The AST is only used as
+ * input for the translation and is not executed. Local variables are mapped to indexed frame slots,
+ * control flow statements to branches, and {@code break}, {@code continue} and {@code return} no
+ * longer need to throw control flow exceptions.
+ */
+public final class SLBytecodeCompiler {
+
+    private final Source source;
+    private final SLBytecodeRootNodeGen.Builder builder = SLBytecodeRootNodeGen.newBuilder();
+    private final Map<FrameSlot, Integer> locals = new HashMap<>();
+    private int breakLabel = -1;
+    private int continueLabel = -1;
+
+    private SLBytecodeCompiler(Source source) {
+        this.source = source;
+    }
+
+    public static SLBytecodeRootNode compile(SLLanguage language, Source source, SLFunctionBodyNode functionBody, SourceSection sourceSection, String name) {
+        SLBytecodeCompiler compiler = new SLBytecodeCompiler(source);
+        compiler.compileStatement(functionBody.getBodyNode());
+        /* Return the default null value if the function ends without an explicit return. */
+        compiler.builder.emitLoadConstant(SLNull.SINGLETON);
+        compiler.builder.emitReturn();
+        return compiler.builder.build(language, sourceSection, name);
+    }
+
+    private void compileStatement(SLStatementNode node) {
+        if (node instanceof SLBlockNode) {
+            for (SLStatementNode statement : ((SLBlockNode) node).getStatements()) {
+                compileStatement(statement);
+            }
+        } else if (node instanceof SLIfNode) {
+            SLIfNode ifNode = (SLIfNode) node;
+            int elseLabel = builder.createLabel();
+            compileCondition(ifNode.getConditionNode(), ifNode);
+            builder.emitBranchFalse(elseLabel);
+            compileStatement(ifNode.getThenPartNode());
+            if (ifNode.getElsePartNode() != null) {
+                int endLabel = builder.createLabel();
+                builder.emitBranch(endLabel);
+                builder.bindLabel(elseLabel);
+                compileStatement(ifNode.getElsePartNode());
+                builder.bindLabel(endLabel);
+            } else {
+                builder.bindLabel(elseLabel);
+            }
+        } else if (node instanceof SLWhileNode) {
+            SLWhileRepeatingNode repeatingNode = ((SLWhileNode) node).getRepeatingNode();
+            int outerBreakLabel = breakLabel;
+            int outerContinueLabel = continueLabel;
+            breakLabel = builder.createLabel();
+            continueLabel = builder.createLabel();
+            builder.bindLabel(continueLabel);
+            compileCondition(repeatingNode.getConditionNode(), node);
+            builder.emitBranchFalse(breakLabel);
+            compileStatement(repeatingNode.getBodyNode());
+            builder.emitBranch(continueLabel);
+            builder.bindLabel(breakLabel);
+            breakLabel = outerBreakLabel;
+            continueLabel = outerContinueLabel;
+        } else if (node instanceof SLBreakNode) {
+            builder.emitBranch(breakLabel);
+        } else if (node instanceof SLContinueNode) {
+            builder.emitBranch(continueLabel);
+        } else if (node instanceof SLReturnNode) {
+            SLExpressionNode valueNode = ((SLReturnNode) node).getValueNode();
+            if (valueNode != null) {
+                compileExpression(valueNode);
+            } else {
+                builder.emitLoadConstant(SLNull.SINGLETON);
+            }
+            builder.emitReturn();
+        } else if (node instanceof SLDebuggerNode) {
+            /* Debugger statements only have an effect if the function is instrumented. */
+        } else if (node instanceof SLExpressionNode) {
+            compileExpression((SLExpressionNode) node);
+            builder.emitPop();
+        } else {
+            throw new IllegalArgumentException("Unsupported statement " + node + ".");
+        }
+    }
+
+    private void compileCondition(SLExpressionNode conditionNode, SLStatementNode statementNode) {
+        compileExpression(conditionNode);
+        setSourceSection(builder.emitToBoolean(), statementNode);
+    }
+
+    private void compileExpression(SLExpressionNode node) {
+        if (node instanceof SLLongLiteralNode) {
+            builder.emitLoadConstant(((SLLongLiteralNode) node).getValue());
+        } else if (node instanceof SLBigIntegerLiteralNode) {
+            builder.emitLoadConstant(((SLBigIntegerLiteralNode) node).getValue());
+        } else if (node instanceof SLStringLiteralNode) {
+            builder.emitLoadConstant(((SLStringLiteralNode) node).getValue());
+        } else if (node instanceof SLFunctionLiteralNode) {
+            setSourceSection(builder.emitFunctionLiteral(((SLFunctionLiteralNode) node).getFunctionName()), node);
+        } else if (node instanceof SLParenExpressionNode) {
+            compileExpression(((SLParenExpressionNode) node).getExpression());
+        } else if (node instanceof SLReadArgumentNode) {
+            builder.emitReadArgument(((SLReadArgumentNode) node).getIndex());
+        } else if (node instanceof SLReadLocalVariableNode) {
+            builder.emitLoadLocal(getLocal(((SLReadLocalVariableNode) node).getSlot()));
+        } else if (node instanceof SLWriteLocalVariableNode) {
+            SLWriteLocalVariableNode writeNode = (SLWriteLocalVariableNode) node;
+            compileExpression(writeNode.getValueNode());
+            builder.emitDup();
+            builder.emitStoreLocal(getLocal(writeNode.getSlot()));
+        } else if (node instanceof SLUnboxNode) {
+            compileExpression(((SLUnboxNode) node).getValueNode());
+            setSourceSection(builder.emitUnbox(), node);
+        } else if (node instanceof SLLogicalNotNode) {
+            compileExpression(((SLLogicalNotNode) node).getValueNode());
+            setSourceSection(builder.emitLogicalNot(), node);
+        } else if (node instanceof SLShortCircuitNode) {
+            compileShortCircuit((SLShortCircuitNode) node);
+        } else if (node instanceof SLAddNode) {
+            compileBinary((SLAddNode) node);
+            setSourceSection(builder.emitAdd(), node);
+        } else if (node instanceof SLSubNode) {
+            compileBinary((SLSubNode) node);
+            setSourceSection(builder.emitSub(), node);
+        } else if (node instanceof SLMulNode) {
+            compileBinary((SLMulNode) node);
+            setSourceSection(builder.emitMul(), node);
+        } else if (node instanceof SLDivNode) {
+            compileBinary((SLDivNode) node);
+            setSourceSection(builder.emitDiv(), node);
+        } else if (node instanceof SLEqualNode) {
+            compileBinary((SLEqualNode) node);
+            setSourceSection(builder.emitEqual(), node);
+        } else if (node instanceof SLLessThanNode) {
+            compileBinary((SLLessThanNode) node);
+            setSourceSection(builder.emitLessThan(), node);
+        } else if (node instanceof SLLessOrEqualNode) {
+            compileBinary((SLLessOrEqualNode) node);
+            setSourceSection(builder.emitLessOrEqual(), node);
+        } else if (node instanceof SLReadPropertyNode) {
+            SLReadPropertyNode readNode = (SLReadPropertyNode) node;
+            compileExpression(readNode.getReceiverNode());
+            compileExpression(readNode.getNameNode());
+            setSourceSection(builder.emitReadProperty(), node);
+        } else if (node instanceof SLWritePropertyNode) {
+            SLWritePropertyNode writeNode = (SLWritePropertyNode) node;
+            compileExpression(writeNode.getReceiverNode());
+            compileExpression(writeNode.getNameNode());
+            compileExpression(writeNode.getValueNode());
+            setSourceSection(builder.emitWriteProperty(), node);
+        } else if (node instanceof SLInvokeNode) {
+            SLInvokeNode invokeNode = (SLInvokeNode) node;
+            SLExpressionNode[] argumentNodes = invokeNode.getArgumentNodes();
+            compileExpression(invokeNode.getFunctionNode());
+            for (SLExpressionNode argumentNode : argumentNodes) {
+                compileExpression(argumentNode);
+            }
+            setSourceSection(builder.emitCall(argumentNodes.length), node);
+        } else {
+            throw new IllegalArgumentException("Unsupported expression " + node + ".");
+        }
+    }
+
+    private void compileBinary(SLBinaryNode node) {
+        compileExpression(node.getLeftNode());
+        compileExpression(node.getRightNode());
+    }
+
+    /*
+     * The result of a short circuit operation is the value of the last evaluated operand, which
+     * stays on the operand stack if the right operand is skipped.
+     */
+    private void compileShortCircuit(SLShortCircuitNode node) {
+        int endLabel = builder.createLabel();
+        compileCondition(node.getLeftNode(), node);
+        builder.emitDup();
+        if (node instanceof SLLogicalOrNode) {
+            setSourceSection(builder.emitLogicalNot(), node);
+        } else {
+            assert node instanceof SLLogicalAndNode;
+        }
+        builder.emitBranchFalse(endLabel);
+        builder.emitPop();
+        compileCondition(node.getRightNode(), node);
+        builder.bindLabel(endLabel);
+    }
+
+    private int getLocal(FrameSlot slot) {
+        Integer local = locals.get(slot);
+        if (local == null) {
+            local = builder.createLocal();
+            locals.put(slot, local);
+        }
+        return local;
+    }
+
+    private void setSourceSection(Node operationNode, SLStatementNode node) {
+        if (!node.hasSource()) {
+            return;
+        }
+        if (operationNode instanceof SLStatementNode) {
+            ((SLStatementNode) operationNode).setSourceSection(node.getSourceCharIndex(), node.getSourceLength());
+        } else {
+            ((SLOperationNode) operationNode).setSourceSection(source.createSection(node.getSourceCharIndex(), node.getSourceLength()));
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.nodes.bytecode;
+
+import com.oracle.truffle.api.dsl.GenerateBytecode;
+import com.oracle.truffle.api.dsl.GenerateBytecode.Operation;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.nodes.SLRootNode;
+import com.oracle.truffle.sl.nodes.expression.SLAddNode;
+import com.oracle.truffle.sl.nodes.expression.SLDivNode;
+import com.oracle.truffle.sl.nodes.expression.SLEqualNode;
+import com.oracle.truffle.sl.nodes.expression.SLLessOrEqualNode;
+import com.oracle.truffle.sl.nodes.expression.SLLessThanNode;
+import com.oracle.truffle.sl.nodes.expression.SLLogicalNotNode;
+import com.oracle.truffle.sl.nodes.expression.SLMulNode;
+import com.oracle.truffle.sl.nodes.expression.SLReadPropertyNode;
+import com.oracle.truffle.sl.nodes.expression.SLSubNode;
+import com.oracle.truffle.sl.nodes.expression.SLWritePropertyNode;
+import com.oracle.truffle.sl.nodes.util.SLUnboxNode;
+
+/**
+ * The root of an SL function that is executed by a bytecode interpreter instead of an AST. The
+ * interpreter loop is generated by the Truffle DSL. Operations that have an equivalent in the AST
+ * interpreter reuse the specializations of the corresponding AST node, the remaining operations
+ * are subclasses of {@link SLOperationNode}. Functions are translated to bytecode by the
+ * {@link SLBytecodeCompiler} if the {@link SLLanguage#Bytecode} option is enabled.
+ * <p>
+ * Bytecode functions are not instrumentable, i.e. they do not support the debugger or other tools.
+ */
+@GenerateBytecode
+@Operation(name = "Add", node = SLAddNode.class)
+@Operation(name = "Sub", node = SLSubNode.class)
+@Operation(name = "Mul", node = SLMulNode.class)
+@Operation(name = "Div", node = SLDivNode.class)
+@Operation(name = "Equal", node = SLEqualNode.class)
+@Operation(name = "LessThan", node = SLLessThanNode.class)
+@Operation(name = "LessOrEqual", node = SLLessOrEqualNode.class)
+@Operation(name = "LogicalNot", node = SLLogicalNotNode.class)
+@Operation(name = "Unbox", node = SLUnboxNode.class)
+@Operation(name = "ReadProperty", node = SLReadPropertyNode.class)
+@Operation(name = "WriteProperty", node = SLWritePropertyNode.class)
+@Operation(name = "ToBoolean", node = SLToBooleanNode.class)
+@Operation(name = "ReadArgument", node = SLArgumentNode.class)
+@Operation(name = "FunctionLiteral", node = SLFunctionLookupNode.class)
+@Operation(name = "Call", node = SLCallNode.class)
+public abstract class SLBytecodeRootNode extends SLRootNode {
+
+    protected SLBytecodeRootNode(SLLanguage language, FrameDescriptor frameDescriptor, SourceSection sourceSection, String name) {
+        super(language, frameDescriptor, null, sourceSection, name);
+    }
+
+    @Override
+    public abstract Object execute(VirtualFrame frame);
+
+    @Override
+    protected boolean isInstrumentable() {
+        return false;
+    }
+
+}
@@ -74,6 +74,10 @@ public final class SLFunctionBodyNode extends SLExpressionNode {
         addRootTag();
     }
 
+    public SLStatementNode getBodyNode() {
+        return bodyNode;
+    }
+
     @Override
     public Object executeGeneric(VirtualFrame frame) {
         try {
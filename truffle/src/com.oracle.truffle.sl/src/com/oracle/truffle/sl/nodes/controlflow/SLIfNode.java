@@ -80,6 +80,18 @@ public final class SLIfNode extends SLStatementNode {
         this.elsePartNode = elsePartNode;
     }
 
+    public SLExpressionNode getConditionNode() {
+        return conditionNode;
+    }
+
+    public SLStatementNode getThenPartNode() {
+        return thenPartNode;
+    }
+
+    public SLStatementNode getElsePartNode() {
+        return elsePartNode;
+    }
+
     @Override
     public void executeVoid(VirtualFrame frame) {
         /*
@@ -62,6 +62,10 @@ public final class SLReturnNode extends SLStatementNode {
         this.valueNode = valueNode;
     }
 
+    public SLExpressionNode getValueNode() {
+        return valueNode;
+    }
+
     @Override
     public void executeVoid(VirtualFrame frame) {
         Object result;
@@ -56,6 +56,10 @@ public final class SLWhileNode extends SLStatementNode {
         this.loopNode = Truffle.getRuntime().createLoopNode(new SLWhileRepeatingNode(conditionNode, bodyNode));
     }
 
+    public SLWhileRepeatingNode getRepeatingNode() {
+        return (SLWhileRepeatingNode) loopNode.getRepeatingNode();
+    }
+
     @Override
     public void executeVoid(VirtualFrame frame) {
         loopNode.execute(frame);
@@ -81,6 +81,14 @@ public final class SLWhileRepeatingNode extends Node implements RepeatingNode {
         this.bodyNode = bodyNode;
     }
 
+    public SLExpressionNode getConditionNode() {
+        return conditionNode;
+    }
+
+    public SLStatementNode getBodyNode() {
+        return bodyNode;
+    }
+
     @Override
     public boolean executeRepeating(VirtualFrame frame) {
         if (!evaluateCondition(frame)) {
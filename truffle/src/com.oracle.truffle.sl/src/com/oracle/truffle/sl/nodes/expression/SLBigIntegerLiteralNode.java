@@ -60,6 +60,10 @@ public final class SLBigIntegerLiteralNode extends SLExpressionNode {
         this.value = new SLBigNumber(value);
     }
 
+    public SLBigNumber getValue() {
+        return value;
+    }
+
     @Override
     public SLBigNumber executeGeneric(VirtualFrame frame) {
         return value;
@@ -75,6 +75,10 @@ public final class SLFunctionLiteralNode extends SLExpressionNode {
         this.functionName = functionName;
     }
 
+    public String getFunctionName() {
+        return functionName;
+    }
+
     @Override
     public SLFunction executeGeneric(VirtualFrame frame) {
         if (cachedFunction == null) {
@@ -75,6 +75,14 @@ public final class SLInvokeNode extends SLExpressionNode {
         this.library = InteropLibrary.getFactory().createDispatched(3);
     }
 
+    public SLExpressionNode getFunctionNode() {
+        return functionNode;
+    }
+
+    public SLExpressionNode[] getArgumentNodes() {
+        return argumentNodes;
+    }
+
     @ExplodeLoop
     @Override
     public Object executeGeneric(VirtualFrame frame) {
@@ -55,6 +55,10 @@ import com.oracle.truffle.sl.nodes.SLExpressionNode;
 @NodeInfo(shortName = "!")
 public abstract class SLLogicalNotNode extends SLExpressionNode {
 
+    public abstract SLExpressionNode getValueNode();
+
+    public abstract Object executeEvaluated(Object value);
+
     @Specialization
     protected boolean doBoolean(boolean value) {
         return !value;
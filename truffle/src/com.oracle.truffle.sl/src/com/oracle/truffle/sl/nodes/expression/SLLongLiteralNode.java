@@ -59,6 +59,10 @@ public final class SLLongLiteralNode extends SLExpressionNode {
         this.value = value;
     }
 
+    public long getValue() {
+        return value;
+    }
+
     @Override
     public long executeLong(VirtualFrame frame) throws UnexpectedResultException {
         return value;
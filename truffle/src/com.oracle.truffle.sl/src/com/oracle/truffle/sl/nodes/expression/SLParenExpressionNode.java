@@ -60,6 +60,10 @@ public class SLParenExpressionNode extends SLExpressionNode {
         this.expression = expression;
     }
 
+    public SLExpressionNode getExpression() {
+        return expression;
+    }
+
     @Override
     public Object executeGeneric(VirtualFrame frame) {
         return expression.executeGeneric(frame);
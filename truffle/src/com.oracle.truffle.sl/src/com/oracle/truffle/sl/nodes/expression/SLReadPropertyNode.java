@@ -68,6 +68,12 @@ public abstract class SLReadPropertyNode extends SLExpressionNode {
 
     static final int LIBRARY_LIMIT = 3;
 
+    public abstract SLExpressionNode getReceiverNode();
+
+    public abstract SLExpressionNode getNameNode();
+
+    public abstract Object executeEvaluated(Object receiver, Object name);
+
     @Specialization(guards = "arrays.hasArrayElements(receiver)", limit = "LIBRARY_LIMIT")
     protected Object writeArray(Object receiver, Object index,
                     @CachedLibrary("receiver") InteropLibrary arrays,
@@ -67,6 +67,14 @@ public abstract class SLShortCircuitNode extends SLExpressionNode {
         this.right = right;
     }
 
+    public SLExpressionNode getLeftNode() {
+        return left;
+    }
+
+    public SLExpressionNode getRightNode() {
+        return right;
+    }
+
     @Override
     public final Object executeGeneric(VirtualFrame frame) {
         return executeBoolean(frame);
@@ -56,6 +56,10 @@ public final class SLStringLiteralNode extends SLExpressionNode {
         this.value = value;
     }
 
+    public String getValue() {
+        return value;
+    }
+
     @Override
     public String executeGeneric(VirtualFrame frame) {
         return value;
@@ -72,6 +72,14 @@ public abstract class SLWritePropertyNode extends SLExpressionNode {
 
     static final int LIBRARY_LIMIT = 3;
 
+    public abstract SLExpressionNode getReceiverNode();
+
+    public abstract SLExpressionNode getNameNode();
+
+    public abstract SLExpressionNode getValueNode();
+
+    public abstract Object executeEvaluated(Object receiver, Object name, Object value);
+
     @Specialization(guards = "arrays.hasArrayElements(receiver)", limit = "LIBRARY_LIMIT")
     protected Object write(Object receiver, Object index, Object value,
                     @CachedLibrary("receiver") InteropLibrary arrays,
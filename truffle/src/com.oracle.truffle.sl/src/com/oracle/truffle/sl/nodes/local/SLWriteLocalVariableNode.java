@@ -64,7 +64,9 @@ public abstract class SLWriteLocalVariableNode extends SLExpressionNode {
      * Returns the descriptor of the accessed local variable. The implementation of this method is
      * created by the Truffle DSL based on the {@link NodeField} annotation on the class.
      */
-    protected abstract FrameSlot getSlot();
+    public abstract FrameSlot getSlot();
+
+    public abstract SLExpressionNode getValueNode();
 
     /**
      * Specialized method to write a primitive {@code long} value. This is only possible if the
@@ -58,11 +58,15 @@ import com.oracle.truffle.sl.runtime.SLNull;
  * expression nodes need to expect.
  */
 @TypeSystemReference(SLTypes.class)
-@NodeChild
+@NodeChild("valueNode")
 public abstract class SLUnboxNode extends SLExpressionNode {
 
     static final int LIMIT = 5;
 
+    public abstract SLExpressionNode getValueNode();
+
+    public abstract Object executeEvaluated(Object value);
+
     @Specialization
     protected static String fromString(String value) {
         return value;
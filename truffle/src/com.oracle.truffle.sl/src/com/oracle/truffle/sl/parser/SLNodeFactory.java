@@ -60,6 +60,7 @@ import com.oracle.truffle.sl.SLLanguage;
 import com.oracle.truffle.sl.nodes.SLExpressionNode;
 import com.oracle.truffle.sl.nodes.SLRootNode;
 import com.oracle.truffle.sl.nodes.SLStatementNode;
+import com.oracle.truffle.sl.nodes.bytecode.SLBytecodeCompiler;
 import com.oracle.truffle.sl.nodes.controlflow.SLBlockNode;
 import com.oracle.truffle.sl.nodes.controlflow.SLBreakNode;
 import com.oracle.truffle.sl.nodes.controlflow.SLContinueNode;
@@ -187,7 +188,12 @@ public class SLNodeFactory {
             final SLFunctionBodyNode functionBodyNode = new SLFunctionBodyNode(methodBlock);
             functionBodyNode.setSourceSection(functionSrc.getCharIndex(), functionSrc.getCharLength());
 
-            final SLRootNode rootNode = new SLRootNode(language, frameDescriptor, functionBodyNode, functionSrc, functionName);
+            final SLRootNode rootNode;
+            if (language.isBytecode()) {
+                rootNode = SLBytecodeCompiler.compile(language, source, functionBodyNode, functionSrc, functionName);
+            } else {
+                rootNode = new SLRootNode(language, frameDescriptor, functionBodyNode, functionSrc, functionName);
+            }
             allFunctions.put(functionName, Truffle.getRuntime().createCallTarget(rootNode));
         }
 
@@ -66,9 +66,11 @@ microbenchmarks = [
     "digitron",
     "event-sim",
     "fft",
+    "fft-simd",
     "hash-join",
     "merge-join",
     "phong",
+    "phong-simd",
     "qsort",
     "strings",
 ]
@@ -281,12 +283,19 @@ class GraalWasmSourceFileTask(mx.ProjectBuildTask):
             timestampedOutput = mx.TimeStampFile(output_wasm_path)
             mustRebuild = timestampedSource.isNewerThan(timestampedOutput) or not timestampedOutput.exists()
 
+            # Some programs need additional compiler flags, for example -msimd128.
+            program_emcc_flags = emcc_flags
+            cflags_path = os.path.join(root, basename + ".cflags")
+            if os.path.isfile(cflags_path):
+                with open(cflags_path) as f:
+                    program_emcc_flags = emcc_flags + f.read().split()
+
             # Step 1: build the .wasm binary.
             if mustRebuild:
                 if filename.endswith(".c"):
                     # Step 1a: compile with the JS file, and store as files for running Node, if necessary.
                     output_js_path = os.path.join(output_dir, subdir, basename + ".js")
-                    build_cmd_line = [emcc_cmd] + emcc_flags + disable_test_api_flags + [source_path, "-o", output_js_path] + include_flags
+                    build_cmd_line = [emcc_cmd] + program_emcc_flags + disable_test_api_flags + [source_path, "-o", output_js_path] + include_flags
                     if mx.run(build_cmd_line, nonZeroIsFatal=False) != 0:
                         mx.abort("Could not build the JS output of " + filename + " with emcc.")
                     if self.subject.isBenchmarkProject():
@@ -301,7 +310,7 @@ class GraalWasmSourceFileTask(mx.ProjectBuildTask):
                         f.write(init_info)
 
                     # Step 1c: compile to just a .wasm file, to avoid name mangling.
-                    build_cmd_line = [emcc_cmd] + emcc_flags + ["-s", "ERROR_ON_UNDEFINED_SYMBOLS=0"] + [source_path, "-o", output_wasm_path] + include_flags
+                    build_cmd_line = [emcc_cmd] + program_emcc_flags + ["-s", "ERROR_ON_UNDEFINED_SYMBOLS=0"] + [source_path, "-o", output_wasm_path] + include_flags
                     if mx.run(build_cmd_line, nonZeroIsFatal=False) != 0:
                         mx.abort("Could not build the wasm-only output of " + filename + " with emcc.")
                 elif filename.endswith(".wat"):
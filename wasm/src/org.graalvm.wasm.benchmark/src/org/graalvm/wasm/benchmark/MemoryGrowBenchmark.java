@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.benchmark;
+
+import org.graalvm.wasm.memory.ReservedWasmMemory;
+import org.graalvm.wasm.memory.UnsafeWasmMemory;
+import org.graalvm.wasm.memory.WasmMemory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of growing a memory one page at a time, as done by {@code memory.grow} in
+ * programs that allocate incrementally, up to 1 GB.
+ *
+ * <p>
+ * The {@code unsafe} memory copies its contents on every growth, so growing it to 1 GB takes
+ * very long. To compare the two implementations, use a smaller target size:
+ * </p>
+ *
+ * <pre>
+ * -p memory=reserved,unsafe -p targetPageCount=2048
+ * </pre>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemoryGrowBenchmark {
+    @State(Scope.Thread)
+    public static class MemoryState {
+        /**
+         * 16384 pages of 64 KB each, i.e. 1 GB.
+         */
+        @Param({"16384"}) int targetPageCount;
+
+        @Param({"reserved"}) String memory;
+
+        WasmMemory wasmMemory;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            switch (memory) {
+                case "reserved":
+                    wasmMemory = new ReservedWasmMemory(1, targetPageCount);
+                    break;
+                case "unsafe":
+                    wasmMemory = new UnsafeWasmMemory(1, targetPageCount);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown memory implementation: " + memory);
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void teardown() {
+            wasmMemory.close();
+            wasmMemory = null;
+        }
+    }
+
+    @Benchmark
+    public long growByOnePage(MemoryState state) {
+        final WasmMemory memory = state.wasmMemory;
+        while (memory.pageSize() < state.targetPageCount) {
+            if (!memory.grow(1)) {
+                throw new IllegalStateException("Could not grow the memory to " + state.targetPageCount + " pages.");
+            }
+            // Touch the new page, as a program would after growing the memory.
+            memory.store_i64(null, memory.byteSize() - 8, memory.pageSize());
+        }
+        return memory.load_i64(null, memory.byteSize() - 8);
+    }
+}
@@ -248,6 +248,13 @@ public abstract class WasmSuiteBase extends WasmTestBase {
             }
 
             contextBuilder.option("wasm.Builtins", includedExternalModules());
+            addContextOptions(contextBuilder);
+            for (String optionName : testCase.options().stringPropertyNames()) {
+                // Test cases can set language options in their options file.
+                if (optionName.startsWith("wasm.")) {
+                    contextBuilder.option(optionName, testCase.options().getProperty(optionName));
+                }
+            }
             String commandLineArgs = testCase.options().getProperty("command-line-args");
             if (commandLineArgs != null) {
                 contextBuilder.arguments("wasm", commandLineArgs.split(" "));
@@ -290,6 +297,13 @@ public abstract class WasmSuiteBase extends WasmTestBase {
         return "testutil:testutil";
     }
 
+    /**
+     * Adds options to the contexts in which all test cases of this suite run.
+     */
+    @SuppressWarnings("unused")
+    protected void addContextOptions(Context.Builder contextBuilder) {
+    }
+
     private static void validateResult(BiConsumer<Value, String> validator, Value result, OutputStream capturedStdout) {
         if (validator != null) {
             validator.accept(result, capturedStdout.toString());
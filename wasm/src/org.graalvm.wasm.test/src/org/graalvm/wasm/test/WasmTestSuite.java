@@ -44,6 +44,7 @@ import org.graalvm.wasm.test.suites.arithmetic.Float32Suite;
 import org.graalvm.wasm.test.suites.arithmetic.Float64Suite;
 import org.graalvm.wasm.test.suites.arithmetic.Integer32Suite;
 import org.graalvm.wasm.test.suites.arithmetic.Integer64Suite;
+import org.graalvm.wasm.test.suites.arithmetic.Vector128Suite;
 import org.graalvm.wasm.test.suites.control.BlockWithLocalsSuite;
 import org.graalvm.wasm.test.suites.control.BranchBlockSuite;
 import org.graalvm.wasm.test.suites.control.IfThenElseSuite;
@@ -51,6 +52,8 @@ import org.graalvm.wasm.test.suites.control.LoopBlockSuite;
 import org.graalvm.wasm.test.suites.control.SimpleBlockSuite;
 import org.graalvm.wasm.test.suites.linker.LinkerSuite;
 import org.graalvm.wasm.test.suites.memory.MemorySuite;
+import org.graalvm.wasm.test.suites.memory.ReservedMemorySuite;
+import org.graalvm.wasm.test.suites.wasi.WasiFileSystemSuite;
 import org.graalvm.wasm.test.suites.wasi.WasiSdkSuite;
 import org.graalvm.wasm.test.suites.control.MultipleFunctionsSuite;
 import org.junit.Test;
@@ -66,16 +69,19 @@ import org.graalvm.wasm.test.suites.webassembly.IssueSuite;
                 Integer64Suite.class,
                 Float32Suite.class,
                 Float64Suite.class,
+                Vector128Suite.class,
                 SimpleBlockSuite.class,
                 BlockWithLocalsSuite.class,
                 BranchBlockSuite.class,
                 LoopBlockSuite.class,
                 IfThenElseSuite.class,
                 MemorySuite.class,
+                ReservedMemorySuite.class,
                 IssueSuite.class,
                 MultipleFunctionsSuite.class,
                 EmscriptenSuite.class,
                 WasiSdkSuite.class,
+                WasiFileSystemSuite.class,
                 LinkerSuite.class,
                 WasmPolyglotTestSuite.class,
 })
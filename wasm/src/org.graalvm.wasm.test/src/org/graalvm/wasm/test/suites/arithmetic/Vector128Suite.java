@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test.suites.arithmetic;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.graalvm.wasm.utils.cases.WasmCase;
+import org.graalvm.wasm.utils.cases.WasmStringCase;
+import org.junit.Test;
+
+import org.graalvm.wasm.test.WasmSuiteBase;
+
+public class Vector128Suite extends WasmSuiteBase {
+    private WasmStringCase[] testCases = {
+                    WasmCase.create("I32X4_ADD", WasmCase.expected(33),
+                                    "(module (func (export \"_main\") (result i32) v128.const i32x4 1 2 3 4 v128.const i32x4 10 20 30 40 i32x4.add i32x4.extract_lane 2))"),
+                    WasmCase.create("I32X4_MUL", WasmCase.expected(160),
+                                    "(module (func (export \"_main\") (result i32) v128.const i32x4 1 2 3 4 v128.const i32x4 10 20 30 40 i32x4.mul i32x4.extract_lane 3))"),
+                    WasmCase.create("I32X4_SHL", WasmCase.expected(32),
+                                    "(module (func (export \"_main\") (result i32) v128.const i32x4 1 2 3 4 i32.const 3 i32x4.shl i32x4.extract_lane 3))"),
+                    WasmCase.create("I32X4_GT_S_BITMASK", WasmCase.expected(5),
+                                    "(module (func (export \"_main\") (result i32) v128.const i32x4 1 -2 3 -4 v128.const i32x4 0 0 0 0 i32x4.gt_s i32x4.bitmask))"),
+                    WasmCase.create("I32X4_ALL_TRUE", WasmCase.expected(0),
+                                    "(module (func (export \"_main\") (result i32) v128.const i32x4 1 1 0 1 i32x4.all_true))"),
+                    WasmCase.create("V128_ANY_TRUE", WasmCase.expected(1),
+                                    "(module (func (export \"_main\") (result i32) v128.const i64x2 0 1 v128.any_true))"),
+                    WasmCase.create("V128_BITSELECT", WasmCase.expected(0xFFFF),
+                                    "(module (func (export \"_main\") (result i32) v128.const i32x4 -1 -1 -1 -1 v128.const i32x4 0 0 0 0 v128.const i32x4 0xFFFF 0 0 0 v128.bitselect i32x4.extract_lane 0))"),
+                    WasmCase.create("I8X16_SPLAT_ADD_WRAP", WasmCase.expected(44),
+                                    "(module (func (export \"_main\") (result i32) i32.const 200 i8x16.splat i32.const 100 i8x16.splat i8x16.add i8x16.extract_lane_u 7))"),
+                    WasmCase.create("I16X8_EXTRACT_LANE_S", WasmCase.expected(-2),
+                                    "(module (func (export \"_main\") (result i32) i32.const -2 i16x8.splat i16x8.extract_lane_s 3))"),
+                    WasmCase.create("I8X16_SHUFFLE", WasmCase.expected(5),
+                                    "(module (func (export \"_main\") (result i32) v128.const i32x4 1 2 3 4 v128.const i32x4 5 6 7 8 " +
+                                                    "i8x16.shuffle 16 17 18 19 0 1 2 3 20 21 22 23 4 5 6 7 i32x4.extract_lane 0))"),
+                    WasmCase.create("F32X4_MUL", WasmCase.expected(6.0f),
+                                    "(module (func (export \"_main\") (result f32) v128.const f32x4 1.0 1.5 2.0 2.5 f32.const 4.0 f32x4.splat f32x4.mul f32x4.extract_lane 1))"),
+                    WasmCase.create("F32X4_SQRT", WasmCase.expected(4.0f),
+                                    "(module (func (export \"_main\") (result f32) f32.const 16.0 f32x4.splat f32x4.sqrt f32x4.extract_lane 0))"),
+                    WasmCase.create("F64X2_ADD", WasmCase.expected(3.0),
+                                    "(module (func (export \"_main\") (result f64) v128.const f64x2 1.25 2.5 v128.const f64x2 0.25 0.5 f64x2.add f64x2.extract_lane 1))"),
+                    WasmCase.create("I32X4_TRUNC_SAT_F32X4_S", WasmCase.expected(-1),
+                                    "(module (func (export \"_main\") (result i32) f32.const -1.5 f32x4.splat i32x4.trunc_sat_f32x4_s i32x4.extract_lane 0))"),
+                    WasmCase.create("LOCAL_REPLACE_LANE", WasmCase.expected(16),
+                                    "(module (func (export \"_main\") (result i32) (local $v v128) i32.const 7 i32x4.splat local.set $v " +
+                                                    "local.get $v i32.const 9 i32x4.replace_lane 1 local.get $v i32x4.add i32x4.extract_lane 1))"),
+                    WasmCase.create("CALL_V128", WasmCase.expected(8),
+                                    "(module (func $double (param v128) (result v128) local.get 0 local.get 0 i32x4.add) " +
+                                                    "(func (export \"_main\") (result i32) v128.const i32x4 1 2 3 4 call $double i32x4.extract_lane 3))"),
+                    WasmCase.create("LOAD_STORE", WasmCase.expected(4),
+                                    "(module (memory 1) (func (export \"_main\") (result i32) i32.const 0 v128.const i32x4 1 2 3 4 v128.store " +
+                                                    "i32.const 0 v128.load i32x4.extract_lane 3))"),
+                    WasmCase.create("LOAD32_SPLAT", WasmCase.expected(2),
+                                    "(module (memory 1) (func (export \"_main\") (result i32) i32.const 0 v128.const i32x4 1 2 3 4 v128.store " +
+                                                    "i32.const 0 v128.load32_splat offset=4 i32x4.extract_lane 3))"),
+                    WasmCase.create("GLOBAL_GET", WasmCase.expected(3),
+                                    "(module (global $g v128 (v128.const i32x4 1 2 3 4)) (func (export \"_main\") (result i32) global.get $g i32x4.extract_lane 2))"),
+                    WasmCase.create("GLOBAL_SET", WasmCase.expected(-7),
+                                    "(module (global $g (mut v128) (v128.const i64x2 0 0)) (func (export \"_main\") (result i32) i32.const -7 i32x4.splat global.set $g " +
+                                                    "global.get $g i32x4.extract_lane 3))"),
+    };
+
+    @Override
+    protected Collection<? extends WasmCase> collectStringTestCases() {
+        return Arrays.asList(testCases);
+    }
+
+    @Override
+    @Test
+    public void test() throws IOException {
+        // This is here just to make mx aware of the test suite class.
+        super.test();
+    }
+}
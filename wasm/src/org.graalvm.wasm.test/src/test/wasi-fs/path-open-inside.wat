@@ -0,0 +1,95 @@
+;;
+;; Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+(module
+  (type (;0;) (func (result i32)))
+  (type (;1;) (func (param i32) (result i32)))
+  (type (;2;) (func (param i32 i32 i32 i32 i32 i64 i64 i32 i32) (result i32)))
+  (import "wasi" "fd_close" (func $__wasi_fd_close (type 1)))
+  (import "wasi" "path_open" (func $__wasi_path_open (type 2)))
+  (import "memory" "memory" (memory (;0;) 4))
+  (func (export "_main") (type 0)
+    (local i32 i32)
+    ;; Open a file inside of the preopened directory.
+    i32.const 256
+    i64.const 0x78742e7475706e69
+    i64.store
+    i32.const 264
+    i32.const 116
+    i32.store8
+    i32.const 3
+    i32.const 0
+    i32.const 256
+    i32.const 9
+    i32.const 0
+    i64.const 2
+    i64.const 0
+    i32.const 0
+    i32.const 0
+    call $__wasi_path_open
+    local.tee 1
+    i32.eqz
+    if
+      ;; Close the descriptor, so that it does not leak into the next iteration.
+      i32.const 0
+      i32.load
+      call $__wasi_fd_close
+      local.set 1
+    end
+    ;; Clear the scratch memory, so that the memory is the same in every iteration.
+    i32.const 0
+    local.set 0
+    block
+      loop
+        local.get 0
+        i64.const 0
+        i64.store
+        local.get 0
+        i32.const 8
+        i32.add
+        local.tee 0
+        i32.const 512
+        i32.lt_u
+        br_if 0
+      end
+    end
+    local.get 1
+  )
+)
@@ -74,6 +74,8 @@ public class WasmBinaryTools {
                                         // This option is needed so that wat2wasm agrees to generate
                                         // invalid wasm files.
                                         "--no-check",
+                                        // Enables the 0xFD-prefixed v128 instructions.
+                                        "--enable-simd",
                                         "-o",
                                         output.getPath(),
                         });
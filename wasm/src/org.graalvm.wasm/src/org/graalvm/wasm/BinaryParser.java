@@ -45,6 +45,7 @@ import static org.graalvm.wasm.WasmUtil.unsignedInt32ToLong;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.graalvm.wasm.collection.ByteArrayList;
 import org.graalvm.wasm.constants.CallIndirect;
@@ -54,7 +55,9 @@ import org.graalvm.wasm.constants.ImportIdentifier;
 import org.graalvm.wasm.constants.Instructions;
 import org.graalvm.wasm.constants.LimitsPrefix;
 import org.graalvm.wasm.constants.Section;
+import org.graalvm.wasm.constants.VectorInstructions;
 import org.graalvm.wasm.exception.WasmLinkerException;
+import org.graalvm.wasm.exception.WasmValidationException;
 import org.graalvm.wasm.memory.WasmMemory;
 import org.graalvm.wasm.nodes.WasmBlockNode;
 import org.graalvm.wasm.nodes.WasmCallStubNode;
@@ -63,6 +66,8 @@ import org.graalvm.wasm.nodes.WasmIndirectCallNode;
 import org.graalvm.wasm.nodes.WasmNode;
 import org.graalvm.wasm.nodes.WasmRootNode;
 
+import org.graalvm.options.OptionValues;
+
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.LoopNode;
@@ -94,6 +99,13 @@ public class BinaryParser extends BinaryStreamParser {
     // to track the current largest function index.
     private int moduleFunctionIndex;
 
+    /**
+     * The call sites encountered while parsing function bodies. They are registered with the
+     * linker only after the bodies were parsed, because the bodies may be parsed on several
+     * threads, and the linker is not thread-safe.
+     */
+    private final ArrayList<Callsite> callsites;
+
     BinaryParser(WasmLanguage language, WasmModule module, WasmContext context, byte[] data) {
         super(data);
         this.language = language;
@@ -101,6 +113,7 @@ public class BinaryParser extends BinaryStreamParser {
         this.context = context;
         this.limitsResult = new int[2];
         this.moduleFunctionIndex = 0;
+        this.callsites = new ArrayList<>();
     }
 
     WasmModule readModule() {
@@ -211,7 +224,7 @@ public class BinaryParser extends BinaryStreamParser {
                     break;
                 }
                 case ImportIdentifier.GLOBAL: {
-                    byte type = readValueType();
+                    byte type = readGlobalValueType();
                     byte mutability = readMutability();
                     int index = module.symbolTable().maxGlobalIndex() + 1;
                     module.symbolTable().importGlobal(context, moduleName, memberName, index, type, mutability);
@@ -264,16 +277,94 @@ public class BinaryParser extends BinaryStreamParser {
         for (int entry = 0; entry != numCodeEntries; ++entry) {
             rootNodes[entry] = createCodeEntry(moduleFunctionIndex + entry);
         }
+        int[] entryOffsets = new int[numCodeEntries];
+        int[] entrySizes = new int[numCodeEntries];
+        int codeSize = 0;
         for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
             int codeEntrySize = readUnsignedInt32();
-            int startOffset = offset;
-            readCodeEntry(moduleFunctionIndex + entryIndex, rootNodes[entryIndex]);
-            Assert.assertIntEqual(offset - startOffset, codeEntrySize, String.format("Code entry %d size is incorrect", entryIndex));
+            Assert.assertIntLessOrEqual(offset + codeEntrySize, data.length, String.format("Code entry %d exceeds the module size", entryIndex));
+            entryOffsets[entryIndex] = offset;
+            entrySizes[entryIndex] = codeEntrySize;
+            offset += codeEntrySize;
+            codeSize += codeEntrySize;
             context.linker().resolveCodeEntry(module, entryIndex);
         }
+        final OptionValues options = context.environment().getOptions();
+        if (WasmOptions.LazyFunctionParsing.getValue(options)) {
+            for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
+                rootNodes[entryIndex].setLazyBody(new LazyFunctionBody(language, module, moduleFunctionIndex + entryIndex, entryOffsets[entryIndex], entrySizes[entryIndex]));
+            }
+        } else {
+            int threads = WasmOptions.ParallelParsingThreads.getValue(options);
+            if (threads == 0) {
+                threads = Runtime.getRuntime().availableProcessors();
+            }
+            threads = Math.min(threads, numCodeEntries);
+            if (threads > 1 && codeSize >= WasmOptions.ParallelParsingCodeSize.getValue(options)) {
+                readCodeEntriesInParallel(rootNodes, entryOffsets, entrySizes, threads, codeSize);
+            } else {
+                for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
+                    BinaryParser bodyParser = new BinaryParser(language, module, context, data);
+                    bodyParser.readCodeEntry(moduleFunctionIndex + entryIndex, rootNodes[entryIndex], entryOffsets[entryIndex], entrySizes[entryIndex]);
+                    bodyParser.resolveCallsites();
+                }
+            }
+        }
         moduleFunctionIndex += numCodeEntries;
     }
 
+    /**
+     * Parses the function bodies on {@code threadCount} threads, each of which claims the next
+     * unparsed body until all of them are parsed. The call sites are registered in the order of the
+     * bodies once all threads are done, and the failure of the first invalid body is rethrown.
+     */
+    private void readCodeEntriesInParallel(WasmRootNode[] rootNodes, int[] entryOffsets, int[] entrySizes, int threadCount, int codeSize) {
+        final int numCodeEntries = rootNodes.length;
+        final int firstFunctionIndex = moduleFunctionIndex;
+        final BinaryParser[] bodyParsers = new BinaryParser[numCodeEntries];
+        final Throwable[] failures = new Throwable[numCodeEntries];
+        final AtomicInteger nextEntry = new AtomicInteger();
+        final Runnable parsing = new Runnable() {
+            @Override
+            public void run() {
+                for (int entryIndex = nextEntry.getAndIncrement(); entryIndex < numCodeEntries; entryIndex = nextEntry.getAndIncrement()) {
+                    try {
+                        BinaryParser bodyParser = new BinaryParser(language, module, context, data);
+                        bodyParser.readCodeEntry(firstFunctionIndex + entryIndex, rootNodes[entryIndex], entryOffsets[entryIndex], entrySizes[entryIndex]);
+                        bodyParsers[entryIndex] = bodyParser;
+                    } catch (Throwable t) {
+                        failures[entryIndex] = t;
+                    }
+                }
+            }
+        };
+        final int stackSize = WasmLanguage.parsingStackSize(context, codeSize);
+        final Thread[] threads = new Thread[threadCount - 1];
+        for (int i = 0; i != threads.length; ++i) {
+            threads[i] = new Thread(null, parsing, "wasm-body-parsing-thread(" + module.name() + ", " + i + ")", stackSize);
+            threads[i].start();
+        }
+        parsing.run();
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            throw new WasmValidationException("Parallel parsing interrupted.", e);
+        }
+        for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
+            final Throwable failure = failures[entryIndex];
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new WasmValidationException("Parallel parsing failed.", failure);
+            }
+            bodyParsers[entryIndex].resolveCallsites();
+        }
+    }
+
     private WasmRootNode createCodeEntry(int funcIndex) {
         final WasmFunction function = module.symbolTable().function(funcIndex);
         WasmCodeEntry codeEntry = new WasmCodeEntry(function, data);
@@ -291,7 +382,13 @@ public class BinaryParser extends BinaryStreamParser {
         return rootNode;
     }
 
-    private void readCodeEntry(int funcIndex, WasmRootNode rootNode) {
+    /**
+     * Parses and validates the function body that starts at {@code startOffset}, and sets it as the
+     * body of the {@code rootNode}. The call sites in the body are only recorded, and must be
+     * resolved with {@link #resolveCallsites()} on the thread that owns the linker.
+     */
+    void readCodeEntry(int funcIndex, WasmRootNode rootNode, int startOffset, int size) {
+        offset = startOffset;
         /*
          * Initialise the code entry local variables (which contain the parameters and the locals).
          */
@@ -326,6 +423,22 @@ public class BinaryParser extends BinaryStreamParser {
             rootNode.codeEntry().setBranchTables(state.branchTables());
         }
         rootNode.codeEntry().initStackSlots(rootNode.getFrameDescriptor(), state.maxStackSize());
+        Assert.assertIntEqual(offset - startOffset, size, String.format("Code entry of function %d size is incorrect", funcIndex));
+    }
+
+    /**
+     * Registers the recorded call sites with the linker, or resolves them right away if the module
+     * was already linked, which is the case for lazily parsed function bodies.
+     */
+    void resolveCallsites() {
+        for (Callsite callsite : callsites) {
+            if (module.isLinked()) {
+                callsite.block.resolveCallNode(callsite.childOffset);
+            } else {
+                context.linker().resolveCallsite(module, callsite.block, callsite.childOffset, callsite.function);
+            }
+        }
+        callsites.clear();
     }
 
     private ByteArrayList readCodeEntryLocals() {
@@ -539,7 +652,7 @@ public class BinaryParser extends BinaryStreamParser {
                     // Therefore, the call node will be created lazily during linking,
                     // after the call target from the other module exists.
                     children.add(new WasmCallStubNode(function));
-                    context.linker().resolveCallsite(module, currentBlock, children.size() - 1, function);
+                    callsites.add(new Callsite(currentBlock, children.size() - 1, function));
 
                     break;
                 }
@@ -868,6 +981,9 @@ public class BinaryParser extends BinaryStreamParser {
                     state.pop();
                     state.push();
                     break;
+                case Instructions.VECTOR:
+                    readVectorInstruction(state);
+                    break;
                 default:
                     Assert.fail(Assert.format("Unknown opcode: 0x%02x", opcode));
                     break;
@@ -1052,10 +1168,11 @@ public class BinaryParser extends BinaryStreamParser {
         int numGlobals = readVectorLength();
         int startingGlobalIndex = module.symbolTable().maxGlobalIndex() + 1;
         for (int globalIndex = startingGlobalIndex; globalIndex != startingGlobalIndex + numGlobals; globalIndex++) {
-            byte type = readValueType();
+            byte type = readGlobalValueType();
             // 0x00 means const, 0x01 means var
             byte mutability = readMutability();
             long value = 0;
+            Vector128 vectorValue = null;
             int existingIndex = -1;
             byte instruction = read1();
             boolean isInitialized;
@@ -1078,6 +1195,10 @@ public class BinaryParser extends BinaryStreamParser {
                     value = readFloatAsInt64();
                     isInitialized = true;
                     break;
+                case (byte) Instructions.VECTOR:
+                    vectorValue = readVector128ConstantExpression();
+                    isInitialized = true;
+                    break;
                 case Instructions.GLOBAL_GET:
                     existingIndex = readGlobalIndex();
                     isInitialized = false;
@@ -1089,7 +1210,13 @@ public class BinaryParser extends BinaryStreamParser {
             Assert.assertByteEqual(instruction, (byte) Instructions.END, "Global initialization must end with END");
             final int address = module.symbolTable().declareGlobal(context, globalIndex, type, mutability);
             if (isInitialized) {
-                globals.storeLong(address, value);
+                if (type == ValueTypes.V128_TYPE) {
+                    Assert.assertNotNull(vectorValue, "Invalid initialization for v128 global " + globalIndex);
+                    globals.storeVector128(address, vectorValue);
+                } else {
+                    Assert.assertTrue(vectorValue == null, "Invalid v128 initialization for global " + globalIndex);
+                    globals.storeLong(address, value);
+                }
                 context.linker().resolveGlobalInitialization(module, globalIndex);
             } else {
                 if (!module.symbolTable().importedGlobals().containsKey(existingIndex)) {
@@ -1249,6 +1376,230 @@ public class BinaryParser extends BinaryStreamParser {
         return readUnsignedInt32(state);
     }
 
+    private void readVectorInstruction(ExecutionState state) {
+        int vectorOpcode = readUnsignedInt32(state);
+        switch (vectorOpcode) {
+            case VectorInstructions.V128_LOAD:
+            case VectorInstructions.V128_LOAD8_SPLAT:
+            case VectorInstructions.V128_LOAD16_SPLAT:
+            case VectorInstructions.V128_LOAD32_SPLAT:
+            case VectorInstructions.V128_LOAD64_SPLAT:
+                // We don't store the `align` literal, but we need to store its byte length, so that
+                // we can skip it during execution.
+                if (mustPoolLeb128()) {
+                    state.useByteConstant(peekLeb128Length(data, offset));
+                }
+                readUnsignedInt32(); // align
+                readUnsignedInt32(state); // load offset
+                Assert.assertIntGreater(state.stackSize(), 0, String.format("vector load instruction 0x%02X requires at least one element in the stack", vectorOpcode));
+                state.pop();   // Base address.
+                state.push();  // Loaded value.
+                break;
+            case VectorInstructions.V128_STORE:
+                if (mustPoolLeb128()) {
+                    state.useByteConstant(peekLeb128Length(data, offset));
+                }
+                readUnsignedInt32(); // align
+                readUnsignedInt32(state); // store offset
+                Assert.assertIntGreater(state.stackSize(), 1, "v128.store requires at least two elements in the stack");
+                state.pop();  // Value to store.
+                state.pop();  // Base address.
+                break;
+            case VectorInstructions.V128_CONST:
+                read8();
+                read8();
+                state.push();
+                break;
+            case VectorInstructions.I8X16_SHUFFLE:
+                for (int i = 0; i != Vector128.BYTES; i++) {
+                    Assert.assertIntIn(Byte.toUnsignedInt(read1()), 0, 2 * Vector128.BYTES - 1, "Invalid lane index for i8x16.shuffle");
+                }
+                Assert.assertIntGreater(state.stackSize(), 1, "i8x16.shuffle requires at least two elements in the stack");
+                state.pop(2);
+                state.push();
+                break;
+            case VectorInstructions.I8X16_SPLAT:
+            case VectorInstructions.I16X8_SPLAT:
+            case VectorInstructions.I32X4_SPLAT:
+            case VectorInstructions.I64X2_SPLAT:
+            case VectorInstructions.F32X4_SPLAT:
+            case VectorInstructions.F64X2_SPLAT:
+            case VectorInstructions.V128_NOT:
+            case VectorInstructions.I8X16_NEG:
+            case VectorInstructions.I16X8_NEG:
+            case VectorInstructions.I32X4_ABS:
+            case VectorInstructions.I32X4_NEG:
+            case VectorInstructions.I64X2_NEG:
+            case VectorInstructions.F32X4_ABS:
+            case VectorInstructions.F32X4_NEG:
+            case VectorInstructions.F32X4_SQRT:
+            case VectorInstructions.F64X2_ABS:
+            case VectorInstructions.F64X2_NEG:
+            case VectorInstructions.F64X2_SQRT:
+            case VectorInstructions.I32X4_TRUNC_SAT_F32X4_S:
+            case VectorInstructions.I32X4_TRUNC_SAT_F32X4_U:
+            case VectorInstructions.F32X4_CONVERT_I32X4_S:
+            case VectorInstructions.F32X4_CONVERT_I32X4_U:
+            case VectorInstructions.V128_ANY_TRUE:
+            case VectorInstructions.I8X16_ALL_TRUE:
+            case VectorInstructions.I16X8_ALL_TRUE:
+            case VectorInstructions.I32X4_ALL_TRUE:
+            case VectorInstructions.I32X4_BITMASK:
+                Assert.assertIntGreater(state.stackSize(), 0, String.format("vector instruction 0x%02X requires at least one element in the stack", vectorOpcode));
+                state.pop();
+                state.push();
+                break;
+            case VectorInstructions.I8X16_EXTRACT_LANE_S:
+            case VectorInstructions.I8X16_EXTRACT_LANE_U:
+            case VectorInstructions.I16X8_EXTRACT_LANE_S:
+            case VectorInstructions.I16X8_EXTRACT_LANE_U:
+            case VectorInstructions.I32X4_EXTRACT_LANE:
+            case VectorInstructions.I64X2_EXTRACT_LANE:
+            case VectorInstructions.F32X4_EXTRACT_LANE:
+            case VectorInstructions.F64X2_EXTRACT_LANE:
+                readLaneIndex(vectorOpcode);
+                Assert.assertIntGreater(state.stackSize(), 0, String.format("vector instruction 0x%02X requires at least one element in the stack", vectorOpcode));
+                state.pop();
+                state.push();
+                break;
+            case VectorInstructions.I8X16_REPLACE_LANE:
+            case VectorInstructions.I16X8_REPLACE_LANE:
+            case VectorInstructions.I32X4_REPLACE_LANE:
+            case VectorInstructions.I64X2_REPLACE_LANE:
+            case VectorInstructions.F32X4_REPLACE_LANE:
+            case VectorInstructions.F64X2_REPLACE_LANE:
+                readLaneIndex(vectorOpcode);
+                Assert.assertIntGreater(state.stackSize(), 1, String.format("vector instruction 0x%02X requires at least two elements in the stack", vectorOpcode));
+                state.pop(2);
+                state.push();
+                break;
+            case VectorInstructions.V128_AND:
+            case VectorInstructions.V128_ANDNOT:
+            case VectorInstructions.V128_OR:
+            case VectorInstructions.V128_XOR:
+            case VectorInstructions.I8X16_SWIZZLE:
+            case VectorInstructions.I8X16_EQ:
+            case VectorInstructions.I8X16_NE:
+            case VectorInstructions.I8X16_ADD:
+            case VectorInstructions.I8X16_SUB:
+            case VectorInstructions.I16X8_EQ:
+            case VectorInstructions.I16X8_NE:
+            case VectorInstructions.I16X8_ADD:
+            case VectorInstructions.I16X8_SUB:
+            case VectorInstructions.I16X8_MUL:
+            case VectorInstructions.I32X4_EQ:
+            case VectorInstructions.I32X4_NE:
+            case VectorInstructions.I32X4_LT_S:
+            case VectorInstructions.I32X4_LT_U:
+            case VectorInstructions.I32X4_GT_S:
+            case VectorInstructions.I32X4_GT_U:
+            case VectorInstructions.I32X4_LE_S:
+            case VectorInstructions.I32X4_LE_U:
+            case VectorInstructions.I32X4_GE_S:
+            case VectorInstructions.I32X4_GE_U:
+            case VectorInstructions.I32X4_ADD:
+            case VectorInstructions.I32X4_SUB:
+            case VectorInstructions.I32X4_MUL:
+            case VectorInstructions.I32X4_MIN_S:
+            case VectorInstructions.I32X4_MIN_U:
+            case VectorInstructions.I32X4_MAX_S:
+            case VectorInstructions.I32X4_MAX_U:
+            case VectorInstructions.I64X2_ADD:
+            case VectorInstructions.I64X2_SUB:
+            case VectorInstructions.I64X2_MUL:
+            case VectorInstructions.F32X4_EQ:
+            case VectorInstructions.F32X4_NE:
+            case VectorInstructions.F32X4_LT:
+            case VectorInstructions.F32X4_GT:
+            case VectorInstructions.F32X4_LE:
+            case VectorInstructions.F32X4_GE:
+            case VectorInstructions.F32X4_ADD:
+            case VectorInstructions.F32X4_SUB:
+            case VectorInstructions.F32X4_MUL:
+            case VectorInstructions.F32X4_DIV:
+            case VectorInstructions.F32X4_MIN:
+            case VectorInstructions.F32X4_MAX:
+            case VectorInstructions.F64X2_EQ:
+            case VectorInstructions.F64X2_NE:
+            case VectorInstructions.F64X2_LT:
+            case VectorInstructions.F64X2_GT:
+            case VectorInstructions.F64X2_LE:
+            case VectorInstructions.F64X2_GE:
+            case VectorInstructions.F64X2_ADD:
+            case VectorInstructions.F64X2_SUB:
+            case VectorInstructions.F64X2_MUL:
+            case VectorInstructions.F64X2_DIV:
+            case VectorInstructions.F64X2_MIN:
+            case VectorInstructions.F64X2_MAX:
+            case VectorInstructions.I8X16_SHL:
+            case VectorInstructions.I8X16_SHR_S:
+            case VectorInstructions.I8X16_SHR_U:
+            case VectorInstructions.I16X8_SHL:
+            case VectorInstructions.I16X8_SHR_S:
+            case VectorInstructions.I16X8_SHR_U:
+            case VectorInstructions.I32X4_SHL:
+            case VectorInstructions.I32X4_SHR_S:
+            case VectorInstructions.I32X4_SHR_U:
+            case VectorInstructions.I64X2_SHL:
+            case VectorInstructions.I64X2_SHR_S:
+            case VectorInstructions.I64X2_SHR_U:
+                Assert.assertIntGreater(state.stackSize(), 1, String.format("vector instruction 0x%02X requires at least two elements in the stack", vectorOpcode));
+                state.pop(2);
+                state.push();
+                break;
+            case VectorInstructions.V128_BITSELECT:
+                Assert.assertIntGreater(state.stackSize(), 2, "v128.bitselect requires at least three elements in the stack");
+                state.pop(3);
+                state.push();
+                break;
+            default:
+                Assert.fail(Assert.format("Unknown vector opcode: 0x%02x", vectorOpcode));
+                break;
+        }
+    }
+
+    private void readLaneIndex(int vectorOpcode) {
+        final int lane = Byte.toUnsignedInt(read1());
+        final int laneCount;
+        switch (vectorOpcode) {
+            case VectorInstructions.I8X16_EXTRACT_LANE_S:
+            case VectorInstructions.I8X16_EXTRACT_LANE_U:
+            case VectorInstructions.I8X16_REPLACE_LANE:
+                laneCount = 16;
+                break;
+            case VectorInstructions.I16X8_EXTRACT_LANE_S:
+            case VectorInstructions.I16X8_EXTRACT_LANE_U:
+            case VectorInstructions.I16X8_REPLACE_LANE:
+                laneCount = 8;
+                break;
+            case VectorInstructions.I32X4_EXTRACT_LANE:
+            case VectorInstructions.I32X4_REPLACE_LANE:
+            case VectorInstructions.F32X4_EXTRACT_LANE:
+            case VectorInstructions.F32X4_REPLACE_LANE:
+                laneCount = 4;
+                break;
+            default:
+                laneCount = 2;
+                break;
+        }
+        Assert.assertIntIn(lane, 0, laneCount - 1, String.format("Invalid lane index for vector instruction 0x%02X", vectorOpcode));
+    }
+
+    private byte readGlobalValueType() {
+        return readValueType();
+    }
+
+    /**
+     * Reads the rest of a {@code v128.const} constant expression, after the {@code VECTOR} prefix.
+     */
+    private Vector128 readVector128ConstantExpression() {
+        int vectorOpcode = readUnsignedInt32();
+        Assert.assertIntEqual(vectorOpcode, VectorInstructions.V128_CONST, "Invalid vector instruction for global initialization");
+        long low = read8();
+        long high = read8();
+        return new Vector128(low, high);
+    }
+
     private int readLocalIndex(ExecutionState state) {
         return readUnsignedInt32(state);
     }
@@ -1430,11 +1781,12 @@ public class BinaryParser extends BinaryStreamParser {
             int numGlobals = readVectorLength();
             int startingGlobalIndex = globalIndex;
             for (; globalIndex != startingGlobalIndex + numGlobals; globalIndex++) {
-                readValueType();
+                byte type = readValueType();
                 // Read mutability;
                 read1();
                 byte instruction = read1();
                 long value = 0;
+                Vector128 vectorValue = null;
                 switch (instruction) {
                     case Instructions.I32_CONST: {
                         value = readSignedInt32();
@@ -1452,6 +1804,10 @@ public class BinaryParser extends BinaryStreamParser {
                         value = readFloatAsInt64();
                         break;
                     }
+                    case (byte) Instructions.VECTOR: {
+                        vectorValue = readVector128ConstantExpression();
+                        break;
+                    }
                     case Instructions.GLOBAL_GET: {
                         int existingIndex = readGlobalIndex();
                         if (module.symbolTable().globalMutability(existingIndex) == GlobalModifier.MUTABLE) {
@@ -1459,14 +1815,22 @@ public class BinaryParser extends BinaryStreamParser {
                                             "with a non-constant global variable (not implemented).");
                         }
                         final int existingAddress = module.symbolTable().globalAddress(existingIndex);
-                        value = globals.loadAsLong(existingAddress);
+                        if (type == ValueTypes.V128_TYPE) {
+                            vectorValue = globals.loadAsVector128(existingAddress);
+                        } else {
+                            value = globals.loadAsLong(existingAddress);
+                        }
                         break;
                     }
                 }
                 // Read END.
                 read1();
                 final int address = module.symbolTable().globalAddress(globalIndex);
-                globals.storeLong(address, value);
+                if (type == ValueTypes.V128_TYPE) {
+                    globals.storeVector128(address, vectorValue);
+                } else {
+                    globals.storeLong(address, value);
+                }
             }
         }
     }
@@ -1480,4 +1844,16 @@ public class BinaryParser extends BinaryStreamParser {
             readDataSection();
         }
     }
+
+    private static final class Callsite {
+        private final WasmBlockNode block;
+        private final int childOffset;
+        private final WasmFunction function;
+
+        private Callsite(WasmBlockNode block, int childOffset, WasmFunction function) {
+            this.block = block;
+            this.childOffset = childOffset;
+            this.function = function;
+        }
+    }
 }
@@ -253,6 +253,7 @@ public abstract class BinaryStreamParser {
             case ValueTypes.I64_TYPE:
             case ValueTypes.F32_TYPE:
             case ValueTypes.F64_TYPE:
+            case ValueTypes.V128_TYPE:
                 break;
             default:
                 Assert.fail(String.format("Invalid value type: 0x%02X", b));
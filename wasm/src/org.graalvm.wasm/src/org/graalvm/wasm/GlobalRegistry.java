@@ -77,6 +77,16 @@ public class GlobalRegistry {
         return idx;
     }
 
+    /**
+     * Allocates a global of type v128, which takes two consecutive slots: the low half of the
+     * value is stored at the returned address, and the high half at the next address.
+     */
+    public int allocateVector128Global() {
+        final int idx = allocateGlobal();
+        allocateGlobal();
+        return idx;
+    }
+
     public int loadAsInt(int address) {
         return (int) globals[address];
     }
@@ -93,6 +103,10 @@ public class GlobalRegistry {
         return Double.longBitsToDouble(globals[address]);
     }
 
+    public Vector128 loadAsVector128(int address) {
+        return new Vector128(globals[address], globals[address + 1]);
+    }
+
     public void storeInt(int address, int value) {
         globals[address] = value;
     }
@@ -117,6 +131,11 @@ public class GlobalRegistry {
         globals[address] = value;
     }
 
+    public void storeVector128(int address, Vector128 value) {
+        globals[address] = value.low();
+        globals[address + 1] = value.high();
+    }
+
     public GlobalRegistry duplicate() {
         final GlobalRegistry other = new GlobalRegistry();
         for (int i = 0; i < numGlobals; i++) {
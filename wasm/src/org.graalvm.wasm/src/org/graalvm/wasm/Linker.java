@@ -229,9 +229,13 @@ public class Linker {
     void resolveGlobalInitialization(WasmContext context, WasmModule module, int globalIndex, int sourceGlobalIndex) {
         final Runnable resolveAction = () -> {
             final int sourceAddress = module.symbolTable().globalAddress(sourceGlobalIndex);
-            final long sourceValue = context.globals().loadAsLong(sourceAddress);
             final int address = module.symbolTable().globalAddress(globalIndex);
-            context.globals().storeLong(address, sourceValue);
+            if (module.symbolTable().globalValueType(globalIndex) == ValueTypes.V128_TYPE) {
+                context.globals().storeVector128(address, context.globals().loadAsVector128(sourceAddress));
+            } else {
+                final long sourceValue = context.globals().loadAsLong(sourceAddress);
+                context.globals().storeLong(address, sourceValue);
+            }
             module.symbolTable().initializeGlobal(globalIndex);
         };
         final Sym[] dependencies = new Sym[]{new InitializeGlobalSym(module.name(), sourceGlobalIndex)};
@@ -78,4 +78,15 @@ public class MemoryRegistry {
         assert index < numMemories;
         return memories[index];
     }
+
+    /**
+     * Releases the native memory of all the memories in this registry.
+     */
+    public void close() {
+        for (int i = 0; i < numMemories; i++) {
+            memories[i].close();
+            memories[i] = null;
+        }
+        numMemories = 0;
+    }
 }
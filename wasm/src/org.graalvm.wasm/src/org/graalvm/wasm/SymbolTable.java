@@ -52,6 +52,7 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import org.graalvm.wasm.constants.GlobalModifier;
 import org.graalvm.wasm.exception.WasmValidationException;
 import org.graalvm.wasm.exception.WasmLinkerException;
+import org.graalvm.wasm.memory.ReservedWasmMemory;
 import org.graalvm.wasm.memory.UnsafeWasmMemory;
 import org.graalvm.wasm.memory.WasmMemory;
 import org.graalvm.wasm.memory.WasmMemoryException;
@@ -576,7 +577,7 @@ public class SymbolTable {
 
     int declareGlobal(WasmContext context, int index, byte valueType, byte mutability) {
         final GlobalRegistry globals = context.globals();
-        final int address = globals.allocateGlobal();
+        final int address = valueType == ValueTypes.V128_TYPE ? globals.allocateVector128Global() : globals.allocateGlobal();
         allocateGlobal(index, valueType, mutability, address);
         return address;
     }
@@ -729,7 +730,11 @@ public class SymbolTable {
     public WasmMemory allocateMemory(WasmContext context, int initSize, int maxSize) {
         checkNotLinked();
         validateSingleMemory();
-        memory = new UnsafeWasmMemory(initSize, maxSize);
+        if (WasmOptions.ReserveMemory.getValue(context.environment().getOptions())) {
+            memory = ReservedWasmMemory.create(initSize, maxSize);
+        } else {
+            memory = new UnsafeWasmMemory(initSize, maxSize);
+        }
         context.memories().allocateMemory(memory);
         return memory;
     }
@@ -49,6 +49,7 @@ public class ValueTypes {
     public static final byte I64_TYPE = 0x7E;
     public static final byte F32_TYPE = 0x7D;
     public static final byte F64_TYPE = 0x7C;
+    public static final byte V128_TYPE = 0x7B;
 
     public static String asString(int valueType) {
         switch (valueType) {
@@ -60,6 +61,8 @@ public class ValueTypes {
                 return "f32";
             case F64_TYPE:
                 return "f64";
+            case V128_TYPE:
+                return "v128";
             default:
                 throw new WasmValidationException("Unknown value type: 0x" + Integer.toHexString(valueType));
         }
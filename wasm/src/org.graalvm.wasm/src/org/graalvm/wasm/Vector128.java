@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+
+/**
+ * An immutable 128-bit value of the {@code v128} type.
+ *
+ * The value is stored as two little-endian 64-bit halves, and can be viewed as 16 8-bit lanes, 8
+ * 16-bit lanes, 4 32-bit lanes or 2 64-bit lanes. Since the class has no identity-sensitive state,
+ * values that do not escape a compilation unit are scalar-replaced by the compiler.
+ *
+ * To other languages, the value is an array of 16 unsigned bytes.
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class Vector128 implements TruffleObject {
+    public static final int BYTES = 16;
+
+    public static final Vector128 ZERO = new Vector128(0, 0);
+
+    private final long low;
+    private final long high;
+
+    public Vector128(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * The lanes 0-7 of the value, when viewed as 8-bit lanes.
+     */
+    public long low() {
+        return low;
+    }
+
+    /**
+     * The lanes 8-15 of the value, when viewed as 8-bit lanes.
+     */
+    public long high() {
+        return high;
+    }
+
+    private long half(int lane, int lanesPerHalf) {
+        return lane < lanesPerHalf ? low : high;
+    }
+
+    public byte i8(int lane) {
+        return (byte) (half(lane, 8) >>> ((lane & 7) * 8));
+    }
+
+    public short i16(int lane) {
+        return (short) (half(lane, 4) >>> ((lane & 3) * 16));
+    }
+
+    public int i32(int lane) {
+        return (int) (half(lane, 2) >>> ((lane & 1) * 32));
+    }
+
+    public long i64(int lane) {
+        return half(lane, 1);
+    }
+
+    public float f32(int lane) {
+        return Float.intBitsToFloat(i32(lane));
+    }
+
+    public double f64(int lane) {
+        return Double.longBitsToDouble(i64(lane));
+    }
+
+    public static Vector128 ofI32(int lane0, int lane1, int lane2, int lane3) {
+        return new Vector128((lane0 & 0xFFFF_FFFFL) | ((long) lane1 << 32), (lane2 & 0xFFFF_FFFFL) | ((long) lane3 << 32));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Vector128)) {
+            return false;
+        }
+        final Vector128 that = (Vector128) obj;
+        return low == that.low && high == that.high;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(low) * 31 + Long.hashCode(high);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("0x%016X%016X", high, low);
+    }
+
+    @ExportMessage
+    boolean hasArrayElements() {
+        return true;
+    }
+
+    @ExportMessage
+    long getArraySize() {
+        return BYTES;
+    }
+
+    @ExportMessage
+    boolean isArrayElementReadable(long index) {
+        return index >= 0 && index < BYTES;
+    }
+
+    @ExportMessage
+    Object readArrayElement(long index) throws InvalidArrayIndexException {
+        if (!isArrayElementReadable(index)) {
+            CompilerDirectives.transferToInterpreter();
+            throw InvalidArrayIndexException.create(index);
+        }
+        return i8((int) index) & 0xFF;
+    }
+}
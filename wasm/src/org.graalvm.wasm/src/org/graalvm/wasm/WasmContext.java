@@ -50,6 +50,7 @@ import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.source.Source;
 import org.graalvm.wasm.exception.WasmValidationException;
 import org.graalvm.wasm.predefined.BuiltinModule;
+import org.graalvm.wasm.predefined.wasi.FdManager;
 
 public final class WasmContext {
     private final Env env;
@@ -59,6 +60,7 @@ public final class WasmContext {
     private final TableRegistry tableRegistry;
     private final Linker linker;
     private Map<String, WasmModule> modules;
+    private FdManager fdManager;
 
     public static WasmContext getCurrent() {
         return WasmLanguage.getCurrentContext();
@@ -104,6 +106,26 @@ public final class WasmContext {
         return linker;
     }
 
+    /**
+     * Returns the WASI file descriptors of this context, which are created on first use.
+     */
+    public FdManager fdManager() {
+        if (fdManager == null) {
+            fdManager = new FdManager(env, WasmOptions.WasiMapDirs.getValue(env.getOptions()));
+        }
+        return fdManager;
+    }
+
+    /**
+     * Releases the resources of this context, i.e. its memories and its open files.
+     */
+    void close() {
+        memoryRegistry.close();
+        if (fdManager != null) {
+            fdManager.close();
+        }
+    }
+
     public Iterable<Scope> getTopScopes() {
         // Go through all WasmModules parsed with this context, and create a Scope for each of them.
         ArrayList<Scope> scopes = new ArrayList<>();
@@ -59,6 +59,11 @@ public final class WasmLanguage extends TruffleLanguage<WasmContext> {
         return new WasmContext(env, this);
     }
 
+    @Override
+    protected void disposeContext(WasmContext context) {
+        context.close();
+    }
+
     @Override
     protected CallTarget parse(ParsingRequest request) {
         final WasmContext context = getCurrentContext();
@@ -84,10 +89,7 @@ public final class WasmLanguage extends TruffleLanguage<WasmContext> {
                 }
             };
             final String name = "wasm-parsing-thread(" + module.name() + ")";
-            final int requestedSize = WasmOptions.AsyncParsingStackSize.getValue(context.environment().getOptions()) * 1000;
-            final int defaultSize = Math.max(MIN_DEFAULT_STACK_SIZE, Math.min(2 * binarySize, MAX_DEFAULT_ASYNC_STACK_SIZE));
-            final int stackSize = requestedSize != 0 ? requestedSize : defaultSize;
-            final Thread parsingThread = new Thread(null, parsing, name, stackSize);
+            final Thread parsingThread = new Thread(null, parsing, name, parsingStackSize(context, binarySize));
             final ParsingExceptionHandler handler = new ParsingExceptionHandler();
             parsingThread.setUncaughtExceptionHandler(handler);
             parsingThread.start();
@@ -102,6 +104,12 @@ public final class WasmLanguage extends TruffleLanguage<WasmContext> {
         }
     }
 
+    static int parsingStackSize(WasmContext context, int binarySize) {
+        final int requestedSize = WasmOptions.AsyncParsingStackSize.getValue(context.environment().getOptions()) * 1000;
+        final int defaultSize = Math.max(MIN_DEFAULT_STACK_SIZE, Math.min(2 * binarySize, MAX_DEFAULT_ASYNC_STACK_SIZE));
+        return requestedSize != 0 ? requestedSize : defaultSize;
+    }
+
     private void readModuleSynchronously(WasmContext context, WasmModule module, byte[] data) {
         final BinaryParser reader = new BinaryParser(this, module, context, data);
         reader.readModule();
@@ -130,7 +130,8 @@ public final class WasmModule implements TruffleObject {
             throw UnknownIdentifierException.create(member);
         }
         final int address = symbolTable.globalAddress(index);
-        if (!(value instanceof Number)) {
+        final boolean vector = symbolTable.globalValueType(index) == ValueTypes.V128_TYPE;
+        if (vector ? !(value instanceof Vector128) : !(value instanceof Number)) {
             throw UnsupportedMessageException.create();
         }
         final boolean mutable = symbolTable.globalMutability(index) == GlobalModifier.MUTABLE;
@@ -138,6 +139,10 @@ public final class WasmModule implements TruffleObject {
             // Constant variables cannot be modified after linking.
             throw UnsupportedMessageException.create();
         }
+        if (vector) {
+            WasmContext.getCurrent().globals().storeVector128(address, (Vector128) value);
+            return;
+        }
         long longValue = ((Number) value).longValue();
         WasmContext.getCurrent().globals().storeLong(address, longValue);
     }
@@ -186,6 +191,8 @@ public final class WasmModule implements TruffleObject {
                 return globals.loadAsFloat(address);
             case ValueTypes.F64_TYPE:
                 return globals.loadAsDouble(address);
+            case ValueTypes.V128_TYPE:
+                return globals.loadAsVector128(address);
             default:
                 throw new RuntimeException("Unknown type: " + type);
         }
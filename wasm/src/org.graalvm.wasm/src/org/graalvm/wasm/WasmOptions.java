@@ -57,6 +57,15 @@ public class WasmOptions {
     @Option(help = "The stack size in kilobytes to use during async parsing, or zero to use defaults.", category = OptionCategory.USER, stability = OptionStability.STABLE)//
     public static final OptionKey<Integer> AsyncParsingStackSize = new OptionKey<>(0);
 
+    @Option(help = "The number of threads used to parse the function bodies of a module in parallel, or zero to use the number of available processors.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> ParallelParsingThreads = new OptionKey<>(0);
+
+    @Option(help = "The minimal code section size for which to parse the function bodies in parallel.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> ParallelParsingCodeSize = new OptionKey<>(1_000_000);
+
+    @Option(help = "Defer the parsing and validation of each function body until the function is first called.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Boolean> LazyFunctionParsing = new OptionKey<>(false);
+
     public enum StoreConstantsPolicyEnum {
         ALL,
         LARGE_ONLY,
@@ -67,4 +76,10 @@ public class WasmOptions {
 
     @Option(help = "Whenever to store the constants in a pool or not.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
     public static final OptionKey<StoreConstantsPolicyEnum> StoreConstantsPolicy = new OptionKey<>(StoreConstantsPolicyEnum.NONE, StoreConstantsPolicyOptionType);
+
+    @Option(help = "Allocate the declared maximum size of each memory up front, so that growing a memory never copies it.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Boolean> ReserveMemory = new OptionKey<>(false);
+
+    @Option(help = "A comma-separated list of directories to preopen for WASI: <guest-directory>::<host-directory>.", category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<String> WasiMapDirs = new OptionKey<>("");
 }
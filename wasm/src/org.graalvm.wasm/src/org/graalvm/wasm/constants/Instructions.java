@@ -235,6 +235,8 @@ public final class Instructions {
     public static final int F32_REINTERPRET_I32 = 0xBE;
     public static final int F64_REINTERPRET_I64 = 0xBF;
 
+    public static final int VECTOR = 0xFD;
+
     private static String[] decodingTable = new String[256];
 
     private Instructions() {
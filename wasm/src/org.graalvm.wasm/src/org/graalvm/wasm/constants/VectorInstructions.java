@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.constants;
+
+/**
+ * The opcodes of the vector instructions of the SIMD proposal, which follow the
+ * {@link Instructions#VECTOR} prefix as an unsigned LEB128 value.
+ */
+public final class VectorInstructions {
+
+    public static final int V128_LOAD = 0x00;
+    public static final int V128_LOAD8_SPLAT = 0x07;
+    public static final int V128_LOAD16_SPLAT = 0x08;
+    public static final int V128_LOAD32_SPLAT = 0x09;
+    public static final int V128_LOAD64_SPLAT = 0x0A;
+    public static final int V128_STORE = 0x0B;
+    public static final int V128_CONST = 0x0C;
+    public static final int I8X16_SHUFFLE = 0x0D;
+    public static final int I8X16_SWIZZLE = 0x0E;
+
+    public static final int I8X16_SPLAT = 0x0F;
+    public static final int I16X8_SPLAT = 0x10;
+    public static final int I32X4_SPLAT = 0x11;
+    public static final int I64X2_SPLAT = 0x12;
+    public static final int F32X4_SPLAT = 0x13;
+    public static final int F64X2_SPLAT = 0x14;
+
+    public static final int I8X16_EXTRACT_LANE_S = 0x15;
+    public static final int I8X16_EXTRACT_LANE_U = 0x16;
+    public static final int I8X16_REPLACE_LANE = 0x17;
+    public static final int I16X8_EXTRACT_LANE_S = 0x18;
+    public static final int I16X8_EXTRACT_LANE_U = 0x19;
+    public static final int I16X8_REPLACE_LANE = 0x1A;
+    public static final int I32X4_EXTRACT_LANE = 0x1B;
+    public static final int I32X4_REPLACE_LANE = 0x1C;
+    public static final int I64X2_EXTRACT_LANE = 0x1D;
+    public static final int I64X2_REPLACE_LANE = 0x1E;
+    public static final int F32X4_EXTRACT_LANE = 0x1F;
+    public static final int F32X4_REPLACE_LANE = 0x20;
+    public static final int F64X2_EXTRACT_LANE = 0x21;
+    public static final int F64X2_REPLACE_LANE = 0x22;
+
+    public static final int I8X16_EQ = 0x23;
+    public static final int I8X16_NE = 0x24;
+    public static final int I16X8_EQ = 0x2D;
+    public static final int I16X8_NE = 0x2E;
+    public static final int I32X4_EQ = 0x37;
+    public static final int I32X4_NE = 0x38;
+    public static final int I32X4_LT_S = 0x39;
+    public static final int I32X4_LT_U = 0x3A;
+    public static final int I32X4_GT_S = 0x3B;
+    public static final int I32X4_GT_U = 0x3C;
+    public static final int I32X4_LE_S = 0x3D;
+    public static final int I32X4_LE_U = 0x3E;
+    public static final int I32X4_GE_S = 0x3F;
+    public static final int I32X4_GE_U = 0x40;
+    public static final int F32X4_EQ = 0x41;
+    public static final int F32X4_NE = 0x42;
+    public static final int F32X4_LT = 0x43;
+    public static final int F32X4_GT = 0x44;
+    public static final int F32X4_LE = 0x45;
+    public static final int F32X4_GE = 0x46;
+    public static final int F64X2_EQ = 0x47;
+    public static final int F64X2_NE = 0x48;
+    public static final int F64X2_LT = 0x49;
+    public static final int F64X2_GT = 0x4A;
+    public static final int F64X2_LE = 0x4B;
+    public static final int F64X2_GE = 0x4C;
+
+    public static final int V128_NOT = 0x4D;
+    public static final int V128_AND = 0x4E;
+    public static final int V128_ANDNOT = 0x4F;
+    public static final int V128_OR = 0x50;
+    public static final int V128_XOR = 0x51;
+    public static final int V128_BITSELECT = 0x52;
+    public static final int V128_ANY_TRUE = 0x53;
+
+    public static final int I8X16_NEG = 0x61;
+    public static final int I8X16_ALL_TRUE = 0x63;
+    public static final int I8X16_SHL = 0x6B;
+    public static final int I8X16_SHR_S = 0x6C;
+    public static final int I8X16_SHR_U = 0x6D;
+    public static final int I8X16_ADD = 0x6E;
+    public static final int I8X16_SUB = 0x71;
+
+    public static final int I16X8_NEG = 0x81;
+    public static final int I16X8_ALL_TRUE = 0x83;
+    public static final int I16X8_SHL = 0x8B;
+    public static final int I16X8_SHR_S = 0x8C;
+    public static final int I16X8_SHR_U = 0x8D;
+    public static final int I16X8_ADD = 0x8E;
+    public static final int I16X8_SUB = 0x91;
+    public static final int I16X8_MUL = 0x95;
+
+    public static final int I32X4_ABS = 0xA0;
+    public static final int I32X4_NEG = 0xA1;
+    public static final int I32X4_ALL_TRUE = 0xA3;
+    public static final int I32X4_BITMASK = 0xA4;
+    public static final int I32X4_SHL = 0xAB;
+    public static final int I32X4_SHR_S = 0xAC;
+    public static final int I32X4_SHR_U = 0xAD;
+    public static final int I32X4_ADD = 0xAE;
+    public static final int I32X4_SUB = 0xB1;
+    public static final int I32X4_MUL = 0xB5;
+    public static final int I32X4_MIN_S = 0xB6;
+    public static final int I32X4_MIN_U = 0xB7;
+    public static final int I32X4_MAX_S = 0xB8;
+    public static final int I32X4_MAX_U = 0xB9;
+
+    public static final int I64X2_NEG = 0xC1;
+    public static final int I64X2_SHL = 0xCB;
+    public static final int I64X2_SHR_S = 0xCC;
+    public static final int I64X2_SHR_U = 0xCD;
+    public static final int I64X2_ADD = 0xCE;
+    public static final int I64X2_SUB = 0xD1;
+    public static final int I64X2_MUL = 0xD5;
+
+    public static final int F32X4_ABS = 0xE0;
+    public static final int F32X4_NEG = 0xE1;
+    public static final int F32X4_SQRT = 0xE3;
+    public static final int F32X4_ADD = 0xE4;
+    public static final int F32X4_SUB = 0xE5;
+    public static final int F32X4_MUL = 0xE6;
+    public static final int F32X4_DIV = 0xE7;
+    public static final int F32X4_MIN = 0xE8;
+    public static final int F32X4_MAX = 0xE9;
+
+    public static final int F64X2_ABS = 0xEC;
+    public static final int F64X2_NEG = 0xED;
+    public static final int F64X2_SQRT = 0xEF;
+    public static final int F64X2_ADD = 0xF0;
+    public static final int F64X2_SUB = 0xF1;
+    public static final int F64X2_MUL = 0xF2;
+    public static final int F64X2_DIV = 0xF3;
+    public static final int F64X2_MIN = 0xF4;
+    public static final int F64X2_MAX = 0xF5;
+
+    public static final int I32X4_TRUNC_SAT_F32X4_S = 0xF8;
+    public static final int I32X4_TRUNC_SAT_F32X4_U = 0xF9;
+    public static final int F32X4_CONVERT_I32X4_S = 0xFA;
+    public static final int F32X4_CONVERT_I32X4_U = 0xFB;
+
+    private VectorInstructions() {
+    }
+}
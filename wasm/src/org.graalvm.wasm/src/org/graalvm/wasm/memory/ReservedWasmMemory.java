@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.memory;
+
+import org.graalvm.wasm.exception.WasmTrap;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+
+/**
+ * A memory that allocates its declared maximum size when it is created, and touches pages only when
+ * the memory grows.
+ *
+ * The block of the declared maximum size is never touched beyond the current size of the memory, so
+ * an operating system that overcommits backs it with physical pages only once the memory grows into
+ * it. Consequently, {@link #grow(long)} never copies the contents of the memory, and the start
+ * address never changes while the memory is alive, which allows the compiler to fold it into a
+ * constant.
+ *
+ * The JVM gives no access to {@code mmap}, so the address space cannot be reserved without
+ * allocating it. Memories without a declared maximum size would have to allocate the whole
+ * {@link #MAX_ADDRESSABLE_SIZE addressable range}, so {@link #create} falls back to an
+ * {@link UnsafeWasmMemory} for them.
+ */
+public class ReservedWasmMemory extends NativeWasmMemory {
+    /**
+     * The size of the address space that a 32-bit WebAssembly memory can address.
+     */
+    static final long MAX_ADDRESSABLE_SIZE = 1L << 32;
+
+    /**
+     * Set to 0 when the memory is freed. Compiled code may still use the folded address, but the
+     * size of a freed memory is 0, so the bounds check fails before the address is accessed.
+     */
+    @CompilationFinal private long startAddress;
+    private final long reservedByteSize;
+
+    public ReservedWasmMemory(long initPageSize, long maxPageSize) {
+        super(initPageSize, maxPageSize);
+        if (maxPageSize < 0) {
+            throw new WasmMemoryException("A reserved memory needs a maximum size.");
+        }
+        this.reservedByteSize = Math.min(maxPageSize * PAGE_SIZE, MAX_ADDRESSABLE_SIZE);
+        if (byteSize() > reservedByteSize) {
+            throw new WasmMemoryException("Initial memory size exceeds the addressable memory size.");
+        }
+        this.startAddress = unsafe.allocateMemory(reservedByteSize);
+        // Only touch the pages of the initial memory size.
+        unsafe.setMemory(startAddress, byteSize(), (byte) 0);
+    }
+
+    /**
+     * Creates a memory of the given size that allocates its declared maximum size if it has one and
+     * the allocation succeeds, and otherwise falls back to an {@link UnsafeWasmMemory}, which
+     * reallocates itself when it grows.
+     */
+    public static WasmMemory create(long initPageSize, long maxPageSize) {
+        if (maxPageSize < 0) {
+            return new UnsafeWasmMemory(initPageSize, maxPageSize);
+        }
+        try {
+            return new ReservedWasmMemory(initPageSize, maxPageSize);
+        } catch (OutOfMemoryError e) {
+            // The maximum size could not be allocated, e.g. due to an address space limit.
+            return new UnsafeWasmMemory(initPageSize, maxPageSize);
+        }
+    }
+
+    @Override
+    protected long startAddress() {
+        return startAddress;
+    }
+
+    @Override
+    public boolean grow(long extraPageSize) {
+        if (extraPageSize < 0) {
+            throw new WasmTrap(null, "Extra size cannot be negative.");
+        }
+        if (startAddress == 0) {
+            // The memory was freed.
+            return false;
+        }
+        long targetSize = byteSize() + extraPageSize * PAGE_SIZE;
+        if (targetSize > reservedByteSize) {
+            // Cannot grow the memory beyond the allocated maximum size.
+            return false;
+        }
+        if (targetSize == byteSize()) {
+            return true;
+        }
+        // Touch the new pages. The old pages stay where they are.
+        unsafe.setMemory(startAddress + byteSize(), targetSize - byteSize(), (byte) 0);
+        pageSize += extraPageSize;
+        return true;
+    }
+
+    @Override
+    protected void freeMemory() {
+        unsafe.freeMemory(startAddress);
+        startAddress = 0;
+    }
+
+    /**
+     * Duplicates have the same maximum size as this memory, so they can grow as far as this memory
+     * can.
+     */
+    @Override
+    public WasmMemory duplicate() {
+        final ReservedWasmMemory other = new ReservedWasmMemory(pageSize, maxPageSize);
+        unsafe.copyMemory(this.startAddress, other.startAddress, this.byteSize());
+        return other;
+    }
+}
@@ -133,6 +133,33 @@ public abstract class WasmMemory implements TruffleObject {
 
     public abstract WasmMemory duplicate();
 
+    /**
+     * Releases the native memory of this memory. The memory must not be accessed afterwards.
+     */
+    public abstract void close();
+
+    /**
+     * Copies {@code length} bytes of this memory, starting at {@code address}, into {@code dst}
+     * starting at {@code dstOffset}.
+     */
+    public void copyToArray(Node node, long address, byte[] dst, int dstOffset, int length) {
+        validateAddress(node, address, length);
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = (byte) load_i32_8u(node, address + i);
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes of {@code src}, starting at {@code srcOffset}, into this memory
+     * starting at {@code address}.
+     */
+    public void copyFromArray(Node node, byte[] src, int srcOffset, long address, int length) {
+        validateAddress(node, address, length);
+        for (int i = 0; i < length; i++) {
+            store_i32_8(node, address + i, src[srcOffset + i]);
+        }
+    }
+
     long[] view(long address, int length) {
         long[] chunk = new long[length / 8];
         for (long p = address; p < address + length; p += 8) {
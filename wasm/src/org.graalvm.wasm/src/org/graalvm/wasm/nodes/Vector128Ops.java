@@ -0,0 +1,792 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.nodes;
+
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_CONVERT_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_CONVERT_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_DIV;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_EXTRACT_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_GE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_GT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_LE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_LT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_MAX;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_MIN;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_MUL;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_NE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_SQRT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_DIV;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_EXTRACT_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_GE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_GT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_LE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_LT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_MAX;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_MIN;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_MUL;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_NE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_SQRT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_ALL_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTRACT_LANE_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTRACT_LANE_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_MUL;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_NE;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SHR_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_ALL_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_BITMASK;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTRACT_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_GE_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_GE_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_GT_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_GT_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_LE_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_LE_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_LT_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_LT_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_MAX_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_MAX_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_MIN_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_MIN_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_MUL;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_NE;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SHR_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTRACT_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_MUL;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SHR_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_ALL_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_EXTRACT_LANE_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_EXTRACT_LANE_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_NE;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SHR_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SWIZZLE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_AND;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_ANDNOT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_ANY_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_NOT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_OR;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_XOR;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import org.graalvm.wasm.Assert;
+import org.graalvm.wasm.BinaryStreamParser;
+import org.graalvm.wasm.Vector128;
+
+/**
+ * The lane-wise semantics of the vector instructions.
+ *
+ * Every operation receives its opcode as a partial evaluation constant, so the dispatch on the
+ * opcode folds away, and the lane loops are exploded. Together with the scalar replacement of the
+ * {@link Vector128} values, a vector instruction compiles to straight-line code on the 64-bit
+ * halves or on the individual lanes of its operands.
+ */
+final class Vector128Ops {
+    private Vector128Ops() {
+    }
+
+    private static long mask(int bits) {
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Places the result of a lane into the half of the vector that contains it.
+     */
+    private static long insert(long half, int laneInHalf, int bits, long value) {
+        return half | ((value & mask(bits)) << (laneInHalf * bits));
+    }
+
+    private static long bool(boolean condition) {
+        return condition ? -1L : 0L;
+    }
+
+    static Vector128 splat(int opcode, long value) {
+        CompilerAsserts.partialEvaluationConstant(opcode);
+        final long half;
+        switch (opcode) {
+            case I8X16_SPLAT:
+                half = (value & 0xFFL) * 0x0101_0101_0101_0101L;
+                break;
+            case I16X8_SPLAT:
+                half = (value & 0xFFFFL) * 0x0001_0001_0001_0001L;
+                break;
+            case I32X4_SPLAT:
+            case F32X4_SPLAT:
+                half = (value & 0xFFFF_FFFFL) * 0x0000_0001_0000_0001L;
+                break;
+            case I64X2_SPLAT:
+            case F64X2_SPLAT:
+                half = value;
+                break;
+            default:
+                throw Assert.fail(Assert.format("Unknown vector splat opcode: 0x%02X", opcode));
+        }
+        return new Vector128(half, half);
+    }
+
+    /**
+     * Returns the raw stack representation of the given lane.
+     */
+    static long extractLane(int opcode, Vector128 x, int lane) {
+        CompilerAsserts.partialEvaluationConstant(opcode);
+        switch (opcode) {
+            case I8X16_EXTRACT_LANE_S:
+                return x.i8(lane) & 0xFFFF_FFFFL;
+            case I8X16_EXTRACT_LANE_U:
+                return x.i8(lane) & 0xFFL;
+            case I16X8_EXTRACT_LANE_S:
+                return x.i16(lane) & 0xFFFF_FFFFL;
+            case I16X8_EXTRACT_LANE_U:
+                return x.i16(lane) & 0xFFFFL;
+            case I32X4_EXTRACT_LANE:
+            case F32X4_EXTRACT_LANE:
+                return x.i32(lane) & 0xFFFF_FFFFL;
+            case I64X2_EXTRACT_LANE:
+            case F64X2_EXTRACT_LANE:
+                return x.i64(lane);
+            default:
+                throw Assert.fail(Assert.format("Unknown vector extract opcode: 0x%02X", opcode));
+        }
+    }
+
+    static Vector128 replaceLane(int opcode, Vector128 x, int lane, long value) {
+        CompilerAsserts.partialEvaluationConstant(opcode);
+        final int bits;
+        switch (opcode) {
+            case I8X16_REPLACE_LANE:
+                bits = 8;
+                break;
+            case I16X8_REPLACE_LANE:
+                bits = 16;
+                break;
+            case I32X4_REPLACE_LANE:
+            case F32X4_REPLACE_LANE:
+                bits = 32;
+                break;
+            case I64X2_REPLACE_LANE:
+            case F64X2_REPLACE_LANE:
+                bits = 64;
+                break;
+            default:
+                throw Assert.fail(Assert.format("Unknown vector replace opcode: 0x%02X", opcode));
+        }
+        final int lanesPerHalf = 64 / bits;
+        final int shift = (lane % lanesPerHalf) * bits;
+        final long laneMask = mask(bits) << shift;
+        final long laneValue = (value & mask(bits)) << shift;
+        if (lane < lanesPerHalf) {
+            return new Vector128((x.low() & ~laneMask) | laneValue, x.high());
+        } else {
+            return new Vector128(x.low(), (x.high() & ~laneMask) | laneValue);
+        }
+    }
+
+    /**
+     * Selects the bytes of the two operands with the lane indices that are stored as the immediate
+     * operand of the {@code i8x16.shuffle} instruction.
+     */
+    @ExplodeLoop
+    static Vector128 shuffle(Vector128 x, Vector128 y, byte[] data, int offset) {
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 16; lane++) {
+            final int index = BinaryStreamParser.peek1(data, offset + lane);
+            CompilerAsserts.partialEvaluationConstant(index);
+            final long value = index < 16 ? x.i8(index) : y.i8(index - 16);
+            if (lane < 8) {
+                low = insert(low, lane, 8, value);
+            } else {
+                high = insert(high, lane - 8, 8, value);
+            }
+        }
+        return new Vector128(low, high);
+    }
+
+    @ExplodeLoop
+    private static Vector128 swizzle(Vector128 x, Vector128 y) {
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 16; lane++) {
+            final int index = y.i8(lane) & 0xFF;
+            final long value = index < 16 ? x.i8(index) : 0;
+            if (lane < 8) {
+                low = insert(low, lane, 8, value);
+            } else {
+                high = insert(high, lane - 8, 8, value);
+            }
+        }
+        return new Vector128(low, high);
+    }
+
+    static Vector128 bitselect(Vector128 x, Vector128 y, Vector128 mask) {
+        return new Vector128((x.low() & mask.low()) | (y.low() & ~mask.low()), (x.high() & mask.high()) | (y.high() & ~mask.high()));
+    }
+
+    static Vector128 unary(int opcode, Vector128 x) {
+        CompilerAsserts.partialEvaluationConstant(opcode);
+        switch (opcode) {
+            case V128_NOT:
+                return new Vector128(~x.low(), ~x.high());
+            case I8X16_NEG:
+                return binaryI8x16(I8X16_SUB, Vector128.ZERO, x);
+            case I16X8_NEG:
+                return binaryI16x8(I16X8_SUB, Vector128.ZERO, x);
+            case I32X4_NEG:
+                return binaryI32x4(I32X4_SUB, Vector128.ZERO, x);
+            case I64X2_NEG:
+                return new Vector128(-x.low(), -x.high());
+            case I32X4_ABS:
+            case I32X4_TRUNC_SAT_F32X4_S:
+            case I32X4_TRUNC_SAT_F32X4_U:
+            case F32X4_CONVERT_I32X4_S:
+            case F32X4_CONVERT_I32X4_U:
+                return unaryI32x4(opcode, x);
+            case F32X4_ABS:
+                return new Vector128(x.low() & 0x7FFF_FFFF_7FFF_FFFFL, x.high() & 0x7FFF_FFFF_7FFF_FFFFL);
+            case F32X4_NEG:
+                return new Vector128(x.low() ^ 0x8000_0000_8000_0000L, x.high() ^ 0x8000_0000_8000_0000L);
+            case F32X4_SQRT:
+                return Vector128.ofI32(Float.floatToRawIntBits((float) Math.sqrt(x.f32(0))), Float.floatToRawIntBits((float) Math.sqrt(x.f32(1))),
+                                Float.floatToRawIntBits((float) Math.sqrt(x.f32(2))), Float.floatToRawIntBits((float) Math.sqrt(x.f32(3))));
+            case F64X2_ABS:
+                return new Vector128(x.low() & Long.MAX_VALUE, x.high() & Long.MAX_VALUE);
+            case F64X2_NEG:
+                return new Vector128(x.low() ^ Long.MIN_VALUE, x.high() ^ Long.MIN_VALUE);
+            case F64X2_SQRT:
+                return new Vector128(Double.doubleToRawLongBits(Math.sqrt(x.f64(0))), Double.doubleToRawLongBits(Math.sqrt(x.f64(1))));
+            default:
+                throw Assert.fail(Assert.format("Unknown vector unary opcode: 0x%02X", opcode));
+        }
+    }
+
+    @ExplodeLoop
+    private static Vector128 unaryI32x4(int opcode, Vector128 x) {
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 4; lane++) {
+            final int value = x.i32(lane);
+            final int result;
+            switch (opcode) {
+                case I32X4_ABS:
+                    result = Math.abs(value);
+                    break;
+                case I32X4_TRUNC_SAT_F32X4_S:
+                    // The Java conversion saturates, and converts NaN to 0.
+                    result = (int) Float.intBitsToFloat(value);
+                    break;
+                case I32X4_TRUNC_SAT_F32X4_U:
+                    result = truncSatUnsigned(Float.intBitsToFloat(value));
+                    break;
+                case F32X4_CONVERT_I32X4_S:
+                    result = Float.floatToRawIntBits(value);
+                    break;
+                case F32X4_CONVERT_I32X4_U:
+                    result = Float.floatToRawIntBits(value & 0xFFFF_FFFFL);
+                    break;
+                default:
+                    throw Assert.fail(Assert.format("Unknown vector unary opcode: 0x%02X", opcode));
+            }
+            if (lane < 2) {
+                low = insert(low, lane, 32, result);
+            } else {
+                high = insert(high, lane - 2, 32, result);
+            }
+        }
+        return new Vector128(low, high);
+    }
+
+    private static int truncSatUnsigned(float value) {
+        if (Float.isNaN(value) || value <= -1.0f) {
+            return 0;
+        }
+        if (value >= 4294967296.0f) {
+            return -1;
+        }
+        return (int) (long) value;
+    }
+
+    static Vector128 shift(int opcode, Vector128 x, int amount) {
+        CompilerAsserts.partialEvaluationConstant(opcode);
+        switch (opcode) {
+            case I8X16_SHL:
+            case I8X16_SHR_S:
+            case I8X16_SHR_U:
+                return shiftLanes(opcode, x, amount & 7, 8);
+            case I16X8_SHL:
+            case I16X8_SHR_S:
+            case I16X8_SHR_U:
+                return shiftLanes(opcode, x, amount & 15, 16);
+            case I32X4_SHL:
+            case I32X4_SHR_S:
+            case I32X4_SHR_U:
+                return shiftLanes(opcode, x, amount & 31, 32);
+            case I64X2_SHL:
+                return new Vector128(x.low() << amount, x.high() << amount);
+            case I64X2_SHR_S:
+                return new Vector128(x.low() >> amount, x.high() >> amount);
+            case I64X2_SHR_U:
+                return new Vector128(x.low() >>> amount, x.high() >>> amount);
+            default:
+                throw Assert.fail(Assert.format("Unknown vector shift opcode: 0x%02X", opcode));
+        }
+    }
+
+    @ExplodeLoop
+    private static Vector128 shiftLanes(int opcode, Vector128 x, int amount, int bits) {
+        final int lanesPerHalf = 64 / bits;
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 2 * lanesPerHalf; lane++) {
+            final long half = lane < lanesPerHalf ? x.low() : x.high();
+            final long unsigned = (half >>> ((lane % lanesPerHalf) * bits)) & mask(bits);
+            // Sign-extend the lane value.
+            final long signed = (unsigned << (64 - bits)) >> (64 - bits);
+            final long result;
+            switch (opcode) {
+                case I8X16_SHL:
+                case I16X8_SHL:
+                case I32X4_SHL:
+                    result = unsigned << amount;
+                    break;
+                case I8X16_SHR_S:
+                case I16X8_SHR_S:
+                case I32X4_SHR_S:
+                    result = signed >> amount;
+                    break;
+                default:
+                    result = unsigned >>> amount;
+                    break;
+            }
+            if (lane < lanesPerHalf) {
+                low = insert(low, lane, bits, result);
+            } else {
+                high = insert(high, lane - lanesPerHalf, bits, result);
+            }
+        }
+        return new Vector128(low, high);
+    }
+
+    /**
+     * Computes the {@code i32} result of a test or bitmask instruction.
+     */
+    @ExplodeLoop
+    static int test(int opcode, Vector128 x) {
+        CompilerAsserts.partialEvaluationConstant(opcode);
+        switch (opcode) {
+            case V128_ANY_TRUE:
+                return (x.low() | x.high()) != 0 ? 1 : 0;
+            case I8X16_ALL_TRUE: {
+                boolean result = true;
+                for (int lane = 0; lane < 16; lane++) {
+                    result &= x.i8(lane) != 0;
+                }
+                return result ? 1 : 0;
+            }
+            case I16X8_ALL_TRUE: {
+                boolean result = true;
+                for (int lane = 0; lane < 8; lane++) {
+                    result &= x.i16(lane) != 0;
+                }
+                return result ? 1 : 0;
+            }
+            case I32X4_ALL_TRUE: {
+                boolean result = true;
+                for (int lane = 0; lane < 4; lane++) {
+                    result &= x.i32(lane) != 0;
+                }
+                return result ? 1 : 0;
+            }
+            case I32X4_BITMASK: {
+                int result = 0;
+                for (int lane = 0; lane < 4; lane++) {
+                    result |= (x.i32(lane) >>> 31) << lane;
+                }
+                return result;
+            }
+            default:
+                throw Assert.fail(Assert.format("Unknown vector test opcode: 0x%02X", opcode));
+        }
+    }
+
+    static Vector128 binary(int opcode, Vector128 x, Vector128 y) {
+        CompilerAsserts.partialEvaluationConstant(opcode);
+        switch (opcode) {
+            case V128_AND:
+                return new Vector128(x.low() & y.low(), x.high() & y.high());
+            case V128_ANDNOT:
+                return new Vector128(x.low() & ~y.low(), x.high() & ~y.high());
+            case V128_OR:
+                return new Vector128(x.low() | y.low(), x.high() | y.high());
+            case V128_XOR:
+                return new Vector128(x.low() ^ y.low(), x.high() ^ y.high());
+            case I8X16_SWIZZLE:
+                return swizzle(x, y);
+            case I8X16_EQ:
+            case I8X16_NE:
+            case I8X16_ADD:
+            case I8X16_SUB:
+                return binaryI8x16(opcode, x, y);
+            case I16X8_EQ:
+            case I16X8_NE:
+            case I16X8_ADD:
+            case I16X8_SUB:
+            case I16X8_MUL:
+                return binaryI16x8(opcode, x, y);
+            case I64X2_ADD:
+                return new Vector128(x.low() + y.low(), x.high() + y.high());
+            case I64X2_SUB:
+                return new Vector128(x.low() - y.low(), x.high() - y.high());
+            case I64X2_MUL:
+                return new Vector128(x.low() * y.low(), x.high() * y.high());
+            default:
+                if (opcode >= I32X4_EQ && opcode <= I32X4_GE_U || opcode >= I32X4_ADD && opcode <= I32X4_MAX_U) {
+                    return binaryI32x4(opcode, x, y);
+                } else if (opcode >= F32X4_EQ && opcode <= F32X4_GE || opcode >= F32X4_ADD && opcode <= F32X4_MAX) {
+                    return binaryF32x4(opcode, x, y);
+                } else if (opcode >= F64X2_EQ && opcode <= F64X2_GE || opcode >= F64X2_ADD && opcode <= F64X2_MAX) {
+                    return binaryF64x2(opcode, x, y);
+                }
+                throw Assert.fail(Assert.format("Unknown vector binary opcode: 0x%02X", opcode));
+        }
+    }
+
+    @ExplodeLoop
+    private static Vector128 binaryI8x16(int opcode, Vector128 x, Vector128 y) {
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 16; lane++) {
+            final byte a = x.i8(lane);
+            final byte b = y.i8(lane);
+            final long result;
+            switch (opcode) {
+                case I8X16_EQ:
+                    result = bool(a == b);
+                    break;
+                case I8X16_NE:
+                    result = bool(a != b);
+                    break;
+                case I8X16_ADD:
+                    result = a + b;
+                    break;
+                case I8X16_SUB:
+                    result = a - b;
+                    break;
+                default:
+                    throw Assert.fail(Assert.format("Unknown vector binary opcode: 0x%02X", opcode));
+            }
+            if (lane < 8) {
+                low = insert(low, lane, 8, result);
+            } else {
+                high = insert(high, lane - 8, 8, result);
+            }
+        }
+        return new Vector128(low, high);
+    }
+
+    @ExplodeLoop
+    private static Vector128 binaryI16x8(int opcode, Vector128 x, Vector128 y) {
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 8; lane++) {
+            final short a = x.i16(lane);
+            final short b = y.i16(lane);
+            final long result;
+            switch (opcode) {
+                case I16X8_EQ:
+                    result = bool(a == b);
+                    break;
+                case I16X8_NE:
+                    result = bool(a != b);
+                    break;
+                case I16X8_ADD:
+                    result = a + b;
+                    break;
+                case I16X8_SUB:
+                    result = a - b;
+                    break;
+                case I16X8_MUL:
+                    result = a * b;
+                    break;
+                default:
+                    throw Assert.fail(Assert.format("Unknown vector binary opcode: 0x%02X", opcode));
+            }
+            if (lane < 4) {
+                low = insert(low, lane, 16, result);
+            } else {
+                high = insert(high, lane - 4, 16, result);
+            }
+        }
+        return new Vector128(low, high);
+    }
+
+    @ExplodeLoop
+    private static Vector128 binaryI32x4(int opcode, Vector128 x, Vector128 y) {
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 4; lane++) {
+            final int a = x.i32(lane);
+            final int b = y.i32(lane);
+            final long result;
+            switch (opcode) {
+                case I32X4_EQ:
+                    result = bool(a == b);
+                    break;
+                case I32X4_NE:
+                    result = bool(a != b);
+                    break;
+                case I32X4_LT_S:
+                    result = bool(a < b);
+                    break;
+                case I32X4_LT_U:
+                    result = bool(Integer.compareUnsigned(a, b) < 0);
+                    break;
+                case I32X4_GT_S:
+                    result = bool(a > b);
+                    break;
+                case I32X4_GT_U:
+                    result = bool(Integer.compareUnsigned(a, b) > 0);
+                    break;
+                case I32X4_LE_S:
+                    result = bool(a <= b);
+                    break;
+                case I32X4_LE_U:
+                    result = bool(Integer.compareUnsigned(a, b) <= 0);
+                    break;
+                case I32X4_GE_S:
+                    result = bool(a >= b);
+                    break;
+                case I32X4_GE_U:
+                    result = bool(Integer.compareUnsigned(a, b) >= 0);
+                    break;
+                case I32X4_ADD:
+                    result = a + b;
+                    break;
+                case I32X4_SUB:
+                    result = a - b;
+                    break;
+                case I32X4_MUL:
+                    result = a * b;
+                    break;
+                case I32X4_MIN_S:
+                    result = Math.min(a, b);
+                    break;
+                case I32X4_MIN_U:
+                    result = Integer.compareUnsigned(a, b) <= 0 ? a : b;
+                    break;
+                case I32X4_MAX_S:
+                    result = Math.max(a, b);
+                    break;
+                case I32X4_MAX_U:
+                    result = Integer.compareUnsigned(a, b) >= 0 ? a : b;
+                    break;
+                default:
+                    throw Assert.fail(Assert.format("Unknown vector binary opcode: 0x%02X", opcode));
+            }
+            if (lane < 2) {
+                low = insert(low, lane, 32, result);
+            } else {
+                high = insert(high, lane - 2, 32, result);
+            }
+        }
+        return new Vector128(low, high);
+    }
+
+    @ExplodeLoop
+    private static Vector128 binaryF32x4(int opcode, Vector128 x, Vector128 y) {
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 4; lane++) {
+            final float a = x.f32(lane);
+            final float b = y.f32(lane);
+            final long result;
+            switch (opcode) {
+                case F32X4_EQ:
+                    result = bool(a == b);
+                    break;
+                case F32X4_NE:
+                    result = bool(a != b);
+                    break;
+                case F32X4_LT:
+                    result = bool(a < b);
+                    break;
+                case F32X4_GT:
+                    result = bool(a > b);
+                    break;
+                case F32X4_LE:
+                    result = bool(a <= b);
+                    break;
+                case F32X4_GE:
+                    result = bool(a >= b);
+                    break;
+                case F32X4_ADD:
+                    result = Float.floatToRawIntBits(a + b);
+                    break;
+                case F32X4_SUB:
+                    result = Float.floatToRawIntBits(a - b);
+                    break;
+                case F32X4_MUL:
+                    result = Float.floatToRawIntBits(a * b);
+                    break;
+                case F32X4_DIV:
+                    result = Float.floatToRawIntBits(a / b);
+                    break;
+                case F32X4_MIN:
+                    result = Float.floatToRawIntBits(Math.min(a, b));
+                    break;
+                case F32X4_MAX:
+                    result = Float.floatToRawIntBits(Math.max(a, b));
+                    break;
+                default:
+                    throw Assert.fail(Assert.format("Unknown vector binary opcode: 0x%02X", opcode));
+            }
+            if (lane < 2) {
+                low = insert(low, lane, 32, result);
+            } else {
+                high = insert(high, lane - 2, 32, result);
+            }
+        }
+        return new Vector128(low, high);
+    }
+
+    @ExplodeLoop
+    private static Vector128 binaryF64x2(int opcode, Vector128 x, Vector128 y) {
+        long low = 0;
+        long high = 0;
+        for (int lane = 0; lane < 2; lane++) {
+            final double a = x.f64(lane);
+            final double b = y.f64(lane);
+            final long result;
+            switch (opcode) {
+                case F64X2_EQ:
+                    result = bool(a == b);
+                    break;
+                case F64X2_NE:
+                    result = bool(a != b);
+                    break;
+                case F64X2_LT:
+                    result = bool(a < b);
+                    break;
+                case F64X2_GT:
+                    result = bool(a > b);
+                    break;
+                case F64X2_LE:
+                    result = bool(a <= b);
+                    break;
+                case F64X2_GE:
+                    result = bool(a >= b);
+                    break;
+                case F64X2_ADD:
+                    result = Double.doubleToRawLongBits(a + b);
+                    break;
+                case F64X2_SUB:
+                    result = Double.doubleToRawLongBits(a - b);
+                    break;
+                case F64X2_MUL:
+                    result = Double.doubleToRawLongBits(a * b);
+                    break;
+                case F64X2_DIV:
+                    result = Double.doubleToRawLongBits(a / b);
+                    break;
+                case F64X2_MIN:
+                    result = Double.doubleToRawLongBits(Math.min(a, b));
+                    break;
+                case F64X2_MAX:
+                    result = Double.doubleToRawLongBits(Math.max(a, b));
+                    break;
+                default:
+                    throw Assert.fail(Assert.format("Unknown vector binary opcode: 0x%02X", opcode));
+            }
+            if (lane == 0) {
+                low = result;
+            } else {
+                high = result;
+            }
+        }
+        return new Vector128(low, high);
+    }
+}
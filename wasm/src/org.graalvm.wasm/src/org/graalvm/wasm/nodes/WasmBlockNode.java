@@ -41,6 +41,7 @@
 package org.graalvm.wasm.nodes;
 
 import static org.graalvm.wasm.WasmTracing.trace;
+import static org.graalvm.wasm.WasmUtil.unsignedInt32ToLong;
 import static org.graalvm.wasm.constants.Instructions.BLOCK;
 import static org.graalvm.wasm.constants.Instructions.BR;
 import static org.graalvm.wasm.constants.Instructions.BR_IF;
@@ -213,6 +214,7 @@ import static org.graalvm.wasm.constants.Instructions.NOP;
 import static org.graalvm.wasm.constants.Instructions.RETURN;
 import static org.graalvm.wasm.constants.Instructions.SELECT;
 import static org.graalvm.wasm.constants.Instructions.UNREACHABLE;
+import static org.graalvm.wasm.constants.Instructions.VECTOR;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -231,12 +233,14 @@ import org.graalvm.wasm.Assert;
 import org.graalvm.wasm.BinaryStreamParser;
 import org.graalvm.wasm.SymbolTable;
 import org.graalvm.wasm.ValueTypes;
+import org.graalvm.wasm.Vector128;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmFunction;
 import org.graalvm.wasm.WasmLanguage;
 import org.graalvm.wasm.WasmModule;
 import org.graalvm.wasm.constants.TargetOffset;
+import org.graalvm.wasm.constants.VectorInstructions;
 import org.graalvm.wasm.exception.WasmExecutionException;
 import org.graalvm.wasm.exception.WasmTrap;
 import org.graalvm.wasm.memory.WasmMemory;
@@ -573,6 +577,11 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                             stackPointer++;
                             break;
                         }
+                        case ValueTypes.V128_TYPE: {
+                            pushVector128(frame, stackPointer, (Vector128) result);
+                            stackPointer++;
+                            break;
+                        }
                         case ValueTypes.VOID_TYPE: {
                             // Void return type - do nothing.
                             break;
@@ -658,6 +667,11 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                             stackPointer++;
                             break;
                         }
+                        case ValueTypes.V128_TYPE: {
+                            pushVector128(frame, stackPointer, (Vector128) result);
+                            stackPointer++;
+                            break;
+                        }
                         case ValueTypes.VOID_TYPE: {
                             // Void return type - do nothing.
                             break;
@@ -670,21 +684,21 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                     break;
                 }
                 case DROP: {
+                    // The dropped value may be of any type, including v128, so it is not read.
                     stackPointer--;
-                    long x = pop(frame, stackPointer);
-                    trace("drop (raw long value = 0x%016X)", x);
+                    trace("drop");
                     break;
                 }
                 case SELECT: {
                     stackPointer--;
                     int cond = popInt(frame, stackPointer);
                     stackPointer--;
-                    long val2 = pop(frame, stackPointer);
-                    stackPointer--;
-                    long val1 = pop(frame, stackPointer);
-                    push(frame, stackPointer, cond != 0 ? val1 : val2);
-                    stackPointer++;
-                    trace("select 0x%08X ? 0x%08X : 0x%08X = 0x%08X", cond, val1, val2, cond != 0 ? val1 : val2);
+                    // The first operand is already in place, so only the second operand is moved
+                    // if it is selected.
+                    if (cond == 0) {
+                        copyStackValue(frame, stackPointer, stackPointer - 1);
+                    }
+                    trace("select 0x%08X", cond);
                     break;
                 }
                 case LOCAL_GET: {
@@ -725,6 +739,13 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                             trace("local.get %d, value = %f [f64]", index, value);
                             break;
                         }
+                        case ValueTypes.V128_TYPE: {
+                            Vector128 value = getVector128(frame, index);
+                            pushVector128(frame, stackPointer, value);
+                            stackPointer++;
+                            trace("local.get %d, value = %s [v128]", index, value);
+                            break;
+                        }
                         default: {
                             throw new WasmTrap(this, "Local variable cannot have the void type.");
                         }
@@ -769,6 +790,13 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                             trace("local.set %d, value = %f [f64]", index, value);
                             break;
                         }
+                        case ValueTypes.V128_TYPE: {
+                            stackPointer--;
+                            Vector128 value = popVector128(frame, stackPointer);
+                            setVector128(frame, index, value);
+                            trace("local.set %d, value = %s [v128]", index, value);
+                            break;
+                        }
                         default: {
                             throw new WasmTrap(this, "Local variable cannot have the void type.");
                         }
@@ -821,6 +849,12 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                             trace("local.tee %d, value = %f [f64]", index, value);
                             break;
                         }
+                        case ValueTypes.V128_TYPE: {
+                            Vector128 value = popVector128(frame, stackPointer - 1);
+                            setVector128(frame, index, value);
+                            trace("local.tee %d, value = %s [v128]", index, value);
+                            break;
+                        }
                         default: {
                             throw new WasmTrap(this, "Local variable cannot have the void type.");
                         }
@@ -870,6 +904,14 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                             trace("global.get %d, value = %f [f64]", index, Double.longBitsToDouble(value));
                             break;
                         }
+                        case ValueTypes.V128_TYPE: {
+                            int address = module().symbolTable().globalAddress(index);
+                            Vector128 value = context.globals().loadAsVector128(address);
+                            pushVector128(frame, stackPointer, value);
+                            stackPointer++;
+                            trace("global.get %d, value = %s [v128]", index, value);
+                            break;
+                        }
                         default: {
                             throw new WasmTrap(this, "Local variable cannot have the void type.");
                         }
@@ -922,6 +964,14 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                             trace("global.set %d, value = %f [f64]", index, Double.longBitsToDouble(value));
                             break;
                         }
+                        case ValueTypes.V128_TYPE: {
+                            stackPointer--;
+                            Vector128 value = popVector128(frame, stackPointer);
+                            int address = module().symbolTable().globalAddress(index);
+                            context.globals().storeVector128(address, value);
+                            trace("global.set %d, value = %s [v128]", index, value);
+                            break;
+                        }
                         default: {
                             throw new WasmTrap(this, "Local variable cannot have the void type.");
                         }
@@ -957,7 +1007,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
 
                     stackPointer--;
                     int baseAddress = popInt(frame, stackPointer);
-                    int address = baseAddress + memOffset;
+                    long address = effectiveMemoryAddress(baseAddress, memOffset);
                     WasmMemory memory = module().symbolTable().memory();
 
                     try {
@@ -1073,7 +1123,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 int value = popInt(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_i32(this, address, value);
                                 break;
                             }
@@ -1082,7 +1132,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 long value = pop(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_i64(this, address, value);
                                 break;
                             }
@@ -1091,7 +1141,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 float value = popAsFloat(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_f32(this, address, value);
                                 break;
                             }
@@ -1100,7 +1150,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 double value = popAsDouble(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_f64(this, address, value);
                                 break;
                             }
@@ -1109,7 +1159,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 int value = popInt(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_i32_8(this, address, (byte) value);
                                 break;
                             }
@@ -1118,7 +1168,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 int value = popInt(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_i32_16(this, address, (short) value);
                                 break;
                             }
@@ -1127,7 +1177,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 long value = pop(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_i64_8(this, address, (byte) value);
                                 break;
                             }
@@ -1136,7 +1186,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 long value = pop(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_i64_16(this, address, (short) value);
                                 break;
                             }
@@ -1145,7 +1195,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 long value = pop(frame, stackPointer);
                                 stackPointer--;
                                 int baseAddress = popInt(frame, stackPointer);
-                                int address = baseAddress + memOffset;
+                                long address = effectiveMemoryAddress(baseAddress, memOffset);
                                 memory.store_i64_32(this, address, (int) value);
                                 break;
                             }
@@ -2376,6 +2426,255 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                     trace("push reinterpret_i64 [f64]");
                     break;
                 }
+                case VECTOR: {
+                    // region Load LEB128 Unsigned32 -> vectorOpcode
+                    int vectorOpcode = unsignedIntConstant(offset, intConstantOffset);
+                    int offsetDelta = offsetDelta(offset, byteConstantOffset);
+                    intConstantOffset += intConstantDelta(offset);
+                    byteConstantOffset += byteConstantDelta(offset);
+                    offset += offsetDelta;
+                    // endregion
+                    CompilerAsserts.partialEvaluationConstant(vectorOpcode);
+                    switch (vectorOpcode) {
+                        case VectorInstructions.V128_LOAD:
+                        case VectorInstructions.V128_LOAD8_SPLAT:
+                        case VectorInstructions.V128_LOAD16_SPLAT:
+                        case VectorInstructions.V128_LOAD32_SPLAT:
+                        case VectorInstructions.V128_LOAD64_SPLAT:
+                        case VectorInstructions.V128_STORE: {
+                            /* The memAlign hint is not currently used or taken into account. */
+                            int memAlignOffsetDelta = offsetDelta(offset, byteConstantOffset);
+                            byteConstantOffset += byteConstantDelta(offset);
+                            offset += memAlignOffsetDelta;
+
+                            // region Load LEB128 Unsigned32 -> memOffset
+                            int memOffset = unsignedIntConstant(offset, intConstantOffset);
+                            int memOffsetDelta = offsetDelta(offset, byteConstantOffset);
+                            intConstantOffset += intConstantDelta(offset);
+                            byteConstantOffset += byteConstantDelta(offset);
+                            offset += memOffsetDelta;
+                            // endregion
+
+                            stackPointer = executeVectorMemoryAccess(frame, stackPointer, vectorOpcode, memOffset);
+                            break;
+                        }
+                        case VectorInstructions.V128_CONST: {
+                            long low = BinaryStreamParser.peek8(codeEntry().data(), offset);
+                            long high = BinaryStreamParser.peek8(codeEntry().data(), offset + 8);
+                            offset += Vector128.BYTES;
+                            Vector128 value = new Vector128(low, high);
+                            pushVector128(frame, stackPointer, value);
+                            stackPointer++;
+                            trace("v128.const %s", value);
+                            break;
+                        }
+                        case VectorInstructions.I8X16_SHUFFLE: {
+                            stackPointer--;
+                            Vector128 y = popVector128(frame, stackPointer);
+                            stackPointer--;
+                            Vector128 x = popVector128(frame, stackPointer);
+                            Vector128 result = Vector128Ops.shuffle(x, y, codeEntry().data(), offset);
+                            offset += Vector128.BYTES;
+                            pushVector128(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("i8x16.shuffle = %s", result);
+                            break;
+                        }
+                        case VectorInstructions.I8X16_SPLAT:
+                        case VectorInstructions.I16X8_SPLAT:
+                        case VectorInstructions.I32X4_SPLAT:
+                        case VectorInstructions.I64X2_SPLAT:
+                        case VectorInstructions.F32X4_SPLAT:
+                        case VectorInstructions.F64X2_SPLAT: {
+                            stackPointer--;
+                            long x = pop(frame, stackPointer);
+                            Vector128 result = Vector128Ops.splat(vectorOpcode, x);
+                            pushVector128(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("splat(0x%016X) = %s [v128]", x, result);
+                            break;
+                        }
+                        case VectorInstructions.I8X16_EXTRACT_LANE_S:
+                        case VectorInstructions.I8X16_EXTRACT_LANE_U:
+                        case VectorInstructions.I16X8_EXTRACT_LANE_S:
+                        case VectorInstructions.I16X8_EXTRACT_LANE_U:
+                        case VectorInstructions.I32X4_EXTRACT_LANE:
+                        case VectorInstructions.I64X2_EXTRACT_LANE:
+                        case VectorInstructions.F32X4_EXTRACT_LANE:
+                        case VectorInstructions.F64X2_EXTRACT_LANE: {
+                            int lane = BinaryStreamParser.peek1(codeEntry().data(), offset);
+                            offset++;
+                            stackPointer--;
+                            Vector128 x = popVector128(frame, stackPointer);
+                            long result = Vector128Ops.extractLane(vectorOpcode, x, lane);
+                            push(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("extract_lane = 0x%016X", result);
+                            break;
+                        }
+                        case VectorInstructions.I8X16_REPLACE_LANE:
+                        case VectorInstructions.I16X8_REPLACE_LANE:
+                        case VectorInstructions.I32X4_REPLACE_LANE:
+                        case VectorInstructions.I64X2_REPLACE_LANE:
+                        case VectorInstructions.F32X4_REPLACE_LANE:
+                        case VectorInstructions.F64X2_REPLACE_LANE: {
+                            int lane = BinaryStreamParser.peek1(codeEntry().data(), offset);
+                            offset++;
+                            stackPointer--;
+                            long value = pop(frame, stackPointer);
+                            stackPointer--;
+                            Vector128 x = popVector128(frame, stackPointer);
+                            Vector128 result = Vector128Ops.replaceLane(vectorOpcode, x, lane, value);
+                            pushVector128(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("replace_lane = %s", result);
+                            break;
+                        }
+                        case VectorInstructions.V128_NOT:
+                        case VectorInstructions.I8X16_NEG:
+                        case VectorInstructions.I16X8_NEG:
+                        case VectorInstructions.I32X4_ABS:
+                        case VectorInstructions.I32X4_NEG:
+                        case VectorInstructions.I64X2_NEG:
+                        case VectorInstructions.F32X4_ABS:
+                        case VectorInstructions.F32X4_NEG:
+                        case VectorInstructions.F32X4_SQRT:
+                        case VectorInstructions.F64X2_ABS:
+                        case VectorInstructions.F64X2_NEG:
+                        case VectorInstructions.F64X2_SQRT:
+                        case VectorInstructions.I32X4_TRUNC_SAT_F32X4_S:
+                        case VectorInstructions.I32X4_TRUNC_SAT_F32X4_U:
+                        case VectorInstructions.F32X4_CONVERT_I32X4_S:
+                        case VectorInstructions.F32X4_CONVERT_I32X4_U: {
+                            stackPointer--;
+                            Vector128 x = popVector128(frame, stackPointer);
+                            Vector128 result = Vector128Ops.unary(vectorOpcode, x);
+                            pushVector128(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("vector unary op = %s", result);
+                            break;
+                        }
+                        case VectorInstructions.V128_AND:
+                        case VectorInstructions.V128_ANDNOT:
+                        case VectorInstructions.V128_OR:
+                        case VectorInstructions.V128_XOR:
+                        case VectorInstructions.I8X16_SWIZZLE:
+                        case VectorInstructions.I8X16_EQ:
+                        case VectorInstructions.I8X16_NE:
+                        case VectorInstructions.I8X16_ADD:
+                        case VectorInstructions.I8X16_SUB:
+                        case VectorInstructions.I16X8_EQ:
+                        case VectorInstructions.I16X8_NE:
+                        case VectorInstructions.I16X8_ADD:
+                        case VectorInstructions.I16X8_SUB:
+                        case VectorInstructions.I16X8_MUL:
+                        case VectorInstructions.I32X4_EQ:
+                        case VectorInstructions.I32X4_NE:
+                        case VectorInstructions.I32X4_LT_S:
+                        case VectorInstructions.I32X4_LT_U:
+                        case VectorInstructions.I32X4_GT_S:
+                        case VectorInstructions.I32X4_GT_U:
+                        case VectorInstructions.I32X4_LE_S:
+                        case VectorInstructions.I32X4_LE_U:
+                        case VectorInstructions.I32X4_GE_S:
+                        case VectorInstructions.I32X4_GE_U:
+                        case VectorInstructions.I32X4_ADD:
+                        case VectorInstructions.I32X4_SUB:
+                        case VectorInstructions.I32X4_MUL:
+                        case VectorInstructions.I32X4_MIN_S:
+                        case VectorInstructions.I32X4_MIN_U:
+                        case VectorInstructions.I32X4_MAX_S:
+                        case VectorInstructions.I32X4_MAX_U:
+                        case VectorInstructions.I64X2_ADD:
+                        case VectorInstructions.I64X2_SUB:
+                        case VectorInstructions.I64X2_MUL:
+                        case VectorInstructions.F32X4_EQ:
+                        case VectorInstructions.F32X4_NE:
+                        case VectorInstructions.F32X4_LT:
+                        case VectorInstructions.F32X4_GT:
+                        case VectorInstructions.F32X4_LE:
+                        case VectorInstructions.F32X4_GE:
+                        case VectorInstructions.F32X4_ADD:
+                        case VectorInstructions.F32X4_SUB:
+                        case VectorInstructions.F32X4_MUL:
+                        case VectorInstructions.F32X4_DIV:
+                        case VectorInstructions.F32X4_MIN:
+                        case VectorInstructions.F32X4_MAX:
+                        case VectorInstructions.F64X2_EQ:
+                        case VectorInstructions.F64X2_NE:
+                        case VectorInstructions.F64X2_LT:
+                        case VectorInstructions.F64X2_GT:
+                        case VectorInstructions.F64X2_LE:
+                        case VectorInstructions.F64X2_GE:
+                        case VectorInstructions.F64X2_ADD:
+                        case VectorInstructions.F64X2_SUB:
+                        case VectorInstructions.F64X2_MUL:
+                        case VectorInstructions.F64X2_DIV:
+                        case VectorInstructions.F64X2_MIN:
+                        case VectorInstructions.F64X2_MAX: {
+                            stackPointer--;
+                            Vector128 y = popVector128(frame, stackPointer);
+                            stackPointer--;
+                            Vector128 x = popVector128(frame, stackPointer);
+                            Vector128 result = Vector128Ops.binary(vectorOpcode, x, y);
+                            pushVector128(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("vector binary op = %s", result);
+                            break;
+                        }
+                        case VectorInstructions.V128_BITSELECT: {
+                            stackPointer--;
+                            Vector128 mask = popVector128(frame, stackPointer);
+                            stackPointer--;
+                            Vector128 y = popVector128(frame, stackPointer);
+                            stackPointer--;
+                            Vector128 x = popVector128(frame, stackPointer);
+                            Vector128 result = Vector128Ops.bitselect(x, y, mask);
+                            pushVector128(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("v128.bitselect = %s", result);
+                            break;
+                        }
+                        case VectorInstructions.I8X16_SHL:
+                        case VectorInstructions.I8X16_SHR_S:
+                        case VectorInstructions.I8X16_SHR_U:
+                        case VectorInstructions.I16X8_SHL:
+                        case VectorInstructions.I16X8_SHR_S:
+                        case VectorInstructions.I16X8_SHR_U:
+                        case VectorInstructions.I32X4_SHL:
+                        case VectorInstructions.I32X4_SHR_S:
+                        case VectorInstructions.I32X4_SHR_U:
+                        case VectorInstructions.I64X2_SHL:
+                        case VectorInstructions.I64X2_SHR_S:
+                        case VectorInstructions.I64X2_SHR_U: {
+                            stackPointer--;
+                            int amount = popInt(frame, stackPointer);
+                            stackPointer--;
+                            Vector128 x = popVector128(frame, stackPointer);
+                            Vector128 result = Vector128Ops.shift(vectorOpcode, x, amount);
+                            pushVector128(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("vector shift = %s", result);
+                            break;
+                        }
+                        case VectorInstructions.V128_ANY_TRUE:
+                        case VectorInstructions.I8X16_ALL_TRUE:
+                        case VectorInstructions.I16X8_ALL_TRUE:
+                        case VectorInstructions.I32X4_ALL_TRUE:
+                        case VectorInstructions.I32X4_BITMASK: {
+                            stackPointer--;
+                            Vector128 x = popVector128(frame, stackPointer);
+                            int result = Vector128Ops.test(vectorOpcode, x);
+                            pushInt(frame, stackPointer, result);
+                            stackPointer++;
+                            trace("vector test = %d", result);
+                            break;
+                        }
+                        default:
+                            Assert.fail(Assert.format("Unknown vector opcode: 0x%02X", vectorOpcode));
+                    }
+                    break;
+                }
                 default:
                     Assert.fail(Assert.format("Unknown opcode: 0x%02X", opcode));
             }
@@ -2383,6 +2682,63 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
         return TargetOffset.MINUS_ONE;
     }
 
+    private int executeVectorMemoryAccess(VirtualFrame frame, int initialStackPointer, int vectorOpcode, int memOffset) {
+        int stackPointer = initialStackPointer;
+        WasmMemory memory = module().symbolTable().memory();
+        try {
+            if (vectorOpcode == VectorInstructions.V128_STORE) {
+                stackPointer--;
+                Vector128 value = popVector128(frame, stackPointer);
+                stackPointer--;
+                int baseAddress = popInt(frame, stackPointer);
+                long address = effectiveMemoryAddress(baseAddress, memOffset);
+                memory.validateAddress(this, address, Vector128.BYTES);
+                memory.store_i64(this, address, value.low());
+                memory.store_i64(this, address + 8, value.high());
+                return stackPointer;
+            }
+            stackPointer--;
+            int baseAddress = popInt(frame, stackPointer);
+            long address = effectiveMemoryAddress(baseAddress, memOffset);
+            Vector128 value;
+            switch (vectorOpcode) {
+                case VectorInstructions.V128_LOAD:
+                    memory.validateAddress(this, address, Vector128.BYTES);
+                    value = new Vector128(memory.load_i64(this, address), memory.load_i64(this, address + 8));
+                    break;
+                case VectorInstructions.V128_LOAD8_SPLAT:
+                    value = Vector128Ops.splat(VectorInstructions.I8X16_SPLAT, memory.load_i32_8u(this, address));
+                    break;
+                case VectorInstructions.V128_LOAD16_SPLAT:
+                    value = Vector128Ops.splat(VectorInstructions.I16X8_SPLAT, memory.load_i32_16u(this, address));
+                    break;
+                case VectorInstructions.V128_LOAD32_SPLAT:
+                    value = Vector128Ops.splat(VectorInstructions.I32X4_SPLAT, memory.load_i32(this, address));
+                    break;
+                case VectorInstructions.V128_LOAD64_SPLAT:
+                    value = Vector128Ops.splat(VectorInstructions.I64X2_SPLAT, memory.load_i64(this, address));
+                    break;
+                default:
+                    throw new WasmTrap(this, "Unknown vector load opcode: " + vectorOpcode);
+            }
+            pushVector128(frame, stackPointer, value);
+            stackPointer++;
+            return stackPointer;
+        } catch (WasmMemoryException e) {
+            throw new WasmTrap(this, "memory address out-of-bounds");
+        }
+    }
+
+    /**
+     * Computes the effective address of a memory access. Both the dynamic base address and the
+     * static offset are unsigned 32-bit values, so the effective address is a non-negative 33-bit
+     * value. Because the compiler knows that the effective address is not negative, the bounds
+     * check of the memory access is reduced to a single comparison against the memory size.
+     */
+    private static long effectiveMemoryAddress(int baseAddress, int memOffset) {
+        return unsignedInt32ToLong(baseAddress) + unsignedInt32ToLong(memOffset);
+    }
+
     private boolean popCondition(VirtualFrame frame, int stackPointer) {
         int condition = popInt(frame, stackPointer);
         return condition != 0;
@@ -2415,6 +2771,9 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                 case ValueTypes.F64_TYPE:
                     args[i] = popAsDouble(frame, stackPointer);
                     break;
+                case ValueTypes.V128_TYPE:
+                    args[i] = popVector128(frame, stackPointer);
+                    break;
                 default: {
                     throw new WasmTrap(this, "Unknown type: " + type);
                 }
@@ -2433,8 +2792,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
         int continuationStackPointer = initialContinuationStackPointer;
         for (int i = 0; i != targetBlockReturnLength; i++) {
             stackPointer--;
-            long value = pop(frame, stackPointer);
-            push(frame, continuationStackPointer, value);
+            copyStackValue(frame, stackPointer, continuationStackPointer);
             continuationStackPointer++;
         }
     }
@@ -40,8 +40,10 @@
  */
 package org.graalvm.wasm.nodes;
 
+import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotTypeException;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import org.graalvm.wasm.Vector128;
 import org.graalvm.wasm.WasmCodeEntry;
 
 public interface WasmNodeInterface {
@@ -81,6 +83,14 @@ public interface WasmNodeInterface {
         }
     }
 
+    default Vector128 getVector128(VirtualFrame frame, int slot) {
+        try {
+            return (Vector128) frame.getObject(codeEntry().localSlot(slot));
+        } catch (FrameSlotTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     default void setLong(VirtualFrame frame, int slot, long value) {
         frame.setLong(codeEntry().localSlot(slot), value);
     }
@@ -97,6 +107,10 @@ public interface WasmNodeInterface {
         frame.setDouble(codeEntry().localSlot(slot), value);
     }
 
+    default void setVector128(VirtualFrame frame, int slot, Vector128 value) {
+        frame.setObject(codeEntry().localSlot(slot), value);
+    }
+
     /* STACK operations */
 
     default void push(VirtualFrame frame, int slot, long value) {
@@ -115,6 +129,14 @@ public interface WasmNodeInterface {
         push(frame, slot, Double.doubleToRawLongBits(value));
     }
 
+    /**
+     * Pushes a {@code v128} value. Unlike the other values, which are stored as raw bits in a long,
+     * {@code v128} values are stored as objects in the stack slot.
+     */
+    default void pushVector128(VirtualFrame frame, int slot, Vector128 value) {
+        frame.setObject(codeEntry().stackSlot(slot), value);
+    }
+
     default long pop(VirtualFrame frame, int slot) {
         try {
             return frame.getLong(codeEntry().stackSlot(slot));
@@ -135,4 +157,24 @@ public interface WasmNodeInterface {
         return Double.longBitsToDouble(pop(frame, slot));
     }
 
+    default Vector128 popVector128(VirtualFrame frame, int slot) {
+        try {
+            return (Vector128) frame.getObject(codeEntry().stackSlot(slot));
+        } catch (FrameSlotTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Copies a stack value of any type. The frame slot tags are known during partial evaluation,
+     * so the check for the {@code v128} representation folds away in compiled code.
+     */
+    default void copyStackValue(VirtualFrame frame, int from, int to) {
+        final FrameSlot source = codeEntry().stackSlot(from);
+        if (frame.isObject(source)) {
+            pushVector128(frame, to, popVector128(frame, from));
+        } else {
+            push(frame, to, pop(frame, from));
+        }
+    }
 }
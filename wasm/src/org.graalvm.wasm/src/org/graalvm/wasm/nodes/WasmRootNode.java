@@ -42,6 +42,8 @@ package org.graalvm.wasm.nodes;
 
 import static org.graalvm.wasm.WasmTracing.trace;
 
+import java.util.concurrent.locks.Lock;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.TruffleLanguage;
@@ -52,7 +54,9 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.RootNode;
+import org.graalvm.wasm.LazyFunctionBody;
 import org.graalvm.wasm.ValueTypes;
+import org.graalvm.wasm.Vector128;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmLanguage;
@@ -64,6 +68,11 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
     private final WasmCodeEntry codeEntry;
     @CompilationFinal private ContextReference<WasmContext> rawContextReference;
     @Child private WasmNode body;
+    /**
+     * Cleared after the body was materialized. The field is volatile, so that a thread that sees it
+     * cleared without taking the lock also sees the materialized body.
+     */
+    @CompilationFinal private volatile LazyFunctionBody lazyBody;
 
     public WasmRootNode(TruffleLanguage<?> language, WasmCodeEntry codeEntry) {
         super(language);
@@ -83,6 +92,10 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
         this.body = insert(body);
     }
 
+    public void setLazyBody(LazyFunctionBody lazyBody) {
+        this.lazyBody = lazyBody;
+    }
+
     @Override
     protected boolean isInstrumentable() {
         return false;
@@ -93,6 +106,23 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
         // This linking should be as late as possible, because a WebAssembly context should
         // be able to parse multiple modules before the code gets run.
         context.linker().tryLink();
+        if (lazyBody != null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            materializeBody(context);
+        }
+    }
+
+    private void materializeBody(WasmContext context) {
+        final Lock lock = getLock();
+        lock.lock();
+        try {
+            if (lazyBody != null) {
+                lazyBody.materialize(context, this);
+                lazyBody = null;
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -142,6 +172,9 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
                 long returnValue = pop(frame, 0);
                 return Double.longBitsToDouble(returnValue);
             }
+            case ValueTypes.V128_TYPE: {
+                return popVector128(frame, 0);
+            }
             default:
                 assert false;
                 return null;
@@ -181,6 +214,12 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
                     frame.setDouble(slot, argument);
                     break;
                 }
+                case Object: {
+                    Vector128 argument = (Vector128) args[i];
+                    trace("argument: %s [v128]", argument);
+                    frame.setObject(slot, argument);
+                    break;
+                }
             }
         }
     }
@@ -203,6 +242,9 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
                 case ValueTypes.F64_TYPE:
                     body.setDouble(frame, i, 0);
                     break;
+                case ValueTypes.V128_TYPE:
+                    body.setVector128(frame, i, Vector128.ZERO);
+                    break;
             }
         }
     }
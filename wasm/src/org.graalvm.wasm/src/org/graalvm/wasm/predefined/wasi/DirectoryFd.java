@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.predefined.wasi;
+
+import java.io.IOException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+
+/**
+ * A descriptor for a directory, relative to which paths can be opened.
+ *
+ * Every directory descriptor is confined to the preopened directory that it was derived from: paths
+ * that would resolve outside of that directory cannot be opened.
+ */
+final class DirectoryFd extends Fd {
+    private final TruffleFile root;
+    private final TruffleFile directory;
+    private final String preopenedName;
+
+    DirectoryFd(TruffleFile root, TruffleFile directory, String preopenedName) {
+        this.root = root;
+        this.directory = directory;
+        this.preopenedName = preopenedName;
+    }
+
+    @Override
+    byte filetype() {
+        return FILETYPE_DIRECTORY;
+    }
+
+    @Override
+    String preopenedName() {
+        return preopenedName;
+    }
+
+    TruffleFile root() {
+        return root;
+    }
+
+    /**
+     * Resolves a path relative to this directory, or returns {@code null} if the path escapes the
+     * preopened directory.
+     *
+     * The check is done on the canonical path, so that symbolic links cannot escape the preopened
+     * directory. A file that does not exist yet is checked through its canonical parent.
+     */
+    @TruffleBoundary
+    TruffleFile resolve(String path) throws IOException {
+        if (path.startsWith("/")) {
+            return null;
+        }
+        final TruffleFile file = directory.resolve(path).normalize();
+        final TruffleFile canonicalFile;
+        if (file.exists()) {
+            canonicalFile = file.getCanonicalFile();
+        } else if (file.isSymbolicLink()) {
+            // A dangling link would be followed when the file is created.
+            return null;
+        } else {
+            final TruffleFile parent = file.getParent();
+            if (parent == null) {
+                return null;
+            }
+            canonicalFile = parent.getCanonicalFile().resolve(file.getName());
+        }
+        if (!canonicalFile.startsWith(root.getCanonicalFile())) {
+            return null;
+        }
+        return canonicalFile;
+    }
+
+    @Override
+    void close() {
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.predefined.wasi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.nodes.Node;
+import org.graalvm.wasm.memory.WasmMemory;
+
+/**
+ * A file descriptor of the WASI interface.
+ *
+ * Operations that the descriptor does not support return an error code instead of throwing.
+ */
+abstract class Fd {
+    static final byte FILETYPE_CHARACTER_DEVICE = 2;
+    static final byte FILETYPE_DIRECTORY = 3;
+    static final byte FILETYPE_REGULAR_FILE = 4;
+
+    static final short FDFLAGS_APPEND = 1;
+
+    static final int WHENCE_SET = 0;
+    static final int WHENCE_CUR = 1;
+    static final int WHENCE_END = 2;
+
+    private ByteBuffer transferBuffer;
+
+    abstract byte filetype();
+
+    short fdflags() {
+        return 0;
+    }
+
+    Errno read(Node node, WasmMemory memory, int iovecAddress, int iovecCount, int sizeAddress) throws IOException {
+        return Errno.Badf;
+    }
+
+    Errno write(Node node, WasmMemory memory, int iovecAddress, int iovecCount, int sizeAddress) throws IOException {
+        return Errno.Badf;
+    }
+
+    Errno seek(Node node, WasmMemory memory, long offset, int whence, int newOffsetAddress) throws IOException {
+        return Errno.Spipe;
+    }
+
+    /**
+     * Returns the buffer through which {@link MemoryAccess} copies data between the linear memory
+     * and the channel of this descriptor, cleared and limited to {@code length} bytes, or to its
+     * capacity if that is smaller. The buffer is reused by all transfers of this descriptor, and
+     * grows up to {@link MemoryAccess#MAX_CHUNK_SIZE} bytes.
+     */
+    final ByteBuffer transferBuffer(int length) {
+        final int chunkLength = Math.min(length, MemoryAccess.MAX_CHUNK_SIZE);
+        if (transferBuffer == null || transferBuffer.capacity() < chunkLength) {
+            final int capacity = transferBuffer == null ? chunkLength : Math.min(Math.max(chunkLength, 2 * transferBuffer.capacity()), MemoryAccess.MAX_CHUNK_SIZE);
+            transferBuffer = ByteBuffer.allocate(capacity);
+        }
+        transferBuffer.clear();
+        transferBuffer.limit(chunkLength);
+        return transferBuffer;
+    }
+
+    /**
+     * The name under which this descriptor was preopened, or {@code null} if it was not preopened.
+     */
+    String preopenedName() {
+        return null;
+    }
+
+    abstract void close() throws IOException;
+}
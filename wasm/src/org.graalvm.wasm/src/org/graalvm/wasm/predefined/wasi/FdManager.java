@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.predefined.wasi;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import org.graalvm.wasm.exception.WasmValidationException;
+
+/**
+ * The table of the WASI file descriptors of a context.
+ *
+ * The descriptors 0, 1 and 2 are the standard streams of the context, and the directories mapped
+ * with the {@code wasm.WasiMapDirs} option are preopened as the subsequent descriptors.
+ */
+public final class FdManager {
+    private final Map<Integer, Fd> handles;
+    private int nextFd;
+
+    public FdManager(Env env, String mapDirs) {
+        this.handles = new HashMap<>();
+        put(0, new StreamFd(Channels.newChannel(env.in()), null));
+        put(1, new StreamFd(null, Channels.newChannel(env.out())));
+        put(2, new StreamFd(null, Channels.newChannel(env.err())));
+        this.nextFd = 3;
+        if (!mapDirs.equals("")) {
+            for (String mapping : mapDirs.split(",")) {
+                final String[] parts = mapping.split("::", 2);
+                if (parts.length != 2) {
+                    throw new WasmValidationException("Directory mapping '" + mapping + "' is not valid.");
+                }
+                final TruffleFile root = env.getPublicTruffleFile(parts[1]).getAbsoluteFile().normalize();
+                add(new DirectoryFd(root, root, parts[0]));
+            }
+        }
+    }
+
+    private void put(int fd, Fd handle) {
+        handles.put(fd, handle);
+    }
+
+    @TruffleBoundary
+    Fd get(int fd) {
+        return handles.get(fd);
+    }
+
+    @TruffleBoundary
+    int add(Fd handle) {
+        final int fd = nextFd++;
+        put(fd, handle);
+        return fd;
+    }
+
+    @TruffleBoundary
+    Fd remove(int fd) {
+        return handles.remove(fd);
+    }
+
+    @TruffleBoundary
+    public void close() {
+        for (Fd handle : handles.values()) {
+            try {
+                handle.close();
+            } catch (IOException e) {
+                // The context is disposed, so the error cannot be reported to the guest.
+            }
+        }
+        handles.clear();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.predefined.wasi;
+
+import static org.graalvm.wasm.WasmUtil.unsignedInt32ToLong;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.Node;
+import org.graalvm.wasm.memory.WasmMemory;
+
+/**
+ * A descriptor for a regular file.
+ */
+final class FileFd extends Fd {
+    private final SeekableByteChannel channel;
+    private final boolean readable;
+    private final boolean writable;
+    private final boolean append;
+
+    FileFd(SeekableByteChannel channel, boolean readable, boolean writable, boolean append) {
+        this.channel = channel;
+        this.readable = readable;
+        this.writable = writable;
+        this.append = append;
+    }
+
+    @Override
+    byte filetype() {
+        return FILETYPE_REGULAR_FILE;
+    }
+
+    @Override
+    short fdflags() {
+        return append ? FDFLAGS_APPEND : 0;
+    }
+
+    @Override
+    Errno read(Node node, WasmMemory memory, int iovecAddress, int iovecCount, int sizeAddress) throws IOException {
+        if (!readable) {
+            return Errno.Badf;
+        }
+        return MemoryAccess.readv(node, memory, this, channel, iovecAddress, iovecCount, sizeAddress);
+    }
+
+    @Override
+    Errno write(Node node, WasmMemory memory, int iovecAddress, int iovecCount, int sizeAddress) throws IOException {
+        if (!writable) {
+            return Errno.Badf;
+        }
+        return MemoryAccess.writev(node, memory, this, channel, iovecAddress, iovecCount, sizeAddress);
+    }
+
+    @Override
+    @TruffleBoundary
+    Errno seek(Node node, WasmMemory memory, long offset, int whence, int newOffsetAddress) throws IOException {
+        final long base;
+        switch (whence) {
+            case WHENCE_SET:
+                base = 0;
+                break;
+            case WHENCE_CUR:
+                base = channel.position();
+                break;
+            case WHENCE_END:
+                base = channel.size();
+                break;
+            default:
+                return Errno.Inval;
+        }
+        final long newOffset = base + offset;
+        if (newOffset < 0) {
+            return Errno.Inval;
+        }
+        channel.position(newOffset);
+        memory.store_i64(node, unsignedInt32ToLong(newOffsetAddress), newOffset);
+        return Errno.Success;
+    }
+
+    @Override
+    @TruffleBoundary
+    void close() throws IOException {
+        channel.close();
+    }
+}
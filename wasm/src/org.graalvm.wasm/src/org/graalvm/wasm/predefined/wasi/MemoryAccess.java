@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.predefined.wasi;
+
+import static org.graalvm.wasm.WasmUtil.unsignedInt32ToLong;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.Node;
+import org.graalvm.wasm.memory.WasmMemory;
+
+/**
+ * Transfers data between the linear memory and the host.
+ *
+ * The data is always copied through the {@link Fd#transferBuffer(int) transfer buffer} of the
+ * descriptor, which holds at most {@link #MAX_CHUNK_SIZE} bytes, since the linear memory cannot be
+ * exposed to channels as a direct buffer with supported APIs. Larger buffers are transferred in
+ * several chunks.
+ */
+final class MemoryAccess {
+    private static final int IOVEC_SIZE = 8;
+    static final int MAX_CHUNK_SIZE = 1 << 20;
+
+    private MemoryAccess() {
+    }
+
+    /**
+     * Reads into the buffers described by the {@code iovecCount} {@code iovec} structures at
+     * {@code iovecAddress}, and stores the number of bytes read at {@code sizeAddress}.
+     *
+     * The buffers are filled until the channel returns fewer bytes than requested, so that a read
+     * from a stream does not block once some data was read.
+     */
+    @TruffleBoundary
+    static Errno readv(Node node, WasmMemory memory, Fd fd, ReadableByteChannel channel, int iovecAddress, int iovecCount, int sizeAddress) throws IOException {
+        final long iovecs = unsignedInt32ToLong(iovecAddress);
+        final long count = unsignedInt32ToLong(iovecCount);
+        if (!validateIovecs(node, memory, iovecs, count)) {
+            return Errno.Inval;
+        }
+        int totalSize = 0;
+        iovecLoop: for (long i = 0; i < count; i++) {
+            final long bufferAddress = unsignedInt32ToLong(memory.load_i32(node, iovecs + i * IOVEC_SIZE));
+            final int bufferLength = memory.load_i32(node, iovecs + i * IOVEC_SIZE + 4);
+            int offset = 0;
+            while (offset < bufferLength) {
+                final ByteBuffer buffer = fd.transferBuffer(bufferLength - offset);
+                final int size = channel.read(buffer);
+                if (size <= 0) {
+                    break iovecLoop;
+                }
+                memory.copyFromArray(node, buffer.array(), 0, bufferAddress + offset, size);
+                totalSize += size;
+                offset += size;
+                if (buffer.hasRemaining()) {
+                    // Short read, do not block on the rest of the buffers.
+                    break iovecLoop;
+                }
+            }
+        }
+        memory.store_i32(node, unsignedInt32ToLong(sizeAddress), totalSize);
+        return Errno.Success;
+    }
+
+    /**
+     * Writes the buffers described by the {@code iovecCount} {@code ciovec} structures at
+     * {@code iovecAddress}, and stores the number of bytes written at {@code sizeAddress}.
+     */
+    @TruffleBoundary
+    static Errno writev(Node node, WasmMemory memory, Fd fd, WritableByteChannel channel, int iovecAddress, int iovecCount, int sizeAddress) throws IOException {
+        final long iovecs = unsignedInt32ToLong(iovecAddress);
+        final long count = unsignedInt32ToLong(iovecCount);
+        if (!validateIovecs(node, memory, iovecs, count)) {
+            return Errno.Inval;
+        }
+        int totalSize = 0;
+        for (long i = 0; i < count; i++) {
+            final long bufferAddress = unsignedInt32ToLong(memory.load_i32(node, iovecs + i * IOVEC_SIZE));
+            final int bufferLength = memory.load_i32(node, iovecs + i * IOVEC_SIZE + 4);
+            int offset = 0;
+            while (offset < bufferLength) {
+                final ByteBuffer buffer = fd.transferBuffer(bufferLength - offset);
+                final int chunkLength = buffer.remaining();
+                memory.copyToArray(node, bufferAddress + offset, buffer.array(), 0, chunkLength);
+                while (buffer.hasRemaining()) {
+                    totalSize += channel.write(buffer);
+                }
+                offset += chunkLength;
+            }
+        }
+        memory.store_i32(node, unsignedInt32ToLong(sizeAddress), totalSize);
+        return Errno.Success;
+    }
+
+    /**
+     * Checks that the buffers described by the {@code iovec} structures are in bounds, and returns
+     * {@code false} if their total length does not fit into the 32-bit size result.
+     */
+    private static boolean validateIovecs(Node node, WasmMemory memory, long iovecs, long count) {
+        memory.validateAddress(node, iovecs, count * IOVEC_SIZE);
+        long totalLength = 0;
+        for (long i = 0; i < count; i++) {
+            final long bufferAddress = unsignedInt32ToLong(memory.load_i32(node, iovecs + i * IOVEC_SIZE));
+            final long bufferLength = unsignedInt32ToLong(memory.load_i32(node, iovecs + i * IOVEC_SIZE + 4));
+            memory.validateAddress(node, bufferAddress, bufferLength);
+            totalLength += bufferLength;
+            if (totalLength > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads {@code length} bytes starting at {@code address}, where {@code length} is an unsigned
+     * 32-bit value. Returns {@code null} if the length does not fit into an array.
+     */
+    @TruffleBoundary
+    static byte[] readBytes(Node node, WasmMemory memory, long address, int length) {
+        if (length < 0) {
+            memory.validateAddress(node, address, unsignedInt32ToLong(length));
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        memory.copyToArray(node, address, bytes, 0, length);
+        return bytes;
+    }
+
+    @TruffleBoundary
+    static void writeBytes(Node node, WasmMemory memory, long address, byte[] bytes, int length) {
+        memory.copyFromArray(node, bytes, 0, address, length);
+    }
+}
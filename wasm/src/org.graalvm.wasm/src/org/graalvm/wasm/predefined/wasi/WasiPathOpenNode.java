@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.predefined.wasi;
+
+import static org.graalvm.wasm.WasmUtil.unsignedInt32ToLong;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import org.graalvm.wasm.WasmContext;
+import org.graalvm.wasm.WasmLanguage;
+import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.memory.WasmMemory;
+import org.graalvm.wasm.predefined.WasmBuiltinRootNode;
+
+public class WasiPathOpenNode extends WasmBuiltinRootNode {
+    private static final int OFLAGS_CREAT = 1;
+    private static final int OFLAGS_DIRECTORY = 1 << 1;
+    private static final int OFLAGS_EXCL = 1 << 2;
+    private static final int OFLAGS_TRUNC = 1 << 3;
+
+    private static final long RIGHTS_FD_READ = 1L << 1;
+    private static final long RIGHTS_FD_WRITE = 1L << 6;
+
+    WasiPathOpenNode(WasmLanguage language, WasmModule module) {
+        super(language, module);
+    }
+
+    @Override
+    public Object executeWithContext(VirtualFrame frame, WasmContext context) {
+        final Object[] args = frame.getArguments();
+        // The lookup flags (args[1]) and the inherited rights (args[6]) are ignored.
+        return pathOpen(context, (int) args[0], (int) args[2], (int) args[3], (int) args[4], (long) args[5], (int) args[7], (int) args[8]);
+    }
+
+    @TruffleBoundary
+    private int pathOpen(WasmContext context, int fd, int pathAddress, int pathLength, int oflags, long rights, int fdflags, int fdAddress) {
+        final Fd handle = context.fdManager().get(fd);
+        if (handle == null) {
+            return Errno.Badf.code();
+        }
+        if (!(handle instanceof DirectoryFd)) {
+            return Errno.Notdir.code();
+        }
+        final DirectoryFd directory = (DirectoryFd) handle;
+        final WasmMemory memory = module.symbolTable().memory();
+        final byte[] pathBytes = MemoryAccess.readBytes(this, memory, unsignedInt32ToLong(pathAddress), pathLength);
+        if (pathBytes == null) {
+            return Errno.Inval.code();
+        }
+        final String path = new String(pathBytes, StandardCharsets.UTF_8);
+        final TruffleFile file;
+        try {
+            file = directory.resolve(path);
+        } catch (NoSuchFileException e) {
+            return Errno.Noent.code();
+        } catch (SecurityException e) {
+            return Errno.Acces.code();
+        } catch (IOException e) {
+            return Errno.Io.code();
+        }
+        if (file == null) {
+            return Errno.Notcapable.code();
+        }
+
+        final boolean append = (fdflags & Fd.FDFLAGS_APPEND) != 0;
+        final boolean writable = append || (rights & RIGHTS_FD_WRITE) != 0 || (oflags & (OFLAGS_CREAT | OFLAGS_TRUNC)) != 0;
+        // Appending channels cannot be read.
+        final boolean readable = !append && ((rights & RIGHTS_FD_READ) != 0 || !writable);
+        final Fd result;
+        try {
+            if (file.isDirectory()) {
+                if (writable) {
+                    return Errno.Isdir.code();
+                }
+                result = new DirectoryFd(directory.root(), file, null);
+            } else if ((oflags & OFLAGS_DIRECTORY) != 0) {
+                return file.exists() ? Errno.Notdir.code() : Errno.Noent.code();
+            } else {
+                final Set<OpenOption> options = new HashSet<>();
+                if (readable) {
+                    options.add(StandardOpenOption.READ);
+                }
+                if (writable) {
+                    options.add(StandardOpenOption.WRITE);
+                }
+                if (append) {
+                    options.add(StandardOpenOption.APPEND);
+                }
+                if ((oflags & OFLAGS_CREAT) != 0) {
+                    options.add((oflags & OFLAGS_EXCL) != 0 ? StandardOpenOption.CREATE_NEW : StandardOpenOption.CREATE);
+                }
+                if ((oflags & OFLAGS_TRUNC) != 0) {
+                    options.add(StandardOpenOption.TRUNCATE_EXISTING);
+                }
+                final SeekableByteChannel channel = file.newByteChannel(options);
+                result = new FileFd(channel, readable, writable, append);
+            }
+        } catch (NoSuchFileException e) {
+            return Errno.Noent.code();
+        } catch (FileAlreadyExistsException e) {
+            return Errno.Exist.code();
+        } catch (AccessDeniedException | SecurityException e) {
+            return Errno.Acces.code();
+        } catch (IOException e) {
+            return Errno.Io.code();
+        }
+        memory.store_i32(this, unsignedInt32ToLong(fdAddress), context.fdManager().add(result));
+        return Errno.Success.code();
+    }
+
+    @Override
+    public String builtinNodeName() {
+        return "__wasi_path_open";
+    }
+}